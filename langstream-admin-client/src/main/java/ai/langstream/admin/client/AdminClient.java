@@ -338,6 +338,32 @@ public class AdminClient implements AutoCloseable {
             return http(newGet(uri), responseBodyHandler);
         }
 
+        @Override
+        @SneakyThrows
+        public <T> HttpResponse<T> download(
+                String application,
+                String codeArchiveId,
+                long offset,
+                HttpResponse.BodyHandler<T> responseBodyHandler) {
+            if (offset <= 0) {
+                return download(application, codeArchiveId, responseBodyHandler);
+            }
+            final String uri = tenantAppPath("/" + application + "/code/" + codeArchiveId);
+            final HttpRequest request =
+                    withAuth(
+                                    HttpRequest.newBuilder()
+                                            .uri(
+                                                    URI.create(
+                                                            String.format(
+                                                                    "%s/api%s",
+                                                                    getBaseWebServiceUrl(), uri)))
+                                            .version(HttpClient.Version.HTTP_1_1)
+                                            .header("Range", "bytes=" + offset + "-")
+                                            .GET())
+                            .build();
+            return http(request, responseBodyHandler);
+        }
+
         @Override
         @SneakyThrows
         public String getCodeInfo(String application, String codeArchiveId) {
@@ -47,6 +47,17 @@ public interface Applications {
             String codeStorageId,
             HttpResponse.BodyHandler<T> responseBodyHandler);
 
+    /**
+     * Download a code archive starting from the given byte, in order to resume a download. The
+     * response status is 206 if the server returned only the requested range, otherwise it is 200
+     * and the response contains the whole archive.
+     */
+    <T> HttpResponse<T> download(
+            String application,
+            String codeStorageId,
+            long offset,
+            HttpResponse.BodyHandler<T> responseBodyHandler);
+
     String getCodeInfo(String application, String codeArchiveId);
 
     HttpResponse<InputStream> logs(String application, List<String> filter, String format);
@@ -15,22 +15,25 @@
  */
 package ai.langstream.agents.azureblobstorage;
 
+import ai.langstream.ai.agents.commons.storage.ObjectPrefetcher;
 import ai.langstream.api.runner.code.AbstractAgentCode;
 import ai.langstream.api.runner.code.AgentSource;
 import ai.langstream.api.runner.code.Header;
 import ai.langstream.api.runner.code.Record;
 import ai.langstream.api.util.ConfigurationUtils;
-import com.azure.core.http.rest.PagedIterable;
+import com.azure.core.http.rest.PagedResponse;
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.BlobContainerClientBuilder;
 import com.azure.storage.blob.models.BlobItem;
+import com.azure.storage.blob.models.ListBlobsOptions;
 import com.azure.storage.common.StorageSharedKeyCredential;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import lombok.AllArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
@@ -38,11 +41,16 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class AzureBlobStorageSource extends AbstractAgentCode implements AgentSource {
     private BlobContainerClient client;
-    private final Set<String> blobsToCommit = ConcurrentHashMap.newKeySet();
+    private ObjectPrefetcher prefetcher;
     private int idleTime;
+    private String prefix;
+    private int maxRecordsPerRead;
+
+    static final int LIST_PAGE_SIZE = 1000;
 
     public static final String ALL_FILES = "*";
     public static final String DEFAULT_EXTENSIONS_FILTER = "pdf,docx,html,htm,md,txt";
+    public static final long DEFAULT_MAX_IN_MEMORY_SIZE = 10 * 1024 * 1024;
     private Set<String> extensions = Set.of();
 
     static BlobContainerClient createContainerClient(Map<String, Object> configuration) {
@@ -113,54 +121,83 @@ public class AzureBlobStorageSource extends AbstractAgentCode implements AgentSo
                                 .toString()
                                 .split(","));
 
+        prefix = ConfigurationUtils.getString("prefix", "", configuration);
+        maxRecordsPerRead = ConfigurationUtils.getInt("max-records-per-read", 1, configuration);
+
         log.info("Getting files with extensions {} (use '*' to no filter)", extensions);
+
+        prefetcher =
+                new ObjectPrefetcher(
+                        new ObjectPrefetcher.ObjectStorage() {
+                            @Override
+                            public ObjectPrefetcher.Page list(String continuation) {
+                                return listBlobs(continuation);
+                            }
+
+                            @Override
+                            public InputStream open(String name) {
+                                return client.getBlobClient(name).openInputStream();
+                            }
+                        },
+                        ConfigurationUtils.getInt("prefetch-objects", 10, configuration),
+                        ConfigurationUtils.getInt("prefetch-threads", 4, configuration),
+                        ConfigurationUtils.getLong(
+                                "max-in-memory-object-size",
+                                DEFAULT_MAX_IN_MEMORY_SIZE,
+                                configuration));
     }
 
-    @Override
-    public List<Record> read() throws Exception {
-        List<Record> records = new ArrayList<>();
-        final PagedIterable<BlobItem> blobs;
-        try {
-            blobs = client.listBlobs();
-        } catch (Exception e) {
-            log.error("Error listing blobs on container {}", client.getBlobContainerName(), e);
-            throw e;
+    private ObjectPrefetcher.Page listBlobs(String continuationToken) {
+        ListBlobsOptions options = new ListBlobsOptions().setMaxResultsPerPage(LIST_PAGE_SIZE);
+        if (!prefix.isEmpty()) {
+            options.setPrefix(prefix);
         }
-        boolean somethingFound = false;
-        for (BlobItem blob : blobs) {
+        Iterator<PagedResponse<BlobItem>> pages =
+                client.listBlobs(options, null)
+                        .iterableByPage(continuationToken, LIST_PAGE_SIZE)
+                        .iterator();
+        if (!pages.hasNext()) {
+            return new ObjectPrefetcher.Page(List.of(), null);
+        }
+        PagedResponse<BlobItem> page = pages.next();
+        List<ObjectPrefetcher.ObjectInfo> objects = new ArrayList<>();
+        for (BlobItem blob : page.getValue()) {
             final String name = blob.getName();
-            if (blob.isDeleted()) {
+            if (Boolean.TRUE.equals(blob.isDeleted())) {
                 log.debug("Skipping blob {}. deleted status", name);
                 continue;
             }
-            boolean extensionAllowed = isExtensionAllowed(name, extensions);
-            if (!extensionAllowed) {
+            if (!isExtensionAllowed(name, extensions)) {
                 log.debug("Skipping blob with bad extension {}", name);
                 continue;
             }
-            if (!blobsToCommit.contains(name)) {
-                log.info("Found new blob {}", name);
-                try {
-                    byte[] read = client.getBlobClient(name).downloadContent().toBytes();
-                    ;
-                    records.add(new BlobSourceRecord(read, name));
-                    somethingFound = true;
-                    blobsToCommit.add(name);
-                } catch (Exception e) {
-                    log.error("Error reading object {}", name, e);
-                    throw e;
-                }
-                break;
-            } else {
-                log.info("Skipping already processed object {}", name);
-            }
+            Long size =
+                    blob.getProperties() != null ? blob.getProperties().getContentLength() : null;
+            objects.add(new ObjectPrefetcher.ObjectInfo(name, size != null ? size : -1));
         }
-        if (!somethingFound) {
+        return new ObjectPrefetcher.Page(objects, page.getContinuationToken());
+    }
+
+    @Override
+    public List<Record> read() throws Exception {
+        List<ObjectPrefetcher.PrefetchedObject> objects;
+        try {
+            objects = prefetcher.next(maxRecordsPerRead);
+        } catch (Exception e) {
+            log.error("Error reading blobs from container {}", client.getBlobContainerName(), e);
+            throw e;
+        }
+        if (objects.isEmpty()) {
             log.info("Nothing found, sleeping for {} seconds", idleTime);
             Thread.sleep(idleTime * 1000L);
-        } else {
-            processed(0, 1);
+            return List.of();
+        }
+        List<Record> records = new ArrayList<>(objects.size());
+        for (ObjectPrefetcher.PrefetchedObject object : objects) {
+            log.info("Found new blob {}", object.name());
+            records.add(new BlobSourceRecord(object));
         }
+        processed(0, records.size());
         return records;
     }
 
@@ -189,19 +226,30 @@ public class AzureBlobStorageSource extends AbstractAgentCode implements AgentSo
             BlobSourceRecord blobRecord = (BlobSourceRecord) record;
             String name = blobRecord.name;
             log.info("Removing blob {}", name);
-            client.getBlobClient(name).deleteIfExists();
-            blobsToCommit.remove(name);
+            try {
+                client.getBlobClient(name).deleteIfExists();
+            } finally {
+                prefetcher.release(name);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (prefetcher != null) {
+            prefetcher.close();
         }
     }
 
     private static class BlobSourceRecord implements Record {
-        private final byte[] read;
+        private final ObjectPrefetcher.PrefetchedObject object;
         private final String name;
         private final long timestamp = System.currentTimeMillis();
+        private byte[] value;
 
-        public BlobSourceRecord(byte[] read, String name) {
-            this.read = read;
-            this.name = name;
+        public BlobSourceRecord(ObjectPrefetcher.PrefetchedObject object) {
+            this.object = object;
+            this.name = object.name();
         }
 
         /**
@@ -216,8 +264,13 @@ public class AzureBlobStorageSource extends AbstractAgentCode implements AgentSo
         }
 
         @Override
-        public Object value() {
-            return read;
+        public synchronized Object value() {
+            // objects downloaded to a temporary file are read only once, the agents expect a
+            // byte[] so the whole content stays in memory until the record is committed
+            if (value == null) {
+                value = object.read();
+            }
+            return value;
         }
 
         @Override
@@ -20,14 +20,31 @@ import ai.langstream.api.runner.code.Record;
 import ai.langstream.api.util.ConfigurationUtils;
 import io.grpc.ManagedChannel;
 import io.grpc.stub.StreamObserver;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Sink that sends the records to a gRPC agent service.
+ *
+ * <p>The records are sent in batches of up to {@code grpc-batch-size} records (default {@value
+ * #DEFAULT_BATCH_SIZE}): the records written while a batch is being sent are queued and sent
+ * together in the next {@link SinkRequest}, so there is no added latency when the sink is idle. A
+ * batch size of 1 sends every record in its own request.
+ */
 @Slf4j
 public class GrpcAgentSink extends AbstractGrpcAgent implements AgentSink {
+    static final int DEFAULT_BATCH_SIZE = 100;
+
     private volatile StreamObserver<SinkRequest> request;
     private final StreamObserver<SinkResponse> responseObserver;
 
@@ -35,6 +52,27 @@ public class GrpcAgentSink extends AbstractGrpcAgent implements AgentSink {
     protected final AtomicLong recordId = new AtomicLong(0);
     private final Map<Long, CompletableFuture<?>> writeHandles = new ConcurrentHashMap<>();
 
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private final Queue<PendingWrite> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ExecutorService flushExecutor =
+            Executors.newSingleThreadExecutor(
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "grpc-sink-flush");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
+    // serializes the requests sent on the stream, schemas must be sent before the records using
+    // them
+    private final Object sendLock = new Object();
+
+    private record PendingWrite(
+            long recordId,
+            ai.langstream.agents.grpc.Record grpcRecord,
+            Record record,
+            CompletableFuture<?> handle) {}
+
     public GrpcAgentSink() {
         super();
         this.responseObserver = getResponseObserver();
@@ -45,9 +83,19 @@ public class GrpcAgentSink extends AbstractGrpcAgent implements AgentSink {
         this.responseObserver = getResponseObserver();
     }
 
+    @Override
+    public void init(Map<String, Object> configuration) throws Exception {
+        batchSize = ConfigurationUtils.getInt("grpc-batch-size", DEFAULT_BATCH_SIZE, configuration);
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("grpc-batch-size must be greater than 0");
+        }
+    }
+
     @Override
     public void onNewSchemaToSend(Schema schema) {
-        request.onNext(SinkRequest.newBuilder().setSchema(schema).build());
+        synchronized (sendLock) {
+            request.onNext(SinkRequest.newBuilder().setSchema(schema).build());
+        }
     }
 
     @Override
@@ -61,44 +109,102 @@ public class GrpcAgentSink extends AbstractGrpcAgent implements AgentSink {
     @Override
     public CompletableFuture<?> write(Record record) {
         CompletableFuture<?> handle = new CompletableFuture<>();
-        Long rId = recordId.incrementAndGet();
+        long rId = recordId.incrementAndGet();
         try {
-            SinkRequest.Builder requestBuilder = SinkRequest.newBuilder();
-            requestBuilder.setRecord(toGrpc(record).setRecordId(rId));
+            ai.langstream.agents.grpc.Record grpcRecord = toGrpc(record).setRecordId(rId).build();
             writeHandles.put(rId, handle);
+            pendingWrites.add(new PendingWrite(rId, grpcRecord, record, handle));
+        } catch (Throwable error) {
+            writeHandles.remove(rId);
+            handle.completeExceptionally(error);
+            return handle;
+        }
+        if (batchSize == 1) {
+            flush();
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.execute(
+                    () -> {
+                        flushScheduled.set(false);
+                        flush();
+                    });
+        }
+        return handle;
+    }
+
+    private void flush() {
+        List<PendingWrite> batch = new ArrayList<>();
+        while (true) {
+            batch.clear();
+            PendingWrite pendingWrite;
+            while (batch.size() < batchSize && (pendingWrite = pendingWrites.poll()) != null) {
+                batch.add(pendingWrite);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            SinkRequest.Builder requestBuilder = SinkRequest.newBuilder();
+            if (batch.size() == 1) {
+                // a single record is sent in the "record" field, understood by any server
+                requestBuilder.setRecord(batch.get(0).grpcRecord());
+            } else {
+                for (PendingWrite write : batch) {
+                    requestBuilder.addRecords(write.grpcRecord());
+                }
+            }
             try {
-                request.onNext(requestBuilder.build());
+                synchronized (sendLock) {
+                    request.onNext(requestBuilder.build());
+                }
             } catch (IllegalStateException stopped) {
-                if (restarting.get()) {
-                    if (ConfigurationUtils.isDevelopmentMode()) {
+                if (restarting.get() && ConfigurationUtils.isDevelopmentMode()) {
+                    for (PendingWrite write : batch) {
                         log.info(
                                 "Ignoring error during restart in dev mode {}, "
                                         + "ignoring record {}",
                                 stopped + "",
-                                record);
-                        writeHandles.remove(rId);
-                        handle.complete(null);
-                    } else {
-                        throw stopped;
+                                write.record());
+                        writeHandles.remove(write.recordId());
+                        write.handle().complete(null);
                     }
+                } else {
+                    failBatch(batch, stopped);
                 }
+            } catch (Throwable error) {
+                failBatch(batch, error);
             }
-        } catch (Throwable error) {
-            writeHandles.remove(rId);
-            handle.completeExceptionally(error);
         }
-        return handle;
+    }
+
+    private void failBatch(List<PendingWrite> batch, Throwable error) {
+        for (PendingWrite write : batch) {
+            writeHandles.remove(write.recordId());
+            write.handle().completeExceptionally(error);
+        }
+    }
+
+    private void completeWrite(long rId, boolean hasError, String error) {
+        CompletableFuture<?> handle = writeHandles.remove(rId);
+        if (handle == null) {
+            log.warn("Received a result for an unknown record {}", rId);
+            return;
+        }
+        if (hasError) {
+            handle.completeExceptionally(new RuntimeException(error));
+        } else {
+            handle.complete(null);
+        }
     }
 
     private StreamObserver<SinkResponse> getResponseObserver() {
         return new StreamObserver<>() {
             @Override
             public void onNext(SinkResponse response) {
-                CompletableFuture<?> handle = writeHandles.get(response.getRecordId());
-                if (response.hasError()) {
-                    handle.completeExceptionally(new RuntimeException(response.getError()));
+                if (response.getResultsCount() > 0) {
+                    for (SinkResult result : response.getResultsList()) {
+                        completeWrite(result.getRecordId(), result.hasError(), result.getError());
+                    }
                 } else {
-                    handle.complete(null);
+                    completeWrite(response.getRecordId(), response.hasError(), response.getError());
                 }
             }
 
@@ -152,4 +258,10 @@ public class GrpcAgentSink extends AbstractGrpcAgent implements AgentSink {
         super.stopBeforeRestart();
         log.info("Stopped");
     }
+
+    @Override
+    public synchronized void close() throws Exception {
+        super.close();
+        flushExecutor.shutdown();
+    }
 }
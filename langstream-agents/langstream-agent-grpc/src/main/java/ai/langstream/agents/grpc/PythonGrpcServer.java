@@ -18,19 +18,40 @@ package ai.langstream.agents.grpc;
 import ai.langstream.api.runner.code.AgentContext;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.protobuf.Empty;
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.netty.shaded.io.netty.channel.epoll.Epoll;
+import java.io.IOException;
 import java.net.ServerSocket;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Starts the Python gRPC server of an agent and opens the channel to it.
+ *
+ * <p>The {@code grpc-transport} option of the agent selects how the two processes communicate:
+ * {@code uds} uses a Unix domain socket, {@code tcp} uses a free port on the loopback interface and
+ * {@code auto} (the default) uses a Unix domain socket when the native transport of Netty is
+ * available.
+ */
 @Slf4j
 public class PythonGrpcServer {
     private static final int MAX_TRIALS = 10;
 
+    public enum Transport {
+        AUTO,
+        TCP,
+        UDS
+    }
+
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
     private final Path codeDirectory;
@@ -38,6 +59,7 @@ public class PythonGrpcServer {
     private final String agentId;
     private final AgentContext agentContext;
     private Process pythonProcess;
+    private Path socketDirectory;
 
     public PythonGrpcServer(
             Path codeDirectory,
@@ -51,12 +73,25 @@ public class PythonGrpcServer {
     }
 
     public ManagedChannel start() throws Exception {
-        // Get a free port
-        int port;
-        try (ServerSocket socket = new ServerSocket(0)) {
-            socket.setReuseAddress(true);
-            port = socket.getLocalPort();
+        final String target;
+        final ManagedChannelBuilder<?> channelBuilder;
+        if (resolveTransport(configuration) == Transport.UDS) {
+            socketDirectory = Files.createTempDirectory("langstream-grpc");
+            Path socket = socketDirectory.resolve("agent.sock").toAbsolutePath();
+            target = "unix:" + socket;
+            channelBuilder =
+                    Grpc.newChannelBuilder("unix://" + socket, InsecureChannelCredentials.create());
+        } else {
+            // Get a free port
+            int port;
+            try (ServerSocket socket = new ServerSocket(0)) {
+                socket.setReuseAddress(true);
+                port = socket.getLocalPort();
+            }
+            target = "[::]:%s".formatted(port);
+            channelBuilder = ManagedChannelBuilder.forAddress("localhost", port).usePlaintext();
         }
+        log.info("Python gRPC server target {}", target);
 
         Path pythonCodeDirectory = codeDirectory.resolve("python");
         log.info("Python code directory {}", pythonCodeDirectory);
@@ -78,7 +113,7 @@ public class PythonGrpcServer {
                                 "python3",
                                 "-m",
                                 "langstream_grpc",
-                                "[::]:%s".formatted(port),
+                                target,
                                 MAPPER.writeValueAsString(configuration),
                                 MAPPER.writeValueAsString(agentContextConfiguration))
                         .inheritIO()
@@ -87,8 +122,7 @@ public class PythonGrpcServer {
         processBuilder.environment().put("PYTHONPATH", newPythonPath);
         processBuilder.environment().put("NLTK_DATA", "/app/nltk_data");
         pythonProcess = processBuilder.start();
-        ManagedChannel channel =
-                ManagedChannelBuilder.forAddress("localhost", port).usePlaintext().build();
+        ManagedChannel channel = channelBuilder.build();
         AgentServiceGrpc.AgentServiceBlockingStub stub =
                 AgentServiceGrpc.newBlockingStub(channel).withDeadlineAfter(30, TimeUnit.SECONDS);
         for (int i = 0; ; i++) {
@@ -107,6 +141,20 @@ public class PythonGrpcServer {
         return channel;
     }
 
+    static Transport resolveTransport(Map<String, Object> configuration) {
+        Object value = configuration.getOrDefault("grpc-transport", "auto");
+        Transport transport = Transport.valueOf(value.toString().toUpperCase(Locale.ROOT));
+        if (transport == Transport.AUTO) {
+            return Epoll.isAvailable() ? Transport.UDS : Transport.TCP;
+        }
+        if (transport == Transport.UDS && !Epoll.isAvailable()) {
+            throw new IllegalArgumentException(
+                    "Unix domain sockets are not available on this platform",
+                    Epoll.unavailabilityCause());
+        }
+        return transport;
+    }
+
     private AgentContextConfiguration computeAgentContextConfiguration() {
         final Optional<Path> persistentStateDirectoryForAgent =
                 agentContext.getPersistentStateDirectoryForAgent(agentId);
@@ -121,17 +169,33 @@ public class PythonGrpcServer {
     }
 
     public void close(boolean ignoreErrors) throws Exception {
-        if (pythonProcess != null) {
-            pythonProcess.destroy();
-            int exitCode = pythonProcess.waitFor();
-            log.info("Python process exited with code {}", exitCode);
-
-            if (!ignoreErrors) {
-                if (exitCode != 0) {
-                    throw new RuntimeException("Python code exited with code " + exitCode);
+        try {
+            if (pythonProcess != null) {
+                pythonProcess.destroy();
+                int exitCode = pythonProcess.waitFor();
+                log.info("Python process exited with code {}", exitCode);
+
+                if (!ignoreErrors) {
+                    if (exitCode != 0) {
+                        throw new RuntimeException("Python code exited with code " + exitCode);
+                    }
                 }
             }
+        } finally {
+            deleteSocketDirectory();
+        }
+    }
+
+    private void deleteSocketDirectory() {
+        if (socketDirectory == null) {
+            return;
+        }
+        try (var files = Files.walk(socketDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            log.info("Cannot delete the socket directory {}: {}", socketDirectory, e + "");
         }
+        socketDirectory = null;
     }
 
     public record AgentContextConfiguration(String persistentStateDirectory) {}
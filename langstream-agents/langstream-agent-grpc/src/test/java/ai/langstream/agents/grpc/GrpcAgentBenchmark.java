@@ -0,0 +1,232 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.agents.grpc;
+
+import ai.langstream.api.runner.code.SimpleRecord;
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.unix.DomainSocketAddress;
+import io.grpc.stub.StreamObserver;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the records per second that go through {@link GrpcAgentProcessor} and {@link
+ * GrpcAgentSink}, over TCP on the loopback interface and over a Unix domain socket, with one record
+ * per request and with batches of records. The server is an in-JVM service that acknowledges the
+ * records, so that the numbers only depend on the client and on the transport.
+ *
+ * <p>Run it with: {@code java -cp <test classpath> ai.langstream.agents.grpc.GrpcAgentBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GrpcAgentBenchmark {
+
+    private static final int RECORDS = 1000;
+
+    @Param({"TCP", "UDS"})
+    PythonGrpcServer.Transport transport;
+
+    @Param({"1", "100"})
+    int batchSize;
+
+    private EventLoopGroup eventLoopGroup;
+    private Path socketDirectory;
+    private Server server;
+    private ManagedChannel channel;
+    private GrpcAgentProcessor processor;
+    private GrpcAgentSink sink;
+    private List<ai.langstream.api.runner.code.Record> records;
+
+    @Setup
+    public void setup() throws Exception {
+        NettyServerBuilder serverBuilder;
+        if (transport == PythonGrpcServer.Transport.UDS) {
+            eventLoopGroup = new EpollEventLoopGroup(1);
+            socketDirectory = Files.createTempDirectory("langstream-grpc");
+            String socket = socketDirectory.resolve("agent.sock").toString();
+            serverBuilder =
+                    NettyServerBuilder.forAddress(new DomainSocketAddress(socket))
+                            .channelType(EpollServerDomainSocketChannel.class)
+                            .bossEventLoopGroup(eventLoopGroup)
+                            .workerEventLoopGroup(eventLoopGroup);
+            server = serverBuilder.addService(new AckService()).build().start();
+            channel =
+                    Grpc.newChannelBuilder("unix://" + socket, InsecureChannelCredentials.create())
+                            .build();
+        } else {
+            serverBuilder = NettyServerBuilder.forAddress(new InetSocketAddress("localhost", 0));
+            server = serverBuilder.addService(new AckService()).build().start();
+            channel =
+                    ManagedChannelBuilder.forAddress("localhost", server.getPort())
+                            .usePlaintext()
+                            .build();
+        }
+
+        processor = new GrpcAgentProcessor(channel);
+        processor.setContext(new GrpcAgentSinkTest.TestAgentContext());
+        processor.start();
+
+        sink = new GrpcAgentSink(channel);
+        sink.init(Map.of("grpc-batch-size", batchSize));
+        sink.setContext(new GrpcAgentSinkTest.TestAgentContext());
+        sink.start();
+
+        records = new ArrayList<>();
+        for (int i = 0; i < RECORDS; i++) {
+            records.add(
+                    SimpleRecord.builder()
+                            .key("key-" + i)
+                            .value("LangStream is a framework for building streaming AI apps.")
+                            .origin("benchmark")
+                            .build());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        processor.close();
+        sink.close();
+        channel.shutdownNow().awaitTermination(30, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(30, TimeUnit.SECONDS);
+        if (eventLoopGroup != null) {
+            eventLoopGroup.shutdownGracefully();
+        }
+        if (socketDirectory != null) {
+            Files.deleteIfExists(socketDirectory.resolve("agent.sock"));
+            Files.deleteIfExists(socketDirectory);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void processor() throws Exception {
+        CountDownLatch processed = new CountDownLatch(RECORDS);
+        for (int i = 0; i < RECORDS; i += batchSize) {
+            processor.process(
+                    records.subList(i, Math.min(i + batchSize, RECORDS)),
+                    result -> processed.countDown());
+        }
+        if (!processed.await(30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Timed out waiting for the results");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void sink() throws Exception {
+        CompletableFuture<?>[] handles = new CompletableFuture[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            handles[i] = sink.write(records.get(i));
+        }
+        CompletableFuture.allOf(handles).get(30, TimeUnit.SECONDS);
+    }
+
+    private static class AckService extends AgentServiceGrpc.AgentServiceImplBase {
+        @Override
+        public StreamObserver<ProcessorRequest> process(
+                StreamObserver<ProcessorResponse> responseObserver) {
+            return new StreamObserver<>() {
+                @Override
+                public void onNext(ProcessorRequest request) {
+                    ProcessorResponse.Builder response = ProcessorResponse.newBuilder();
+                    for (Record record : request.getRecordsList()) {
+                        response.addResultsBuilder()
+                                .setRecordId(record.getRecordId())
+                                .addRecords(record);
+                    }
+                    responseObserver.onNext(response.build());
+                }
+
+                @Override
+                public void onError(Throwable throwable) {}
+
+                @Override
+                public void onCompleted() {
+                    responseObserver.onCompleted();
+                }
+            };
+        }
+
+        @Override
+        public StreamObserver<SinkRequest> write(StreamObserver<SinkResponse> responseObserver) {
+            return new StreamObserver<>() {
+                @Override
+                public void onNext(SinkRequest request) {
+                    if (request.hasRecord()) {
+                        responseObserver.onNext(
+                                SinkResponse.newBuilder()
+                                        .setRecordId(request.getRecord().getRecordId())
+                                        .build());
+                    }
+                    if (request.getRecordsCount() > 0) {
+                        SinkResponse.Builder response = SinkResponse.newBuilder();
+                        for (Record record : request.getRecordsList()) {
+                            response.addResultsBuilder().setRecordId(record.getRecordId());
+                        }
+                        responseObserver.onNext(response.build());
+                    }
+                }
+
+                @Override
+                public void onError(Throwable throwable) {}
+
+                @Override
+                public void onCompleted() {
+                    responseObserver.onCompleted();
+                }
+            };
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(GrpcAgentBenchmark.class.getSimpleName()).build())
+                .run();
+    }
+}
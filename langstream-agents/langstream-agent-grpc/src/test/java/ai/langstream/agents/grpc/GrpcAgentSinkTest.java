@@ -17,6 +17,7 @@ package ai.langstream.agents.grpc;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import ai.langstream.api.runner.code.AgentContext;
 import ai.langstream.api.runner.code.SimpleRecord;
@@ -24,15 +25,28 @@ import ai.langstream.api.runner.topics.TopicAdmin;
 import ai.langstream.api.runner.topics.TopicConnectionProvider;
 import ai.langstream.api.runner.topics.TopicConsumer;
 import ai.langstream.api.runner.topics.TopicProducer;
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
 import io.grpc.ManagedChannel;
 import io.grpc.Server;
 import io.grpc.inprocess.InProcessChannelBuilder;
 import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.Epoll;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.unix.DomainSocketAddress;
 import io.grpc.stub.StreamObserver;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -48,6 +62,7 @@ import org.apache.avro.io.DecoderFactory;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class GrpcAgentSinkTest {
     private Server server;
@@ -123,10 +138,70 @@ public class GrpcAgentSinkTest {
         assertEquals("test-string", writtenRecord.get("testField").toString());
     }
 
+    @Test
+    void testBatching() throws Exception {
+        CompletableFuture<?> first = sink.write(SimpleRecord.builder().origin("blocking").build());
+        assertTrue(testSinkService.blocked.await(5, TimeUnit.SECONDS));
+        List<CompletableFuture<?>> handles = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            handles.add(sink.write(SimpleRecord.of(null, "value-" + i)));
+        }
+        testSinkService.unblock.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        CompletableFuture.allOf(handles.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        // the records written while the first request is in flight are sent in batches
+        assertEquals(List.of(1, 100, 100, 50), testSinkService.batchSizes);
+    }
+
+    @Test
+    void testBatchSizeOne() throws Exception {
+        sink.init(Map.of("grpc-batch-size", 1));
+        List<CompletableFuture<?>> handles = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            handles.add(sink.write(SimpleRecord.of(null, "value-" + i)));
+        }
+        CompletableFuture.allOf(handles.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        assertEquals(Collections.nCopies(10, 1), testSinkService.batchSizes);
+    }
+
+    @Test
+    void testUnixDomainSocket(@TempDir Path directory) throws Exception {
+        assumeTrue(Epoll.isAvailable());
+        Path socket = directory.resolve("agent.sock");
+        EventLoopGroup eventLoopGroup = new EpollEventLoopGroup(1);
+        Server udsServer =
+                NettyServerBuilder.forAddress(new DomainSocketAddress(socket.toString()))
+                        .channelType(EpollServerDomainSocketChannel.class)
+                        .bossEventLoopGroup(eventLoopGroup)
+                        .workerEventLoopGroup(eventLoopGroup)
+                        .addService(new TestSinkService())
+                        .build()
+                        .start();
+        ManagedChannel udsChannel =
+                Grpc.newChannelBuilder("unix://" + socket, InsecureChannelCredentials.create())
+                        .build();
+        GrpcAgentSink udsSink = new GrpcAgentSink(udsChannel);
+        try {
+            udsSink.setContext(context);
+            udsSink.start();
+            udsSink.write(SimpleRecord.of(null, "test")).get(5, TimeUnit.SECONDS);
+        } finally {
+            udsSink.close();
+            udsChannel.shutdownNow().awaitTermination(30, TimeUnit.SECONDS);
+            udsServer.shutdownNow().awaitTermination(30, TimeUnit.SECONDS);
+            eventLoopGroup.shutdownGracefully();
+        }
+    }
+
     static class TestSinkService extends AgentServiceGrpc.AgentServiceImplBase {
 
         private final Map<Integer, Schema> schemas = new ConcurrentHashMap<>();
         private final LinkedBlockingQueue<GenericRecord> avroRecords = new LinkedBlockingQueue<>();
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch unblock = new CountDownLatch(1);
+
+        private static class CompletedException extends RuntimeException {}
 
         @Override
         public StreamObserver<SinkRequest> write(StreamObserver<SinkResponse> responseObserver) {
@@ -139,37 +214,67 @@ public class GrpcAgentSinkTest {
                                         .parse(request.getSchema().getValue().toStringUtf8());
                         schemas.put(request.getSchema().getSchemaId(), schema);
                     }
+                    try {
+                        onRecords(request);
+                    } catch (CompletedException completed) {
+                        responseObserver.onCompleted();
+                    } catch (IllegalStateException error) {
+                        responseObserver.onError(error);
+                    }
+                }
+
+                private void onRecords(SinkRequest request) {
                     if (request.hasRecord()) {
-                        ai.langstream.agents.grpc.Record record = request.getRecord();
-                        Value value = record.getValue();
-                        if (value.hasAvroValue()) {
-                            Schema schema = schemas.get(value.getSchemaId());
-                            try {
-                                GenericRecord genericRecord =
-                                        deserializeGenericRecord(
-                                                schema, value.getAvroValue().toByteArray());
-                                avroRecords.add(genericRecord);
-                            } catch (IOException e) {
-                                throw new RuntimeException(e);
+                        batchSizes.add(1);
+                        responseObserver.onNext(write(request.getRecord()));
+                    }
+                    if (request.getRecordsCount() > 0) {
+                        batchSizes.add(request.getRecordsCount());
+                        SinkResponse.Builder response = SinkResponse.newBuilder();
+                        for (ai.langstream.agents.grpc.Record record : request.getRecordsList()) {
+                            SinkResponse result = write(record);
+                            SinkResult.Builder sinkResult =
+                                    response.addResultsBuilder().setRecordId(result.getRecordId());
+                            if (result.hasError()) {
+                                sinkResult.setError(result.getError());
                             }
                         }
-                        if (record.getOrigin().equals("failing-record")) {
-                            responseObserver.onNext(
-                                    SinkResponse.newBuilder()
-                                            .setRecordId(record.getRecordId())
-                                            .setError("test-error")
-                                            .build());
-                        } else if (record.getOrigin().equals("failing-server")) {
-                            responseObserver.onError(new RuntimeException("test-error"));
-                        } else if (record.getOrigin().equals("completing-server")) {
-                            responseObserver.onCompleted();
-                        } else {
-                            responseObserver.onNext(
-                                    SinkResponse.newBuilder()
-                                            .setRecordId(record.getRecordId())
-                                            .build());
+                        responseObserver.onNext(response.build());
+                    }
+                }
+
+                private SinkResponse write(ai.langstream.agents.grpc.Record record) {
+                    Value value = record.getValue();
+                    if (value.hasAvroValue()) {
+                        Schema schema = schemas.get(value.getSchemaId());
+                        try {
+                            GenericRecord genericRecord =
+                                    deserializeGenericRecord(
+                                            schema, value.getAvroValue().toByteArray());
+                            avroRecords.add(genericRecord);
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
                         }
                     }
+                    if (record.getOrigin().equals("blocking")) {
+                        try {
+                            blocked.countDown();
+                            unblock.await();
+                        } catch (InterruptedException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                    if (record.getOrigin().equals("failing-record")) {
+                        return SinkResponse.newBuilder()
+                                .setRecordId(record.getRecordId())
+                                .setError("test-error")
+                                .build();
+                    } else if (record.getOrigin().equals("failing-server")) {
+                        throw new IllegalStateException("test-error");
+                    } else if (record.getOrigin().equals("completing-server")) {
+                        throw new CompletedException();
+                    }
+                    return SinkResponse.newBuilder().setRecordId(record.getRecordId()).build();
                 }
 
                 @Override
@@ -15,13 +15,14 @@
  */
 package ai.langstream.agents.s3;
 
+import ai.langstream.ai.agents.commons.storage.ObjectPrefetcher;
 import ai.langstream.api.runner.code.AbstractAgentCode;
 import ai.langstream.api.runner.code.AgentSource;
 import ai.langstream.api.runner.code.Header;
 import ai.langstream.api.runner.code.Record;
+import ai.langstream.api.util.ConfigurationUtils;
 import io.minio.BucketExistsArgs;
 import io.minio.GetObjectArgs;
-import io.minio.GetObjectResponse;
 import io.minio.ListObjectsArgs;
 import io.minio.MakeBucketArgs;
 import io.minio.MinioClient;
@@ -35,14 +36,15 @@ import io.minio.errors.ServerException;
 import io.minio.errors.XmlParserException;
 import io.minio.messages.Item;
 import java.io.IOException;
+import java.io.InputStream;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import lombok.AllArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
@@ -51,11 +53,16 @@ import lombok.extern.slf4j.Slf4j;
 public class S3Source extends AbstractAgentCode implements AgentSource {
     private String bucketName;
     private MinioClient minioClient;
-    private final Set<String> objectsToCommit = ConcurrentHashMap.newKeySet();
+    private ObjectPrefetcher prefetcher;
     private int idleTime;
+    private String prefix;
+    private int maxRecordsPerRead;
+
+    static final int LIST_PAGE_SIZE = 1000;
 
     public static final String ALL_FILES = "*";
     public static final String DEFAULT_EXTENSIONS_FILTER = "pdf,docx,html,htm,md,txt";
+    public static final long DEFAULT_MAX_IN_MEMORY_SIZE = 10 * 1024 * 1024;
     private Set<String> extensions = Set.of();
 
     @Override
@@ -76,6 +83,14 @@ public class S3Source extends AbstractAgentCode implements AgentSource {
                                 .toString()
                                 .split(","));
 
+        prefix = configuration.getOrDefault("prefix", "").toString();
+        maxRecordsPerRead = ConfigurationUtils.getInt("max-records-per-read", 1, configuration);
+        int prefetchObjects = ConfigurationUtils.getInt("prefetch-objects", 10, configuration);
+        int prefetchThreads = ConfigurationUtils.getInt("prefetch-threads", 4, configuration);
+        long maxInMemorySize =
+                ConfigurationUtils.getLong(
+                        "max-in-memory-object-size", DEFAULT_MAX_IN_MEMORY_SIZE, configuration);
+
         log.info(
                 "Connecting to S3 Bucket at {} in region {} with user {}",
                 endpoint,
@@ -91,6 +106,28 @@ public class S3Source extends AbstractAgentCode implements AgentSource {
         minioClient = builder.build();
 
         makeBucketIfNotExists(bucketName);
+
+        prefetcher =
+                new ObjectPrefetcher(
+                        new ObjectPrefetcher.ObjectStorage() {
+                            @Override
+                            public ObjectPrefetcher.Page list(String continuation)
+                                    throws Exception {
+                                return listObjects(continuation);
+                            }
+
+                            @Override
+                            public InputStream open(String name) throws Exception {
+                                return minioClient.getObject(
+                                        GetObjectArgs.builder()
+                                                .bucket(bucketName)
+                                                .object(name)
+                                                .build());
+                            }
+                        },
+                        prefetchObjects,
+                        prefetchThreads,
+                        maxInMemorySize);
     }
 
     private void makeBucketIfNotExists(String bucketName)
@@ -111,57 +148,58 @@ public class S3Source extends AbstractAgentCode implements AgentSource {
         }
     }
 
-    @Override
-    public List<Record> read() throws Exception {
-        List<Record> records = new ArrayList<>();
-        Iterable<Result<Item>> results;
-        try {
-            results = minioClient.listObjects(ListObjectsArgs.builder().bucket(bucketName).build());
-        } catch (Exception e) {
-            log.error("Error listing objects on bucket {}", bucketName, e);
-            throw e;
+    private ObjectPrefetcher.Page listObjects(String startAfter) throws Exception {
+        ListObjectsArgs.Builder args =
+                ListObjectsArgs.builder().bucket(bucketName).maxKeys(LIST_PAGE_SIZE);
+        if (!prefix.isEmpty()) {
+            args.prefix(prefix);
         }
-        boolean somethingFound = false;
-        for (Result<Item> object : results) {
-            Item item = object.get();
+        if (startAfter != null) {
+            args.startAfter(startAfter);
+        }
+        List<ObjectPrefetcher.ObjectInfo> objects = new ArrayList<>();
+        int listed = 0;
+        String lastName = null;
+        // the iterator fetches the next pages lazily, stop at the end of the first one
+        Iterator<Result<Item>> results = minioClient.listObjects(args.build()).iterator();
+        while (listed < LIST_PAGE_SIZE && results.hasNext()) {
+            Item item = results.next().get();
             String name = item.objectName();
+            listed++;
+            lastName = name;
             if (item.isDir()) {
                 log.debug("Skipping directory {}", name);
                 continue;
             }
-            boolean extensionAllowed = isExtensionAllowed(name, extensions);
-            if (!extensionAllowed) {
+            if (!isExtensionAllowed(name, extensions)) {
                 log.debug("Skipping file with bad extension {}", name);
                 continue;
             }
-            if (!objectsToCommit.contains(name)) {
-                log.info("Found new object {}, size {} KB", item.objectName(), item.size() / 1024);
-                try {
-                    GetObjectResponse objectResponse =
-                            minioClient.getObject(
-                                    GetObjectArgs.builder()
-                                            .bucket(bucketName)
-                                            .object(name)
-                                            .build());
-                    objectsToCommit.add(name);
-                    byte[] read = objectResponse.readAllBytes();
-                    records.add(new S3SourceRecord(read, name));
-                    somethingFound = true;
-                } catch (Exception e) {
-                    log.error("Error reading object {}", name, e);
-                    throw e;
-                }
-                break;
-            } else {
-                log.info("Skipping already processed object {}", name);
-            }
+            objects.add(new ObjectPrefetcher.ObjectInfo(name, item.size()));
         }
-        if (!somethingFound) {
+        return new ObjectPrefetcher.Page(objects, listed < LIST_PAGE_SIZE ? null : lastName);
+    }
+
+    @Override
+    public List<Record> read() throws Exception {
+        List<ObjectPrefetcher.PrefetchedObject> objects;
+        try {
+            objects = prefetcher.next(maxRecordsPerRead);
+        } catch (Exception e) {
+            log.error("Error reading objects from bucket {}", bucketName, e);
+            throw e;
+        }
+        if (objects.isEmpty()) {
             log.info("Nothing found, sleeping for {} seconds", idleTime);
             Thread.sleep(idleTime * 1000L);
-        } else {
-            processed(0, 1);
+            return List.of();
+        }
+        List<Record> records = new ArrayList<>(objects.size());
+        for (ObjectPrefetcher.PrefetchedObject object : objects) {
+            log.info("Found new object {}, size {} KB", object.name(), object.size() / 1024);
+            records.add(new S3SourceRecord(object));
         }
+        processed(0, records.size());
         return records;
     }
 
@@ -190,19 +228,30 @@ public class S3Source extends AbstractAgentCode implements AgentSource {
             S3SourceRecord s3SourceRecord = (S3SourceRecord) record;
             String objectName = s3SourceRecord.name;
             log.info("Removing object {}", objectName);
-            minioClient.removeObject(
-                    RemoveObjectArgs.builder().bucket(bucketName).object(objectName).build());
-            objectsToCommit.remove(objectName);
+            try {
+                minioClient.removeObject(
+                        RemoveObjectArgs.builder().bucket(bucketName).object(objectName).build());
+            } finally {
+                prefetcher.release(objectName);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (prefetcher != null) {
+            prefetcher.close();
         }
     }
 
     private static class S3SourceRecord implements Record {
-        private final byte[] read;
+        private final ObjectPrefetcher.PrefetchedObject object;
         private final String name;
+        private byte[] value;
 
-        public S3SourceRecord(byte[] read, String name) {
-            this.read = read;
-            this.name = name;
+        public S3SourceRecord(ObjectPrefetcher.PrefetchedObject object) {
+            this.object = object;
+            this.name = object.name();
         }
 
         /**
@@ -217,8 +266,13 @@ public class S3Source extends AbstractAgentCode implements AgentSource {
         }
 
         @Override
-        public Object value() {
-            return read;
+        public synchronized Object value() {
+            // objects downloaded to a temporary file are read only once, the agents expect a
+            // byte[] so the whole content stays in memory until the record is committed
+            if (value == null) {
+                value = object.read();
+            }
+            return value;
         }
 
         @Override
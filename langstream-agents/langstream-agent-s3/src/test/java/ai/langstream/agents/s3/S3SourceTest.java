@@ -129,6 +129,44 @@ public class S3SourceTest {
         agentSource.commit(List.of());
     }
 
+    @Test
+    void testReadInBatches() throws Exception {
+        String bucket = "langstream-test-" + UUID.randomUUID();
+        AgentSource agentSource =
+                buildAgentSource(
+                        bucket, Map.of("max-records-per-read", 5, "max-in-memory-object-size", 14));
+        for (int i = 0; i < 10; i++) {
+            // the objects with two digits are downloaded to a temporary file
+            String s = "test-content-" + (i * 10);
+            minioClient.putObject(
+                    PutObjectArgs.builder().bucket(bucket).object("test-" + i + ".txt").stream(
+                                    new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8)),
+                                    s.length(),
+                                    -1)
+                            .build());
+        }
+
+        List<Record> all = new ArrayList<>();
+        while (all.size() < 10) {
+            List<Record> read = agentSource.read();
+            assertTrue(read.size() <= 5);
+            all.addAll(read);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals("test-" + i + ".txt", all.get(i).key());
+            assertArrayEquals(
+                    ("test-content-" + (i * 10)).getBytes(StandardCharsets.UTF_8),
+                    (byte[]) all.get(i).value());
+        }
+        agentSource.commit(all);
+        assertFalse(
+                minioClient
+                        .listObjects(ListObjectsArgs.builder().bucket(bucket).build())
+                        .iterator()
+                        .hasNext());
+        agentSource.close();
+    }
+
     @Test
     void emptyBucket() throws Exception {
         String bucket = "langstream-test-" + UUID.randomUUID();
@@ -168,9 +206,14 @@ public class S3SourceTest {
     }
 
     private AgentSource buildAgentSource(String bucket) throws Exception {
+        return buildAgentSource(bucket, Map.of());
+    }
+
+    private AgentSource buildAgentSource(String bucket, Map<String, Object> additionalConfigs)
+            throws Exception {
         AgentSource agentSource =
                 (AgentSource) AGENT_CODE_REGISTRY.getAgentCode("s3-source").agentCode();
-        Map<String, Object> configs = new HashMap<>();
+        Map<String, Object> configs = new HashMap<>(additionalConfigs);
         String endpoint = localstack.getEndpointOverride(S3).toString();
         configs.put("endpoint", endpoint);
         configs.put("bucketName", bucket);
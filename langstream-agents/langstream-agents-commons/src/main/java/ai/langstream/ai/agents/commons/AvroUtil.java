@@ -15,6 +15,7 @@
  */
 package ai.langstream.ai.agents.commons;
 
+import ai.langstream.api.util.FloatVector;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashMap;
@@ -97,7 +98,11 @@ public class AvroUtil {
         for (Schema.Field f : newSchema.getFields()) {
             if (newFields.containsKey(f)) {
                 Object value = newFields.get(f);
-                if ((value instanceof Collection) && !(value instanceof GenericArray)) {
+                // a FloatVector is written as an array by the Avro writer, copying it to a
+                // GenericArray would box all the values
+                if ((value instanceof Collection)
+                        && !(value instanceof GenericArray)
+                        && !(value instanceof FloatVector)) {
                     value = new GenericData.Array<>(f.schema(), (Collection<Object>) value);
                 }
                 newRecordBuilder.set(f.name(), value);
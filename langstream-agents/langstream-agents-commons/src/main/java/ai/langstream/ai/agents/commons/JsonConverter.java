@@ -15,6 +15,7 @@
  */
 package ai.langstream.ai.agents.commons;
 
+import ai.langstream.api.util.FloatVector;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
@@ -24,6 +25,7 @@ import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -31,7 +33,6 @@ import org.apache.avro.Conversion;
 import org.apache.avro.Conversions;
 import org.apache.avro.Schema;
 import org.apache.avro.data.TimeConversions;
-import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericFixed;
 import org.apache.avro.generic.GenericRecord;
 
@@ -99,9 +100,15 @@ public class JsonConverter {
                 {
                     Schema elementSchema = schema.getElementType();
                     ArrayNode arrayNode = jsonNodeFactory.arrayNode();
+                    if (value instanceof FloatVector vector) {
+                        for (float elem : vector.values()) {
+                            arrayNode.add(jsonNodeFactory.numberNode(elem));
+                        }
+                        return arrayNode;
+                    }
                     Object[] iterable;
-                    if (value instanceof GenericData.Array) {
-                        iterable = ((GenericData.Array) value).toArray();
+                    if (value instanceof Collection<?> collection) {
+                        iterable = collection.toArray();
                     } else {
                         iterable = (Object[]) value;
                     }
@@ -18,13 +18,17 @@ package ai.langstream.ai.agents.commons;
 import ai.langstream.api.runner.code.Header;
 import ai.langstream.api.runner.code.Record;
 import ai.langstream.api.runner.code.SimpleRecord;
+import ai.langstream.api.util.FloatVector;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.sql.Time;
 import java.sql.Timestamp;
@@ -33,10 +37,12 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -104,20 +110,20 @@ public class MutableRecord {
     }
 
     public void convertMapToStringOrBytes() throws JsonProcessingException {
-        if (valueObject instanceof Map) {
-            if (valueSchemaType == TransformSchemaType.STRING) {
-                valueObject = OBJECT_MAPPER.writeValueAsString(valueObject);
-            } else if (valueSchemaType == TransformSchemaType.BYTES) {
-                valueObject = OBJECT_MAPPER.writeValueAsBytes(valueObject);
-            }
-        }
-        if (keyObject instanceof Map) {
-            if (keySchemaType == TransformSchemaType.STRING) {
-                keyObject = OBJECT_MAPPER.writeValueAsString(keyObject);
-            } else if (keySchemaType == TransformSchemaType.BYTES) {
-                keyObject = OBJECT_MAPPER.writeValueAsBytes(keyObject);
+        valueObject = mapToStringOrBytes(valueObject, valueSchemaType);
+        keyObject = mapToStringOrBytes(keyObject, keySchemaType);
+    }
+
+    private static Object mapToStringOrBytes(Object object, TransformSchemaType schemaType)
+            throws JsonProcessingException {
+        if (object instanceof Map) {
+            if (schemaType == TransformSchemaType.STRING) {
+                return OBJECT_MAPPER.writeValueAsString(object);
+            } else if (schemaType == TransformSchemaType.BYTES) {
+                return OBJECT_MAPPER.writeValueAsBytes(object);
             }
         }
+        return object;
     }
 
     public void convertAvroToBytes() throws IOException {
@@ -228,8 +234,7 @@ public class MutableRecord {
                             (Schema) valueNativeSchema, newFields.keySet(), schemaCache);
         }
         ObjectNode json = (ObjectNode) valueObject;
-        newFields.forEach(
-                (field, value) -> json.set(field.name(), OBJECT_MAPPER.valueToTree(value)));
+        newFields.forEach((field, value) -> json.set(field.name(), toJsonNode(value)));
         valueObject = json;
     }
 
@@ -263,11 +268,22 @@ public class MutableRecord {
                             (Schema) keyNativeSchema, newFields.keySet(), schemaCache);
         }
         ObjectNode json = (ObjectNode) keyObject;
-        newFields.forEach(
-                (field, value) -> json.set(field.name(), OBJECT_MAPPER.valueToTree(value)));
+        newFields.forEach((field, value) -> json.set(field.name(), toJsonNode(value)));
         keyObject = json;
     }
 
+    private static JsonNode toJsonNode(Object value) {
+        if (value instanceof FloatVector vector) {
+            // float nodes are written with the shortest decimal representation of the float
+            ArrayNode array = OBJECT_MAPPER.getNodeFactory().arrayNode(vector.size());
+            for (int i = 0; i < vector.size(); i++) {
+                array.add(vector.getFloat(i));
+            }
+            return array;
+        }
+        return OBJECT_MAPPER.valueToTree(value);
+    }
+
     public JsonRecord toJsonRecord() {
         JsonRecord jsonRecord = new JsonRecord();
         if (keySchemaType != null) {
@@ -369,6 +385,10 @@ public class MutableRecord {
                 || object instanceof Boolean) {
             return object;
         }
+        if (object instanceof FloatVector) {
+            // immutable
+            return object;
+        }
         if (object instanceof Map map) {
             HashMap<Object, Object> res = new HashMap<>();
             map.forEach((k, v) -> res.put(safeClone(k), safeClone(v)));
@@ -396,19 +416,32 @@ public class MutableRecord {
     public static MutableRecord recordToMutableRecord(
             Record record, boolean attemptJsonConversion) {
         MutableRecord context = new MutableRecord();
-        context.setKeyObject(record.key());
-        context.setKeySchemaType(
-                record.key() == null ? null : getSchemaType(record.key().getClass()));
+        // a record produced by another agent in the same process also holds the parsed maps, in
+        // this case we take a copy of them instead of parsing the serialized key and value
+        ParsedTransformRecord parsed =
+                attemptJsonConversion && record instanceof ParsedTransformRecord parsedRecord
+                        ? parsedRecord
+                        : null;
+        Object key =
+                parsed != null && parsed.parsedKey != null
+                        ? toJsonValue(parsed.parsedKey)
+                        : record.key();
+        Object value =
+                parsed != null && parsed.parsedValue != null
+                        ? toJsonValue(parsed.parsedValue)
+                        : record.value();
+        context.setKeyObject(key);
+        context.setKeySchemaType(getSchemaType(key, parsed != null ? parsed.keySchemaType : null));
         // TODO: temporary hack. We should be able to get the schema from the record
-        if (record.key() instanceof GenericRecord) {
-            context.setKeyNativeSchema(((GenericRecord) record.key()).getSchema());
+        if (key instanceof GenericRecord) {
+            context.setKeyNativeSchema(((GenericRecord) key).getSchema());
         }
-        context.setValueObject(record.value());
+        context.setValueObject(value);
         context.setValueSchemaType(
-                record.value() == null ? null : getSchemaType(record.value().getClass()));
+                getSchemaType(value, parsed != null ? parsed.valueSchemaType : null));
         // TODO: temporary hack. We should be able to get the schema from the record
-        if (record.value() instanceof GenericRecord) {
-            context.setKeyNativeSchema(((GenericRecord) record.value()).getSchema());
+        if (value instanceof GenericRecord) {
+            context.setKeyNativeSchema(((GenericRecord) value).getSchema());
         }
         context.setInputTopic(record.origin());
         context.setEventTime(record.timestamp());
@@ -442,6 +475,32 @@ public class MutableRecord {
         if (context.isDropCurrentRecord()) {
             return Optional.empty();
         }
+        return Optional.of(new TransformRecord(context, toHeaders(context)));
+    }
+
+    /**
+     * Converts the MutableRecord to a Record that keeps the maps of the key and of the value. They
+     * are serialized, like {@link #convertMapToStringOrBytes()} does, only when the key or the
+     * value of the Record are read, for instance when the record is written to a topic. In this
+     * case a serialization error is thrown by {@link Record#key()} or {@link Record#value()} as an
+     * {@link UncheckedIOException}.
+     *
+     * <p>When the Record is passed to another agent in the same process, {@link
+     * #recordToMutableRecord(Record, boolean)} copies the maps instead of parsing the serialized
+     * key and value, so a chain of agents serializes the record only at the end of the chain. The
+     * MutableRecord must not be modified after this call.
+     *
+     * @param context the record
+     * @return the record or empty if the record has been dropped
+     */
+    public static Optional<Record> mutableRecordToParsedRecord(MutableRecord context) {
+        if (context.isDropCurrentRecord()) {
+            return Optional.empty();
+        }
+        return Optional.of(new ParsedTransformRecord(context, toHeaders(context)));
+    }
+
+    private static List<Header> toHeaders(MutableRecord context) {
         List<Header> headers = new ArrayList<>();
         context.getProperties()
                 .forEach(
@@ -450,7 +509,146 @@ public class MutableRecord {
                                     new SimpleRecord.SimpleHeader(key, value);
                             headers.add(header);
                         });
-        return Optional.of(new TransformRecord(context, headers));
+        return headers;
+    }
+
+    private static final class ParsedTransformRecord implements Record {
+        private final MutableRecord context;
+        private final Collection<Header> headers;
+        // the maps to be serialized, null if the key or the value are not serialized
+        private final Object parsedKey;
+        private final TransformSchemaType keySchemaType;
+        private final Object parsedValue;
+        private final TransformSchemaType valueSchemaType;
+        private Object key;
+        private boolean keySerialized;
+        private Object value;
+        private boolean valueSerialized;
+
+        private ParsedTransformRecord(MutableRecord context, Collection<Header> headers) {
+            this.context = context;
+            this.headers = headers;
+            this.keySchemaType = context.getKeySchemaType();
+            this.parsedKey =
+                    isSerializedMap(context.getKeyObject(), keySchemaType)
+                            ? context.getKeyObject()
+                            : null;
+            this.valueSchemaType = context.getValueSchemaType();
+            this.parsedValue =
+                    isSerializedMap(context.getValueObject(), valueSchemaType)
+                            ? context.getValueObject()
+                            : null;
+        }
+
+        private static boolean isSerializedMap(Object object, TransformSchemaType schemaType) {
+            return object instanceof Map
+                    && (schemaType == TransformSchemaType.STRING
+                            || schemaType == TransformSchemaType.BYTES);
+        }
+
+        private static Object serialize(Object object, TransformSchemaType schemaType) {
+            try {
+                return mapToStringOrBytes(object, schemaType);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public synchronized Object key() {
+            if (!keySerialized) {
+                key = serialize(context.getKeyObject(), keySchemaType);
+                keySerialized = true;
+            }
+            return key;
+        }
+
+        @Override
+        public synchronized Object value() {
+            if (!valueSerialized) {
+                value = serialize(context.getValueObject(), valueSchemaType);
+                valueSerialized = true;
+            }
+            return value;
+        }
+
+        @Override
+        public String origin() {
+            return context.getInputTopic();
+        }
+
+        @Override
+        public Long timestamp() {
+            return context.getEventTime();
+        }
+
+        @Override
+        public Collection<Header> headers() {
+            return headers;
+        }
+
+        @Override
+        public String toString() {
+            return "ParsedTransformRecord{" + "context=" + context + ", headers=" + headers + '}';
+        }
+    }
+
+    /**
+     * Copies a value with the same types that parsing its JSON serialization would return: maps,
+     * lists, strings, booleans, integers, longs and doubles. The copy can be modified without
+     * affecting the original.
+     */
+    static Object toJsonValue(Object value) {
+        if (value == null
+                || value instanceof String
+                || value instanceof Boolean
+                || value instanceof Integer
+                || value instanceof Double) {
+            return value;
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> copy = new LinkedHashMap<>();
+            map.forEach((k, v) -> copy.put(String.valueOf(k), toJsonValue(v)));
+            return copy;
+        }
+        if (value instanceof FloatVector vector) {
+            List<Object> copy = new ArrayList<>(vector.size());
+            for (int i = 0; i < vector.size(); i++) {
+                copy.add(vector.get(i));
+            }
+            return copy;
+        }
+        if (value instanceof Collection<?> collection) {
+            List<Object> copy = new ArrayList<>(collection.size());
+            for (Object element : collection) {
+                copy.add(toJsonValue(element));
+            }
+            return copy;
+        }
+        if (value instanceof Float f) {
+            return f.doubleValue();
+        }
+        if (value instanceof Long || value instanceof Short || value instanceof Byte) {
+            long number = ((Number) value).longValue();
+            if (number == (int) number) {
+                return (int) number;
+            }
+            return number;
+        }
+        if (value instanceof BigInteger number) {
+            return number.bitLength() < Long.SIZE ? toJsonValue(number.longValue()) : number;
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (value instanceof byte[] bytes) {
+            return Base64.getEncoder().encodeToString(bytes);
+        }
+        // dates and other objects, as they are serialized by Jackson
+        Object converted = OBJECT_MAPPER.convertValue(value, Object.class);
+        return converted == null || converted.getClass() == value.getClass()
+                ? converted
+                : toJsonValue(converted);
     }
 
     private record TransformRecord(MutableRecord context, Collection<Header> headers)
@@ -481,6 +679,20 @@ public class MutableRecord {
         }
     }
 
+    private static TransformSchemaType getSchemaType(
+            Object object, TransformSchemaType serializedAs) {
+        if (object == null) {
+            return null;
+        }
+        if (object instanceof Map
+                && (serializedAs == TransformSchemaType.STRING
+                        || serializedAs == TransformSchemaType.BYTES)) {
+            // the same type we would see after the round trip through JSON
+            return serializedAs;
+        }
+        return getSchemaType(object.getClass());
+    }
+
     private static TransformSchemaType getSchemaType(Class<?> javaType) {
         if (String.class.isAssignableFrom(javaType)) {
             return TransformSchemaType.STRING;
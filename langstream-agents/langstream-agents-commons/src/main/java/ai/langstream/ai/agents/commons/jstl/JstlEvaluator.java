@@ -18,250 +18,127 @@ package ai.langstream.ai.agents.commons.jstl;
 import ai.langstream.ai.agents.commons.MutableRecord;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.el.ELContext;
+import jakarta.el.ELResolver;
 import jakarta.el.ExpressionFactory;
+import jakarta.el.FunctionMapper;
 import jakarta.el.PropertyNotFoundException;
 import jakarta.el.ValueExpression;
+import jakarta.el.VariableMapper;
 import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import lombok.SneakyThrows;
 import org.apache.el.ExpressionFactoryImpl;
 
+/**
+ * Evaluates a JSTL expression over a record.
+ *
+ * <p>The expression is parsed only once, when the evaluator is created. Each evaluation uses a
+ * lightweight context that resolves the top level variables ({@code key}, {@code value}, {@code
+ * properties}...) directly from the record, so an evaluator can be used by multiple threads at the
+ * same time.
+ */
 public class JstlEvaluator<T> {
 
     private static final ExpressionFactory FACTORY = new ExpressionFactoryImpl();
+    private static final Map<String, Method> FUNCTIONS = buildFunctions();
+    // the resolvers after the variables, they don't keep any state
+    private static final ELResolver STATELESS_RESOLVER =
+            StandardContext.createStatelessResolver(FACTORY);
+
     private final ValueExpression valueExpression;
     private final String expression;
-    private final ELContext expressionContext;
 
     public JstlEvaluator(String expression, Class<? extends T> type) {
-        this.expressionContext = new StandardContext(FACTORY);
         this.expression =
                 expression.startsWith("${") && expression.endsWith("}")
                         ? expression.substring(2, expression.length() - 1)
                         : expression;
-        registerFunctions();
-        this.valueExpression = FACTORY.createValueExpression(expressionContext, expression, type);
+        // the functions are bound while parsing, the context is not used after that
+        StandardContext parsingContext = new StandardContext(FACTORY);
+        FUNCTIONS.forEach(
+                (name, method) ->
+                        parsingContext.getFunctionMapper().mapFunction("fn", name, method));
+        this.valueExpression = FACTORY.createValueExpression(parsingContext, expression, type);
     }
 
     @SneakyThrows
-    private void registerFunctions() {
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction("fn", "toJson", JstlFunctions.class.getMethod("toJson", Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn", "fromJson", JstlFunctions.class.getMethod("fromJson", Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn",
-                        "split",
-                        JstlFunctions.class.getMethod("split", Object.class, Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn",
-                        "unpack",
-                        JstlFunctions.class.getMethod("unpack", Object.class, Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn",
-                        "uppercase",
-                        JstlFunctions.class.getMethod("uppercase", Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn",
-                        "lowercase",
-                        JstlFunctions.class.getMethod("lowercase", Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn",
-                        "contains",
-                        JstlFunctions.class.getMethod("contains", Object.class, Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction("fn", "trim", JstlFunctions.class.getMethod("trim", Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn", "concat", JstlFunctions.class.getMethod("concat", Object[].class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn",
-                        "concat3",
-                        JstlFunctions.class.getMethod(
-                                "concat3", Object.class, Object.class, Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn",
-                        "coalesce",
-                        JstlFunctions.class.getMethod("coalesce", Object.class, Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction("fn", "str", JstlFunctions.class.getMethod("toString", Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn", "toString", JstlFunctions.class.getMethod("toString", Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn", "toDouble", JstlFunctions.class.getMethod("toDouble", Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn",
-                        "filter",
-                        JstlFunctions.class.getMethod("filter", Object.class, String.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn",
-                        "addAll",
-                        JstlFunctions.class.getMethod("addAll", Object.class, Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn", "listOf", JstlFunctions.class.getMethod("listOf", Object[].class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction("fn", "emptyList", JstlFunctions.class.getMethod("emptyList"));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn",
-                        "mapToListOfStructs",
-                        JstlFunctions.class.getMethod(
-                                "mapToListOfStructs", Object.class, String.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn",
-                        "listToListOfStructs",
-                        JstlFunctions.class.getMethod(
-                                "listToListOfStructs", Object.class, String.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn",
-                        "listAdd",
-                        JstlFunctions.class.getMethod("listAdd", Object.class, Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction("fn", "emptyMap", JstlFunctions.class.getMethod("emptyMap"));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn",
-                        "mapPut",
-                        JstlFunctions.class.getMethod(
-                                "mapPut", Object.class, Object.class, Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction("fn", "mapOf", JstlFunctions.class.getMethod("mapOf", Object[].class));
-
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn",
-                        "mapRemove",
-                        JstlFunctions.class.getMethod("mapRemove", Object.class, Object.class));
-
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction("fn", "toInt", JstlFunctions.class.getMethod("toInt", Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn",
-                        "toListOfFloat",
-                        JstlFunctions.class.getMethod("toListOfFloat", Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction("fn", "toLong", JstlFunctions.class.getMethod("toLong", Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn",
-                        "replace",
-                        JstlFunctions.class.getMethod(
-                                "replace", Object.class, Object.class, Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction("fn", "now", JstlFunctions.class.getMethod("now"));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction("fn", "uuid", JstlFunctions.class.getMethod("uuid"));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction("fn", "random", JstlFunctions.class.getMethod("random", Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn",
-                        "timestampAdd",
-                        JstlFunctions.class.getMethod(
-                                "timestampAdd", Object.class, Object.class, Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn",
-                        "toSQLTimestamp",
-                        JstlFunctions.class.getMethod("toSQLTimestamp", Object.class));
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn",
-                        "decimalFromUnscaled",
-                        JstlFunctions.class.getMethod("toBigDecimal", Object.class, Object.class));
-
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn",
-                        "decimalFromNumber",
-                        JstlFunctions.class.getMethod("toBigDecimal", Object.class));
-
+    private static Map<String, Method> buildFunctions() {
+        Map<String, Method> functions = new LinkedHashMap<>();
+        functions.put("toJson", JstlFunctions.class.getMethod("toJson", Object.class));
+        functions.put("fromJson", JstlFunctions.class.getMethod("fromJson", Object.class));
+        functions.put("split", JstlFunctions.class.getMethod("split", Object.class, Object.class));
+        functions.put(
+                "unpack", JstlFunctions.class.getMethod("unpack", Object.class, Object.class));
+        functions.put("uppercase", JstlFunctions.class.getMethod("uppercase", Object.class));
+        functions.put("lowercase", JstlFunctions.class.getMethod("lowercase", Object.class));
+        functions.put(
+                "contains", JstlFunctions.class.getMethod("contains", Object.class, Object.class));
+        functions.put("trim", JstlFunctions.class.getMethod("trim", Object.class));
+        functions.put("concat", JstlFunctions.class.getMethod("concat", Object[].class));
+        functions.put(
+                "concat3",
+                JstlFunctions.class.getMethod("concat3", Object.class, Object.class, Object.class));
+        functions.put(
+                "coalesce", JstlFunctions.class.getMethod("coalesce", Object.class, Object.class));
+        functions.put("str", JstlFunctions.class.getMethod("toString", Object.class));
+        functions.put("toString", JstlFunctions.class.getMethod("toString", Object.class));
+        functions.put("toDouble", JstlFunctions.class.getMethod("toDouble", Object.class));
+        functions.put(
+                "filter", JstlFunctions.class.getMethod("filter", Object.class, String.class));
+        functions.put(
+                "addAll", JstlFunctions.class.getMethod("addAll", Object.class, Object.class));
+        functions.put("listOf", JstlFunctions.class.getMethod("listOf", Object[].class));
+        functions.put("emptyList", JstlFunctions.class.getMethod("emptyList"));
+        functions.put(
+                "mapToListOfStructs",
+                JstlFunctions.class.getMethod("mapToListOfStructs", Object.class, String.class));
+        functions.put(
+                "listToListOfStructs",
+                JstlFunctions.class.getMethod("listToListOfStructs", Object.class, String.class));
+        functions.put(
+                "listAdd", JstlFunctions.class.getMethod("listAdd", Object.class, Object.class));
+        functions.put("emptyMap", JstlFunctions.class.getMethod("emptyMap"));
+        functions.put(
+                "mapPut",
+                JstlFunctions.class.getMethod("mapPut", Object.class, Object.class, Object.class));
+        functions.put("mapOf", JstlFunctions.class.getMethod("mapOf", Object[].class));
+        functions.put(
+                "mapRemove",
+                JstlFunctions.class.getMethod("mapRemove", Object.class, Object.class));
+        functions.put("toInt", JstlFunctions.class.getMethod("toInt", Object.class));
+        functions.put(
+                "toListOfFloat", JstlFunctions.class.getMethod("toListOfFloat", Object.class));
+        functions.put("toLong", JstlFunctions.class.getMethod("toLong", Object.class));
+        functions.put(
+                "replace",
+                JstlFunctions.class.getMethod("replace", Object.class, Object.class, Object.class));
+        functions.put("now", JstlFunctions.class.getMethod("now"));
+        functions.put("uuid", JstlFunctions.class.getMethod("uuid"));
+        functions.put("random", JstlFunctions.class.getMethod("random", Object.class));
+        functions.put(
+                "timestampAdd",
+                JstlFunctions.class.getMethod(
+                        "timestampAdd", Object.class, Object.class, Object.class));
+        functions.put(
+                "toSQLTimestamp", JstlFunctions.class.getMethod("toSQLTimestamp", Object.class));
+        functions.put(
+                "decimalFromUnscaled",
+                JstlFunctions.class.getMethod("toBigDecimal", Object.class, Object.class));
+        functions.put(
+                "decimalFromNumber", JstlFunctions.class.getMethod("toBigDecimal", Object.class));
         // Deprecated
-        this.expressionContext
-                .getFunctionMapper()
-                .mapFunction(
-                        "fn",
-                        "dateadd",
-                        JstlFunctions.class.getMethod(
-                                "dateadd", Object.class, Object.class, Object.class));
+        functions.put(
+                "dateadd",
+                JstlFunctions.class.getMethod("dateadd", Object.class, Object.class, Object.class));
+        return functions;
     }
 
     public T evaluate(MutableRecord mutableRecord) {
-        JstlTransformContextAdapter adapter = new JstlTransformContextAdapter(mutableRecord);
-        FACTORY.createValueExpression(expressionContext, "${key}", Object.class)
-                .setValue(expressionContext, adapter.getKey());
-        FACTORY.createValueExpression(expressionContext, "${value}", Object.class)
-                .setValue(expressionContext, adapter.adaptValue());
-
-        // this is only for fn:filter
-        FACTORY.createValueExpression(expressionContext, "${record}", Object.class)
-                .setValue(expressionContext, adapter.adaptRecord());
-
-        // Register message headers as top level fields
-        FACTORY.createValueExpression(expressionContext, "${messageKey}", String.class)
-                .setValue(expressionContext, adapter.getHeader().get("messageKey"));
-        FACTORY.createValueExpression(expressionContext, "${topicName}", String.class)
-                .setValue(expressionContext, adapter.getHeader().get("topicName"));
-        FACTORY.createValueExpression(expressionContext, "${destinationTopic}", String.class)
-                .setValue(expressionContext, adapter.getHeader().get("destinationTopic"));
-        FACTORY.createValueExpression(expressionContext, "${eventTime}", Long.class)
-                .setValue(expressionContext, adapter.getHeader().get("eventTime"));
-        FACTORY.createValueExpression(expressionContext, "${properties}", Map.class)
-                .setValue(expressionContext, adapter.getHeader().get("properties"));
         try {
-            return this.valueExpression.getValue(expressionContext);
+            return evaluate(new RecordVariables(mutableRecord));
         } catch (PropertyNotFoundException notFound) {
 
             // this is a very common error, so we provide a better error message
@@ -286,17 +163,177 @@ public class JstlEvaluator<T> {
     }
 
     public T evaluateRawContext(Map<String, Object> context) {
-        for (Map.Entry<String, Object> stringObjectEntry : context.entrySet()) {
-            FACTORY.createValueExpression(
-                            expressionContext,
-                            "${%s}".formatted(stringObjectEntry.getKey()),
-                            Object.class)
-                    .setValue(expressionContext, stringObjectEntry.getValue());
-        }
-        return this.valueExpression.getValue(expressionContext);
+        return evaluate(new Variables(context));
+    }
+
+    private T evaluate(Variables variables) {
+        return valueExpression.getValue(new EvaluationContext(variables));
     }
 
     public String toString() {
         return "JstlEvaluator(expression=" + this.expression + ")";
     }
+
+    /**
+     * The top level variables of one evaluation. The variables assigned by the expression are kept
+     * only for the duration of the evaluation.
+     */
+    private static class Variables extends ELResolver {
+        private Map<String, Object> values;
+        private boolean copied;
+
+        Variables(Map<String, Object> values) {
+            this.values = values;
+        }
+
+        boolean isDefined(String name) {
+            return values.containsKey(name);
+        }
+
+        Object get(String name) {
+            return values.get(name);
+        }
+
+        void set(String name, Object value) {
+            if (!copied) {
+                // copy on the first assignment, the map of the caller is not modified
+                values = new HashMap<>(values);
+                copied = true;
+            }
+            values.put(name, value);
+        }
+
+        private static boolean isVariable(Object base, Object property) {
+            return base == null && property instanceof String;
+        }
+
+        @Override
+        public Object getValue(ELContext context, Object base, Object property) {
+            if (isVariable(base, property) && isDefined((String) property)) {
+                context.setPropertyResolved(base, property);
+                return get((String) property);
+            }
+            return STATELESS_RESOLVER.getValue(context, base, property);
+        }
+
+        @Override
+        public Class<?> getType(ELContext context, Object base, Object property) {
+            if (isVariable(base, property) && isDefined((String) property)) {
+                context.setPropertyResolved(base, property);
+                return Object.class;
+            }
+            return STATELESS_RESOLVER.getType(context, base, property);
+        }
+
+        @Override
+        public void setValue(ELContext context, Object base, Object property, Object value) {
+            if (isVariable(base, property)) {
+                context.setPropertyResolved(base, property);
+                set((String) property, value);
+                return;
+            }
+            STATELESS_RESOLVER.setValue(context, base, property, value);
+        }
+
+        @Override
+        public boolean isReadOnly(ELContext context, Object base, Object property) {
+            if (isVariable(base, property)) {
+                context.setPropertyResolved(base, property);
+                return false;
+            }
+            return STATELESS_RESOLVER.isReadOnly(context, base, property);
+        }
+
+        @Override
+        public Object invoke(
+                ELContext context,
+                Object base,
+                Object method,
+                Class<?>[] paramTypes,
+                Object[] params) {
+            return STATELESS_RESOLVER.invoke(context, base, method, paramTypes, params);
+        }
+
+        @Override
+        public Class<?> getCommonPropertyType(ELContext context, Object base) {
+            return STATELESS_RESOLVER.getCommonPropertyType(context, base);
+        }
+
+        @Override
+        public <V> V convertToType(ELContext context, Object obj, Class<V> type) {
+            return STATELESS_RESOLVER.convertToType(context, obj, type);
+        }
+    }
+
+    /** The variables bound to a record, they are computed only if the expression uses them. */
+    private static final class RecordVariables extends Variables {
+        private final MutableRecord mutableRecord;
+        private JstlTransformContextAdapter adapter;
+
+        RecordVariables(MutableRecord mutableRecord) {
+            super(Map.of());
+            this.mutableRecord = mutableRecord;
+        }
+
+        @Override
+        boolean isDefined(String name) {
+            return isRecordVariable(name) || super.isDefined(name);
+        }
+
+        @Override
+        Object get(String name) {
+            if (super.isDefined(name)) {
+                return super.get(name);
+            }
+            if (adapter == null) {
+                adapter = new JstlTransformContextAdapter(mutableRecord);
+            }
+            return switch (name) {
+                case "key" -> adapter.getKey();
+                case "value" -> adapter.adaptValue();
+                    // this is only for fn:filter
+                case "record" -> adapter.adaptRecord();
+                    // message headers as top level fields
+                default -> adapter.getHeader().get(name);
+            };
+        }
+
+        private static boolean isRecordVariable(String name) {
+            return switch (name) {
+                case "key",
+                        "value",
+                        "record",
+                        "messageKey",
+                        "topicName",
+                        "destinationTopic",
+                        "eventTime",
+                        "properties" -> true;
+                default -> false;
+            };
+        }
+    }
+
+    private static final class EvaluationContext extends ELContext {
+        private final Variables variables;
+
+        EvaluationContext(Variables variables) {
+            this.variables = variables;
+        }
+
+        @Override
+        public ELResolver getELResolver() {
+            return variables;
+        }
+
+        @Override
+        public FunctionMapper getFunctionMapper() {
+            // the functions are bound when the expression is parsed
+            return null;
+        }
+
+        @Override
+        public VariableMapper getVariableMapper() {
+            return null;
+        }
+    }
 }
@@ -17,6 +17,7 @@ package ai.langstream.ai.agents.commons.jstl;
 
 import ai.langstream.ai.agents.commons.MutableRecord;
 import ai.langstream.ai.agents.commons.jstl.predicate.JstlPredicate;
+import ai.langstream.api.util.FloatVector;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.el.ELException;
 import java.lang.reflect.Array;
@@ -94,6 +95,13 @@ public class JstlFunctions {
         if (input == null) {
             return null;
         }
+        if (input instanceof FloatVector vector) {
+            // no need to copy the values
+            return vector.asListOfFloat();
+        }
+        if (input instanceof float[] array) {
+            return FloatVector.of(array).asListOfFloat();
+        }
         if (input instanceof Collection<?> collection) {
             List<Float> result = new ArrayList<>(collection.size());
             for (Object o : collection) {
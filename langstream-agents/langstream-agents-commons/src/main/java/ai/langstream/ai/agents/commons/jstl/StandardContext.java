@@ -40,19 +40,34 @@ public class StandardContext extends StandardELContext {
     public StandardContext(ExpressionFactory factory) {
         super(factory);
         this.standardResolver = new CompositeELResolver();
-        ELResolver streamResolver = factory.getStreamELResolver();
         this.standardResolver.add(new BeanNameELResolver(new StandardBeanNameResolver()));
+        addStatelessResolvers(this.standardResolver, factory);
+    }
+
+    /**
+     * The resolvers of this context without the beans resolver, the result can be shared by
+     * concurrent evaluations.
+     */
+    static ELResolver createStatelessResolver(ExpressionFactory factory) {
+        CompositeELResolver resolver = new CompositeELResolver();
+        addStatelessResolvers(resolver, factory);
+        return resolver;
+    }
+
+    private static void addStatelessResolvers(
+            CompositeELResolver resolver, ExpressionFactory factory) {
+        ELResolver streamResolver = factory.getStreamELResolver();
         if (streamResolver != null) {
-            this.standardResolver.add(streamResolver);
+            resolver.add(streamResolver);
         }
-        this.standardResolver.add(JstlTypeConverter.INSTANCE);
+        resolver.add(JstlTypeConverter.INSTANCE);
 
-        this.standardResolver.add(new StaticFieldELResolver());
-        this.standardResolver.add(new MapELResolver());
-        this.standardResolver.add(new ResourceBundleELResolver());
-        this.standardResolver.add(new ListELResolver());
-        this.standardResolver.add(new ArrayELResolver());
-        this.standardResolver.add(new DisabledInvocationBeanResolver());
+        resolver.add(new StaticFieldELResolver());
+        resolver.add(new MapELResolver());
+        resolver.add(new ResourceBundleELResolver());
+        resolver.add(new ListELResolver());
+        resolver.add(new ArrayELResolver());
+        resolver.add(new DisabledInvocationBeanResolver());
     }
 
     public ELResolver getELResolver() {
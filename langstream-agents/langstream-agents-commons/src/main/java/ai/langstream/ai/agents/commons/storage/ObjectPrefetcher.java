@@ -0,0 +1,243 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.ai.agents.commons.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lists the objects of a bucket page by page and downloads them ahead of time, in parallel.
+ *
+ * <p>The listing continues from where the previous page ended, and when it reaches the end it
+ * starts again from the beginning in order to find the new objects. Objects that have been returned
+ * but not yet released (usually because they are not committed yet) are not downloaded again. The
+ * objects are returned in the order of the listing. Objects bigger than a threshold, or with an
+ * unknown size, are downloaded to a temporary file instead of being kept in memory.
+ */
+@Slf4j
+public class ObjectPrefetcher implements AutoCloseable {
+
+    /**
+     * An object found in the listing.
+     *
+     * @param name the name of the object
+     * @param size the size in bytes, -1 if it is unknown
+     */
+    public record ObjectInfo(String name, long size) {}
+
+    /**
+     * A page of the listing.
+     *
+     * @param objects the objects to download, already filtered
+     * @param continuation the position after the page, null if this is the last page
+     */
+    public record Page(List<ObjectInfo> objects, String continuation) {}
+
+    /** Access to the bucket. */
+    public interface ObjectStorage {
+
+        /**
+         * List a page of objects.
+         *
+         * @param continuation the continuation of the previous page, null to start from the
+         *     beginning
+         * @return the page
+         */
+        Page list(String continuation) throws Exception;
+
+        InputStream open(String name) throws Exception;
+    }
+
+    /** The content of a downloaded object, in memory or in a temporary file. */
+    public record PrefetchedObject(String name, long size, byte[] content, Path file) {
+
+        /**
+         * The content of the object. Objects stored in a temporary file are read again at every
+         * call, so the caller should keep the result instead of calling this method repeatedly.
+         *
+         * @return the content
+         */
+        public byte[] read() {
+            if (content != null) {
+                return content;
+            }
+            try {
+                return Files.readAllBytes(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void deleteFile() {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Cannot delete temporary file {}", file, e);
+                }
+            }
+        }
+    }
+
+    private final ObjectStorage storage;
+    private final int maxPrefetchedObjects;
+    private final long maxInMemorySize;
+    private final ExecutorService executor;
+    private final Deque<CompletableFuture<PrefetchedObject>> queue = new ArrayDeque<>();
+    // listed objects that are downloading, waiting in the queue or not released yet
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    // temporary files of the objects that are not released yet, by name
+    private final ConcurrentHashMap<String, PrefetchedObject> onDisk = new ConcurrentHashMap<>();
+    private Iterator<ObjectInfo> page;
+    private String continuation;
+    private boolean endOfListing;
+
+    /**
+     * @param storage the bucket
+     * @param maxPrefetchedObjects maximum number of objects downloaded ahead of time
+     * @param threads number of parallel downloads
+     * @param maxInMemorySize objects bigger than this number of bytes, or with an unknown size, are
+     *     downloaded to a temporary file
+     */
+    public ObjectPrefetcher(
+            ObjectStorage storage, int maxPrefetchedObjects, int threads, long maxInMemorySize) {
+        this.storage = storage;
+        this.maxPrefetchedObjects = Math.max(1, maxPrefetchedObjects);
+        this.maxInMemorySize = maxInMemorySize;
+        this.executor =
+                Executors.newFixedThreadPool(
+                        Math.max(1, threads),
+                        r -> {
+                            Thread thread = new Thread(r, "object-prefetcher");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+    }
+
+    /**
+     * Return the next downloaded objects. It waits for the download of the first object in the
+     * queue, and it returns the following ones only if they are already downloaded.
+     *
+     * @param maxObjects maximum number of objects to return
+     * @return the objects, empty if there are no new objects in the bucket
+     */
+    public List<PrefetchedObject> next(int maxObjects) throws Exception {
+        fill();
+        List<PrefetchedObject> result = new ArrayList<>();
+        while (!queue.isEmpty()
+                && result.size() < maxObjects
+                && (result.isEmpty() || queue.peekFirst().isDone())) {
+            CompletableFuture<PrefetchedObject> download = queue.pollFirst();
+            try {
+                result.add(download.join());
+            } catch (CompletionException e) {
+                // the objects already taken are returned again by the next listing
+                result.forEach(object -> release(object.name()));
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        }
+        // keep downloading while the caller processes the objects
+        fill();
+        return result;
+    }
+
+    /**
+     * Forget an object returned by {@link #next(int)}, deleting its temporary file. If the object
+     * is still in the bucket it will be returned again.
+     *
+     * @param name the name of the object
+     */
+    public void release(String name) {
+        PrefetchedObject object = onDisk.remove(name);
+        if (object != null) {
+            object.deleteFile();
+        }
+        inFlight.remove(name);
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private void fill() throws Exception {
+        boolean restarted = false;
+        while (queue.size() < maxPrefetchedObjects) {
+            if (page != null && page.hasNext()) {
+                ObjectInfo object = page.next();
+                if (inFlight.add(object.name())) {
+                    queue.addLast(CompletableFuture.supplyAsync(() -> download(object), executor));
+                }
+                continue;
+            }
+            if (endOfListing) {
+                // start again from the beginning to find new objects, once per call
+                if (restarted) {
+                    return;
+                }
+                restarted = true;
+                endOfListing = false;
+            }
+            Page next = storage.list(continuation);
+            page = next.objects().iterator();
+            continuation = next.continuation();
+            endOfListing = continuation == null;
+        }
+    }
+
+    private PrefetchedObject download(ObjectInfo object) {
+        String name = object.name();
+        try (InputStream in = storage.open(name)) {
+            if (object.size() >= 0 && object.size() <= maxInMemorySize) {
+                return new PrefetchedObject(name, object.size(), in.readAllBytes(), null);
+            }
+            Path file = Files.createTempFile("langstream-object", ".tmp");
+            PrefetchedObject result = new PrefetchedObject(name, object.size(), null, file);
+            onDisk.put(name, result);
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+            log.info("Downloaded object {} to {}, size {} KB", name, file, object.size() / 1024);
+            return result;
+        } catch (Exception e) {
+            log.error("Error reading object {}", name, e);
+            release(name);
+            throw new CompletionException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        queue.clear();
+        onDisk.values().forEach(PrefetchedObject::deleteFile);
+        onDisk.clear();
+        inFlight.clear();
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.ai.agents.commons.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import org.junit.jupiter.api.Test;
+
+class ObjectPrefetcherTest {
+
+    /** A bucket in memory, listed in pages of 3 objects continuing after the last name. */
+    private static class InMemoryStorage implements ObjectPrefetcher.ObjectStorage {
+        final ConcurrentSkipListMap<String, byte[]> objects = new ConcurrentSkipListMap<>();
+        final List<String> listings = new ArrayList<>();
+
+        void put(String name, String content) {
+            objects.put(name, content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public ObjectPrefetcher.Page list(String continuation) {
+            listings.add(continuation);
+            Map<String, byte[]> tail =
+                    continuation == null ? objects : objects.tailMap(continuation, false);
+            List<ObjectPrefetcher.ObjectInfo> page = new ArrayList<>();
+            for (Map.Entry<String, byte[]> entry : new TreeMap<>(tail).entrySet()) {
+                if (page.size() == 3) {
+                    return new ObjectPrefetcher.Page(page, page.get(2).name());
+                }
+                page.add(new ObjectPrefetcher.ObjectInfo(entry.getKey(), entry.getValue().length));
+            }
+            return new ObjectPrefetcher.Page(page, null);
+        }
+
+        @Override
+        public InputStream open(String name) throws Exception {
+            byte[] content = objects.get(name);
+            if (content == null) {
+                throw new FileNotFoundException(name);
+            }
+            return new ByteArrayInputStream(content);
+        }
+    }
+
+    private static List<String> names(List<ObjectPrefetcher.PrefetchedObject> objects) {
+        return objects.stream().map(ObjectPrefetcher.PrefetchedObject::name).toList();
+    }
+
+    @Test
+    void testListingContinuesAfterThePreviousPage() throws Exception {
+        InMemoryStorage storage = new InMemoryStorage();
+        for (int i = 0; i < 8; i++) {
+            storage.put("object-" + i, "content-" + i);
+        }
+        try (ObjectPrefetcher prefetcher = new ObjectPrefetcher(storage, 4, 2, 1024)) {
+            List<String> read = new ArrayList<>();
+            while (read.size() < 8) {
+                List<ObjectPrefetcher.PrefetchedObject> objects = prefetcher.next(3);
+                assertTrue(objects.size() >= 1 && objects.size() <= 3);
+                read.addAll(names(objects));
+            }
+            // in the order of the listing
+            assertEquals(
+                    List.of(
+                            "object-0",
+                            "object-1",
+                            "object-2",
+                            "object-3",
+                            "object-4",
+                            "object-5",
+                            "object-6",
+                            "object-7"),
+                    read);
+            // the pages are never listed twice
+            assertEquals(List.of("object-2", "object-5"), storage.listings.subList(1, 3));
+
+            // the objects not released are not returned again
+            assertEquals(List.of(), prefetcher.next(3));
+            assertEquals(8, prefetcher.inFlightCount());
+
+            // released objects that are still in the bucket are returned again, with the new ones
+            prefetcher.release("object-1");
+            storage.put("object-10", "new");
+            assertEquals(List.of("object-1", "object-10"), names(prefetcher.next(10)));
+        }
+    }
+
+    @Test
+    void testBigObjectsAreDownloadedToDisk() throws Exception {
+        InMemoryStorage storage = new InMemoryStorage();
+        storage.put("small", "small");
+        storage.put("too-big", "this is too big");
+        try (ObjectPrefetcher prefetcher = new ObjectPrefetcher(storage, 10, 1, 10)) {
+            List<ObjectPrefetcher.PrefetchedObject> objects = new ArrayList<>();
+            while (objects.size() < 2) {
+                objects.addAll(prefetcher.next(10));
+            }
+            ObjectPrefetcher.PrefetchedObject small = objects.get(0);
+            assertNull(small.file());
+            assertArrayEquals("small".getBytes(StandardCharsets.UTF_8), small.read());
+
+            ObjectPrefetcher.PrefetchedObject big = objects.get(1);
+            assertNull(big.content());
+            assertNotNull(big.file());
+            assertArrayEquals("this is too big".getBytes(StandardCharsets.UTF_8), big.read());
+
+            prefetcher.release("too-big");
+            assertTrue(Files.notExists(big.file()));
+        }
+    }
+
+    @Test
+    void testObjectsWithUnknownSizeAreDownloadedToDisk() throws Exception {
+        InMemoryStorage storage =
+                new InMemoryStorage() {
+                    @Override
+                    public ObjectPrefetcher.Page list(String continuation) {
+                        return new ObjectPrefetcher.Page(
+                                List.of(new ObjectPrefetcher.ObjectInfo("unknown", -1)), null);
+                    }
+                };
+        storage.put("unknown", "small");
+        try (ObjectPrefetcher prefetcher = new ObjectPrefetcher(storage, 10, 1, 10)) {
+            ObjectPrefetcher.PrefetchedObject object = prefetcher.next(1).get(0);
+            assertNull(object.content());
+            assertNotNull(object.file());
+            assertArrayEquals("small".getBytes(StandardCharsets.UTF_8), object.read());
+        }
+    }
+
+    @Test
+    void testDownloadError() throws Exception {
+        InMemoryStorage storage =
+                new InMemoryStorage() {
+                    @Override
+                    public ObjectPrefetcher.Page list(String continuation) {
+                        // the object is listed but it is removed before the download
+                        return new ObjectPrefetcher.Page(
+                                List.of(new ObjectPrefetcher.ObjectInfo("deleted", 1)), null);
+                    }
+                };
+        try (ObjectPrefetcher prefetcher = new ObjectPrefetcher(storage, 10, 1, 10)) {
+            assertThrows(FileNotFoundException.class, () -> prefetcher.next(1));
+            assertEquals(0, prefetcher.inFlightCount());
+        }
+    }
+}
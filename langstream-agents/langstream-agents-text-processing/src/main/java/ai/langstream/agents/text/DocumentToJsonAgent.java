@@ -38,6 +38,7 @@ public class DocumentToJsonAgent extends SingleRecordAgentProcessor {
         this.copyProperties =
                 Boolean.parseBoolean(
                         configuration.getOrDefault("copy-properties", "true").toString());
+        configureWorkers(configuration);
     }
 
     @Override
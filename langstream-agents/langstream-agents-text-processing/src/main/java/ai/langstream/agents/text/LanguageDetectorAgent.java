@@ -43,6 +43,7 @@ public class LanguageDetectorAgent extends SingleRecordAgentProcessor {
                 "Configuring Language Detectors with field {} and allowed languages {}",
                 property,
                 allowedLanguages);
+        configureWorkers(configuration);
     }
 
     @Override
@@ -36,6 +36,7 @@ public class TextNormaliserAgent extends SingleRecordAgentProcessor {
                         configuration.getOrDefault("make-lowercase", "true").toString());
         trimSpaces =
                 Boolean.parseBoolean(configuration.getOrDefault("trim-spaces", "true").toString());
+        configureWorkers(configuration);
     }
 
     @Override
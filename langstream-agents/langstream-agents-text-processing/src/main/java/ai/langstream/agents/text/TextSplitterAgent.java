@@ -36,6 +36,7 @@ public class TextSplitterAgent extends SingleRecordAgentProcessor {
     @Override
     public void init(Map<String, Object> configuration) {
         initTextSplitter(configuration);
+        configureWorkers(configuration);
     }
 
     private void initTextSplitter(Map<String, Object> configuration) {
@@ -15,13 +15,17 @@
  */
 package ai.langstream.agents.text;
 
+import ai.langstream.api.runner.code.Header;
 import ai.langstream.api.runner.code.Record;
 import ai.langstream.api.runner.code.SimpleRecord;
 import ai.langstream.api.runner.code.SingleRecordAgentProcessor;
+import ai.langstream.api.util.ConfigurationUtils;
 import java.io.InputStream;
-import java.io.Reader;
-import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -29,35 +33,187 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.parser.AutoDetectParser;
 import org.apache.tika.parser.ParseContext;
-import org.apache.tika.parser.ParsingReader;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.sax.BodyContentHandler;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
+/**
+ * Extracts the text of a document with Apache Tika.
+ *
+ * <p>The parser is shared by all the records, and the document is parsed on the thread that
+ * processes the record, use the "workers" setting to extract more documents in parallel. With
+ * "max-segment-size" the text is split while it is extracted into records of at most that number of
+ * characters, cut preferably at the end of a page. With "max-characters" the extraction stops after
+ * that number of characters and the text is truncated.
+ */
 @Slf4j
 public class TikaTextExtractorAgent extends SingleRecordAgentProcessor {
+
+    // parsers are thread safe, and loading the configuration of all the parsers is expensive
+    private static final Parser PARSER = new AutoDetectParser();
+
+    private int maxSegmentSize;
+    private long maxCharacters;
+
+    @Override
+    public void init(Map<String, Object> configuration) {
+        maxSegmentSize = ConfigurationUtils.getInt("max-segment-size", 0, configuration);
+        maxCharacters = ConfigurationUtils.getLong("max-characters", 0L, configuration);
+        configureWorkers(configuration);
+    }
+
     @Override
     public List<Record> processRecord(Record record) throws Exception {
         if (record == null) {
             return List.of();
         }
-        AutoDetectParser parser = new AutoDetectParser();
         Object value = record.value();
         final InputStream stream = Utils.toStream(value);
         Metadata metadata = new Metadata();
-        ParseContext parseContext = new ParseContext();
-        StringWriter valueAsString;
-
-        // ParsingReader starts new threads, so we need to make sure they are cleaned up
-        try (Reader reader = new ParsingReader(parser, stream, metadata, parseContext)) {
-            valueAsString = new StringWriter();
-            reader.transferTo(valueAsString);
+        SegmentingContentHandler handler =
+                new SegmentingContentHandler(maxSegmentSize, maxCharacters);
+        try {
+            PARSER.parse(stream, new BodyContentHandler(handler), metadata, new ParseContext());
+        } catch (Exception e) {
+            if (!SegmentingContentHandler.isLimitReached(e)) {
+                throw e;
+            }
+            log.warn(
+                    "Text of record {} truncated after {} characters", record.key(), maxCharacters);
         }
+        List<String> segments = handler.finish();
 
-        String[] names = metadata.names();
         if (log.isDebugEnabled()) {
             log.debug(
-                    "Document type: {} Content {}",
-                    Stream.of(names).collect(Collectors.toMap(Function.identity(), metadata::get)),
-                    valueAsString);
+                    "Document type: {} Segments {}",
+                    Stream.of(metadata.names())
+                            .collect(Collectors.toMap(Function.identity(), metadata::get)),
+                    segments.size());
+        }
+        if (maxSegmentSize <= 0) {
+            return List.of(SimpleRecord.copyFrom(record).value(segments.get(0)).build());
+        }
+        List<Record> result = new ArrayList<>(segments.size());
+        for (int i = 0; i < segments.size(); i++) {
+            List<Header> headers = new ArrayList<>(record.headers());
+            headers.add(new SimpleRecord.SimpleHeader("segment_id", String.valueOf(i)));
+            headers.add(
+                    new SimpleRecord.SimpleHeader(
+                            "text_num_segments", String.valueOf(segments.size())));
+            result.add(
+                    SimpleRecord.copyFrom(record).value(segments.get(i)).headers(headers).build());
+        }
+        return result;
+    }
+
+    /** Collects the text of the body of the document, splitting it into segments. */
+    static final class SegmentingContentHandler extends DefaultHandler {
+        private final int maxSegmentSize;
+        private final long maxCharacters;
+        private final List<String> segments = new ArrayList<>();
+        private final StringBuilder buffer = new StringBuilder();
+        // for each open div, whether it is a page
+        private final Deque<Boolean> divs = new ArrayDeque<>();
+        private int lastPageEnd = -1;
+        private long totalCharacters;
+
+        /**
+         * @param maxSegmentSize maximum number of characters of a segment, 0 to not split the text
+         * @param maxCharacters maximum number of characters to extract, 0 for no limit
+         */
+        SegmentingContentHandler(int maxSegmentSize, long maxCharacters) {
+            this.maxSegmentSize = maxSegmentSize;
+            this.maxCharacters = maxCharacters;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) {
+            if ("div".equals(localName)) {
+                divs.push("page".equals(atts.getValue("class")));
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if ("div".equals(localName) && !divs.isEmpty() && divs.pop()) {
+                lastPageEnd = buffer.length();
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            if (maxCharacters > 0 && totalCharacters + length > maxCharacters) {
+                append(ch, start, (int) (maxCharacters - totalCharacters));
+                throw new LimitReachedException();
+            }
+            append(ch, start, length);
+        }
+
+        @Override
+        public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+            characters(ch, start, length);
+        }
+
+        private void append(char[] ch, int start, int length) {
+            buffer.append(ch, start, length);
+            totalCharacters += length;
+            while (maxSegmentSize > 0 && buffer.length() > maxSegmentSize) {
+                cutSegment(computeCut());
+            }
+        }
+
+        private int computeCut() {
+            if (lastPageEnd > 0) {
+                return lastPageEnd;
+            }
+            for (int i = maxSegmentSize; i > 0; i--) {
+                if (Character.isWhitespace(buffer.charAt(i - 1))) {
+                    return i;
+                }
+            }
+            return maxSegmentSize;
+        }
+
+        private void cutSegment(int end) {
+            String segment = buffer.substring(0, end);
+            if (!segment.isBlank()) {
+                segments.add(segment);
+            }
+            buffer.delete(0, end);
+            lastPageEnd = -1;
+        }
+
+        /**
+         * @return the segments, without segmentation there is always exactly one segment
+         */
+        List<String> finish() {
+            if (maxSegmentSize <= 0) {
+                return List.of(buffer.toString());
+            }
+            String rest = buffer.toString();
+            if (!rest.isBlank() || segments.isEmpty()) {
+                segments.add(rest);
+            }
+            buffer.setLength(0);
+            return segments;
+        }
+
+        static boolean isLimitReached(Throwable error) {
+            while (error != null) {
+                if (error instanceof LimitReachedException) {
+                    return true;
+                }
+                error = error.getCause();
+            }
+            return false;
+        }
+    }
+
+    private static final class LimitReachedException extends SAXException {
+        LimitReachedException() {
+            super("Maximum number of characters reached");
         }
-        return List.of(SimpleRecord.copyFrom(record).value(valueAsString.toString()).build());
     }
 }
@@ -16,6 +16,7 @@
 package ai.langstream.agents.text;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import ai.langstream.api.runner.code.Record;
 import ai.langstream.api.runner.code.SimpleRecord;
@@ -23,8 +24,12 @@ import ai.langstream.api.runner.code.SingleRecordAgentProcessor;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
+import org.xml.sax.helpers.AttributesImpl;
 
 @Slf4j
 public class TextExtractorTest {
@@ -88,4 +93,67 @@ public class TextExtractorTest {
 
         assertEquals("This is a very simple Word Document", result.value().toString().trim());
     }
+
+    @Test
+    public void textExtractInSegments() throws Exception {
+        TextProcessingAgentsCodeProvider provider = new TextProcessingAgentsCodeProvider();
+        SingleRecordAgentProcessor instance = provider.createInstance("text-extractor");
+        instance.init(Map.of("max-segment-size", 30));
+
+        String text = "The quick brown fox jumps over the lazy dog. ".repeat(10);
+        Record fromSource =
+                SimpleRecord.builder()
+                        .key("filename.txt")
+                        .value(text.getBytes(StandardCharsets.UTF_8))
+                        .build();
+
+        List<Record> result = instance.processRecord(fromSource);
+        assertTrue(result.size() > 10);
+        for (Record segment : result) {
+            assertTrue(segment.value().toString().length() <= 30);
+            assertEquals(
+                    String.valueOf(result.size()),
+                    segment.getHeader("text_num_segments").valueAsString());
+        }
+        assertEquals("0", result.get(0).getHeader("segment_id").valueAsString());
+        assertEquals("The quick brown fox jumps ", result.get(0).value());
+        assertEquals(
+                text.trim(),
+                result.stream()
+                        .map(r -> r.value().toString())
+                        .collect(Collectors.joining())
+                        .trim());
+    }
+
+    @Test
+    public void textExtractMaxCharacters() throws Exception {
+        TextProcessingAgentsCodeProvider provider = new TextProcessingAgentsCodeProvider();
+        SingleRecordAgentProcessor instance = provider.createInstance("text-extractor");
+        instance.init(Map.of("max-characters", 9));
+
+        Record fromSource =
+                SimpleRecord.builder()
+                        .key("filename.txt")
+                        .value("This is a test".getBytes(StandardCharsets.UTF_8))
+                        .build();
+
+        List<Record> result = instance.processRecord(fromSource);
+        assertEquals(1, result.size());
+        assertEquals("This is a", result.get(0).value());
+    }
+
+    @Test
+    public void testSegmentsAreCutAtPageBoundaries() throws Exception {
+        TikaTextExtractorAgent.SegmentingContentHandler handler =
+                new TikaTextExtractorAgent.SegmentingContentHandler(20, 0);
+        AttributesImpl page = new AttributesImpl();
+        page.addAttribute("", "class", "class", "CDATA", "page");
+        for (String content : List.of("first page\n", "second page\n", "third page\n")) {
+            handler.startElement("", "div", "div", page);
+            char[] chars = content.toCharArray();
+            handler.characters(chars, 0, chars.length);
+            handler.endElement("", "div", "div");
+        }
+        assertEquals(List.of("first page\n", "second page\n", "third page\n"), handler.finish());
+    }
 }
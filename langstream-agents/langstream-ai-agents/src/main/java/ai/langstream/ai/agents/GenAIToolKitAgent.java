@@ -15,6 +15,7 @@
  */
 package ai.langstream.ai.agents;
 
+import static ai.langstream.ai.agents.commons.MutableRecord.mutableRecordToParsedRecord;
 import static ai.langstream.ai.agents.commons.MutableRecord.mutableRecordToRecord;
 import static ai.langstream.ai.agents.commons.MutableRecord.recordToMutableRecord;
 
@@ -106,8 +107,9 @@ public class GenAIToolKitAgent extends AbstractAgentCode implements AgentProcess
         return handle.thenApply(
                 ___ -> {
                     try {
-                        context.convertMapToStringOrBytes();
-                        Optional<Record> recordResult = mutableRecordToRecord(context);
+                        // the maps are serialized only when the record is written, the next agent
+                        // of a composite agent copies them instead of parsing the serialized value
+                        Optional<Record> recordResult = mutableRecordToParsedRecord(context);
                         if (log.isDebugEnabled()) {
                             log.debug("Result {}", recordResult);
                         }
@@ -162,7 +164,9 @@ public class GenAIToolKitAgent extends AbstractAgentCode implements AgentProcess
                         serviceProvider,
                         dataSource,
                         streamingAnswersConsumerFactory,
-                        stepsConfig.get(0));
+                        stepsConfig.get(0),
+                        agentContext.getPersistentStateDirectoryForAgent(agentId()),
+                        reporter);
         streamingAnswersConsumerFactory.setAgentContext(agentContext);
         step.getTransformStep().start();
     }
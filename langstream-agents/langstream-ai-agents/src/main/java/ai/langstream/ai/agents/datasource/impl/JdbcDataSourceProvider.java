@@ -16,6 +16,7 @@
 package ai.langstream.ai.agents.datasource.impl;
 
 import ai.langstream.ai.agents.datasource.DataSourceProvider;
+import ai.langstream.api.util.ConfigurationUtils;
 import com.datastax.oss.streaming.ai.datasource.QueryStepDataSource;
 import java.lang.reflect.InvocationTargetException;
 import java.sql.Connection;
@@ -32,9 +33,17 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 
 @Slf4j
 public class JdbcDataSourceProvider implements DataSourceProvider {
@@ -51,9 +60,16 @@ public class JdbcDataSourceProvider implements DataSourceProvider {
 
     public static class JdbcDataSourceImpl implements QueryStepDataSource {
 
+        static final int DEFAULT_POOL_SIZE = 4;
+
         Connection connection;
         Map<String, Object> dataSourceConfig;
 
+        // the asynchronous operations run on a bounded pool of threads, each operation borrows a
+        // dedicated connection, JDBC connections must not be used concurrently
+        private ExecutorService executor;
+        private final BlockingQueue<Connection> idleConnections = new LinkedBlockingQueue<>();
+
         public JdbcDataSourceImpl(Map<String, Object> dataSourceConfig) {
             this.dataSourceConfig = dataSourceConfig;
         }
@@ -62,72 +78,172 @@ public class JdbcDataSourceProvider implements DataSourceProvider {
         public void initialize(Map<String, Object> config) throws Exception {
             connection = buildConnection(dataSourceConfig);
             connection.setAutoCommit(true);
+            int poolSize =
+                    ConfigurationUtils.getInteger("pool-size", DEFAULT_POOL_SIZE, dataSourceConfig);
+            executor =
+                    Executors.newFixedThreadPool(
+                            poolSize,
+                            new BasicThreadFactory.Builder()
+                                    .namingPattern("jdbc-datasource-%d")
+                                    .daemon(true)
+                                    .build());
         }
 
         @Override
         @SneakyThrows
         public Map<String, Object> executeStatement(
                 String query, List<String> generatedKeys, List<Object> params) {
-            PreparedStatement ps;
-            if (generatedKeys != null && !generatedKeys.isEmpty()) {
-                ps = connection.prepareStatement(query, generatedKeys.toArray(new String[0]));
-            } else {
-                ps = connection.prepareStatement(query);
+            return executeStatement(connection, query, generatedKeys, params);
+        }
+
+        @Override
+        @SneakyThrows
+        public List<Map<String, Object>> fetchData(String query, List<Object> params) {
+            return fetchData(connection, query, params);
+        }
+
+        @Override
+        public CompletableFuture<List<Map<String, Object>>> fetchDataAsync(
+                String query, List<Object> params) {
+            return executeAsync(pooledConnection -> fetchData(pooledConnection, query, params));
+        }
+
+        @Override
+        public CompletableFuture<Map<String, Object>> executeStatementAsync(
+                String query, List<String> generatedKeys, List<Object> params) {
+            return executeAsync(
+                    pooledConnection ->
+                            executeStatement(pooledConnection, query, generatedKeys, params));
+        }
+
+        private interface JdbcOperation<T> {
+            T execute(Connection connection) throws Exception;
+        }
+
+        private <T> CompletableFuture<T> executeAsync(JdbcOperation<T> operation) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            try {
+                executor.execute(
+                        () -> {
+                            Connection pooledConnection = null;
+                            try {
+                                pooledConnection = borrowConnection();
+                                result.complete(operation.execute(pooledConnection));
+                            } catch (Throwable error) {
+                                result.completeExceptionally(error);
+                            } finally {
+                                if (pooledConnection != null) {
+                                    releaseConnection(pooledConnection);
+                                }
+                            }
+                        });
+            } catch (RejectedExecutionException error) {
+                result.completeExceptionally(error);
+            }
+            return result;
+        }
+
+        private Connection borrowConnection() throws Exception {
+            Connection pooledConnection = idleConnections.poll();
+            if (pooledConnection == null) {
+                // there are at most pool-size operations running, so at most pool-size connections
+                pooledConnection = buildConnection(dataSourceConfig);
+                pooledConnection.setAutoCommit(true);
+            }
+            return pooledConnection;
+        }
+
+        private void releaseConnection(Connection pooledConnection) {
+            try {
+                if (!pooledConnection.isClosed()) {
+                    idleConnections.add(pooledConnection);
+                }
+            } catch (SQLException e) {
+                log.warn("Discarding broken connection", e);
             }
-            for (int i = 0; i < params.size(); i++) {
-                ps.setObject(i + 1, params.get(i));
+        }
+
+        private static Map<String, Object> executeStatement(
+                Connection connection,
+                String query,
+                List<String> generatedKeys,
+                List<Object> params)
+                throws SQLException {
+            try (PreparedStatement ps =
+                    generatedKeys != null && !generatedKeys.isEmpty()
+                            ? connection.prepareStatement(
+                                    query, generatedKeys.toArray(new String[0]))
+                            : connection.prepareStatement(query)) {
+                for (int i = 0; i < params.size(); i++) {
+                    ps.setObject(i + 1, params.get(i));
+                }
+                long resultCount = ps.executeLargeUpdate();
+                Map<String, Object> generatedKeysValues = null;
+                if (generatedKeys != null && !generatedKeys.isEmpty()) {
+                    try (ResultSet resultSet = ps.getGeneratedKeys(); ) {
+                        ResultSetMetaData metaData = resultSet.getMetaData();
+                        int numColumns = metaData.getColumnCount();
+                        generatedKeysValues = new HashMap<>();
+                        while (resultSet.next()) {
+
+                            for (int i = 1; i <= numColumns; i++) {
+                                Object value = resultSet.getObject(i);
+                                generatedKeysValues.put(metaData.getColumnName(i), value);
+                            }
+                        }
+                    }
+                }
+                if (generatedKeysValues != null) {
+                    return Map.of("count", resultCount, "generatedKeys", generatedKeysValues);
+                } else {
+                    return Map.of("count", resultCount);
+                }
             }
-            long resultCount = ps.executeLargeUpdate();
-            Map<String, Object> generatedKeysValues = null;
-            if (generatedKeys != null && !generatedKeys.isEmpty()) {
-                try (ResultSet resultSet = ps.getGeneratedKeys(); ) {
+        }
+
+        private static List<Map<String, Object>> fetchData(
+                Connection connection, String query, List<Object> params) throws SQLException {
+            try (PreparedStatement ps = connection.prepareStatement(query)) {
+                for (int i = 0; i < params.size(); i++) {
+                    ps.setObject(i + 1, params.get(i));
+                }
+                try (ResultSet resultSet = ps.executeQuery()) {
                     ResultSetMetaData metaData = resultSet.getMetaData();
                     int numColumns = metaData.getColumnCount();
-                    generatedKeysValues = new HashMap<>();
+                    List<Map<String, Object>> results = new ArrayList<>();
                     while (resultSet.next()) {
-
+                        Map<String, Object> result = new HashMap<>();
                         for (int i = 1; i <= numColumns; i++) {
                             Object value = resultSet.getObject(i);
-                            generatedKeysValues.put(metaData.getColumnName(i), value);
+                            result.put(metaData.getColumnName(i), value);
                         }
+                        results.add(result);
                     }
+                    return results;
                 }
             }
-            if (generatedKeysValues != null) {
-                return Map.of("count", resultCount, "generatedKeys", generatedKeysValues);
-            } else {
-                return Map.of("count", resultCount);
-            }
         }
 
         @Override
-        @SneakyThrows
-        public List<Map<String, Object>> fetchData(String query, List<Object> params) {
-            PreparedStatement ps = connection.prepareStatement(query);
-            for (int i = 0; i < params.size(); i++) {
-                ps.setObject(i + 1, params.get(i));
-            }
-            try (ResultSet resultSet = ps.executeQuery()) {
-                ResultSetMetaData metaData = resultSet.getMetaData();
-                int numColumns = metaData.getColumnCount();
-                List<Map<String, Object>> results = new ArrayList<>();
-                while (resultSet.next()) {
-                    Map<String, Object> result = new HashMap<>();
-                    for (int i = 1; i <= numColumns; i++) {
-                        Object value = resultSet.getObject(i);
-                        result.put(metaData.getColumnName(i), value);
+        public void close() {
+            if (executor != null) {
+                executor.shutdown();
+                try {
+                    if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                        log.warn("Some JDBC operations are still running");
                     }
-                    results.add(result);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
                 }
-                return results;
             }
-        }
-
-        @Override
-        public void close() {
+            List<Connection> connections = new ArrayList<>();
+            idleConnections.drainTo(connections);
             if (connection != null) {
+                connections.add(connection);
+            }
+            for (Connection c : connections) {
                 try {
-                    connection.close();
+                    c.close();
                 } catch (Exception e) {
                     log.error("Error closing connection", e);
                 }
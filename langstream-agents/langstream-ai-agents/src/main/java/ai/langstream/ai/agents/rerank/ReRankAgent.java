@@ -23,6 +23,7 @@ import ai.langstream.ai.agents.commons.jstl.JstlEvaluator;
 import ai.langstream.api.runner.code.Record;
 import ai.langstream.api.runner.code.SingleRecordAgentProcessor;
 import ai.langstream.api.util.ConfigurationUtils;
+import ai.langstream.api.util.FloatVector;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -346,6 +347,9 @@ public class ReRankAgent extends SingleRecordAgentProcessor {
         if (input == null) {
             return null;
         }
+        if (input instanceof FloatVector vector) {
+            return vector.values();
+        }
         if (input instanceof Collection<?> collection) {
             float[] result = new float[collection.size()];
             int i = 0;
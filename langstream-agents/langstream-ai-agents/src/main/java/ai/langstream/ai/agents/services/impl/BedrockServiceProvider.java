@@ -21,6 +21,7 @@ import ai.langstream.ai.agents.services.impl.bedrock.BaseInvokeModelRequest;
 import ai.langstream.ai.agents.services.impl.bedrock.BedrockClient;
 import ai.langstream.ai.agents.services.impl.bedrock.TitanEmbeddingsModel;
 import ai.langstream.api.runner.code.MetricsReporter;
+import ai.langstream.api.util.FloatVector;
 import com.datastax.oss.streaming.ai.completions.ChatChoice;
 import com.datastax.oss.streaming.ai.completions.ChatCompletions;
 import com.datastax.oss.streaming.ai.completions.ChatMessage;
@@ -99,7 +100,7 @@ public class BedrockServiceProvider implements ServiceProviderProvider {
                                                     .inputText(text)
                                                     .build(),
                                             TitanEmbeddingsModel.ResponseBody.class)
-                                    .thenApply(r -> r.embedding()));
+                                    .thenApply(r -> FloatVector.of(r.embedding())));
                 }
                 CompletableFuture<Void> joinedPromise =
                         CompletableFuture.allOf(all.toArray(CompletableFuture[]::new));
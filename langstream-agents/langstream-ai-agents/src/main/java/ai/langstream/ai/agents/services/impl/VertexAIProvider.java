@@ -18,6 +18,7 @@ package ai.langstream.ai.agents.services.impl;
 import ai.langstream.ai.agents.services.ServiceProviderProvider;
 import ai.langstream.api.runner.code.MetricsReporter;
 import ai.langstream.api.util.ConfigurationUtils;
+import ai.langstream.api.util.FloatVector;
 import com.datastax.oss.streaming.ai.completions.ChatChoice;
 import com.datastax.oss.streaming.ai.completions.ChatCompletions;
 import com.datastax.oss.streaming.ai.completions.ChatMessage;
@@ -452,7 +453,10 @@ public class VertexAIProvider implements ServiceProviderProvider {
                 return predictionsHandle.thenApply(
                         predictions ->
                                 predictions.predictions.stream()
-                                        .map(p -> p.embeddings.values)
+                                        .map(
+                                                p ->
+                                                        (List<Double>)
+                                                                FloatVector.of(p.embeddings.values))
                                         .collect(Collectors.toList()));
             }
         }
@@ -484,7 +488,7 @@ public class VertexAIProvider implements ServiceProviderProvider {
 
                 @Data
                 static class Embeddings {
-                    List<Double> values;
+                    float[] values;
                 }
             }
         }
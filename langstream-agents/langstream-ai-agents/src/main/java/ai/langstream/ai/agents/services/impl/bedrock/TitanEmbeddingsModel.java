@@ -15,7 +15,6 @@
  */
 package ai.langstream.ai.agents.services.impl.bedrock;
 
-import java.util.List;
 import lombok.Builder;
 import lombok.Data;
 
@@ -28,7 +27,7 @@ public class TitanEmbeddingsModel extends BaseInvokeModelRequest<TitanEmbeddings
 
     public record RequestBody(String inputText) {}
 
-    public record ResponseBody(List<Double> embedding) {}
+    public record ResponseBody(float[] embedding) {}
 
     @Override
     public String getModelId() {
@@ -19,6 +19,7 @@ import static com.datastax.oss.streaming.ai.util.TransformFunctionUtil.convertTo
 
 import ai.langstream.ai.agents.commons.JsonRecord;
 import ai.langstream.ai.agents.commons.MutableRecord;
+import ai.langstream.api.runner.code.MetricsReporter;
 import com.datastax.oss.streaming.ai.completions.ChatChoice;
 import com.datastax.oss.streaming.ai.completions.ChatCompletions;
 import com.datastax.oss.streaming.ai.completions.ChatMessage;
@@ -51,6 +52,7 @@ public class ChatCompletionsStep implements TransformStep {
 
     private final Map<ChatMessage, Template> messageTemplates = new ConcurrentHashMap<>();
     private final StreamingAnswersConsumerFactory streamingAnswersConsumerFactory;
+    private final MetricsReporter.Histogram completionsLatency;
 
     private StreamingAnswersConsumer streamingAnswersConsumer;
 
@@ -78,6 +80,18 @@ public class ChatCompletionsStep implements TransformStep {
             CompletionsService completionsService,
             StreamingAnswersConsumerFactory streamingAnswersConsumerFactory,
             ChatCompletionsConfig config) {
+        this(completionsService, streamingAnswersConsumerFactory, config, MetricsReporter.DISABLED);
+    }
+
+    public ChatCompletionsStep(
+            CompletionsService completionsService,
+            StreamingAnswersConsumerFactory streamingAnswersConsumerFactory,
+            ChatCompletionsConfig config,
+            MetricsReporter metricsReporter) {
+        this.completionsLatency =
+                metricsReporter.histogram(
+                        "ai_chat_completions_latency_seconds",
+                        "Time spent waiting for the answer of the AI service");
         this.streamingAnswersConsumerFactory = streamingAnswersConsumerFactory;
         this.completionsService = completionsService;
         this.config = config;
@@ -129,6 +143,7 @@ public class ChatCompletionsStep implements TransformStep {
         Map<String, Object> options = convertToMap(config);
         options.put("min-chunks-per-message", config.getMinChunksPerMessage());
 
+        long start = System.nanoTime();
         CompletableFuture<ChatCompletions> chatCompletionsHandle =
                 completionsService.getChatCompletions(
                         messages,
@@ -156,6 +171,7 @@ public class ChatCompletionsStep implements TransformStep {
 
         return chatCompletionsHandle.thenApply(
                 chatCompletions -> {
+                    completionsLatency.observeSince(start);
                     ChatChoice chatChoice = chatCompletions.getChoices().get(0);
                     applyResultFieldToContext(mutableRecord, chatChoice.content(), false);
 
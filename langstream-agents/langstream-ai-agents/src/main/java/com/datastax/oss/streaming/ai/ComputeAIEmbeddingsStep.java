@@ -18,6 +18,8 @@ package com.datastax.oss.streaming.ai;
 import ai.langstream.ai.agents.commons.JsonRecord;
 import ai.langstream.ai.agents.commons.MutableRecord;
 import ai.langstream.ai.agents.commons.jstl.JstlEvaluator;
+import ai.langstream.api.runner.code.MetricsReporter;
+import ai.langstream.api.util.FloatVector;
 import ai.langstream.api.util.OrderedAsyncBatchExecutor;
 import com.datastax.oss.streaming.ai.embeddings.EmbeddingsService;
 import com.samskivert.mustache.Mustache;
@@ -53,6 +55,8 @@ public class ComputeAIEmbeddingsStep implements TransformStep {
     private final String loopOverFieldName;
     private final String fieldInRecord;
     private final EmbeddingsService embeddingsService;
+    private final MetricsReporter.Histogram embeddingsLatency;
+    private final MetricsReporter.Histogram embeddingsBatchSize;
 
     private final OrderedAsyncBatchExecutor<RecordHolder> batchExecutor;
 
@@ -71,6 +75,35 @@ public class ComputeAIEmbeddingsStep implements TransformStep {
             long flushInterval,
             int concurrency,
             EmbeddingsService embeddingsService) {
+        this(
+                text,
+                embeddingsFieldName,
+                loopOver,
+                batchSize,
+                flushInterval,
+                concurrency,
+                embeddingsService,
+                MetricsReporter.DISABLED);
+    }
+
+    public ComputeAIEmbeddingsStep(
+            String text,
+            String embeddingsFieldName,
+            String loopOver,
+            int batchSize,
+            long flushInterval,
+            int concurrency,
+            EmbeddingsService embeddingsService,
+            MetricsReporter metricsReporter) {
+        this.embeddingsLatency =
+                metricsReporter.histogram(
+                        "ai_embeddings_latency_seconds",
+                        "Time spent computing the embeddings of a batch of texts");
+        this.embeddingsBatchSize =
+                metricsReporter.histogram(
+                        "ai_embeddings_batch_size",
+                        "Number of texts sent to the embeddings service in a batch",
+                        MetricsReporter.BATCH_SIZE_BUCKETS);
         this.template =
                 Mustache.compiler().compile(MustacheCompatibilityUtils.handleLegacyTemplate(text));
         this.loopOverFieldName = loopOver;
@@ -201,6 +234,8 @@ public class ComputeAIEmbeddingsStep implements TransformStep {
             return;
         }
 
+        embeddingsBatchSize.observe(texts.size());
+        long start = System.nanoTime();
         CompletableFuture<List<List<Double>>> embeddings =
                 embeddingsService.computeEmbeddings(texts);
 
@@ -208,12 +243,15 @@ public class ComputeAIEmbeddingsStep implements TransformStep {
                 .thenAccept(
                         (result) -> {
                             for (int i = 0; i < textsAndCompletions.size(); i++) {
-                                List<Double> embeddingsForText = result.get(i);
+                                // keep the values as primitive floats in the record, the vector
+                                // is still seen as a List<Double> by the other agents
+                                List<Double> embeddingsForText = FloatVector.from(result.get(i));
                                 textsAndCompletions.get(i).completion().accept(embeddingsForText);
                             }
                         })
                 .whenComplete(
                         (a, b) -> {
+                            embeddingsLatency.observeSince(start);
                             if (b != null) {
                                 log.error("Error while processing batch", b);
                                 errorForAll(records, b);
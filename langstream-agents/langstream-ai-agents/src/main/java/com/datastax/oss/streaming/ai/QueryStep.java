@@ -19,9 +19,14 @@ import ai.langstream.ai.agents.commons.MutableRecord;
 import ai.langstream.ai.agents.commons.jstl.JstlEvaluator;
 import com.datastax.oss.streaming.ai.datasource.QueryStepDataSource;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.avro.Schema;
@@ -36,6 +41,7 @@ public class QueryStep implements TransformStep {
 
     public static final String MODE_QUERY = "query";
     public static final String MODE_EXECUTE = "execute";
+    public static final int DEFAULT_LOOP_OVER_CONCURRENCY = 10;
     private final Map<Schema, Schema> avroValueSchemaCache = new ConcurrentHashMap<>();
     private final Map<Schema, Schema> avroKeySchemaCache = new ConcurrentHashMap<>();
     private final List<JstlEvaluator<Object>> fieldsEvaluators = new ArrayList<>();
@@ -48,6 +54,7 @@ public class QueryStep implements TransformStep {
     private final String loopOver;
     private final List<String> generatedKeys;
     private final String mode;
+    private final int loopOverConcurrency;
 
     private JstlEvaluator<List> loopOverAccessor;
 
@@ -60,6 +67,7 @@ public class QueryStep implements TransformStep {
             String loopOver,
             List<String> generatedKeys,
             String mode,
+            int loopOverConcurrency,
             JstlEvaluator<List> loopOverAccessor) {
         this.fields = fields;
         this.mode = mode == null ? MODE_QUERY : mode;
@@ -69,6 +77,8 @@ public class QueryStep implements TransformStep {
         this.onlyFirst = onlyFirst;
         this.dataSource = dataSource;
         this.loopOver = loopOver;
+        this.loopOverConcurrency =
+                loopOverConcurrency > 0 ? loopOverConcurrency : DEFAULT_LOOP_OVER_CONCURRENCY;
         this.loopOverAccessor = loopOverAccessor;
         if (this.fields != null) {
             this.fields.forEach(
@@ -84,112 +94,192 @@ public class QueryStep implements TransformStep {
     }
 
     @Override
-    public void process(MutableRecord mutableRecord) {
-        Schema schema;
-        Object finalResult;
-
-        switch (mode) {
-            case MODE_QUERY:
-                List<Map<String, Object>> results = processQuery(mutableRecord);
-                if (onlyFirst) {
-                    schema = Schema.createMap(Schema.create(Schema.Type.STRING));
-                    if (results.isEmpty()) {
-                        finalResult = Map.of();
-                    } else {
-                        finalResult = results.get(0);
-                    }
-                } else {
-                    schema =
-                            Schema.createArray(Schema.createMap(Schema.create(Schema.Type.STRING)));
-                    finalResult = results;
-                }
-                break;
-            case MODE_EXECUTE:
-                finalResult = processExecute(mutableRecord);
-                if (finalResult instanceof Map) {
-                    schema = Schema.createMap(Schema.create(Schema.Type.STRING));
-                } else if (finalResult instanceof List) {
-                    schema =
-                            Schema.createArray(Schema.createMap(Schema.create(Schema.Type.STRING)));
-                } else {
-                    throw new IllegalStateException();
-                }
-                break;
-            default:
-                throw new IllegalStateException("Unknown mode " + mode);
+    public CompletableFuture<?> processAsync(MutableRecord mutableRecord) {
+        try {
+            switch (mode) {
+                case MODE_QUERY:
+                    return processQuery(mutableRecord)
+                            .thenAccept(
+                                    results -> {
+                                        Schema schema;
+                                        Object finalResult;
+                                        if (onlyFirst) {
+                                            schema =
+                                                    Schema.createMap(
+                                                            Schema.create(Schema.Type.STRING));
+                                            if (results.isEmpty()) {
+                                                finalResult = Map.of();
+                                            } else {
+                                                finalResult = results.get(0);
+                                            }
+                                        } else {
+                                            schema =
+                                                    Schema.createArray(
+                                                            Schema.createMap(
+                                                                    Schema.create(
+                                                                            Schema.Type.STRING)));
+                                            finalResult = results;
+                                        }
+                                        setResult(mutableRecord, finalResult, schema);
+                                    });
+                case MODE_EXECUTE:
+                    return processExecute(mutableRecord)
+                            .thenAccept(
+                                    finalResult -> {
+                                        Schema schema;
+                                        if (finalResult instanceof Map) {
+                                            schema =
+                                                    Schema.createMap(
+                                                            Schema.create(Schema.Type.STRING));
+                                        } else if (finalResult instanceof List) {
+                                            schema =
+                                                    Schema.createArray(
+                                                            Schema.createMap(
+                                                                    Schema.create(
+                                                                            Schema.Type.STRING)));
+                                        } else {
+                                            throw new IllegalStateException();
+                                        }
+                                        setResult(mutableRecord, finalResult, schema);
+                                    });
+                default:
+                    throw new IllegalStateException("Unknown mode " + mode);
+            }
+        } catch (Throwable error) {
+            return CompletableFuture.failedFuture(error);
         }
+    }
+
+    private void setResult(MutableRecord mutableRecord, Object finalResult, Schema schema) {
         mutableRecord.setResultField(
                 finalResult, outputFieldName, schema, avroKeySchemaCache, avroValueSchemaCache);
     }
 
-    private List<Map<String, Object>> processQuery(MutableRecord mutableRecord) {
-        List<Map<String, Object>> results;
+    private CompletableFuture<List<Map<String, Object>>> processQuery(MutableRecord mutableRecord) {
         if (loopOverAccessor == null) {
-            results = performQuery(mutableRecord);
-        } else {
-            // loop over a list
-            // for each item we name if "record" and we perform the query
-            List<Object> nestedRecords = loopOverAccessor.evaluate(mutableRecord);
-            results = new ArrayList<>();
-            for (Object document : nestedRecords) {
-                MutableRecord nestedRecordContext = new MutableRecord();
-                nestedRecordContext.setRecordObject(document);
-                // set in the item the result
-                List<Map<String, Object>> resultsForDocument = performQuery(nestedRecordContext);
-                results.addAll(resultsForDocument);
-            }
+            return performQuery(evaluateParams(mutableRecord));
         }
-        return results;
+        // loop over a list
+        // for each item we name if "record" and we perform the query
+        return loopOver(evaluateParamsForEachItem(mutableRecord), this::performQuery)
+                .thenApply(
+                        resultsForDocuments -> {
+                            List<Map<String, Object>> results = new ArrayList<>();
+                            resultsForDocuments.forEach(results::addAll);
+                            return results;
+                        });
     }
 
-    private Object processExecute(MutableRecord mutableRecord) {
-        Object res;
+    private CompletableFuture<?> processExecute(MutableRecord mutableRecord) {
         if (loopOverAccessor == null) {
-            res = executeStatement(mutableRecord);
-        } else {
-            // loop over a list
-            // for each item we name if "record" and we perform the query
-            List<Object> nestedRecords = loopOverAccessor.evaluate(mutableRecord);
-            List<Map<String, Object>> results = new ArrayList<>();
-            for (Object document : nestedRecords) {
-                MutableRecord nestedRecordContext = new MutableRecord();
-                nestedRecordContext.setRecordObject(document);
-                // set in the item the result
-                Map<String, Object> resultsForDocument = executeStatement(nestedRecordContext);
-                results.add(resultsForDocument);
-            }
-            res = results;
+            return executeStatement(evaluateParams(mutableRecord));
         }
-        return res;
+        // loop over a list
+        // for each item we name if "record" and we perform the query
+        return loopOver(evaluateParamsForEachItem(mutableRecord), this::executeStatement);
     }
 
-    private List<Map<String, Object>> performQuery(MutableRecord mutableRecord) {
-        List<Object> params = new ArrayList<>();
-        fieldsEvaluators.forEach(
-                field -> {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Evaluating {}", field);
-                    }
-                    Object value = field.evaluate(mutableRecord);
-                    if (log.isDebugEnabled()) {
-                        log.debug(
-                                "Result {} type {}",
-                                value,
-                                value != null ? value.getClass() : "null");
-                    }
-                    params.add(value);
-                });
-        List<Map<String, Object>> results = dataSource.fetchData(query, params);
-        if (results == null) {
-            results = List.of();
+    /**
+     * The expressions are evaluated here, on the thread that processes the record, the concurrent
+     * sub-queries only receive the values of the parameters.
+     */
+    private List<List<Object>> evaluateParamsForEachItem(MutableRecord mutableRecord) {
+        List<Object> nestedRecords = loopOverAccessor.evaluate(mutableRecord);
+        if (nestedRecords == null) {
+            return List.of();
         }
-        if (log.isDebugEnabled()) {
-            log.debug("Result from datasource: {}", results);
+        List<List<Object>> paramsForEachItem = new ArrayList<>(nestedRecords.size());
+        for (Object nestedRecord : nestedRecords) {
+            MutableRecord nestedRecordContext = new MutableRecord();
+            nestedRecordContext.setRecordObject(nestedRecord);
+            paramsForEachItem.add(evaluateParams(nestedRecordContext));
         }
-        return results;
+        return paramsForEachItem;
     }
 
-    private Map<String, Object> executeStatement(MutableRecord mutableRecord) {
+    /**
+     * Run the action for each item, with at most loopOverConcurrency actions in flight. The results
+     * are in the same order of the items.
+     */
+    private <T> CompletableFuture<List<T>> loopOver(
+            List<List<Object>> paramsForEachItem,
+            Function<List<Object>, CompletableFuture<T>> action) {
+        if (paramsForEachItem.isEmpty()) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        LoopOverExecution<T> execution = new LoopOverExecution<>(paramsForEachItem, action);
+        int concurrency = Math.min(loopOverConcurrency, paramsForEachItem.size());
+        for (int i = 0; i < concurrency; i++) {
+            execution.submitNext();
+        }
+        return execution.result;
+    }
+
+    private static class LoopOverExecution<T> {
+        private final List<List<Object>> paramsForEachItem;
+        private final Function<List<Object>, CompletableFuture<T>> action;
+        private final Object[] results;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final CompletableFuture<List<T>> result = new CompletableFuture<>();
+
+        LoopOverExecution(
+                List<List<Object>> paramsForEachItem,
+                Function<List<Object>, CompletableFuture<T>> action) {
+            this.paramsForEachItem = paramsForEachItem;
+            this.action = action;
+            this.results = new Object[paramsForEachItem.size()];
+            this.remaining = new AtomicInteger(paramsForEachItem.size());
+        }
+
+        void submitNext() {
+            // the actions that complete immediately are handled in this loop, without recursion
+            while (!result.isDone()) {
+                int index = next.getAndIncrement();
+                if (index >= results.length) {
+                    return;
+                }
+                CompletableFuture<T> future;
+                try {
+                    future = action.apply(paramsForEachItem.get(index));
+                } catch (Throwable error) {
+                    result.completeExceptionally(error);
+                    return;
+                }
+                if (!future.isDone()) {
+                    future.whenComplete(
+                            (r, e) -> {
+                                if (handleResult(index, future)) {
+                                    submitNext();
+                                }
+                            });
+                    return;
+                }
+                if (!handleResult(index, future)) {
+                    return;
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean handleResult(int index, CompletableFuture<T> future) {
+            try {
+                results[index] = future.join();
+            } catch (CompletionException error) {
+                result.completeExceptionally(error.getCause());
+                return false;
+            } catch (Throwable error) {
+                result.completeExceptionally(error);
+                return false;
+            }
+            if (remaining.decrementAndGet() == 0) {
+                result.complete((List<T>) new ArrayList<>(Arrays.asList(results)));
+            }
+            return true;
+        }
+    }
+
+    private List<Object> evaluateParams(MutableRecord mutableRecord) {
         List<Object> params = new ArrayList<>();
         fieldsEvaluators.forEach(
                 field -> {
@@ -205,10 +295,33 @@ public class QueryStep implements TransformStep {
                     }
                     params.add(value);
                 });
-        Map<String, Object> results = dataSource.executeStatement(query, generatedKeys, params);
-        if (log.isDebugEnabled()) {
-            log.debug("Result from datasource: {}", results);
-        }
-        return results;
+        return params;
+    }
+
+    private CompletableFuture<List<Map<String, Object>>> performQuery(List<Object> params) {
+        return dataSource
+                .fetchDataAsync(query, params)
+                .thenApply(
+                        results -> {
+                            if (results == null) {
+                                results = List.of();
+                            }
+                            if (log.isDebugEnabled()) {
+                                log.debug("Result from datasource: {}", results);
+                            }
+                            return results;
+                        });
+    }
+
+    private CompletableFuture<Map<String, Object>> executeStatement(List<Object> params) {
+        return dataSource
+                .executeStatementAsync(query, generatedKeys, params)
+                .thenApply(
+                        results -> {
+                            if (log.isDebugEnabled()) {
+                                log.debug("Result from datasource: {}", results);
+                            }
+                            return results;
+                        });
     }
 }
@@ -18,6 +18,7 @@ package com.datastax.oss.streaming.ai.datasource;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface QueryStepDataSource extends AutoCloseable {
 
@@ -33,5 +34,33 @@ public interface QueryStepDataSource extends AutoCloseable {
         return Map.of();
     }
 
+    /**
+     * Non-blocking version of {@link #fetchData(String, List)}. The default implementation runs the
+     * query in the calling thread, implementations should override it to not block the caller.
+     */
+    default CompletableFuture<List<Map<String, Object>>> fetchDataAsync(
+            String query, List<Object> params) {
+        try {
+            return CompletableFuture.completedFuture(fetchData(query, params));
+        } catch (Throwable error) {
+            return CompletableFuture.failedFuture(error);
+        }
+    }
+
+    /**
+     * Non-blocking version of {@link #executeStatement(String, List, List)}. The default
+     * implementation runs the statement in the calling thread, implementations should override it
+     * to not block the caller.
+     */
+    default CompletableFuture<Map<String, Object>> executeStatementAsync(
+            String query, List<String> generatedKeys, List<Object> params) {
+        try {
+            return CompletableFuture.completedFuture(
+                    executeStatement(query, generatedKeys, params));
+        } catch (Throwable error) {
+            return CompletableFuture.failedFuture(error);
+        }
+    }
+
     default void close() {}
 }
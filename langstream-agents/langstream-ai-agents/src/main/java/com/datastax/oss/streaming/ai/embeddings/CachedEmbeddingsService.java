@@ -0,0 +1,373 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.streaming.ai.embeddings;
+
+import ai.langstream.api.runner.code.MetricsReporter;
+import ai.langstream.api.util.FloatVector;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Caches the embeddings computed by another {@link EmbeddingsService}.
+ *
+ * <p>The entries are keyed by a digest of the namespace (provider and model) and of the text. The
+ * embeddings are kept in an in-memory LRU cache bounded by the size of the vectors and, optionally,
+ * in a directory on the persistent disk of the agent, in order to survive restarts. The files on
+ * disk are bounded as well, the least recently used ones are deleted. Only the texts not found in
+ * the cache are sent to the service.
+ *
+ * <p>The disk is accessed by a dedicated thread, the misses of the in-memory cache of a batch are
+ * read in a single task and the new entries are written in the background.
+ */
+@Slf4j
+public class CachedEmbeddingsService implements EmbeddingsService {
+
+    // estimated memory used by an entry besides the values: key, array header and cache node
+    static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final EmbeddingsService delegate;
+    private final byte[] namespace;
+    private final Cache<String, FloatVector> memoryCache;
+    private final Path directory;
+    // the files on disk and their size, accessed only by the diskExecutor
+    private final Cache<String, Integer> diskEntries;
+    private final ExecutorService diskExecutor;
+    private final MetricsReporter.Counter hits;
+    private final MetricsReporter.Counter misses;
+
+    /**
+     * @param delegate the service that computes the embeddings
+     * @param namespace identifies the provider and the model, different namespaces never share the
+     *     entries
+     * @param maxMemoryBytes maximum size of the in-memory cache, 0 to disable it
+     * @param directory directory for the persistent store, null to disable it
+     * @param maxDiskBytes maximum size of the files in the persistent store
+     * @param metricsReporter reporter for the hits and misses
+     */
+    public CachedEmbeddingsService(
+            EmbeddingsService delegate,
+            String namespace,
+            long maxMemoryBytes,
+            Path directory,
+            long maxDiskBytes,
+            MetricsReporter metricsReporter) {
+        this.delegate = delegate;
+        this.namespace = namespace.getBytes(StandardCharsets.UTF_8);
+        this.memoryCache =
+                maxMemoryBytes > 0
+                        ? CacheBuilder.newBuilder()
+                                .maximumWeight(maxMemoryBytes)
+                                .<String, FloatVector>weigher(
+                                        (key, vector) ->
+                                                ENTRY_OVERHEAD_BYTES + vector.size() * Float.BYTES)
+                                .build()
+                        : null;
+        this.directory = directory;
+        if (directory != null) {
+            this.diskEntries =
+                    CacheBuilder.newBuilder()
+                            .concurrencyLevel(1)
+                            .maximumWeight(maxDiskBytes)
+                            .<String, Integer>weigher((key, size) -> size)
+                            .removalListener(this::onDiskEntryRemoved)
+                            .build();
+            this.diskExecutor =
+                    Executors.newSingleThreadExecutor(
+                            r -> {
+                                Thread thread = new Thread(r, "embeddings-cache-disk");
+                                thread.setDaemon(true);
+                                return thread;
+                            });
+            diskExecutor.execute(this::loadDiskEntries);
+        } else {
+            this.diskEntries = null;
+            this.diskExecutor = null;
+        }
+        this.hits =
+                metricsReporter.counter(
+                        "embeddings_cache_hits",
+                        "Total number of texts whose embeddings were found in the cache");
+        this.misses =
+                metricsReporter.counter(
+                        "embeddings_cache_misses",
+                        "Total number of texts whose embeddings were computed by the AI service");
+    }
+
+    @Override
+    public CompletableFuture<List<List<Double>>> computeEmbeddings(List<String> texts) {
+        List<List<Double>> result = new ArrayList<>(Collections.nCopies(texts.size(), null));
+        // positions of the texts not in memory, by key, the same text may appear more than once
+        Map<String, List<Integer>> missingPositions = new LinkedHashMap<>();
+        Map<String, String> missingTexts = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < texts.size(); i++) {
+                String text = texts.get(i);
+                String key = computeKey(text);
+                FloatVector cached = memoryCache != null ? memoryCache.getIfPresent(key) : null;
+                if (cached != null) {
+                    hits.count(1);
+                    result.set(i, cached);
+                } else {
+                    missingTexts.putIfAbsent(key, text);
+                    missingPositions.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+                }
+            }
+        } catch (Throwable error) {
+            return CompletableFuture.failedFuture(error);
+        }
+        if (missingTexts.isEmpty()) {
+            return CompletableFuture.completedFuture(result);
+        }
+        CompletableFuture<Void> diskLookup =
+                directory != null
+                        ? CompletableFuture.runAsync(
+                                () -> {
+                                    missingTexts
+                                            .keySet()
+                                            .removeIf(
+                                                    key -> {
+                                                        FloatVector vector = readFromDisk(key);
+                                                        if (vector == null) {
+                                                            return false;
+                                                        }
+                                                        if (memoryCache != null) {
+                                                            memoryCache.put(key, vector);
+                                                        }
+                                                        setResult(
+                                                                result,
+                                                                missingPositions.get(key),
+                                                                vector);
+                                                        return true;
+                                                    });
+                                },
+                                diskExecutor)
+                        : CompletableFuture.completedFuture(null);
+        return diskLookup.thenCompose(
+                __ -> computeMissing(texts, result, missingPositions, missingTexts));
+    }
+
+    private CompletableFuture<List<List<Double>>> computeMissing(
+            List<String> texts,
+            List<List<Double>> result,
+            Map<String, List<Integer>> missingPositions,
+            Map<String, String> missingTexts) {
+        int missingCount = 0;
+        int diskHits = 0;
+        for (Map.Entry<String, List<Integer>> entry : missingPositions.entrySet()) {
+            if (missingTexts.containsKey(entry.getKey())) {
+                missingCount += entry.getValue().size();
+            } else {
+                diskHits += entry.getValue().size();
+            }
+        }
+        hits.count(diskHits);
+        misses.count(missingCount);
+        if (missingTexts.isEmpty()) {
+            return CompletableFuture.completedFuture(result);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(
+                    "Embeddings cache: {} hits, {} texts to compute",
+                    texts.size() - missingCount,
+                    missingTexts.size());
+        }
+        return delegate.computeEmbeddings(new ArrayList<>(missingTexts.values()))
+                .thenApply(
+                        computed -> {
+                            int index = 0;
+                            for (String key : missingTexts.keySet()) {
+                                FloatVector vector = FloatVector.from(computed.get(index++));
+                                store(key, vector);
+                                setResult(result, missingPositions.get(key), vector);
+                            }
+                            return result;
+                        });
+    }
+
+    private static void setResult(
+            List<List<Double>> result, List<Integer> positions, FloatVector vector) {
+        for (int position : positions) {
+            result.set(position, vector);
+        }
+    }
+
+    String computeKey(String text) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(namespace);
+        digest.update((byte) 0);
+        digest.update(text.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void store(String key, FloatVector vector) {
+        if (memoryCache != null) {
+            memoryCache.put(key, vector);
+        }
+        if (directory != null) {
+            diskExecutor.execute(() -> writeToDisk(key, vector));
+        }
+    }
+
+    private Path fileForKey(String key) {
+        // spread the files over 256 directories
+        return directory.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    /** Rebuild the index of the files on disk, the most recently modified are kept. */
+    private void loadDiskEntries() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> files = new ArrayList<>();
+        Map<Path, BasicFileAttributes> attributes = new HashMap<>();
+        try (Stream<Path> stream = Files.walk(directory, 2)) {
+            stream.forEach(
+                    file -> {
+                        try {
+                            BasicFileAttributes attrs =
+                                    Files.readAttributes(file, BasicFileAttributes.class);
+                            if (!attrs.isRegularFile()) {
+                                return;
+                            }
+                            if (file.getFileName().toString().endsWith(".tmp")) {
+                                // left by a crash while writing
+                                Files.deleteIfExists(file);
+                                return;
+                            }
+                            files.add(file);
+                            attributes.put(file, attrs);
+                        } catch (IOException e) {
+                            log.warn("Cannot read embeddings cache file {}", file, e);
+                        }
+                    });
+        } catch (IOException e) {
+            log.warn("Cannot list the embeddings cache directory {}", directory, e);
+            return;
+        }
+        files.sort(Comparator.comparing(file -> attributes.get(file).lastModifiedTime()));
+        for (Path file : files) {
+            // the oldest files are evicted first if the limit is lower than before
+            diskEntries.put(file.getFileName().toString(), (int) attributes.get(file).size());
+        }
+        log.info("Embeddings cache: {} entries on disk in {}", diskEntries.size(), directory);
+    }
+
+    private void onDiskEntryRemoved(RemovalNotification<String, Integer> notification) {
+        if (!notification.wasEvicted()) {
+            return;
+        }
+        Path file = fileForKey(notification.getKey());
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete embeddings cache file {}", file, e);
+        }
+    }
+
+    private FloatVector readFromDisk(String key) {
+        // the index avoids probing the disk for the texts that were never cached
+        if (diskEntries.getIfPresent(key) == null) {
+            return null;
+        }
+        Path file = fileForKey(key);
+        try {
+            byte[] content = Files.readAllBytes(file);
+            if (content.length % Float.BYTES != 0) {
+                log.warn("Ignoring corrupted embeddings cache file {}", file);
+                return null;
+            }
+            float[] values = new float[content.length / Float.BYTES];
+            ByteBuffer.wrap(content).asFloatBuffer().get(values);
+            return FloatVector.of(values);
+        } catch (NoSuchFileException notFound) {
+            diskEntries.invalidate(key);
+            return null;
+        } catch (IOException e) {
+            log.warn("Cannot read embeddings cache file {}", file, e);
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, FloatVector vector) {
+        if (diskEntries.getIfPresent(key) != null) {
+            return;
+        }
+        Path file = fileForKey(key);
+        try {
+            Files.createDirectories(file.getParent());
+            float[] values = vector.values();
+            ByteBuffer buffer = ByteBuffer.allocate(values.length * Float.BYTES);
+            buffer.asFloatBuffer().put(values);
+            // write to a temporary file and then rename it, in order to never read partial files
+            Path temporaryFile = Files.createTempFile(file.getParent(), key, ".tmp");
+            try {
+                Files.write(temporaryFile, buffer.array());
+                Files.move(
+                        temporaryFile,
+                        file,
+                        StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+            diskEntries.put(key, buffer.capacity());
+        } catch (IOException e) {
+            log.warn("Cannot write embeddings cache file {}", file, e);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (diskExecutor != null) {
+            // complete the pending writes
+            diskExecutor.shutdown();
+            if (!diskExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Timed out while writing the embeddings cache to disk");
+            }
+        }
+        delegate.close();
+    }
+}
@@ -33,5 +33,14 @@ public interface EmbeddingsService extends AutoCloseable {
 
     default void close() throws Exception {}
 
+    /**
+     * Compute the embeddings of the given texts.
+     *
+     * <p>The implementations should return a {@link ai.langstream.api.util.FloatVector} for each
+     * text, that keeps the values as primitive floats and avoids boxing each dimension.
+     *
+     * @param texts the texts
+     * @return the embeddings, in the same order of the texts
+     */
     CompletableFuture<List<List<Double>>> computeEmbeddings(List<String> texts);
 }
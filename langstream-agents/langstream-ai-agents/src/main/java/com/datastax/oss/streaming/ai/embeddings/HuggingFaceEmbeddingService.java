@@ -17,6 +17,7 @@ package com.datastax.oss.streaming.ai.embeddings;
 
 import ai.djl.MalformedModelException;
 import ai.djl.repository.zoo.ModelNotFoundException;
+import ai.langstream.api.util.FloatVector;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -52,11 +53,7 @@ public class HuggingFaceEmbeddingService
     List<List<Double>> convertOutput(List<float[]> result) {
         List<List<Double>> out = new ArrayList<>(result.size());
         for (float[] floats : result) {
-            List<Double> l = new ArrayList<>(floats.length);
-            for (float aFloat : floats) {
-                l.add((double) aFloat);
-            }
-            out.add(l);
+            out.add(FloatVector.of(floats));
         }
         return out;
     }
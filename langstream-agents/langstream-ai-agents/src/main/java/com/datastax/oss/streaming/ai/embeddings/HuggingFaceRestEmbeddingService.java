@@ -15,13 +15,16 @@
  */
 package com.datastax.oss.streaming.ai.embeddings;
 
+import ai.langstream.api.util.FloatVector;
 import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -139,8 +142,7 @@ public class HuggingFaceRestEmbeddingService implements EmbeddingsService {
             return bodyHandle.thenApply(
                     body -> {
                         try {
-                            Object result = om.readValue(body, Object.class);
-                            return (List<List<Double>>) result;
+                            return parseEmbeddings(om.readTree(body));
                         } catch (Exception e) {
                             throw new RuntimeException(e);
                         }
@@ -150,6 +152,42 @@ public class HuggingFaceRestEmbeddingService implements EmbeddingsService {
         }
     }
 
+    /**
+     * The usual response is a list of vectors, one per text, that is parsed into float vectors.
+     * Other shapes (for instance models that return one vector per token) are returned as they are.
+     */
+    static List<List<Double>> parseEmbeddings(JsonNode result) throws Exception {
+        if (!isListOfVectors(result)) {
+            return (List<List<Double>>) om.treeToValue(result, Object.class);
+        }
+        List<List<Double>> embeddings = new ArrayList<>(result.size());
+        for (JsonNode vector : result) {
+            float[] values = new float[vector.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = vector.get(i).floatValue();
+            }
+            embeddings.add(FloatVector.of(values));
+        }
+        return embeddings;
+    }
+
+    private static boolean isListOfVectors(JsonNode result) {
+        if (!result.isArray()) {
+            return false;
+        }
+        for (JsonNode vector : result) {
+            if (!vector.isArray()) {
+                return false;
+            }
+            for (JsonNode value : vector) {
+                if (!value.isNumber()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     private CompletableFuture<String> query(String jsonPayload) throws Exception {
         HttpRequest request =
                 HttpRequest.newBuilder()
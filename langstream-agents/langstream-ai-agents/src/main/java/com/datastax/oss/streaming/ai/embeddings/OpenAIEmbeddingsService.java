@@ -16,8 +16,8 @@
 package com.datastax.oss.streaming.ai.embeddings;
 
 import ai.langstream.api.runner.code.MetricsReporter;
+import ai.langstream.api.util.FloatVector;
 import com.azure.ai.openai.OpenAIAsyncClient;
-import com.azure.ai.openai.models.EmbeddingItem;
 import com.azure.ai.openai.models.EmbeddingsOptions;
 import com.azure.ai.openai.models.EmbeddingsUsage;
 import java.util.List;
@@ -77,7 +77,12 @@ public class OpenAIEmbeddingsService implements EmbeddingsService {
                                         totalTokens.count(usage.getTotalTokens());
                                         promptTokens.count(usage.getPromptTokens());
                                         return embeddings.getData().stream()
-                                                .map(EmbeddingItem::getEmbedding)
+                                                .map(
+                                                        item ->
+                                                                (List<Double>)
+                                                                        FloatVector.from(
+                                                                                item
+                                                                                        .getEmbedding()))
                                                 .collect(Collectors.toList());
                                     });
 
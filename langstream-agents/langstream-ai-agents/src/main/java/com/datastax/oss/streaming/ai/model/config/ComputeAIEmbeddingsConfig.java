@@ -45,6 +45,17 @@ public class ComputeAIEmbeddingsConfig extends StepConfig {
     @JsonProperty("flush-interval")
     private int flushInterval = 0;
 
+    // the cache is disabled by default
+    @JsonProperty("cache-max-bytes")
+    private long cacheMaxBytes = 0;
+
+    @JsonProperty("cache-on-disk")
+    private boolean cacheOnDisk = false;
+
+    // the least recently used files are deleted above this size
+    @JsonProperty("cache-on-disk-max-bytes")
+    private long cacheOnDiskMaxBytes = 1024L * 1024 * 1024;
+
     @Deprecated
     @JsonProperty(value = "compute-service")
     private String service;
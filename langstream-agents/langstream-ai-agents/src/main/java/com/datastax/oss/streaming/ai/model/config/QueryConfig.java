@@ -15,6 +15,7 @@
  */
 package com.datastax.oss.streaming.ai.model.config;
 
+import com.datastax.oss.streaming.ai.QueryStep;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.List;
 import lombok.Getter;
@@ -27,6 +28,9 @@ public class QueryConfig extends StepConfig {
     @JsonProperty(value = "loop-over")
     private String loopOver;
 
+    @JsonProperty(value = "loop-over-concurrency")
+    private int loopOverConcurrency = QueryStep.DEFAULT_LOOP_OVER_CONCURRENCY;
+
     @JsonProperty(value = "fields")
     private List<String> fields;
 
@@ -18,6 +18,7 @@ package com.datastax.oss.streaming.ai.util;
 import ai.langstream.ai.agents.commons.MutableRecord;
 import ai.langstream.ai.agents.commons.TransformSchemaType;
 import ai.langstream.ai.agents.commons.jstl.predicate.JstlPredicate;
+import ai.langstream.api.runner.code.MetricsReporter;
 import com.azure.ai.openai.OpenAIAsyncClient;
 import com.azure.ai.openai.OpenAIClient;
 import com.azure.ai.openai.OpenAIClientBuilder;
@@ -45,6 +46,7 @@ import com.datastax.oss.streaming.ai.UnwrapKeyValueStep;
 import com.datastax.oss.streaming.ai.completions.CompletionsService;
 import com.datastax.oss.streaming.ai.datasource.CassandraDataSource;
 import com.datastax.oss.streaming.ai.datasource.QueryStepDataSource;
+import com.datastax.oss.streaming.ai.embeddings.CachedEmbeddingsService;
 import com.datastax.oss.streaming.ai.embeddings.EmbeddingsService;
 import com.datastax.oss.streaming.ai.model.ComputeField;
 import com.datastax.oss.streaming.ai.model.ComputeFieldType;
@@ -64,17 +66,21 @@ import com.datastax.oss.streaming.ai.model.config.UnwrapKeyValueConfig;
 import com.datastax.oss.streaming.ai.services.ServiceProvider;
 import com.datastax.oss.streaming.ai.streaming.StreamingAnswersConsumerFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.security.SecureRandom;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
@@ -170,6 +176,25 @@ public class TransformFunctionUtil {
             StreamingAnswersConsumerFactory streamingAnswersConsumerFactory,
             StepConfig step)
             throws Exception {
+        return buildStep(
+                transformConfig,
+                serviceProvider,
+                dataSource,
+                streamingAnswersConsumerFactory,
+                step,
+                Optional.empty(),
+                MetricsReporter.DISABLED);
+    }
+
+    public static StepPredicatePair buildStep(
+            TransformStepConfig transformConfig,
+            ServiceProvider serviceProvider,
+            QueryStepDataSource dataSource,
+            StreamingAnswersConsumerFactory streamingAnswersConsumerFactory,
+            StepConfig step,
+            Optional<Path> persistentStateDirectory,
+            MetricsReporter metricsReporter)
+            throws Exception {
         TransformStep transformStep;
         switch (step.getType()) {
             case "drop-fields":
@@ -197,14 +222,19 @@ public class TransformFunctionUtil {
                 break;
             case "compute-ai-embeddings":
                 transformStep =
-                        newComputeAIEmbeddings((ComputeAIEmbeddingsConfig) step, serviceProvider);
+                        newComputeAIEmbeddings(
+                                (ComputeAIEmbeddingsConfig) step,
+                                serviceProvider,
+                                persistentStateDirectory,
+                                metricsReporter);
                 break;
             case "ai-chat-completions":
                 transformStep =
                         newChatCompletionsFunction(
                                 (ChatCompletionsConfig) step,
                                 serviceProvider,
-                                streamingAnswersConsumerFactory);
+                                streamingAnswersConsumerFactory,
+                                metricsReporter);
                 break;
             case "ai-text-completions":
                 transformStep =
@@ -302,10 +332,38 @@ public class TransformFunctionUtil {
         return ComputeStep.builder().fields(fieldList).build();
     }
 
-    @SneakyThrows
     public static TransformStep newComputeAIEmbeddings(
             ComputeAIEmbeddingsConfig config, ServiceProvider provider) {
+        return newComputeAIEmbeddings(config, provider, Optional.empty(), MetricsReporter.DISABLED);
+    }
+
+    @SneakyThrows
+    public static TransformStep newComputeAIEmbeddings(
+            ComputeAIEmbeddingsConfig config,
+            ServiceProvider provider,
+            Optional<Path> persistentStateDirectory,
+            MetricsReporter metricsReporter) {
         EmbeddingsService embeddingsService = provider.getEmbeddingsService(convertToMap(config));
+        if (config.getCacheMaxBytes() > 0 || config.isCacheOnDisk()) {
+            Path cacheDirectory = null;
+            if (config.isCacheOnDisk()) {
+                cacheDirectory =
+                        persistentStateDirectory
+                                .orElseThrow(
+                                        () ->
+                                                new IllegalArgumentException(
+                                                        "No persistent disk available for the agent and cache-on-disk was set to true"))
+                                .resolve("embeddings-cache");
+            }
+            embeddingsService =
+                    new CachedEmbeddingsService(
+                            embeddingsService,
+                            computeEmbeddingsCacheNamespace(config, embeddingsService),
+                            config.getCacheMaxBytes(),
+                            cacheDirectory,
+                            config.getCacheOnDiskMaxBytes(),
+                            metricsReporter);
+        }
         return new ComputeAIEmbeddingsStep(
                 config.getText(),
                 config.getEmbeddingsFieldName(),
@@ -313,7 +371,24 @@ public class TransformFunctionUtil {
                 config.getBatchSize(),
                 config.getFlushInterval(),
                 config.getConcurrency(),
-                embeddingsService);
+                embeddingsService,
+                metricsReporter);
+    }
+
+    /** The embeddings computed by different services or models must never be mixed. */
+    @SneakyThrows
+    private static String computeEmbeddingsCacheNamespace(
+            ComputeAIEmbeddingsConfig config, EmbeddingsService embeddingsService) {
+        Map<String, Object> namespace = new HashMap<>();
+        namespace.put("service", embeddingsService.getClass().getName());
+        namespace.put("model", config.getModel());
+        namespace.put("model-url", config.getModelUrl());
+        namespace.put("options", config.getOptions());
+        namespace.put("arguments", config.getArguments());
+        return OBJECT_MAPPER
+                .writer()
+                .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                .writeValueAsString(namespace);
     }
 
     public static UnwrapKeyValueStep newUnwrapKeyValueFunction(UnwrapKeyValueConfig config) {
@@ -331,11 +406,13 @@ public class TransformFunctionUtil {
     public static ChatCompletionsStep newChatCompletionsFunction(
             ChatCompletionsConfig config,
             ServiceProvider serviceProvider,
-            StreamingAnswersConsumerFactory streamingAnswersConsumerFactory)
+            StreamingAnswersConsumerFactory streamingAnswersConsumerFactory,
+            MetricsReporter metricsReporter)
             throws Exception {
         CompletionsService completionsService =
                 serviceProvider.getCompletionsService(convertToMap(config));
-        return new ChatCompletionsStep(completionsService, streamingAnswersConsumerFactory, config);
+        return new ChatCompletionsStep(
+                completionsService, streamingAnswersConsumerFactory, config, metricsReporter);
     }
 
     public static TextCompletionsStep newTextCompletionsFunction(
@@ -379,6 +456,7 @@ public class TransformFunctionUtil {
                 .outputFieldName(config.getOutputField())
                 .query(config.getQuery())
                 .loopOver(config.getLoopOver())
+                .loopOverConcurrency(config.getLoopOverConcurrency())
                 .generatedKeys(config.getGeneratedKeys())
                 .mode(config.getMode())
                 .onlyFirst(config.isOnlyFirst())
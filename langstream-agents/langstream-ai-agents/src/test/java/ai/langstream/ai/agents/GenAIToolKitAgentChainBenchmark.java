@@ -0,0 +1,119 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.ai.agents;
+
+import ai.langstream.api.runner.code.Record;
+import ai.langstream.api.runner.code.SimpleRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures a chain of five {@code compute} agents, as they are executed by a composite agent. With
+ * {@code serializeBetweenSteps} each intermediate record is serialized, as it happens when the
+ * agents run in different pods. Use the GC profiler to compare the allocations per record.
+ *
+ * <p>Run it with: {@code java -cp <test classpath>
+ * ai.langstream.ai.agents.GenAIToolKitAgentChainBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenAIToolKitAgentChainBenchmark {
+
+    @Param({"false", "true"})
+    boolean serializeBetweenSteps;
+
+    private final List<GenAIToolKitAgent> chain = new ArrayList<>();
+    private String value;
+
+    @Setup
+    public void setup() throws Exception {
+        chain.add(
+                GenAIToolKitAgentTest.createComputeAgent(
+                        "value.question", "fn:trim(value.question)"));
+        chain.add(GenAIToolKitAgentTest.createComputeAgent("value.language", "'en'"));
+        chain.add(
+                GenAIToolKitAgentTest.createComputeAgent(
+                        "value.prompt", "fn:concat('Answer: ', value.question)"));
+        chain.add(
+                GenAIToolKitAgentTest.createComputeAgent(
+                        "value.summary", "fn:uppercase(value.question)"));
+        chain.add(GenAIToolKitAgentTest.createComputeAgent("value.processed", "true"));
+        List<Double> embeddings = new ArrayList<>();
+        for (int i = 0; i < 256; i++) {
+            embeddings.add(i / 256d);
+        }
+        value =
+                new ObjectMapper()
+                        .writeValueAsString(
+                                Map.of(
+                                        "question",
+                                        " What is LangStream? ",
+                                        "text",
+                                        "LangStream is a framework for building streaming AI applications. "
+                                                .repeat(20),
+                                        "embeddings",
+                                        embeddings));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        for (GenAIToolKitAgent agent : chain) {
+            agent.close();
+        }
+    }
+
+    @Benchmark
+    public Object chain() throws Exception {
+        Record current = SimpleRecord.builder().key("key").value(value).build();
+        for (GenAIToolKitAgent agent : chain) {
+            current = agent.processRecord(current).get().get(0);
+            if (serializeBetweenSteps) {
+                current.value();
+            }
+        }
+        // the sink serializes the final record
+        return current.value();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(
+                        new OptionsBuilder()
+                                .include(GenAIToolKitAgentChainBenchmark.class.getSimpleName())
+                                .build())
+                .run();
+    }
+}
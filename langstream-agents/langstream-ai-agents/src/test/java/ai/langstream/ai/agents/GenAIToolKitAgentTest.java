@@ -19,11 +19,18 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import ai.langstream.ai.agents.commons.MutableRecord;
+import ai.langstream.ai.agents.commons.TransformSchemaType;
 import ai.langstream.api.runner.code.AgentContext;
 import ai.langstream.api.runner.code.MetricsReporter;
 import ai.langstream.api.runner.code.Record;
 import ai.langstream.api.runner.code.SimpleRecord;
+import ai.langstream.api.util.FloatVector;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
@@ -60,7 +67,105 @@ class GenAIToolKitAgentTest {
                         Map.class));
     }
 
+    @Test
+    void testChainOfAgents() throws Exception {
+        SimpleRecord record =
+                SimpleRecord.builder()
+                        .key("key")
+                        .value(MAPPER.writeValueAsString(Map.of("count", 1)))
+                        .headers(List.of(SimpleRecord.SimpleHeader.of("h1", "v1")))
+                        .build();
+        List<GenAIToolKitAgent> chain = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            chain.add(createComputeAgent("value.count", "value.count + 1"));
+        }
+        Record current = record;
+        for (GenAIToolKitAgent agent : chain) {
+            current = agent.processRecord(current).get().get(0);
+        }
+        // the value is serialized only at the end of the chain
+        assertEquals(Map.of("count", 6), MAPPER.readValue((String) current.value(), Map.class));
+        assertEquals("key", current.key());
+        assertEquals("v1", current.getHeader("h1").valueAsString());
+        for (GenAIToolKitAgent agent : chain) {
+            agent.close();
+        }
+    }
+
+    @Test
+    void testParsedValueIsHandedOver() throws Exception {
+        SimpleRecord record =
+                SimpleRecord.builder().value(MAPPER.writeValueAsString(Map.of("count", 1))).build();
+        MutableRecord mutableRecord = MutableRecord.recordToMutableRecord(record, true);
+        Map<String, Object> value = (Map<String, Object>) mutableRecord.getValueObject();
+        value.put("float", 5.5f);
+        value.put("vector", FloatVector.of(new float[] {1f, 0.5f}));
+        value.put("timestamp", new Timestamp(1700000000000L));
+        value.put("long", 2L);
+        value.put("nested", Map.of("list", List.of(1.5f, 3L)));
+        Record parsedRecord =
+                MutableRecord.mutableRecordToParsedRecord(mutableRecord).orElseThrow();
+
+        // the next agent receives a copy of the map, with the same types of a JSON round trip
+        MutableRecord next = MutableRecord.recordToMutableRecord(parsedRecord, true);
+        // the value has not been serialized
+        assertSame(value, mutableRecord.getValueObject());
+        assertEquals(Double.class, ((Map<?, ?>) next.getValueObject()).get("float").getClass());
+        assertEquals(Long.class, ((Map<?, ?>) next.getValueObject()).get("timestamp").getClass());
+        assertNotSame(value, next.getValueObject());
+        assertEquals(TransformSchemaType.STRING, next.getValueSchemaType());
+
+        // the copy can be modified, the record is not affected
+        ((Map<String, Object>) next.getValueObject()).put("count", 2);
+
+        // the value is serialized when it is read
+        String serialized = (String) parsedRecord.value();
+        Object roundTrip =
+                MutableRecord.recordToMutableRecord(
+                                SimpleRecord.builder().value(serialized).build(), true)
+                        .getValueObject();
+        assertEquals(
+                roundTrip,
+                MutableRecord.recordToMutableRecord(parsedRecord, true).getValueObject());
+        assertEquals(1, ((Map<?, ?>) roundTrip).get("count"));
+        assertSame(serialized, parsedRecord.value());
+    }
+
+    @Test
+    void testSerializationErrorIsThrownWhenTheValueIsRead() throws Exception {
+        MutableRecord mutableRecord =
+                MutableRecord.recordToMutableRecord(
+                        SimpleRecord.builder().value("{\"count\":1}").build(), true);
+        ((Map<String, Object>) mutableRecord.getValueObject()).put("field", new Object());
+        Record parsedRecord =
+                MutableRecord.mutableRecordToParsedRecord(mutableRecord).orElseThrow();
+        UncheckedIOException error = assertThrows(UncheckedIOException.class, parsedRecord::value);
+        assertInstanceOf(JsonProcessingException.class, error.getCause());
+    }
+
+    @Test
+    void testParsedRecordWithoutJsonConversion() throws Exception {
+        GenAIToolKitAgent agent = createComputeAgent("value.count", "value.count + 1");
+        SimpleRecord record =
+                SimpleRecord.builder().value(MAPPER.writeValueAsString(Map.of("count", 1))).build();
+        Record result = agent.processRecord(record).get().get(0);
+        MutableRecord mutableRecord = MutableRecord.recordToMutableRecord(result, false);
+        assertEquals("{\"count\":2}", mutableRecord.getValueObject());
+        assertEquals(TransformSchemaType.STRING, mutableRecord.getValueSchemaType());
+        agent.close();
+    }
+
     Object compute(String expression, Object value) throws Exception {
+        GenAIToolKitAgent agent = createComputeAgent("value.computedField", expression);
+        SimpleRecord record = SimpleRecord.builder().value(value).build();
+        Record result = agent.processRecord(record).get().get(0);
+        Map<String, Object> resultValueParsed =
+                MAPPER.readValue(result.value().toString(), Map.class);
+        agent.close();
+        return resultValueParsed.get("computedField");
+    }
+
+    static GenAIToolKitAgent createComputeAgent(String field, String expression) throws Exception {
         GenAIToolKitAgent agent = new GenAIToolKitAgent();
         AgentContext mockContext = mock(AgentContext.class);
         when(mockContext.getMetricsReporter()).thenReturn(MetricsReporter.DISABLED);
@@ -76,15 +181,10 @@ class GenAIToolKitAgentTest {
                                         List.of(
                                                 Map.of(
                                                         "name",
-                                                        "value.computedField",
+                                                        field,
                                                         "expression",
                                                         expression))))));
         agent.start();
-        SimpleRecord record = SimpleRecord.builder().value(value).build();
-        Record result = agent.processRecord(record).get().get(0);
-        Map<String, Object> resultValueParsed =
-                MAPPER.readValue(result.value().toString(), Map.class);
-        agent.close();
-        return resultValueParsed.get("computedField");
+        return agent;
     }
 }
@@ -21,6 +21,7 @@ import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static org.junit.jupiter.api.Assertions.*;
 
 import ai.langstream.api.runner.code.MetricsReporter;
+import ai.langstream.api.util.FloatVector;
 import com.datastax.oss.streaming.ai.completions.ChatCompletions;
 import com.datastax.oss.streaming.ai.completions.ChatMessage;
 import com.datastax.oss.streaming.ai.completions.CompletionsService;
@@ -83,7 +84,7 @@ class VertexAIProviderTest {
                 embeddingsService.computeEmbeddings(List.of("hello world")).get();
         log.info("result: {}", result);
         assertEquals(1, result.size());
-        assertEquals(List.of(1.d, 5.4d, 8.7d), result.get(0));
+        assertArrayEquals(new float[] {1f, 5.4f, 8.7f}, FloatVector.toFloatArray(result.get(0)));
     }
 
     @Test
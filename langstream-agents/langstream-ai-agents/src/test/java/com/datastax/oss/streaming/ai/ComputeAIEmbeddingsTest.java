@@ -21,7 +21,6 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import ai.langstream.ai.agents.commons.MutableRecord;
 import ai.langstream.api.runner.code.SimpleRecord;
 import com.datastax.oss.streaming.ai.embeddings.MockEmbeddingsService;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.util.Arrays;
 import java.util.List;
@@ -135,8 +134,8 @@ public class ComputeAIEmbeddingsTest {
 
         final ObjectNode jsonNode = (ObjectNode) outputRecord.getValue();
         assertNotNull(jsonNode.get("newField"));
-        final List asList = new ObjectMapper().convertValue(jsonNode.get("newField"), List.class);
-        assertEquals(asList, expectedEmbeddings);
+        // the vector elements are written as floats
+        assertEquals("[1.0,2.0,3.0]", jsonNode.get("newField").toString());
         assertEquals(outputRecord.getSchema().getSchemaInfo().getType(), SchemaType.JSON);
     }
 
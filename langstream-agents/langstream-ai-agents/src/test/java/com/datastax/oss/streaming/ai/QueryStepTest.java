@@ -16,6 +16,7 @@
 package com.datastax.oss.streaming.ai;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import ai.langstream.ai.agents.commons.MutableRecord;
 import ai.langstream.api.runner.code.SimpleRecord;
@@ -25,11 +26,17 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
@@ -434,6 +441,99 @@ public class QueryStepTest {
                 retrieved_documents);
     }
 
+    @Test
+    void testLoopOverConcurrency() throws Exception {
+        List<Map<String, Object>> documents = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            documents.add(Map.of("id", i));
+        }
+        String value = OBJECT_MAPPER.writeValueAsString(Map.of("documents", documents));
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        ScheduledExecutorService executor = Executors.newScheduledThreadPool(4);
+        QueryStepDataSource dataSource =
+                new QueryStepDataSource() {
+                    @Override
+                    public CompletableFuture<List<Map<String, Object>>> fetchDataAsync(
+                            String query, List<Object> params) {
+                        int current = inFlight.incrementAndGet();
+                        maxInFlight.accumulateAndGet(current, Math::max);
+                        int id = ((Number) params.get(0)).intValue();
+                        CompletableFuture<List<Map<String, Object>>> result =
+                                new CompletableFuture<>();
+                        // complete the queries out of order
+                        executor.schedule(
+                                () -> {
+                                    inFlight.decrementAndGet();
+                                    result.complete(List.of(Map.of("result", id)));
+                                },
+                                (20 - id) % 4 * 10,
+                                TimeUnit.MILLISECONDS);
+                        return result;
+                    }
+                };
+
+        try {
+            QueryStep queryStep =
+                    QueryStep.builder()
+                            .dataSource(dataSource)
+                            .loopOver("value.documents")
+                            .loopOverConcurrency(3)
+                            .outputFieldName("value.results")
+                            .fields(List.of("record.id"))
+                            .query("select 1 where id = ?")
+                            .build();
+
+            MutableRecord context =
+                    MutableRecord.recordToMutableRecord(SimpleRecord.of(null, value), true);
+            queryStep.processAsync(context).get(10, TimeUnit.SECONDS);
+            ai.langstream.api.runner.code.Record record =
+                    MutableRecord.mutableRecordToRecord(context).orElseThrow();
+            Map<String, Object> result = (Map<String, Object>) record.value();
+
+            List<Map<String, Object>> expected = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                expected.add(Map.of("result", i));
+            }
+            assertEquals(expected, result.get("results"));
+            assertEquals(3, maxInFlight.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testLoopOverFailure() throws Exception {
+        String value =
+                """
+                {"documents": [{"id": 1}, {"id": 2}, {"id": 3}]}
+                """;
+        QueryStepDataSource dataSource =
+                new QueryStepDataSource() {
+                    @Override
+                    public List<Map<String, Object>> fetchData(String query, List<Object> params) {
+                        if (((Number) params.get(0)).intValue() == 2) {
+                            throw new IllegalStateException("failed query");
+                        }
+                        return List.of(Map.of("result", params.get(0)));
+                    }
+                };
+        QueryStep queryStep =
+                QueryStep.builder()
+                        .dataSource(dataSource)
+                        .loopOver("value.documents")
+                        .outputFieldName("value.results")
+                        .fields(List.of("record.id"))
+                        .query("select 1 where id = ?")
+                        .build();
+        MutableRecord context =
+                MutableRecord.recordToMutableRecord(SimpleRecord.of(null, value), true);
+        IllegalStateException error =
+                assertThrows(IllegalStateException.class, () -> queryStep.process(context));
+        assertEquals("failed query", error.getMessage());
+    }
+
     @Test
     void testExecute() throws Exception {
 
@@ -0,0 +1,160 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.streaming.ai.embeddings;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import ai.langstream.api.runner.code.MetricsReporter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CachedEmbeddingsServiceTest {
+
+    private static class RecordingEmbeddingsService extends MockEmbeddingsService {
+        final List<List<String>> requests = new ArrayList<>();
+
+        RecordingEmbeddingsService() {
+            setEmbeddingsForText("a", List.of(1d, 2d));
+            setEmbeddingsForText("b", List.of(3d, 4d));
+            setEmbeddingsForText("c", List.of(5d, 6d));
+        }
+
+        @Override
+        public CompletableFuture<List<List<Double>>> computeEmbeddings(List<String> texts) {
+            requests.add(texts);
+            return super.computeEmbeddings(texts);
+        }
+    }
+
+    private static class CountingMetricsReporter implements MetricsReporter {
+        final Map<String, AtomicInteger> counters = new ConcurrentHashMap<>();
+
+        @Override
+        public Counter counter(String name, String help) {
+            AtomicInteger counter = counters.computeIfAbsent(name, n -> new AtomicInteger());
+            return counter::addAndGet;
+        }
+
+        int get(String name) {
+            return counters.get(name).get();
+        }
+    }
+
+    @Test
+    void testOnlyMissesAreComputed() throws Exception {
+        RecordingEmbeddingsService delegate = new RecordingEmbeddingsService();
+        CountingMetricsReporter metrics = new CountingMetricsReporter();
+        CachedEmbeddingsService service =
+                new CachedEmbeddingsService(delegate, "model", 1024 * 1024, null, 0, metrics);
+
+        assertEquals(
+                List.of(List.of(1d, 2d), List.of(3d, 4d), List.of(1d, 2d)),
+                service.computeEmbeddings(List.of("a", "b", "a")).get());
+        assertEquals(
+                List.of(List.of(3d, 4d), List.of(5d, 6d)),
+                service.computeEmbeddings(List.of("b", "c")).get());
+        assertEquals(List.of(List.of(5d, 6d)), service.computeEmbeddings(List.of("c")).get());
+
+        assertEquals(List.of(List.of("a", "b"), List.of("c")), delegate.requests);
+        assertEquals(2, metrics.get("embeddings_cache_hits"));
+        assertEquals(4, metrics.get("embeddings_cache_misses"));
+    }
+
+    @Test
+    void testNamespaces() throws Exception {
+        RecordingEmbeddingsService delegate = new RecordingEmbeddingsService();
+        CachedEmbeddingsService service1 =
+                new CachedEmbeddingsService(
+                        delegate, "model1", 1024 * 1024, null, 0, MetricsReporter.DISABLED);
+        CachedEmbeddingsService service2 =
+                new CachedEmbeddingsService(
+                        delegate, "model2", 1024 * 1024, null, 0, MetricsReporter.DISABLED);
+        assertEquals(service1.computeKey("a"), service1.computeKey("a"));
+        assertEquals(64, service1.computeKey("a").length());
+        assertNotEquals(service1.computeKey("a"), service2.computeKey("a"));
+    }
+
+    @Test
+    void testPersistentStore(@TempDir Path directory) throws Exception {
+        RecordingEmbeddingsService delegate = new RecordingEmbeddingsService();
+        CachedEmbeddingsService service =
+                new CachedEmbeddingsService(
+                        delegate,
+                        "model",
+                        1024 * 1024,
+                        directory,
+                        1024 * 1024,
+                        MetricsReporter.DISABLED);
+        service.computeEmbeddings(List.of("a", "b")).get();
+        assertEquals(1, delegate.requests.size());
+        // waits for the files to be written
+        service.close();
+
+        // a new instance, without the memory cache, reads the embeddings from the disk
+        RecordingEmbeddingsService delegate2 = new RecordingEmbeddingsService();
+        CachedEmbeddingsService afterRestart =
+                new CachedEmbeddingsService(
+                        delegate2, "model", 0, directory, 1024 * 1024, MetricsReporter.DISABLED);
+        assertEquals(
+                List.of(List.of(3d, 4d), List.of(1d, 2d), List.of(5d, 6d)),
+                afterRestart.computeEmbeddings(List.of("b", "a", "c")).get());
+        assertEquals(List.of(List.of("c")), delegate2.requests);
+        afterRestart.close();
+    }
+
+    @Test
+    void testPersistentStoreIsBounded(@TempDir Path directory) throws Exception {
+        RecordingEmbeddingsService delegate = new RecordingEmbeddingsService();
+        CountingMetricsReporter metrics = new CountingMetricsReporter();
+        // room for two vectors of 2 floats
+        CachedEmbeddingsService service =
+                new CachedEmbeddingsService(delegate, "model", 0, directory, 16, metrics);
+        service.computeEmbeddings(List.of("a")).get();
+        service.computeEmbeddings(List.of("b")).get();
+        // "a" becomes the most recently used entry
+        service.computeEmbeddings(List.of("a")).get();
+        service.computeEmbeddings(List.of("c")).get();
+        service.close();
+        assertEquals(List.of(List.of("a"), List.of("b"), List.of("c")), delegate.requests);
+        assertEquals(1, metrics.get("embeddings_cache_hits"));
+        assertEquals(2, countFiles(directory));
+
+        // the evicted entry is computed again, after a restart as well
+        RecordingEmbeddingsService delegate2 = new RecordingEmbeddingsService();
+        CachedEmbeddingsService afterRestart =
+                new CachedEmbeddingsService(
+                        delegate2, "model", 0, directory, 16, MetricsReporter.DISABLED);
+        afterRestart.computeEmbeddings(List.of("a", "b", "c")).get();
+        assertEquals(List.of(List.of("b")), delegate2.requests);
+        afterRestart.close();
+    }
+
+    private static long countFiles(Path directory) throws Exception {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.streaming.ai.jstl;
+
+import ai.langstream.ai.agents.commons.MutableRecord;
+import ai.langstream.ai.agents.commons.jstl.JstlEvaluator;
+import ai.langstream.api.runner.code.SimpleRecord;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the evaluations per second of typical {@code compute} expressions over a JSON record.
+ * The evaluator is shared by all the threads, as it is by the agents.
+ *
+ * <p>Run it with: {@code java -cp <test classpath>
+ * com.datastax.oss.streaming.ai.jstl.JstlEvaluatorBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class JstlEvaluatorBenchmark {
+
+    @Param({
+        "value.question",
+        "fn:concat(value.first, ' ', value.last)",
+        "fn:toDouble(value.price) * 1.1",
+        "fn:uppercase(value.question)",
+        "value.tags[1]",
+        "properties.language == 'en' && value.price > 10"
+    })
+    String expression;
+
+    private JstlEvaluator<Object> evaluator;
+    private MutableRecord record;
+
+    @Setup
+    public void setup() {
+        evaluator = new JstlEvaluator<>("${" + expression + "}", Object.class);
+        SimpleRecord source =
+                SimpleRecord.builder()
+                        .key("key")
+                        .value(
+                                """
+                                {"question": "What is LangStream?", "first": "John",
+                                 "last": "Doe", "price": 12.5, "tags": ["a", "b", "c"]}""")
+                        .headers(List.of(SimpleRecord.SimpleHeader.of("language", "en")))
+                        .build();
+        record = MutableRecord.recordToMutableRecord(source, true);
+    }
+
+    @Benchmark
+    public Object evaluate() {
+        return evaluator.evaluate(record);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(
+                        new OptionsBuilder()
+                                .include(JstlEvaluatorBenchmark.class.getSimpleName())
+                                .build())
+                .run();
+    }
+}
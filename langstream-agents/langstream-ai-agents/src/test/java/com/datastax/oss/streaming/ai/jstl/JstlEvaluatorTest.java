@@ -27,6 +27,12 @@ import java.nio.charset.StandardCharsets;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.pulsar.client.api.Schema;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -96,6 +102,63 @@ public class JstlEvaluatorTest {
         assertEquals(nowMillis + millisToAdd, actualMillis);
     }
 
+    @Test
+    void testConcurrentEvaluations() throws Exception {
+        JstlEvaluator<String> evaluator =
+                new JstlEvaluator<>("${fn:concat(value, '-', key)}", String.class);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                final int thread = i;
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    for (int j = 0; j < 1000; j++) {
+                                        String value = "value-" + thread + "-" + j;
+                                        MutableRecord context =
+                                                Utils.createContextWithPrimitiveRecord(
+                                                        Schema.STRING, value, "key-" + thread);
+                                        assertEquals(
+                                                value + "-key-" + thread,
+                                                evaluator.evaluate(context));
+                                    }
+                                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testAssignmentsDoNotLeakBetweenEvaluations() {
+        MutableRecord context =
+                Utils.createContextWithPrimitiveRecord(Schema.STRING, "test-message", "");
+        JstlEvaluator<String> evaluator =
+                new JstlEvaluator<>("${x = fn:uppercase(value); x}", String.class);
+        assertEquals("TEST-MESSAGE", evaluator.evaluate(context));
+        assertEquals("TEST-MESSAGE", evaluator.evaluate(context));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new JstlEvaluator<>("${x}", String.class).evaluate(context));
+    }
+
+    @Test
+    void testRawContext() {
+        Map<String, Object> variables = Map.of("a", 1, "b", "two");
+        assertEquals(
+                "1two",
+                new JstlEvaluator<>("${fn:concat(a, b)}", String.class)
+                        .evaluateRawContext(variables));
+        // the assignments don't modify the map of the caller
+        assertEquals(
+                3L, new JstlEvaluator<>("${a = 3; a}", Long.class).evaluateRawContext(variables));
+        assertEquals(1, variables.get("a"));
+    }
+
     /**
      * @return {"expression", "transform context"}
      */
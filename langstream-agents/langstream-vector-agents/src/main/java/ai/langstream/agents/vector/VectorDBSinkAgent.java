@@ -18,10 +18,18 @@ package ai.langstream.agents.vector;
 import ai.langstream.api.database.VectorDatabaseWriter;
 import ai.langstream.api.database.VectorDatabaseWriterProviderRegistry;
 import ai.langstream.api.runner.code.AbstractAgentCode;
+import ai.langstream.api.runner.code.AgentContext;
 import ai.langstream.api.runner.code.AgentSink;
+import ai.langstream.api.runner.code.MetricsReporter;
 import ai.langstream.api.runner.code.Record;
+import ai.langstream.api.util.ConfigurationUtils;
+import ai.langstream.api.util.OrderedAsyncBatchExecutor;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -29,19 +37,61 @@ public class VectorDBSinkAgent extends AbstractAgentCode implements AgentSink {
 
     private VectorDatabaseWriter writer;
 
+    private OrderedAsyncBatchExecutor<PendingRecord> batchExecutor;
+    private ScheduledExecutorService executorService;
+    private MetricsReporter.Histogram writeLatency = MetricsReporter.Histogram.NOOP;
+    private MetricsReporter.Histogram writeBatchSize = MetricsReporter.Histogram.NOOP;
+
+    private record PendingRecord(Record record, CompletableFuture<?> handle) {}
+
     @Override
     public void init(Map<String, Object> configuration) throws Exception {
         Map<String, Object> datasourceConfiguration =
                 (Map<String, Object>) configuration.get("datasource");
         writer = VectorDatabaseWriterProviderRegistry.createWriter(datasourceConfiguration);
         writer.initialise(configuration);
+
+        final int batchSize = ConfigurationUtils.getInt("batch-size", 10, configuration);
+        final int flushInterval = ConfigurationUtils.getInt("flush-interval", 1000, configuration);
+        log.info("Writing batches of {} records, flush interval {} ms", batchSize, flushInterval);
+        executorService = flushInterval > 0 ? Executors.newSingleThreadScheduledExecutor() : null;
+        // a single bucket, the records are written in the same order they are received
+        batchExecutor =
+                new OrderedAsyncBatchExecutor<>(
+                        batchSize, this::writeBatch, flushInterval, 1, (__) -> 0, executorService);
     }
 
     @Override
-    public void start() {}
+    public void setContext(AgentContext context) {
+        MetricsReporter contextReporter = context.getMetricsReporter();
+        MetricsReporter metricsReporter =
+                contextReporter != null
+                        ? contextReporter.withAgentName(agentId())
+                        : MetricsReporter.DISABLED;
+        writeLatency =
+                metricsReporter.histogram(
+                        "vector_db_write_latency_seconds",
+                        "Time spent writing a batch of records to the vector database");
+        writeBatchSize =
+                metricsReporter.histogram(
+                        "vector_db_write_batch_size",
+                        "Number of records written to the vector database in a batch",
+                        MetricsReporter.BATCH_SIZE_BUCKETS);
+    }
+
+    @Override
+    public void start() {
+        batchExecutor.start();
+    }
 
     @Override
     public void close() throws Exception {
+        if (batchExecutor != null) {
+            batchExecutor.stop();
+        }
+        if (executorService != null) {
+            executorService.shutdown();
+        }
         if (writer != null) {
             writer.close();
         }
@@ -49,8 +99,47 @@ public class VectorDBSinkAgent extends AbstractAgentCode implements AgentSink {
 
     @Override
     public CompletableFuture<?> write(Record record) {
-        // naive implementation, no batching
-        Map<String, Object> context = Map.of();
-        return writer.upsert(record, context);
+        CompletableFuture<?> handle = new CompletableFuture<>();
+        batchExecutor.add(new PendingRecord(record, handle));
+        return handle;
+    }
+
+    private void writeBatch(List<PendingRecord> batch, CompletableFuture<?> completionHandle) {
+        List<Record> records = new ArrayList<>(batch.size());
+        for (PendingRecord pendingRecord : batch) {
+            records.add(pendingRecord.record());
+        }
+        writeBatchSize.observe(records.size());
+        final long start = System.nanoTime();
+        final List<CompletableFuture<?>> results;
+        try {
+            results = writer.upsertBatch(records, Map.of());
+        } catch (Throwable error) {
+            log.error("Error writing a batch of {} records", records.size(), error);
+            for (PendingRecord pendingRecord : batch) {
+                pendingRecord.handle().completeExceptionally(error);
+            }
+            completionHandle.complete(null);
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            CompletableFuture<?> handle = batch.get(i).handle();
+            results.get(i)
+                    .whenComplete(
+                            (__, error) -> {
+                                if (error != null) {
+                                    handle.completeExceptionally(error);
+                                } else {
+                                    handle.complete(null);
+                                }
+                            });
+        }
+        // the next batch is written only after the current one, in order to preserve the order
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+                .whenComplete(
+                        (__, error) -> {
+                            writeLatency.observeSince(start);
+                            completionHandle.complete(null);
+                        });
     }
 }
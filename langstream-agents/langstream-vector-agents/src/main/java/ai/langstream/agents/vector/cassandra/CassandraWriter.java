@@ -29,6 +29,7 @@ import com.datastax.oss.common.sink.util.SinkUtil;
 import com.datastax.oss.streaming.ai.datasource.CassandraDataSource;
 import com.dtsx.astra.sdk.db.DatabaseClient;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
@@ -195,6 +196,23 @@ public class CassandraWriter implements VectorDatabaseWriterProvider {
             return handle;
         }
 
+        @Override
+        public List<CompletableFuture<?>> upsertBatch(
+                List<Record> records, Map<String, Object> context) {
+            // the sink task groups the records by partition key into unlogged batches
+            // and executes the statements concurrently
+            List<CompletableFuture<?>> handles = new ArrayList<>(records.size());
+            List<AbstractSinkRecord> sinkRecords = new ArrayList<>(records.size());
+            for (Record record : records) {
+                CompletableFuture<?> handle = new CompletableFuture<>();
+                currentRecordStatus.put(record, handle);
+                handles.add(handle);
+                sinkRecords.add(new LangStreamSinkRecordAdapter(record));
+            }
+            processor.put(sinkRecords);
+            return handles;
+        }
+
         @Override
         public void close() {
             processor.stop();
@@ -26,10 +26,14 @@ import ai.langstream.api.runner.code.Record;
 import ai.langstream.api.util.ConfigurationUtils;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 
@@ -137,45 +141,123 @@ public class JdbcWriter implements VectorDatabaseWriterProvider {
         }
 
         @Override
-        public synchronized CompletableFuture<?> upsert(
-                Record record, Map<String, Object> context) {
-            CompletableFuture<?> handle = new CompletableFuture<>();
+        public CompletableFuture<?> upsert(Record record, Map<String, Object> context) {
+            return upsertBatch(List.of(record), context).get(0);
+        }
+
+        private record Row(
+                List<Object> primaryKeyValues,
+                List<Object> otherValues,
+                CompletableFuture<?> handle) {
+            boolean delete() {
+                return otherValues == null;
+            }
+        }
+
+        @Override
+        public synchronized List<CompletableFuture<?>> upsertBatch(
+                List<Record> records, Map<String, Object> context) {
+            List<CompletableFuture<?>> results = new ArrayList<>(records.size());
+            // consecutive records of the same kind (upsert or delete) are written with a single
+            // JDBC batch, as long as they don't touch the same row twice
+            List<Row> run = new ArrayList<>();
+            Set<List<Object>> primaryKeysInRun = new HashSet<>();
+            for (Record record : records) {
+                CompletableFuture<?> handle = new CompletableFuture<>();
+                results.add(handle);
+                final Row row;
+                try {
+                    MutableRecord mutableRecord = recordToMutableRecord(record, true);
+                    List<Object> primaryKeyValues = prepareValueList(mutableRecord, primaryKey);
+                    List<Object> otherValues =
+                            record.value() != null
+                                    ? prepareValueList(mutableRecord, columns)
+                                    : null;
+                    row = new Row(primaryKeyValues, otherValues, handle);
+                } catch (Exception e) {
+                    handle.completeExceptionally(e);
+                    continue;
+                }
+                if (!run.isEmpty()
+                        && (run.get(0).delete() != row.delete()
+                                || primaryKeysInRun.contains(row.primaryKeyValues()))) {
+                    executeRun(run);
+                    run.clear();
+                    primaryKeysInRun.clear();
+                }
+                run.add(row);
+                primaryKeysInRun.add(row.primaryKeyValues());
+            }
+            if (!run.isEmpty()) {
+                executeRun(run);
+            }
+            return results;
+        }
+
+        private void executeRun(List<Row> rows) {
             try {
-                MutableRecord mutableRecord = recordToMutableRecord(record, true);
-
-                List<Object> primaryKeyValues = prepareValueList(mutableRecord, primaryKey);
-                List<Object> otherValues = prepareValueList(mutableRecord, columns);
-                if (record.value() != null) {
-                    int i = 1;
-                    for (Object value : otherValues) {
-                        update.setObject(i++, value);
+                if (rows.get(0).delete()) {
+                    for (Row row : rows) {
+                        setParameters(delete, 1, row.primaryKeyValues());
+                        delete.addBatch();
                     }
-                    for (Object value : primaryKeyValues) {
-                        update.setObject(i++, value);
+                    delete.executeBatch();
+                } else {
+                    for (Row row : rows) {
+                        int i = setParameters(update, 1, row.otherValues());
+                        setParameters(update, i, row.primaryKeyValues());
+                        update.addBatch();
                     }
-                    int count = update.executeUpdate();
-                    if (count == 0) {
-                        i = 1;
-                        for (Object value : primaryKeyValues) {
-                            insert.setObject(i++, value);
+                    int[] counts = update.executeBatch();
+                    boolean inserts = false;
+                    for (int r = 0; r < rows.size(); r++) {
+                        Row row = rows.get(r);
+                        int count = counts[r];
+                        if (count == Statement.SUCCESS_NO_INFO) {
+                            // the driver doesn't tell if the row exists, update it again alone
+                            int i = setParameters(update, 1, row.otherValues());
+                            setParameters(update, i, row.primaryKeyValues());
+                            count = update.executeUpdate();
                         }
-                        for (Object value : otherValues) {
-                            insert.setObject(i++, value);
+                        if (count == 0) {
+                            int i = setParameters(insert, 1, row.primaryKeyValues());
+                            setParameters(insert, i, row.otherValues());
+                            insert.addBatch();
+                            inserts = true;
                         }
-                        insert.executeUpdate();
                     }
-                } else {
-                    int i = 1;
-                    for (Object value : primaryKeyValues) {
-                        delete.setObject(i++, value);
+                    if (inserts) {
+                        insert.executeBatch();
                     }
-                    delete.executeUpdate();
                 }
-                handle.complete(null);
+                for (Row row : rows) {
+                    row.handle().complete(null);
+                }
             } catch (Exception e) {
-                handle.completeExceptionally(e);
+                log.error("Error writing a batch of {} rows to {}", rows.size(), tableName, e);
+                clearBatches();
+                for (Row row : rows) {
+                    row.handle().completeExceptionally(e);
+                }
+            }
+        }
+
+        private static int setParameters(
+                PreparedStatement statement, int index, List<Object> values) throws SQLException {
+            for (Object value : values) {
+                statement.setObject(index++, value);
+            }
+            return index;
+        }
+
+        private void clearBatches() {
+            for (PreparedStatement statement : List.of(insert, update, delete)) {
+                try {
+                    statement.clearBatch();
+                } catch (SQLException e) {
+                    log.warn("Error clearing batch", e);
+                }
             }
-            return handle;
         }
 
         private List<Object> prepareValueList(
@@ -30,9 +30,14 @@ import io.milvus.param.highlevel.dml.response.SearchResponse;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import lombok.Data;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 
 @Slf4j
 public class MilvusDataSource implements DataSourceProvider {
@@ -69,6 +74,9 @@ public class MilvusDataSource implements DataSourceProvider {
 
         @JsonProperty(value = "token")
         private String token;
+
+        @JsonProperty(value = "pool-size")
+        private int poolSize = 4;
     }
 
     @Override
@@ -84,6 +92,9 @@ public class MilvusDataSource implements DataSourceProvider {
 
         private final MilvusConfig clientConfig;
         @Getter private MilvusServiceClient milvusClient;
+        // the high level search API of the Milvus client is blocking, the asynchronous queries run
+        // on a bounded pool of threads
+        private ExecutorService executor;
 
         public MilvusQueryStepDataSource(MilvusConfig clientConfig) {
             this.clientConfig = clientConfig;
@@ -109,6 +120,23 @@ public class MilvusDataSource implements DataSourceProvider {
                                         .withAuthorization(clientConfig.user, clientConfig.password)
                                         .build());
             }
+            this.executor =
+                    Executors.newFixedThreadPool(
+                            clientConfig.poolSize,
+                            new BasicThreadFactory.Builder()
+                                    .namingPattern("milvus-datasource-%d")
+                                    .daemon(true)
+                                    .build());
+        }
+
+        @Override
+        public CompletableFuture<List<Map<String, Object>>> fetchDataAsync(
+                String query, List<Object> params) {
+            try {
+                return CompletableFuture.supplyAsync(() -> fetchData(query, params), executor);
+            } catch (RejectedExecutionException e) {
+                return CompletableFuture.failedFuture(e);
+            }
         }
 
         @Override
@@ -158,6 +186,9 @@ public class MilvusDataSource implements DataSourceProvider {
 
         @Override
         public void close() {
+            if (executor != null) {
+                executor.shutdown();
+            }
             if (milvusClient != null) {
                 milvusClient.close();
             }
@@ -34,10 +34,13 @@ import io.milvus.param.collection.DescribeCollectionParam;
 import io.milvus.param.dml.DeleteParam;
 import io.milvus.param.dml.InsertParam;
 import io.milvus.param.dml.UpsertParam;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 
@@ -114,72 +117,117 @@ public class MilvusWriter implements VectorDatabaseWriterProvider {
 
         @Override
         public CompletableFuture<?> upsert(Record record, Map<String, Object> context) {
-            CompletableFuture<?> handle = new CompletableFuture<>();
-            try {
-                MutableRecord mutableRecord = recordToMutableRecord(record, true);
-
-                JSONObject row = new JSONObject();
-                fields.forEach(
-                        (name, evaluator) -> {
-                            Object value = evaluator.evaluate(mutableRecord);
-                            if (value != null) {
-                                if (log.isDebugEnabled()) {
-                                    log.debug(
-                                            "setting value {} ({}) for field {}",
-                                            value,
-                                            value.getClass(),
-                                            name);
-                                }
-                                row.put(name, value);
-                            } else {
-                                // in Milvus you must not send null values
-                                if (log.isDebugEnabled()) {
-                                    log.debug("ignore null value for field {}", name);
-                                }
+            return upsertBatch(List.of(record), context).get(0);
+        }
+
+        private record Row(
+                JSONObject row, Object primaryKey, boolean delete, CompletableFuture<?> handle) {}
+
+        @Override
+        public List<CompletableFuture<?>> upsertBatch(
+                List<Record> records, Map<String, Object> context) {
+            List<CompletableFuture<?>> results = new ArrayList<>(records.size());
+            // consecutive records of the same kind (write or delete) are sent with a single
+            // request, as long as they don't touch the same entity twice
+            List<Row> run = new ArrayList<>();
+            Set<Object> primaryKeysInRun = new HashSet<>();
+            for (Record record : records) {
+                CompletableFuture<?> handle = new CompletableFuture<>();
+                results.add(handle);
+                final Row row;
+                try {
+                    JSONObject values = buildRow(recordToMutableRecord(record, true));
+                    Object primaryKey = values.get(primaryKeyField);
+                    if (primaryKey == null
+                            && (record.value() == null || !writeMode.equals("upsert"))) {
+                        throw new IllegalStateException(
+                                "No primary key value found for record " + record);
+                    }
+                    if (record.value() != null
+                            && !writeMode.equals("upsert")
+                            && !writeMode.equals("delete-insert")) {
+                        throw new UnsupportedOperationException();
+                    }
+                    row = new Row(values, primaryKey, record.value() == null, handle);
+                } catch (Exception e) {
+                    handle.completeExceptionally(e);
+                    continue;
+                }
+                if (!run.isEmpty()
+                        && (run.get(0).delete() != row.delete()
+                                || (row.primaryKey() != null
+                                        && primaryKeysInRun.contains(row.primaryKey())))) {
+                    executeRun(run);
+                    run.clear();
+                    primaryKeysInRun.clear();
+                }
+                run.add(row);
+                if (row.primaryKey() != null) {
+                    primaryKeysInRun.add(row.primaryKey());
+                }
+            }
+            if (!run.isEmpty()) {
+                executeRun(run);
+            }
+            return results;
+        }
+
+        private JSONObject buildRow(MutableRecord mutableRecord) {
+            JSONObject row = new JSONObject();
+            fields.forEach(
+                    (name, evaluator) -> {
+                        Object value = evaluator.evaluate(mutableRecord);
+                        if (value != null) {
+                            if (log.isDebugEnabled()) {
+                                log.debug(
+                                        "setting value {} ({}) for field {}",
+                                        value,
+                                        value.getClass(),
+                                        name);
                             }
-                        });
-
-                if (record.value() != null) {
-                    if (writeMode.equals("upsert")) {
-                        R<MutationResult> upsertResponse = performUpsert(row);
-                        log.info("Result {}", upsertResponse);
-                        if (upsertResponse.getException() != null) {
-                            handle.completeExceptionally(upsertResponse.getException());
-                        } else {
-                            handle.complete(null);
-                        }
-                    } else if (writeMode.equals("delete-insert")) {
-                        R<MutationResult> deleteResponse = performDelete(record, row);
-                        if (deleteResponse.getException() != null) {
-                            handle.completeExceptionally(deleteResponse.getException());
+                            row.put(name, value);
                         } else {
-                            R<MutationResult> insertResponse = performInsert(row);
-                            log.info("Result {}", insertResponse);
-                            if (insertResponse.getException() != null) {
-                                handle.completeExceptionally(insertResponse.getException());
-                            } else {
-                                handle.complete(null);
+                            // in Milvus you must not send null values
+                            if (log.isDebugEnabled()) {
+                                log.debug("ignore null value for field {}", name);
                             }
                         }
-                    } else {
-                        handle.completeExceptionally(new UnsupportedOperationException());
+                    });
+            return row;
+        }
+
+        private void executeRun(List<Row> run) {
+            try {
+                List<JSONObject> rows = run.stream().map(Row::row).toList();
+                R<MutationResult> response;
+                if (run.get(0).delete()) {
+                    response = performDelete(run);
+                } else if (writeMode.equals("upsert")) {
+                    response = performUpsert(rows);
+                } else {
+                    response = performDelete(run);
+                    if (response.getException() == null) {
+                        response = performInsert(rows);
+                    }
+                }
+                log.info("Result {}", response);
+                if (response.getException() != null) {
+                    for (Row row : run) {
+                        row.handle().completeExceptionally(response.getException());
                     }
                 } else {
-                    R<MutationResult> deleteResponse = performDelete(record, row);
-                    log.info("Result {}", deleteResponse);
-                    if (deleteResponse.getException() != null) {
-                        handle.completeExceptionally(deleteResponse.getException());
-                    } else {
-                        handle.complete(null);
+                    for (Row row : run) {
+                        row.handle().complete(null);
                     }
                 }
             } catch (Exception e) {
-                handle.completeExceptionally(e);
+                for (Row row : run) {
+                    row.handle().completeExceptionally(e);
+                }
             }
-            return handle;
         }
 
-        private R<MutationResult> performUpsert(JSONObject row) {
+        private R<MutationResult> performUpsert(List<JSONObject> rows) {
             UpsertParam.Builder builder = UpsertParam.newBuilder();
             builder.withCollectionName(collectionName);
 
@@ -189,13 +237,13 @@ public class MilvusWriter implements VectorDatabaseWriterProvider {
                 builder.withDatabaseName(databaseName);
             }
 
-            builder.withRows(List.of(row));
+            builder.withRows(rows);
             UpsertParam upsert = builder.build();
 
             return milvusClient.upsert(upsert);
         }
 
-        private R<MutationResult> performInsert(JSONObject row) {
+        private R<MutationResult> performInsert(List<JSONObject> rows) {
             InsertParam.Builder builder = InsertParam.newBuilder();
             builder.withCollectionName(collectionName);
 
@@ -205,22 +253,23 @@ public class MilvusWriter implements VectorDatabaseWriterProvider {
                 builder.withDatabaseName(databaseName);
             }
 
-            builder.withRows(List.of(row));
+            builder.withRows(rows);
             InsertParam insert = builder.build();
 
             return milvusClient.insert(insert);
         }
 
-        private R<MutationResult> performDelete(Record record, JSONObject row) {
-            Object value = row.get(primaryKeyField);
-            if (value == null) {
-                throw new IllegalStateException("No primary key value found for record " + record);
+        private R<MutationResult> performDelete(List<Row> run) {
+            List<String> escaped = new ArrayList<>(run.size());
+            for (Row row : run) {
+                Object value = row.primaryKey();
+                escaped.add(
+                        value instanceof String
+                                ? ("'" + ((String) value).replace("'", "\\'") + "'")
+                                : value.toString());
             }
-            String escaped =
-                    value instanceof String
-                            ? ("'" + ((String) value).replace("'", "\\'") + "'")
-                            : value.toString();
-            String deleteExpression = String.format("%s in [%s]", primaryKeyField, escaped);
+            String deleteExpression =
+                    String.format("%s in [%s]", primaryKeyField, String.join(",", escaped));
             log.info("Delete expression: {}", deleteExpression);
             // TODO: how do we escape the value?
             DeleteParam delete =
@@ -23,7 +23,6 @@ import ai.langstream.api.database.VectorDatabaseWriter;
 import ai.langstream.api.database.VectorDatabaseWriterProvider;
 import ai.langstream.api.runner.code.Record;
 import ai.langstream.api.util.ConfigurationUtils;
-import ai.langstream.api.util.OrderedAsyncBatchExecutor;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -34,8 +33,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import lombok.Data;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -74,9 +71,6 @@ public class OpenSearchWriter implements VectorDatabaseWriterProvider {
 
         @Getter private final OpenSearchDataSource.OpenSearchQueryStepDataSource dataSource;
 
-        private OrderedAsyncBatchExecutor<OpenSearchRecord> batchExecutor;
-        private ScheduledExecutorService executorService;
-
         private String indexName;
         private JstlEvaluator id;
         private Map<String, JstlEvaluator> fields = new HashMap<>();
@@ -127,163 +121,114 @@ public class OpenSearchWriter implements VectorDatabaseWriterProvider {
                             ConfigurationUtils.getMap(
                                     "bulk-parameters", Map.of(), agentConfiguration),
                             BulkParameters.class);
+        }
 
-            final int flushInterval =
-                    ConfigurationUtils.getInt("flush-interval", 1000, agentConfiguration);
-            final int batchSize = ConfigurationUtils.getInt("batch-size", 10, agentConfiguration);
-            this.executorService =
-                    flushInterval > 0 ? Executors.newSingleThreadScheduledExecutor() : null;
-
-            this.batchExecutor =
-                    new OrderedAsyncBatchExecutor<>(
-                            batchSize,
-                            (records, completableFuture) -> {
-                                try {
-
-                                    List<BulkOperation> bulkOps = new ArrayList<>();
+        private void executeBulk(List<OpenSearchRecord> records) {
+            try {
+                List<BulkOperation> bulkOps = new ArrayList<>();
 
-                                    for (OpenSearchRecord record : records) {
-                                        boolean delete = record.document() == null;
-                                        final BulkOperation bulkOp;
-                                        if (!delete) {
-                                            log.info(
-                                                    "indexing document {} with id {} on index {}",
-                                                    record.document(),
-                                                    record.id(),
-                                                    indexName);
-                                            final IndexOperation<Object> request =
-                                                    new IndexOperation.Builder<>()
-                                                            .index(indexName)
-                                                            .document(record.document())
-                                                            .id(record.id())
-                                                            .build();
-                                            bulkOp =
-                                                    new BulkOperation.Builder()
-                                                            .index(request)
-                                                            .build();
-                                        } else {
-                                            log.info(
-                                                    "deleting document with id {} on index {}",
-                                                    record.id(),
-                                                    indexName);
-                                            final DeleteOperation request =
-                                                    new DeleteOperation.Builder()
-                                                            .index(indexName)
-                                                            .id(record.id())
-                                                            .build();
-                                            bulkOp =
-                                                    new BulkOperation.Builder()
-                                                            .delete(request)
-                                                            .build();
-                                        }
-                                        bulkOps.add(bulkOp);
-                                    }
+                for (OpenSearchRecord record : records) {
+                    boolean delete = record.document() == null;
+                    final BulkOperation bulkOp;
+                    if (!delete) {
+                        log.info(
+                                "indexing document {} with id {} on index {}",
+                                record.document(),
+                                record.id(),
+                                indexName);
+                        final IndexOperation<Object> request =
+                                new IndexOperation.Builder<>()
+                                        .index(indexName)
+                                        .document(record.document())
+                                        .id(record.id())
+                                        .build();
+                        bulkOp = new BulkOperation.Builder().index(request).build();
+                    } else {
+                        log.info(
+                                "deleting document with id {} on index {}", record.id(), indexName);
+                        final DeleteOperation request =
+                                new DeleteOperation.Builder()
+                                        .index(indexName)
+                                        .id(record.id())
+                                        .build();
+                        bulkOp = new BulkOperation.Builder().delete(request).build();
+                    }
+                    bulkOps.add(bulkOp);
+                }
 
-                                    final BulkRequest.Builder bulkBuilder =
-                                            new BulkRequest.Builder();
-                                    bulkBuilder.pipeline(bulkParameters.getPipeline());
-                                    bulkBuilder.refresh(getRefreshValue());
-                                    bulkBuilder.requireAlias(bulkParameters.getRequireAlias());
-                                    bulkBuilder.routing(bulkParameters.getRouting());
-                                    if (bulkParameters.getTimeout() != null) {
-                                        bulkBuilder.timeout(
-                                                new Time.Builder()
-                                                        .time(bulkParameters.getTimeout())
-                                                        .build());
-                                    }
-                                    if (bulkParameters.getWaitForActiveShards() != null) {
-                                        final WaitForActiveShards value;
-                                        if (bulkParameters.getWaitForActiveShards().equals("all")) {
-                                            value =
-                                                    new WaitForActiveShards.Builder()
-                                                            .option(WaitForActiveShardOptions.All)
-                                                            .build();
-                                        } else {
-                                            value =
-                                                    new WaitForActiveShards.Builder()
-                                                            .count(
-                                                                    Integer.parseInt(
-                                                                            bulkParameters
-                                                                                    .getWaitForActiveShards()))
-                                                            .build();
-                                        }
-                                        bulkBuilder.waitForActiveShards(value);
-                                    }
+                final BulkRequest.Builder bulkBuilder = new BulkRequest.Builder();
+                bulkBuilder.pipeline(bulkParameters.getPipeline());
+                bulkBuilder.refresh(getRefreshValue());
+                bulkBuilder.requireAlias(bulkParameters.getRequireAlias());
+                bulkBuilder.routing(bulkParameters.getRouting());
+                if (bulkParameters.getTimeout() != null) {
+                    bulkBuilder.timeout(
+                            new Time.Builder().time(bulkParameters.getTimeout()).build());
+                }
+                if (bulkParameters.getWaitForActiveShards() != null) {
+                    final WaitForActiveShards value;
+                    if (bulkParameters.getWaitForActiveShards().equals("all")) {
+                        value =
+                                new WaitForActiveShards.Builder()
+                                        .option(WaitForActiveShardOptions.All)
+                                        .build();
+                    } else {
+                        value =
+                                new WaitForActiveShards.Builder()
+                                        .count(
+                                                Integer.parseInt(
+                                                        bulkParameters.getWaitForActiveShards()))
+                                        .build();
+                    }
+                    bulkBuilder.waitForActiveShards(value);
+                }
 
-                                    final BulkRequest bulkRequest =
-                                            bulkBuilder
-                                                    .index(indexName)
-                                                    .operations(bulkOps)
-                                                    .build();
-                                    final BulkResponse response;
-                                    try {
-                                        response = dataSource.getClient().bulk(bulkRequest);
-                                    } catch (IOException e) {
-                                        log.error(
-                                                "Error indexing documents on index {}: {}",
-                                                indexName,
-                                                e.getMessage(),
-                                                e);
-                                        for (OpenSearchRecord record : records) {
-                                            record.completableFuture().completeExceptionally(e);
-                                        }
-                                        completableFuture.completeExceptionally(e);
-                                        return;
-                                    }
-                                    int itemIndex = 0;
-                                    boolean failures = false;
-                                    for (BulkResponseItem item : response.items()) {
-                                        if (item.error() != null) {
-                                            String errorString =
-                                                    item.error().type()
-                                                            + " - "
-                                                            + item.error().reason();
-                                            ;
-                                            log.error(
-                                                    "Error indexing document {} on index {}: {}",
-                                                    item.id(),
-                                                    indexName,
-                                                    errorString);
-                                            failures = true;
-                                            records.get(itemIndex++)
-                                                    .completableFuture()
-                                                    .completeExceptionally(
-                                                            new RuntimeException(
-                                                                    "Error indexing document: "
-                                                                            + errorString));
-                                        } else {
-                                            records.get(itemIndex++)
-                                                    .completableFuture()
-                                                    .complete(null);
-                                        }
-                                    }
-                                    if (!failures) {
-                                        log.info(
-                                                "Indexed {} documents on index {}",
-                                                records.size(),
-                                                indexName);
-                                        completableFuture.complete(null);
-                                    } else {
-                                        completableFuture.completeExceptionally(
-                                                new RuntimeException("Error indexing documents"));
-                                    }
-                                } catch (Throwable e) {
-                                    log.error(
-                                            "Error indexing documents on index {}: {}",
-                                            indexName,
-                                            e.getMessage(),
-                                            e);
-                                    for (OpenSearchRecord record : records) {
-                                        record.completableFuture().completeExceptionally(e);
-                                    }
-                                    completableFuture.completeExceptionally(e);
-                                }
-                            },
-                            flushInterval,
-                            1,
-                            (__) -> 0,
-                            executorService);
-            batchExecutor.start();
+                final BulkRequest bulkRequest =
+                        bulkBuilder.index(indexName).operations(bulkOps).build();
+                final BulkResponse response;
+                try {
+                    response = dataSource.getClient().bulk(bulkRequest);
+                } catch (IOException e) {
+                    log.error(
+                            "Error indexing documents on index {}: {}",
+                            indexName,
+                            e.getMessage(),
+                            e);
+                    for (OpenSearchRecord record : records) {
+                        record.completableFuture().completeExceptionally(e);
+                    }
+                    return;
+                }
+                int itemIndex = 0;
+                boolean failures = false;
+                for (BulkResponseItem item : response.items()) {
+                    if (item.error() != null) {
+                        String errorString = item.error().type() + " - " + item.error().reason();
+                        ;
+                        log.error(
+                                "Error indexing document {} on index {}: {}",
+                                item.id(),
+                                indexName,
+                                errorString);
+                        failures = true;
+                        records.get(itemIndex++)
+                                .completableFuture()
+                                .completeExceptionally(
+                                        new RuntimeException(
+                                                "Error indexing document: " + errorString));
+                    } else {
+                        records.get(itemIndex++).completableFuture().complete(null);
+                    }
+                }
+                if (!failures) {
+                    log.info("Indexed {} documents on index {}", records.size(), indexName);
+                }
+            } catch (Throwable e) {
+                log.error("Error indexing documents on index {}: {}", indexName, e.getMessage(), e);
+                for (OpenSearchRecord record : records) {
+                    record.completableFuture().completeExceptionally(e);
+                }
+            }
         }
 
         private Refresh getRefreshValue() {
@@ -301,46 +246,69 @@ public class OpenSearchWriter implements VectorDatabaseWriterProvider {
 
         @Override
         public CompletableFuture<?> upsert(Record record, Map<String, Object> context) {
+            return upsertBatch(List.of(record), context).get(0);
+        }
 
-            CompletableFuture<?> handle = new CompletableFuture<>();
-            try {
-                MutableRecord mutableRecord = recordToMutableRecord(record, true);
-                Map<String, Object> documentJson;
-
-                if (record.value() != null) {
-                    documentJson = new HashMap<>();
-                    fields.forEach(
-                            (name, evaluator) -> {
-                                Object value = evaluator.evaluate(mutableRecord);
-                                if (log.isDebugEnabled()) {
-                                    log.debug(
-                                            "setting value {} ({}) for field {}",
-                                            value,
-                                            value.getClass(),
-                                            name);
-                                }
-                                documentJson.put(name, value);
-                            });
-                } else {
-                    documentJson = null;
+        @Override
+        public List<CompletableFuture<?>> upsertBatch(
+                List<Record> records, Map<String, Object> context) {
+            List<CompletableFuture<?>> results = new ArrayList<>(records.size());
+            List<OpenSearchRecord> bulk = new ArrayList<>(records.size());
+            for (Record record : records) {
+                CompletableFuture<?> handle = new CompletableFuture<>();
+                results.add(handle);
+                try {
+                    OpenSearchRecord openSearchRecord = buildOpenSearchRecord(record, handle);
+                    if (openSearchRecord == null) {
+                        log.info("skipping null document and id, was record: {}", record);
+                        handle.complete(null);
+                    } else {
+                        bulk.add(openSearchRecord);
+                    }
+                } catch (Exception e) {
+                    handle.completeExceptionally(e);
                 }
+            }
+            if (!bulk.isEmpty()) {
+                // the bulk operations are executed in order
+                executeBulk(bulk);
+            }
+            return results;
+        }
 
-                final String documentId;
-                if (id == null) {
-                    documentId = null;
-                } else {
-                    final Object evaluate = id.evaluate(mutableRecord);
-                    documentId = evaluate == null ? null : evaluate.toString();
-                }
-                if (documentJson == null && documentId == null) {
-                    log.info("skipping null document and id, was record: {}", record);
-                    return CompletableFuture.completedFuture(null);
-                }
-                batchExecutor.add(new OpenSearchRecord(documentId, documentJson, handle));
-            } catch (Exception e) {
-                handle.completeExceptionally(e);
+        private OpenSearchRecord buildOpenSearchRecord(Record record, CompletableFuture<?> handle) {
+            MutableRecord mutableRecord = recordToMutableRecord(record, true);
+            Map<String, Object> documentJson;
+
+            if (record.value() != null) {
+                documentJson = new HashMap<>();
+                fields.forEach(
+                        (name, evaluator) -> {
+                            Object value = evaluator.evaluate(mutableRecord);
+                            if (log.isDebugEnabled()) {
+                                log.debug(
+                                        "setting value {} ({}) for field {}",
+                                        value,
+                                        value.getClass(),
+                                        name);
+                            }
+                            documentJson.put(name, value);
+                        });
+            } else {
+                documentJson = null;
+            }
+
+            final String documentId;
+            if (id == null) {
+                documentId = null;
+            } else {
+                final Object evaluate = id.evaluate(mutableRecord);
+                documentId = evaluate == null ? null : evaluate.toString();
+            }
+            if (documentJson == null && documentId == null) {
+                return null;
             }
-            return handle;
+            return new OpenSearchRecord(documentId, documentJson, handle);
         }
 
         record OpenSearchRecord(
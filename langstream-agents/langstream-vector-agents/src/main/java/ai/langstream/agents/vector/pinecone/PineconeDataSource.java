@@ -23,9 +23,13 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.protobuf.ListValue;
 import com.google.protobuf.Struct;
 import com.google.protobuf.Value;
+import io.grpc.CallOptions;
 import io.grpc.StatusRuntimeException;
 import io.pinecone.PineconeClient;
 import io.pinecone.PineconeClientConfig;
@@ -35,6 +39,7 @@ import io.pinecone.proto.QueryRequest;
 import io.pinecone.proto.QueryResponse;
 import io.pinecone.proto.QueryVector;
 import io.pinecone.proto.SparseValues;
+import io.pinecone.proto.VectorServiceGrpc;
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
@@ -44,6 +49,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
@@ -94,6 +101,8 @@ public class PineconeDataSource implements DataSourceProvider {
 
         private final PineconeConfig clientConfig;
         private PineconeConnection connection;
+        private VectorServiceGrpc.VectorServiceFutureStub futureStub;
+        private HttpClient httpClient;
 
         public PineconeQueryStepDataSource(PineconeConfig clientConfig) {
             this.clientConfig = clientConfig;
@@ -112,6 +121,23 @@ public class PineconeDataSource implements DataSourceProvider {
                     new PineconeConnectionConfig().withIndexName(clientConfig.getIndexName());
             if (clientConfig.getEndpoint() == null) {
                 connection = pineconeClient.connect(connectionConfig);
+                // the channel of the blocking stub carries the authentication headers
+                VectorServiceGrpc.VectorServiceBlockingStub blockingStub =
+                        connection.getBlockingStub();
+                CallOptions callOptions = blockingStub.getCallOptions();
+                futureStub = VectorServiceGrpc.newFutureStub(blockingStub.getChannel());
+                if (callOptions.getMaxInboundMessageSize() != null) {
+                    futureStub =
+                            futureStub.withMaxInboundMessageSize(
+                                    callOptions.getMaxInboundMessageSize());
+                }
+                if (callOptions.getMaxOutboundMessageSize() != null) {
+                    futureStub =
+                            futureStub.withMaxOutboundMessageSize(
+                                    callOptions.getMaxOutboundMessageSize());
+                }
+            } else {
+                httpClient = HttpClient.newHttpClient();
             }
         }
 
@@ -135,15 +161,72 @@ public class PineconeDataSource implements DataSourceProvider {
             }
         }
 
+        @Override
+        public CompletableFuture<List<Map<String, Object>>> fetchDataAsync(
+                String query, List<Object> params) {
+            try {
+                Query parsedQuery = buildObjectFromJson(query, Query.class, params);
+
+                QueryRequest batchQueryRequest = mapQueryToQueryRequest(parsedQuery);
+
+                if (clientConfig.getEndpoint() == null) {
+                    CompletableFuture<List<Map<String, Object>>> result = new CompletableFuture<>();
+                    Futures.addCallback(
+                            futureStub.query(batchQueryRequest),
+                            new FutureCallback<>() {
+                                @Override
+                                public void onSuccess(QueryResponse queryResponse) {
+                                    try {
+                                        result.complete(
+                                                convertQueryResponse(queryResponse, parsedQuery));
+                                    } catch (Throwable e) {
+                                        result.completeExceptionally(e);
+                                    }
+                                }
+
+                                @Override
+                                public void onFailure(Throwable error) {
+                                    result.completeExceptionally(new RuntimeException(error));
+                                }
+                            },
+                            MoreExecutors.directExecutor());
+                    return result;
+                } else {
+                    return executeQueryWithMockHttpServiceAsync(batchQueryRequest);
+                }
+            } catch (Throwable e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        private CompletableFuture<List<Map<String, Object>>> executeQueryWithMockHttpServiceAsync(
+                QueryRequest batchQueryRequest) {
+            HttpRequest request =
+                    HttpRequest.newBuilder(URI.create(clientConfig.getEndpoint()))
+                            .POST(HttpRequest.BodyPublishers.ofString(batchQueryRequest.toString()))
+                            .build();
+            return httpClient
+                    .sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .thenApply(
+                            response -> {
+                                String body = response.body();
+                                log.info("Mock result {}", body);
+                                try {
+                                    return MAPPER.readValue(body, new TypeReference<>() {});
+                                } catch (IOException e) {
+                                    throw new CompletionException(e);
+                                }
+                            });
+        }
+
         private List<Map<String, Object>> executeQueryWithMockHttpService(
                 QueryRequest batchQueryRequest) throws IOException, InterruptedException {
             List<Map<String, Object>> results;
-            HttpClient client = HttpClient.newHttpClient();
             HttpRequest request =
                     HttpRequest.newBuilder(URI.create(clientConfig.getEndpoint()))
                             .POST(HttpRequest.BodyPublishers.ofString(batchQueryRequest.toString()))
                             .build();
-            String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+            String body = httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body();
             log.info("Mock result {}", body);
             results = MAPPER.readValue(body, new TypeReference<>() {});
             return results;
@@ -154,7 +237,13 @@ public class PineconeDataSource implements DataSourceProvider {
                 QueryRequest batchQueryRequest, Query parsedQuery) {
             List<Map<String, Object>> results;
             QueryResponse queryResponse = connection.getBlockingStub().query(batchQueryRequest);
+            return convertQueryResponse(queryResponse, parsedQuery);
+        }
 
+        @NotNull
+        private static List<Map<String, Object>> convertQueryResponse(
+                QueryResponse queryResponse, Query parsedQuery) {
+            List<Map<String, Object>> results;
             if (log.isDebugEnabled()) {
                 log.debug("Query response: {}", queryResponse);
             }
@@ -22,6 +22,7 @@ import ai.langstream.ai.agents.commons.jstl.JstlEvaluator;
 import ai.langstream.api.database.VectorDatabaseWriter;
 import ai.langstream.api.database.VectorDatabaseWriterProvider;
 import ai.langstream.api.runner.code.Record;
+import ai.langstream.api.util.FloatVector;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.protobuf.Struct;
@@ -32,9 +33,11 @@ import io.pinecone.PineconeConnectionConfig;
 import io.pinecone.proto.UpsertRequest;
 import io.pinecone.proto.UpsertResponse;
 import io.pinecone.proto.Vector;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
@@ -101,65 +104,87 @@ public class PineconeWriter implements VectorDatabaseWriterProvider {
 
         @Override
         public CompletableFuture<?> upsert(Record record, Map<String, Object> context) {
-            CompletableFuture<?> handle = new CompletableFuture<>();
-            try {
-                MutableRecord mutableRecord = recordToMutableRecord(record, true);
-                String id = idFunction != null ? (String) idFunction.evaluate(mutableRecord) : null;
-                String namespace =
-                        namespaceFunction != null
-                                ? (String) namespaceFunction.evaluate(mutableRecord)
-                                : null;
-                List<Object> vector =
-                        vectorFunction != null
-                                ? (List<Object>) vectorFunction.evaluate(mutableRecord)
-                                : null;
-                Map<String, Object> metadata =
-                        metadataFunctions.entrySet().stream()
-                                .collect(
-                                        Collectors.toMap(
-                                                Map.Entry::getKey,
-                                                e -> e.getValue().evaluate(mutableRecord)));
-                Struct metadataStruct =
-                        Struct.newBuilder()
-                                .putAllFields(
-                                        metadata.entrySet().stream()
-                                                .collect(
-                                                        Collectors.toMap(
-                                                                Map.Entry::getKey,
-                                                                e ->
-                                                                        PineconeDataSource
-                                                                                .convertToValue(
-                                                                                        e
-                                                                                                .getValue()))))
-                                .build();
-
-                List<Float> vectorFloat = null;
-                if (vector != null) {
-                    vectorFloat =
-                            vector.stream()
-                                    .map(
-                                            n -> {
-                                                if (n instanceof String s) {
-                                                    return Float.parseFloat(s);
-                                                } else if (n instanceof Number u) {
-                                                    return u.floatValue();
-                                                } else {
-                                                    throw new IllegalArgumentException(
-                                                            "only vectors of floats are supported");
-                                                }
-                                            })
-                                    .collect(Collectors.toList());
-                }
+            return upsertBatch(List.of(record), context).get(0);
+        }
 
-                Vector v1 =
-                        Vector.newBuilder()
-                                .setId(id)
-                                .addAllValues(vectorFloat)
-                                .setMetadata(metadataStruct)
-                                .build();
+        private record PendingVector(
+                Vector vector, String namespace, CompletableFuture<?> handle) {}
 
-                UpsertRequest.Builder builder = UpsertRequest.newBuilder().addVectors(v1);
+        @Override
+        public List<CompletableFuture<?>> upsertBatch(
+                List<Record> records, Map<String, Object> context) {
+            List<CompletableFuture<?>> results = new ArrayList<>(records.size());
+            // an UpsertRequest targets a single namespace, consecutive records for the same
+            // namespace are sent with a single request
+            List<PendingVector> run = new ArrayList<>();
+            for (Record record : records) {
+                CompletableFuture<?> handle = new CompletableFuture<>();
+                results.add(handle);
+                final PendingVector pendingVector;
+                try {
+                    pendingVector = buildVector(record, handle);
+                } catch (Exception e) {
+                    handle.completeExceptionally(e);
+                    continue;
+                }
+                if (!run.isEmpty()
+                        && !Objects.equals(run.get(0).namespace(), pendingVector.namespace())) {
+                    executeRun(run);
+                    run.clear();
+                }
+                run.add(pendingVector);
+            }
+            if (!run.isEmpty()) {
+                executeRun(run);
+            }
+            return results;
+        }
 
+        private PendingVector buildVector(Record record, CompletableFuture<?> handle) {
+            MutableRecord mutableRecord = recordToMutableRecord(record, true);
+            String id = idFunction != null ? (String) idFunction.evaluate(mutableRecord) : null;
+            String namespace =
+                    namespaceFunction != null
+                            ? (String) namespaceFunction.evaluate(mutableRecord)
+                            : null;
+            Object vector = vectorFunction != null ? vectorFunction.evaluate(mutableRecord) : null;
+            Map<String, Object> metadata =
+                    metadataFunctions.entrySet().stream()
+                            .collect(
+                                    Collectors.toMap(
+                                            Map.Entry::getKey,
+                                            e -> e.getValue().evaluate(mutableRecord)));
+            Struct metadataStruct =
+                    Struct.newBuilder()
+                            .putAllFields(
+                                    metadata.entrySet().stream()
+                                            .collect(
+                                                    Collectors.toMap(
+                                                            Map.Entry::getKey,
+                                                            e ->
+                                                                    PineconeDataSource
+                                                                            .convertToValue(
+                                                                                    e.getValue()))))
+                            .build();
+
+            Vector.Builder vectorBuilder =
+                    Vector.newBuilder().setId(id).setMetadata(metadataStruct);
+            if (vector != null) {
+                // no copies if the vector is a FloatVector computed by the embeddings agent
+                for (float value : FloatVector.toFloatArray(vector)) {
+                    vectorBuilder.addValues(value);
+                }
+            }
+            return new PendingVector(vectorBuilder.build(), namespace, handle);
+        }
+
+        private void executeRun(List<PendingVector> run) {
+            try {
+                UpsertRequest.Builder builder = UpsertRequest.newBuilder();
+                for (PendingVector pendingVector : run) {
+                    builder.addVectors(pendingVector.vector());
+                }
+                String namespace = run.get(0).namespace();
                 if (namespace != null) {
                     builder.setNamespace(namespace);
                 }
@@ -168,11 +193,14 @@ public class PineconeWriter implements VectorDatabaseWriterProvider {
                 UpsertResponse upsertResponse = connection.getBlockingStub().upsert(upsertRequest);
 
                 log.info("Result {}", upsertResponse);
-                handle.complete(null);
+                for (PendingVector pendingVector : run) {
+                    pendingVector.handle().complete(null);
+                }
             } catch (Exception e) {
-                handle.completeExceptionally(e);
+                for (PendingVector pendingVector : run) {
+                    pendingVector.handle().completeExceptionally(e);
+                }
             }
-            return handle;
         }
     }
 
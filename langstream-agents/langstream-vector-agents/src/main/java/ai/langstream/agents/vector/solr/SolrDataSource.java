@@ -26,6 +26,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import lombok.Data;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -34,6 +35,8 @@ import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.impl.Http2SolrClient;
 import org.apache.solr.client.solrj.request.QueryRequest;
 import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.client.solrj.util.AsyncListener;
+import org.apache.solr.common.util.NamedList;
 
 @Slf4j
 public class SolrDataSource implements DataSourceProvider {
@@ -103,47 +106,81 @@ public class SolrDataSource implements DataSourceProvider {
         @Override
         public List<Map<String, Object>> fetchData(String query, List<Object> params) {
             try {
-                Map<String, Object> queryMap =
-                        InterpolationUtils.buildObjectFromJson(query, Map.class, params);
-                if (log.isDebugEnabled()) {
-                    log.debug("Executing query {}", queryMap);
-                }
-                SolrQuery solrQuery = new SolrQuery();
-                queryMap.forEach((k, v) -> solrQuery.set(k, v.toString()));
-                // this is a workaround to handle the fact that the embeddings are
-                // an huge array of floats and putting them in the GET query string
-                // makes the requests fail on the server side (request header too large)
-                QueryResponse response =
-                        new QueryRequest(solrQuery, SolrRequest.METHOD.POST).process(client, null);
-                if (log.isDebugEnabled()) {
-                    log.debug("response: numFound {}", response.getResults().getNumFound());
-                    log.debug(
-                            "response: numFoundExact {}", response.getResults().getNumFoundExact());
-                    log.debug("response: maxScore {}", response.getResults().getMaxScore());
-                    log.debug("response: explainMap {}", response.getExplainMap());
-                    log.debug("response: size {}", response.getResults().size());
-                }
-
-                return response.getResults().stream()
-                        .map(
-                                doc -> {
-                                    Map<String, Object> result = new HashMap<>();
-                                    doc.getFieldNames()
-                                            .forEach(
-                                                    name ->
-                                                            result.put(
-                                                                    name, doc.getFieldValue(name)));
-                                    if (log.isDebugEnabled()) {
-                                        log.debug("Result row: {}", result);
-                                    }
-                                    return result;
-                                })
-                        .toList();
+                QueryResponse response = buildQueryRequest(query, params).process(client, null);
+                return convertQueryResponse(response);
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
         }
 
+        @Override
+        public CompletableFuture<List<Map<String, Object>>> fetchDataAsync(
+                String query, List<Object> params) {
+            CompletableFuture<List<Map<String, Object>>> result = new CompletableFuture<>();
+            try {
+                client.asyncRequest(
+                        buildQueryRequest(query, params),
+                        null,
+                        new AsyncListener<>() {
+                            @Override
+                            public void onSuccess(NamedList<Object> namedList) {
+                                try {
+                                    result.complete(
+                                            convertQueryResponse(
+                                                    new QueryResponse(namedList, client)));
+                                } catch (Throwable e) {
+                                    result.completeExceptionally(e);
+                                }
+                            }
+
+                            @Override
+                            public void onFailure(Throwable error) {
+                                result.completeExceptionally(new RuntimeException(error));
+                            }
+                        });
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+            return result;
+        }
+
+        private static QueryRequest buildQueryRequest(String query, List<Object> params) {
+            Map<String, Object> queryMap =
+                    InterpolationUtils.buildObjectFromJson(query, Map.class, params);
+            if (log.isDebugEnabled()) {
+                log.debug("Executing query {}", queryMap);
+            }
+            SolrQuery solrQuery = new SolrQuery();
+            queryMap.forEach((k, v) -> solrQuery.set(k, v.toString()));
+            // this is a workaround to handle the fact that the embeddings are
+            // an huge array of floats and putting them in the GET query string
+            // makes the requests fail on the server side (request header too large)
+            return new QueryRequest(solrQuery, SolrRequest.METHOD.POST);
+        }
+
+        private static List<Map<String, Object>> convertQueryResponse(QueryResponse response) {
+            if (log.isDebugEnabled()) {
+                log.debug("response: numFound {}", response.getResults().getNumFound());
+                log.debug("response: numFoundExact {}", response.getResults().getNumFoundExact());
+                log.debug("response: maxScore {}", response.getResults().getMaxScore());
+                log.debug("response: explainMap {}", response.getExplainMap());
+                log.debug("response: size {}", response.getResults().size());
+            }
+
+            return response.getResults().stream()
+                    .map(
+                            doc -> {
+                                Map<String, Object> result = new HashMap<>();
+                                doc.getFieldNames()
+                                        .forEach(name -> result.put(name, doc.getFieldValue(name)));
+                                if (log.isDebugEnabled()) {
+                                    log.debug("Result row: {}", result);
+                                }
+                                return result;
+                            })
+                    .toList();
+        }
+
         @Override
         public void close() {
             if (client != null) {
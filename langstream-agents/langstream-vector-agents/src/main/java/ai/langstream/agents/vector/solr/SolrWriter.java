@@ -24,6 +24,7 @@ import ai.langstream.api.database.VectorDatabaseWriterProvider;
 import ai.langstream.api.runner.code.Record;
 import ai.langstream.api.util.ConfigurationUtils;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -74,7 +75,7 @@ public class SolrWriter implements VectorDatabaseWriterProvider {
             log.info("Commit within {}", commitWithin);
             if (commitWithin <= 0) {
                 log.warn(
-                        "Commit within is set to 0, this may cause performance issues, as each record will be committed separately");
+                        "Commit within is set to 0, this may cause performance issues, as each batch of records will be committed separately");
             }
 
             List<Map<String, Object>> fields =
@@ -93,57 +94,101 @@ public class SolrWriter implements VectorDatabaseWriterProvider {
 
         @Override
         public CompletableFuture<?> upsert(Record record, Map<String, Object> context) {
-            CompletableFuture<?> handle = new CompletableFuture<>();
+            return upsertBatch(List.of(record), context).get(0);
+        }
+
+        private record Document(
+                SolrInputDocument document, String id, CompletableFuture<?> handle) {
+            boolean delete() {
+                return id != null;
+            }
+        }
+
+        @Override
+        public List<CompletableFuture<?>> upsertBatch(
+                List<Record> records, Map<String, Object> context) {
+            List<CompletableFuture<?>> results = new ArrayList<>(records.size());
+            // consecutive records of the same kind (add or delete) are sent with a single request
+            List<Document> run = new ArrayList<>();
+            for (Record record : records) {
+                CompletableFuture<?> handle = new CompletableFuture<>();
+                results.add(handle);
+                final Document document;
+                try {
+                    document = buildDocument(record, handle);
+                } catch (Exception e) {
+                    handle.completeExceptionally(e);
+                    continue;
+                }
+                if (!run.isEmpty() && run.get(0).delete() != document.delete()) {
+                    executeRun(run);
+                    run.clear();
+                }
+                run.add(document);
+            }
+            if (!run.isEmpty()) {
+                executeRun(run);
+            }
+            return results;
+        }
+
+        private Document buildDocument(Record record, CompletableFuture<?> handle) {
+            MutableRecord mutableRecord = recordToMutableRecord(record, true);
+
+            SolrInputDocument document = new SolrInputDocument();
+            fields.forEach(
+                    (name, evaluator) -> {
+                        Object value = evaluator.evaluate(mutableRecord);
+                        if (log.isDebugEnabled()) {
+                            log.debug(
+                                    "setting value {} ({}) for field {}",
+                                    value,
+                                    value.getClass(),
+                                    name);
+                        }
+                        document.addField(name, value);
+                    });
+
+            if (record.value() != null) {
+                return new Document(document, null, handle);
+            }
+            SolrInputField id = document.get("id");
+            if (id == null) {
+                throw new IllegalStateException(
+                        "In order to perform DELETE (value=nul) you must provide id field");
+            }
+            return new Document(null, (String) id.getValue(), handle);
+        }
+
+        private void executeRun(List<Document> run) {
             try {
-                MutableRecord mutableRecord = recordToMutableRecord(record, true);
-
-                SolrInputDocument document = new SolrInputDocument();
-                fields.forEach(
-                        (name, evaluator) -> {
-                            Object value = evaluator.evaluate(mutableRecord);
-                            if (log.isDebugEnabled()) {
-                                log.debug(
-                                        "setting value {} ({}) for field {}",
-                                        value,
-                                        value.getClass(),
-                                        name);
-                            }
-                            document.addField(name, value);
-                        });
-
-                if (record.value() != null) {
-                    UpdateResponse response = client.add(document, commitWithin);
-                    if (log.isDebugEnabled()) {
-                        log.debug("Result {}", response);
-                    }
-                    if (response.getException() != null) {
-                        handle.completeExceptionally(response.getException());
-                    } else {
-                        commitIfNeeded();
-                        handle.complete(null);
-                    }
+                final UpdateResponse response;
+                if (run.get(0).delete()) {
+                    response =
+                            client.deleteById(
+                                    run.stream().map(Document::id).toList(), commitWithin);
                 } else {
-                    SolrInputField id = document.get("id");
-                    if (id == null) {
-                        throw new IllegalStateException(
-                                "In order to perform DELETE (value=nul) you must provide id field");
-                    }
-                    UpdateResponse response =
-                            client.deleteById((String) id.getValue(), commitWithin);
-                    if (log.isDebugEnabled()) {
-                        log.debug("Result {}", response);
+                    response =
+                            client.add(run.stream().map(Document::document).toList(), commitWithin);
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug("Result {}", response);
+                }
+                if (response.getException() != null) {
+                    for (Document document : run) {
+                        document.handle().completeExceptionally(response.getException());
                     }
-                    if (response.getException() != null) {
-                        handle.completeExceptionally(response.getException());
-                    } else {
-                        commitIfNeeded();
-                        handle.complete(null);
+                } else {
+                    commitIfNeeded();
+                    for (Document document : run) {
+                        document.handle().complete(null);
                     }
                 }
             } catch (Exception e) {
-                handle.completeExceptionally(e);
+                for (Document document : run) {
+                    document.handle().completeExceptionally(e);
+                }
             }
-            return handle;
         }
 
         private void commitIfNeeded() throws SolrServerException, IOException {
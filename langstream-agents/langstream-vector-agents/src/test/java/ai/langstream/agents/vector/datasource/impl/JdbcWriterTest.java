@@ -25,10 +25,12 @@ import ai.langstream.ai.agents.datasource.impl.JdbcDataSourceProvider;
 import ai.langstream.api.model.AssetDefinition;
 import ai.langstream.api.runner.assets.AssetManager;
 import ai.langstream.api.runner.assets.AssetManagerProvider;
+import ai.langstream.api.runner.code.Record;
 import ai.langstream.api.runner.code.SimpleRecord;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 
@@ -174,4 +176,94 @@ public class JdbcWriterTest {
             }
         }
     }
+
+    @Test
+    void testWriteBatch() throws Exception {
+        JdbcDataSourceProvider dataSourceProvider = new JdbcDataSourceProvider();
+        Map<String, Object> config =
+                Map.of(
+                        "url",
+                        "jdbc:herddb:local",
+                        "driverClass",
+                        herddb.jdbc.Driver.class.getName());
+
+        String tableName = "documents";
+        try (JdbcDataSourceProvider.JdbcDataSourceImpl datasource =
+                        dataSourceProvider.createDataSourceImplementation(config);
+                JdbcWriter.JdbcVectorDatabaseWriter writer =
+                        new JdbcWriter().createImplementation(config)) {
+            datasource.initialize(null);
+
+            AssetManagerProvider assetsManagerProvider = new JdbcAssetsManagerProvider();
+            try (AssetManager tableManager = assetsManagerProvider.createInstance("jdbc-table"); ) {
+                AssetDefinition assetDefinition = new AssetDefinition();
+                assetDefinition.setAssetType("jdbc-table");
+                assetDefinition.setConfig(
+                        Map.of(
+                                "table-name",
+                                tableName,
+                                "datasource",
+                                Map.of("configuration", config),
+                                "create-statements",
+                                List.of(CREATE_TABLE),
+                                "delete-statements",
+                                List.of(DROP_TABLE)));
+                tableManager.initialize(assetDefinition);
+                tableManager.deleteAssetIfExists();
+                tableManager.deployAsset();
+
+                List<Map<String, Object>> fields =
+                        List.of(
+                                Map.of(
+                                        "name",
+                                        "name",
+                                        "expression",
+                                        "key.name",
+                                        "primary-key",
+                                        true),
+                                Map.of(
+                                        "name",
+                                        "chunk_id",
+                                        "expression",
+                                        "key.chunk_id",
+                                        "primary-key",
+                                        true),
+                                Map.of("name", "text", "expression", "value.text"));
+
+                writer.initialise(Map.of("table-name", tableName, "fields", fields));
+
+                List<Record> records = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                    records.add(
+                            SimpleRecord.of(
+                                    "{\"name\": \"doc\", \"chunk_id\": %d}".formatted(i),
+                                    "{\"text\": \"text %d\"}".formatted(i)));
+                }
+                // same row twice in the same batch
+                records.add(
+                        SimpleRecord.of(
+                                "{\"name\": \"doc\", \"chunk_id\": 0}", "{\"text\": \"changed\"}"));
+                records.add(SimpleRecord.of("{\"name\": \"doc\", \"chunk_id\": 1}", null));
+                records.add(
+                        SimpleRecord.of(
+                                "{\"name\": \"doc\", \"chunk_id\": 2}", "{\"text\": \"changed\"}"));
+
+                List<CompletableFuture<?>> results = writer.upsertBatch(records, Map.of());
+                assertEquals(records.size(), results.size());
+                CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get();
+
+                List<Map<String, Object>> rows =
+                        datasource.fetchData(
+                                "SELECT chunk_id,text from documents order by chunk_id", List.of());
+                log.info("Results: {}", rows);
+                assertEquals(9, rows.size());
+                assertEquals("changed", rows.get(0).get("text"));
+                assertEquals(2, rows.get(1).get("chunk_id"));
+                assertEquals("changed", rows.get(1).get("text"));
+                assertEquals("text 9", rows.get(8).get("text"));
+
+                tableManager.deleteAssetIfExists();
+            }
+        }
+    }
 }
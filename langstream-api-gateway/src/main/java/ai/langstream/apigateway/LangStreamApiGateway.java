@@ -15,7 +15,10 @@
  */
 package ai.langstream.apigateway;
 
+import ai.langstream.apigateway.config.ApplicationCacheProperties;
+import ai.langstream.apigateway.config.ConsumeGatewayProperties;
 import ai.langstream.apigateway.config.GatewayTestAuthenticationProperties;
+import ai.langstream.apigateway.config.ServiceGatewayProperties;
 import ai.langstream.apigateway.config.StorageProperties;
 import ai.langstream.apigateway.config.TopicProperties;
 import ai.langstream.apigateway.runner.CodeConfiguration;
@@ -31,7 +34,10 @@ import org.springframework.core.env.Environment;
     StorageProperties.class,
     GatewayTestAuthenticationProperties.class,
     CodeConfiguration.class,
-    TopicProperties.class
+    TopicProperties.class,
+    ApplicationCacheProperties.class,
+    ServiceGatewayProperties.class,
+    ConsumeGatewayProperties.class
 })
 public class LangStreamApiGateway {
 
@@ -17,4 +17,7 @@ package ai.langstream.apigateway;
 
 public class MetricsNames {
     public static final String TOPIC_PRODUCER_CACHE = "topic_producer_cache";
+    public static final String APPLICATION_CACHE = "application_cache";
+    public static final String SERVICE_RESPONSE_READERS = "service_response_readers";
+    public static final String CONSUME_SHARED_READERS = "consume_shared_readers";
 }
@@ -0,0 +1,28 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.apigateway.application;
+
+import ai.langstream.api.model.Application;
+import java.util.function.Supplier;
+
+public interface ApplicationCache {
+
+    record Key(String tenant, String applicationId) {}
+
+    Application getOrLoad(Key key, Supplier<Application> applicationSupplier);
+
+    default void invalidate(Key key) {}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.apigateway.application;
+
+import ai.langstream.api.storage.ApplicationStore;
+import ai.langstream.apigateway.MetricsNames;
+import ai.langstream.apigateway.config.ApplicationCacheProperties;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Slf4j
+public class ApplicationCacheFactory {
+
+    @Bean
+    public ApplicationCache applicationCache(
+            ApplicationCacheProperties applicationCacheProperties,
+            ApplicationStore applicationStore) {
+        if (!applicationCacheProperties.isEnabled()) {
+            return (key, applicationSupplier) -> applicationSupplier.get();
+        }
+        final AtomicReference<ApplicationCache> cacheReference = new AtomicReference<>();
+        final boolean watching =
+                applicationStore.watchApplicationChanges(
+                        (tenant, applicationId) -> {
+                            final ApplicationCache current = cacheReference.get();
+                            if (current != null) {
+                                current.invalidate(new ApplicationCache.Key(tenant, applicationId));
+                            }
+                        });
+        final long ttlSeconds =
+                watching
+                        ? applicationCacheProperties.getTtlSeconds()
+                        : applicationCacheProperties.getTtlSecondsWithoutWatch();
+        log.info(
+                "Caching applications for {} seconds (store watch enabled: {})",
+                ttlSeconds,
+                watching);
+        final LRUApplicationCache cache =
+                new LRUApplicationCache(
+                        applicationCacheProperties.getSize(),
+                        Duration.ofSeconds(ttlSeconds),
+                        Metrics.globalRegistry);
+        GuavaCacheMetrics.monitor(
+                Metrics.globalRegistry, cache.getCache(), MetricsNames.APPLICATION_CACHE);
+        cacheReference.set(cache);
+        return cache;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.apigateway.application;
+
+import ai.langstream.api.model.Application;
+import ai.langstream.apigateway.MetricsNames;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the parsed and resolved applications in memory, so that the gateways do not have to read
+ * and deserialize the application from the store on every request. The entries are invalidated when
+ * the store notifies a change and in any case they expire after a configurable time.
+ *
+ * <p>Every invalidation increments a generation counter for the key, a load that started before an
+ * invalidation is not kept in the cache, otherwise it could serve the old application until the
+ * entry expires.
+ */
+@Slf4j
+public class LRUApplicationCache implements ApplicationCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private record CachedApplication(Application application, long loadedAt, long generation) {}
+
+    @Getter private final Cache<Key, CachedApplication> cache;
+    private final DistributionSummary entryAge;
+    private final Counter invalidations;
+    // generations of the keys, a key shares its counter with the other keys of the same stripe
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public LRUApplicationCache(int size, Duration expireAfterWrite, MeterRegistry meterRegistry) {
+        this.cache =
+                CacheBuilder.newBuilder()
+                        .maximumSize(size)
+                        .expireAfterWrite(expireAfterWrite)
+                        .recordStats()
+                        .build();
+        this.entryAge =
+                DistributionSummary.builder(MetricsNames.APPLICATION_CACHE + "_entry_age")
+                        .description(
+                                "Age in milliseconds of the cached applications served by the gateway")
+                        .baseUnit("milliseconds")
+                        .register(meterRegistry);
+        this.invalidations =
+                Counter.builder(MetricsNames.APPLICATION_CACHE + "_invalidations")
+                        .description("Number of applications invalidated by a change in the store")
+                        .register(meterRegistry);
+    }
+
+    @Override
+    public Application getOrLoad(Key key, Supplier<Application> applicationSupplier) {
+        for (int attempt = 0; attempt < MAX_LOAD_ATTEMPTS; attempt++) {
+            final CachedApplication cached = load(key, applicationSupplier);
+            if (cached.generation() == generation(key)) {
+                entryAge.record(System.currentTimeMillis() - cached.loadedAt());
+                return cached.application();
+            }
+            // invalidated while it was loading, the application may be outdated
+            log.debug("Application {} changed while loading", key);
+            cache.asMap().remove(key, cached);
+        }
+        // the application keeps changing, serve the latest version without caching it
+        log.debug("Application {} changed while loading, loading without the cache", key);
+        return applicationSupplier.get();
+    }
+
+    private CachedApplication load(Key key, Supplier<Application> applicationSupplier) {
+        try {
+            return cache.get(
+                    key,
+                    () -> {
+                        log.debug("Loading application {}", key);
+                        final long generation = generation(key);
+                        return new CachedApplication(
+                                applicationSupplier.get(), System.currentTimeMillis(), generation);
+                    });
+        } catch (ExecutionException | UncheckedExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(ex.getCause());
+        }
+    }
+
+    private long generation(Key key) {
+        return generations.get(stripe(key));
+    }
+
+    private static int stripe(Key key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % GENERATION_STRIPES;
+    }
+
+    @Override
+    public void invalidate(Key key) {
+        log.debug("Invalidating application {}", key);
+        invalidations.increment();
+        generations.incrementAndGet(stripe(key));
+        cache.invalidate(key);
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.apigateway.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "application.applications-cache")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApplicationCacheProperties {
+
+    private boolean enabled = true;
+
+    private int size = 1000;
+
+    /** Expiration of the cached applications when the store notifies the changes. */
+    private long ttlSeconds = 600;
+
+    /** Expiration of the cached applications when the store is not able to notify the changes. */
+    private long ttlSecondsWithoutWatch = 10;
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.apigateway.config;
+
+import ai.langstream.apigateway.gateways.SharedTopicReaders;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "application.consume-gateways")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsumeGatewayProperties {
+
+    /**
+     * Share one reader per topic between the WebSocket consumers that read from the latest
+     * position. Consumers that pass an explicit position always get their own reader. Disabled by
+     * default.
+     */
+    private boolean sharedReadersEnabled;
+
+    /** Maximum number of messages waiting to be sent to a WebSocket consumer. */
+    private int maxQueuedMessages = 1000;
+
+    /** What to do when the queue of a WebSocket consumer is full. */
+    private SharedTopicReaders.SlowConsumerPolicy slowConsumerPolicy =
+            SharedTopicReaders.SlowConsumerPolicy.DISCONNECT;
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.apigateway.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "application.service-gateways")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServiceGatewayProperties {
+
+    /** Maximum number of output topics with an open reader. */
+    private int readersCacheSize = 100;
+
+    /** A reader is closed when no request has used it for this time. */
+    private long readerIdleTimeoutSeconds = 600;
+
+    /** Maximum number of requests waiting for a response on the same output topic. */
+    private int maxPendingRequests = 10000;
+
+    private long responseTimeoutSeconds = 120;
+}
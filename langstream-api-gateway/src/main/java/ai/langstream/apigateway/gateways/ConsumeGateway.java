@@ -27,6 +27,7 @@ import ai.langstream.api.runner.topics.TopicReader;
 import ai.langstream.apigateway.api.ConsumePushMessage;
 import ai.langstream.apigateway.api.ProduceResponse;
 import ai.langstream.apigateway.websocket.AuthenticatedGatewayRequestContext;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.ArrayList;
 import java.util.Base64;
@@ -79,9 +80,29 @@ public class ConsumeGateway implements AutoCloseable {
         }
     }
 
+    /**
+     * Accepts the records with a header equal to the given value. A null value, for instance a
+     * parameter not passed by the client, never matches.
+     */
+    public record HeaderFilter(String key, String value) implements Function<Record, Boolean> {
+        @Override
+        public Boolean apply(Record record) {
+            if (value == null) {
+                return false;
+            }
+            final Header header = record.getHeader(key);
+            if (header == null) {
+                return false;
+            }
+            return value.equals(header.valueAsString());
+        }
+    }
+
     private final TopicConnectionsRuntimeRegistry topicConnectionsRuntimeRegistry;
+    private final SharedTopicReaders sharedTopicReaders;
 
     private volatile TopicReader reader;
+    private volatile SharedTopicReaders.Subscription subscription;
     private volatile boolean interrupted;
     private volatile String logRef;
     private CompletableFuture<Void> readerFuture;
@@ -89,7 +110,18 @@ public class ConsumeGateway implements AutoCloseable {
     private List<Function<Record, Boolean>> filters;
 
     public ConsumeGateway(TopicConnectionsRuntimeRegistry topicConnectionsRuntimeRegistry) {
+        this(topicConnectionsRuntimeRegistry, null);
+    }
+
+    /**
+     * @param sharedTopicReaders the readers shared by the consumers that read from the latest
+     *     position, null to always create a reader for this consumer
+     */
+    public ConsumeGateway(
+            TopicConnectionsRuntimeRegistry topicConnectionsRuntimeRegistry,
+            SharedTopicReaders sharedTopicReaders) {
         this.topicConnectionsRuntimeRegistry = topicConnectionsRuntimeRegistry;
+        this.sharedTopicReaders = sharedTopicReaders;
     }
 
     public void setup(
@@ -106,6 +138,13 @@ public class ConsumeGateway implements AutoCloseable {
         this.requestContext = requestContext;
         this.filters = filters == null ? List.of() : filters;
 
+        final String positionParameter =
+                requestContext.options().getOrDefault("position", "latest");
+        if (sharedTopicReaders != null && "latest".equals(positionParameter)) {
+            subscription = sharedTopicReaders.subscribe(requestContext, topic, this.filters);
+            return;
+        }
+
         final StreamingCluster streamingCluster =
                 requestContext.application().getInstance().streamingCluster();
         final TopicConnectionsRuntime topicConnectionsRuntime =
@@ -115,8 +154,6 @@ public class ConsumeGateway implements AutoCloseable {
 
         topicConnectionsRuntime.init(streamingCluster);
 
-        final String positionParameter =
-                requestContext.options().getOrDefault("position", "latest");
         TopicOffsetPosition position =
                 switch (positionParameter) {
                     case "latest" -> TopicOffsetPosition.LATEST;
@@ -132,12 +169,31 @@ public class ConsumeGateway implements AutoCloseable {
 
     public void startReadingAsync(
             Executor executor, Supplier<Boolean> stop, Consumer<String> onMessage) {
-        if (requestContext == null || reader == null) {
+        startReadingAsync(executor, stop, onMessage, error -> {});
+    }
+
+    /**
+     * Start sending the messages to the consumer.
+     *
+     * @param onError called when the messages cannot be delivered anymore, for instance because the
+     *     consumer is too slow
+     */
+    public void startReadingAsync(
+            Executor executor,
+            Supplier<Boolean> stop,
+            Consumer<String> onMessage,
+            Consumer<Throwable> onError) {
+        if (requestContext == null || (reader == null && subscription == null)) {
             throw new IllegalStateException("Not initialized");
         }
         if (readerFuture != null) {
             throw new IllegalStateException("Already started");
         }
+        if (subscription != null) {
+            readerFuture = CompletableFuture.completedFuture(null);
+            subscription.start(executor, stop, onMessage, onError);
+            return;
+        }
         readerFuture =
                 CompletableFuture.runAsync(
                         () -> {
@@ -146,6 +202,7 @@ public class ConsumeGateway implements AutoCloseable {
                                 readMessages(stop, onMessage);
                             } catch (Throwable ex) {
                                 log.error("[{}] Error reading messages", logRef, ex);
+                                onError.accept(ex);
                                 throw new RuntimeException(ex);
                             } finally {
                                 closeReader();
@@ -164,7 +221,8 @@ public class ConsumeGateway implements AutoCloseable {
             }
             final TopicReadResult readResult = reader.read();
             final List<Record> records = readResult.records();
-            for (Record record : records) {
+            for (int i = 0; i < records.size(); i++) {
+                final Record record = records.get(i);
                 log.debug("[{}] Received record {}", logRef, record);
                 boolean skip = false;
                 if (filters != null) {
@@ -177,21 +235,22 @@ public class ConsumeGateway implements AutoCloseable {
                     }
                 }
                 if (!skip) {
-                    final Map<String, String> messageHeaders = computeMessageHeaders(record);
-                    final String offset = computeOffset(readResult);
-
-                    final ConsumePushMessage message =
-                            new ConsumePushMessage(
-                                    new ConsumePushMessage.Record(
-                                            record.key(), record.value(), messageHeaders),
-                                    offset);
-                    final String jsonMessage = mapper.writeValueAsString(message);
+                    final String jsonMessage = toJsonMessage(record, computeOffset(readResult, i));
                     onMessage.accept(jsonMessage);
                 }
             }
         }
     }
 
+    static String toJsonMessage(Record record, String offset) throws JsonProcessingException {
+        final Map<String, String> messageHeaders = computeMessageHeaders(record);
+        final ConsumePushMessage message =
+                new ConsumePushMessage(
+                        new ConsumePushMessage.Record(record.key(), record.value(), messageHeaders),
+                        offset);
+        return mapper.writeValueAsString(message);
+    }
+
     private static Map<String, String> computeMessageHeaders(Record record) {
         final Collection<Header> headers = record.headers();
         final Map<String, String> messageHeaders;
@@ -204,8 +263,8 @@ public class ConsumeGateway implements AutoCloseable {
         return messageHeaders;
     }
 
-    private static String computeOffset(TopicReadResult readResult) {
-        final byte[] offset = readResult.offset();
+    static String computeOffset(TopicReadResult readResult, int index) {
+        final byte[] offset = readResult.offset(index);
         if (offset == null) {
             return null;
         }
@@ -224,6 +283,10 @@ public class ConsumeGateway implements AutoCloseable {
 
     @Override
     public void close() {
+        if (subscription != null) {
+            subscription.close();
+            return;
+        }
         if (readerFuture != null) {
 
             interrupted = true;
@@ -250,28 +313,18 @@ public class ConsumeGateway implements AutoCloseable {
             if (comparison.key() == null) {
                 throw new IllegalArgumentException("Key cannot be null");
             }
-            filters.add(
-                    record -> {
-                        final Header header = record.getHeader(comparison.key());
-                        if (header == null) {
-                            return false;
-                        }
-                        final String expectedValue = header.valueAsString();
-                        if (expectedValue == null) {
-                            return false;
-                        }
-                        String value = comparison.value();
-                        if (value == null && comparison.valueFromParameters() != null) {
-                            value = passedParameters.get(comparison.valueFromParameters());
-                        }
-                        if (value == null && comparison.valueFromAuthentication() != null) {
-                            value = principalValues.get(comparison.valueFromAuthentication());
-                        }
-                        if (value == null) {
-                            return false;
-                        }
-                        return expectedValue.equals(value);
-                    });
+            String value = comparison.value();
+            if (value == null
+                    && comparison.valueFromParameters() != null
+                    && passedParameters != null) {
+                value = passedParameters.get(comparison.valueFromParameters());
+            }
+            if (value == null
+                    && comparison.valueFromAuthentication() != null
+                    && principalValues != null) {
+                value = principalValues.get(comparison.valueFromAuthentication());
+            }
+            filters.add(new HeaderFilter(comparison.key(), value));
         }
         return filters;
     }
@@ -24,6 +24,7 @@ import ai.langstream.api.model.ApplicationSpecs;
 import ai.langstream.api.model.Gateway;
 import ai.langstream.api.model.Gateways;
 import ai.langstream.api.storage.ApplicationStore;
+import ai.langstream.apigateway.application.ApplicationCache;
 import ai.langstream.apigateway.config.GatewayTestAuthenticationProperties;
 import ai.langstream.apigateway.websocket.AuthenticatedGatewayRequestContext;
 import ai.langstream.apigateway.websocket.impl.AuthenticatedGatewayRequestContextImpl;
@@ -54,12 +55,15 @@ public class GatewayRequestHandler {
     }
 
     private final ApplicationStore applicationStore;
+    private final ApplicationCache applicationCache;
     private final GatewayAuthenticationProvider authTestProvider;
 
     public GatewayRequestHandler(
             ApplicationStore applicationStore,
+            ApplicationCache applicationCache,
             GatewayTestAuthenticationProperties testAuthenticationProperties) {
         this.applicationStore = applicationStore;
+        this.applicationCache = applicationCache;
         if (testAuthenticationProperties.getType() != null) {
             authTestProvider =
                     GatewayAuthenticationProviderRegistry.loadProvider(
@@ -175,6 +179,12 @@ public class GatewayRequestHandler {
     }
 
     private Application getResolvedApplication(String tenant, String applicationId) {
+        return applicationCache.getOrLoad(
+                new ApplicationCache.Key(tenant, applicationId),
+                () -> loadResolvedApplication(tenant, applicationId));
+    }
+
+    private Application loadResolvedApplication(String tenant, String applicationId) {
         final ApplicationSpecs applicationSpecs = applicationStore.getSpecs(tenant, applicationId);
         if (applicationSpecs == null) {
             throw new IllegalArgumentException("application " + applicationId + " not found");
@@ -16,6 +16,7 @@
 package ai.langstream.apigateway.gateways;
 
 import ai.langstream.api.storage.ApplicationStore;
+import ai.langstream.apigateway.application.ApplicationCache;
 import ai.langstream.apigateway.config.GatewayTestAuthenticationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -26,7 +27,9 @@ public class GatewayRequestHandlerFactory {
     @Bean
     public GatewayRequestHandler gatewayRequestHandler(
             ApplicationStore applicationStore,
+            ApplicationCache applicationCache,
             GatewayTestAuthenticationProperties testAuthenticationProperties) {
-        return new GatewayRequestHandler(applicationStore, testAuthenticationProperties);
+        return new GatewayRequestHandler(
+                applicationStore, applicationCache, testAuthenticationProperties);
     }
 }
@@ -0,0 +1,311 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.apigateway.gateways;
+
+import ai.langstream.api.model.StreamingCluster;
+import ai.langstream.api.runner.code.Header;
+import ai.langstream.api.runner.code.Record;
+import ai.langstream.api.runner.topics.TopicConnectionsRuntime;
+import ai.langstream.api.runner.topics.TopicConnectionsRuntimeRegistry;
+import ai.langstream.api.runner.topics.TopicOffsetPosition;
+import ai.langstream.api.runner.topics.TopicReadResult;
+import ai.langstream.api.runner.topics.TopicReader;
+import ai.langstream.apigateway.websocket.AuthenticatedGatewayRequestContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Routes the responses of the service gateways to the pending HTTP requests.
+ *
+ * <p>There is one long-lived reader for each application output topic, positioned at the latest
+ * offset. Each request registers the id it sent in the {@code langstream-service-request-id} header
+ * and the reader completes the matching request when the response arrives.
+ */
+@Slf4j
+public class ServiceResponseDispatcher implements AutoCloseable {
+
+    public static final String SERVICE_REQUEST_ID_HEADER = "langstream-service-request-id";
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    public record Key(String tenant, String application, String topic, String configString) {}
+
+    @Getter
+    public static class TooManyPendingRequestsException extends RuntimeException {
+        private final Key key;
+
+        public TooManyPendingRequestsException(Key key, int maxPendingRequests) {
+            super(
+                    "Too many pending requests (%d) waiting for responses on topic %s"
+                            .formatted(maxPendingRequests, key.topic()));
+            this.key = key;
+        }
+    }
+
+    private record PendingResponse(
+            CompletableFuture<String> future, List<Function<Record, Boolean>> filters) {}
+
+    private final TopicConnectionsRuntimeRegistry topicConnectionsRuntimeRegistry;
+    private final int maxPendingRequests;
+    private final Duration responseTimeout;
+    private final ExecutorService readersThreadPool =
+            Executors.newCachedThreadPool(
+                    new BasicThreadFactory.Builder().namingPattern("service-reader-%d").build());
+
+    @Getter private final Cache<Key, SharedResponseReader> readers;
+
+    public ServiceResponseDispatcher(
+            TopicConnectionsRuntimeRegistry topicConnectionsRuntimeRegistry,
+            int readersCacheSize,
+            Duration readerIdleTimeout,
+            int maxPendingRequests,
+            Duration responseTimeout) {
+        this.topicConnectionsRuntimeRegistry = topicConnectionsRuntimeRegistry;
+        this.maxPendingRequests = maxPendingRequests;
+        this.responseTimeout = responseTimeout;
+        this.readers =
+                CacheBuilder.newBuilder()
+                        .maximumSize(readersCacheSize)
+                        .expireAfterAccess(readerIdleTimeout)
+                        .removalListener(
+                                (RemovalNotification<Key, SharedResponseReader> notification) ->
+                                        notification.getValue().removedFromCache())
+                        .recordStats()
+                        .build();
+    }
+
+    /**
+     * Register a request that is waiting for a response on the given topic. The request must be
+     * registered before producing the message, the returned future completes with the JSON message
+     * of the response or exceptionally after the response timeout.
+     */
+    public CompletableFuture<String> expectResponse(
+            AuthenticatedGatewayRequestContext requestContext,
+            String topic,
+            String requestId,
+            List<Function<Record, Boolean>> filters)
+            throws Exception {
+        final StreamingCluster streamingCluster =
+                requestContext.application().getInstance().streamingCluster();
+        final String configString =
+                mapper.writeValueAsString(
+                        Pair.of(streamingCluster.type(), streamingCluster.configuration()));
+        // we need to cache the reader per topic and per config, since an application update could
+        // change the configuration
+        final Key key =
+                new Key(
+                        requestContext.tenant(),
+                        requestContext.applicationId(),
+                        topic,
+                        configString);
+        final PendingResponse pendingResponse =
+                new PendingResponse(
+                        new CompletableFuture<>(), filters == null ? List.of() : filters);
+        while (true) {
+            final SharedResponseReader reader;
+            try {
+                reader =
+                        readers.get(
+                                key,
+                                () -> {
+                                    final SharedResponseReader result =
+                                            new SharedResponseReader(
+                                                    key, createReader(streamingCluster, topic));
+                                    result.start();
+                                    return result;
+                                });
+            } catch (ExecutionException ex) {
+                throw new RuntimeException(ex.getCause());
+            }
+            // wait for the reader to be positioned at the end of the topic before producing
+            reader.started.get(responseTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (reader.register(requestId, pendingResponse)) {
+                pendingResponse.future.whenComplete(
+                        (response, error) -> reader.unregister(requestId));
+                return pendingResponse.future.orTimeout(
+                        responseTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            }
+            log.debug("Reader {} has been stopped, retry", key);
+            readers.asMap().remove(key, reader);
+        }
+    }
+
+    protected TopicReader createReader(StreamingCluster streamingCluster, String topic) {
+        final TopicConnectionsRuntime topicConnectionsRuntime =
+                topicConnectionsRuntimeRegistry
+                        .getTopicConnectionsRuntime(streamingCluster)
+                        .asTopicConnectionsRuntime();
+        topicConnectionsRuntime.init(streamingCluster);
+        return topicConnectionsRuntime.createReader(
+                streamingCluster, Map.of("topic", topic), TopicOffsetPosition.LATEST);
+    }
+
+    /** Number of requests waiting for a response, across all the readers. */
+    public int pendingRequests() {
+        return readers.asMap().values().stream()
+                .mapToInt(SharedResponseReader::pendingRequests)
+                .sum();
+    }
+
+    @Override
+    public void close() {
+        readers.asMap().values().forEach(SharedResponseReader::close);
+        readers.invalidateAll();
+        readersThreadPool.shutdown();
+    }
+
+    final class SharedResponseReader {
+        private final Key key;
+        private final TopicReader reader;
+        private final Map<String, PendingResponse> pending = new ConcurrentHashMap<>();
+        private final CompletableFuture<Void> started = new CompletableFuture<>();
+        private boolean cached = true;
+        private boolean stopped;
+        private volatile boolean closed;
+
+        SharedResponseReader(Key key, TopicReader reader) {
+            this.key = key;
+            this.reader = reader;
+        }
+
+        int pendingRequests() {
+            return pending.size();
+        }
+
+        synchronized boolean register(String requestId, PendingResponse pendingResponse) {
+            if (stopped) {
+                return false;
+            }
+            if (pending.size() >= maxPendingRequests) {
+                throw new TooManyPendingRequestsException(key, maxPendingRequests);
+            }
+            pending.put(requestId, pendingResponse);
+            return true;
+        }
+
+        void unregister(String requestId) {
+            pending.remove(requestId);
+        }
+
+        synchronized void removedFromCache() {
+            // keep reading until the pending requests are completed or timed out
+            cached = false;
+        }
+
+        void close() {
+            closed = true;
+        }
+
+        private synchronized boolean shouldStop() {
+            if (closed || (!cached && pending.isEmpty())) {
+                stopped = true;
+            }
+            return stopped;
+        }
+
+        void start() {
+            CompletableFuture.runAsync(
+                    () -> {
+                        try {
+                            // the reader must be started and closed by the thread that reads
+                            reader.start();
+                            started.complete(null);
+                            log.info("Started service responses reader {}", key);
+                            readResponses();
+                        } catch (Throwable ex) {
+                            log.error("Error reading service responses {}", key, ex);
+                            started.completeExceptionally(ex);
+                        } finally {
+                            synchronized (this) {
+                                stopped = true;
+                            }
+                            readers.asMap().remove(key, this);
+                            failPendingResponses();
+                            closeReader();
+                        }
+                    },
+                    readersThreadPool);
+        }
+
+        private void readResponses() throws Exception {
+            while (!shouldStop()) {
+                final TopicReadResult readResult = reader.read();
+                final List<Record> records = readResult.records();
+                for (int i = 0; i < records.size(); i++) {
+                    final Record record = records.get(i);
+                    final Header header = record.getHeader(SERVICE_REQUEST_ID_HEADER);
+                    if (header == null) {
+                        continue;
+                    }
+                    final PendingResponse pendingResponse = pending.get(header.valueAsString());
+                    if (pendingResponse == null) {
+                        // response for another gateway replica or for a request timed out
+                        log.debug("[{}] Skipping record {}", key, record);
+                        continue;
+                    }
+                    if (matches(pendingResponse, record)) {
+                        pendingResponse.future.complete(
+                                ConsumeGateway.toJsonMessage(
+                                        record, ConsumeGateway.computeOffset(readResult, i)));
+                    }
+                }
+            }
+        }
+
+        private boolean matches(PendingResponse pendingResponse, Record record) {
+            for (Function<Record, Boolean> filter : pendingResponse.filters) {
+                if (!filter.apply(record)) {
+                    log.debug("[{}] Skipping record {}", key, record);
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void failPendingResponses() {
+            final IllegalStateException error =
+                    new IllegalStateException("The reader of the responses has been closed");
+            for (PendingResponse pendingResponse : new ArrayList<>(pending.values())) {
+                pendingResponse.future.completeExceptionally(error);
+            }
+        }
+
+        private void closeReader() {
+            try {
+                reader.close();
+            } catch (Exception e) {
+                log.warn("error closing reader", e);
+            }
+        }
+    }
+}
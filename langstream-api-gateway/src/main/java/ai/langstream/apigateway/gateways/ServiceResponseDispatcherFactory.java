@@ -0,0 +1,54 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.apigateway.gateways;
+
+import ai.langstream.apigateway.MetricsNames;
+import ai.langstream.apigateway.config.ServiceGatewayProperties;
+import ai.langstream.apigateway.runner.TopicConnectionsRuntimeProviderBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.time.Duration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ServiceResponseDispatcherFactory {
+
+    @Bean(destroyMethod = "close")
+    public ServiceResponseDispatcher serviceResponseDispatcher(
+            ServiceGatewayProperties serviceGatewayProperties,
+            TopicConnectionsRuntimeProviderBean topicConnectionsRuntimeProvider) {
+        final ServiceResponseDispatcher dispatcher =
+                new ServiceResponseDispatcher(
+                        topicConnectionsRuntimeProvider.getTopicConnectionsRuntimeRegistry(),
+                        serviceGatewayProperties.getReadersCacheSize(),
+                        Duration.ofSeconds(serviceGatewayProperties.getReaderIdleTimeoutSeconds()),
+                        serviceGatewayProperties.getMaxPendingRequests(),
+                        Duration.ofSeconds(serviceGatewayProperties.getResponseTimeoutSeconds()));
+        GuavaCacheMetrics.monitor(
+                Metrics.globalRegistry,
+                dispatcher.getReaders(),
+                MetricsNames.SERVICE_RESPONSE_READERS);
+        Gauge.builder(
+                        MetricsNames.SERVICE_RESPONSE_READERS + "_pending_requests",
+                        dispatcher,
+                        ServiceResponseDispatcher::pendingRequests)
+                .description("Number of service requests waiting for a response")
+                .register(Metrics.globalRegistry);
+        return dispatcher;
+    }
+}
@@ -0,0 +1,518 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.apigateway.gateways;
+
+import ai.langstream.api.model.StreamingCluster;
+import ai.langstream.api.runner.code.Header;
+import ai.langstream.api.runner.code.Record;
+import ai.langstream.api.runner.topics.TopicConnectionsRuntime;
+import ai.langstream.api.runner.topics.TopicConnectionsRuntimeRegistry;
+import ai.langstream.api.runner.topics.TopicOffsetPosition;
+import ai.langstream.api.runner.topics.TopicReadResult;
+import ai.langstream.api.runner.topics.TopicReader;
+import ai.langstream.apigateway.websocket.AuthenticatedGatewayRequestContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Shares the readers of the consume and chat gateways.
+ *
+ * <p>There is one reader for each topic, positioned at the latest offset, for all the WebSocket
+ * sessions that consume from the latest position. Each record is read and converted to JSON only
+ * once, and then dispatched to the subscriptions whose filters match it. The subscriptions are
+ * indexed by the value of the first header filter, so a chat topic with thousands of sessions does
+ * not evaluate the filters of every session for every record.
+ *
+ * <p>Every subscription has a bounded queue of messages to send to its session, when the queue is
+ * full the {@link SlowConsumerPolicy} decides whether to disconnect the session or to drop
+ * messages. The reader is closed when the last subscription is closed.
+ */
+@Slf4j
+public class SharedTopicReaders implements AutoCloseable {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final Duration READER_START_TIMEOUT = Duration.ofSeconds(30);
+
+    public enum SlowConsumerPolicy {
+        /** Close the session, the client can reconnect and resume from the latest position. */
+        DISCONNECT,
+        /** Discard the oldest message waiting in the queue. */
+        DROP_OLDEST,
+        /** Discard the new message. */
+        DROP_NEWEST
+    }
+
+    public static class SlowConsumerException extends RuntimeException {
+        public SlowConsumerException(int maxQueuedMessages) {
+            super("Too many messages (%d) waiting to be sent".formatted(maxQueuedMessages));
+        }
+    }
+
+    public record Key(String tenant, String application, String topic, String configString) {}
+
+    private final TopicConnectionsRuntimeRegistry topicConnectionsRuntimeRegistry;
+    private final int maxQueuedMessages;
+    private final SlowConsumerPolicy slowConsumerPolicy;
+    private final ExecutorService readersThreadPool =
+            Executors.newCachedThreadPool(
+                    new BasicThreadFactory.Builder().namingPattern("ws-shared-reader-%d").build());
+    private final Map<Key, SharedTopicReader> readers = new ConcurrentHashMap<>();
+    private final AtomicLong droppedMessages = new AtomicLong();
+    private final AtomicLong disconnectedConsumers = new AtomicLong();
+
+    public SharedTopicReaders(
+            TopicConnectionsRuntimeRegistry topicConnectionsRuntimeRegistry,
+            int maxQueuedMessages,
+            SlowConsumerPolicy slowConsumerPolicy) {
+        this.topicConnectionsRuntimeRegistry = topicConnectionsRuntimeRegistry;
+        this.maxQueuedMessages = maxQueuedMessages;
+        this.slowConsumerPolicy = slowConsumerPolicy;
+    }
+
+    /**
+     * Subscribe to the records of a topic, starting from the latest position. When this method
+     * returns the reader is positioned, so the records written afterwards are not lost. The
+     * messages are queued until {@link Subscription#start} is called.
+     */
+    public Subscription subscribe(
+            AuthenticatedGatewayRequestContext requestContext,
+            String topic,
+            List<Function<Record, Boolean>> filters)
+            throws Exception {
+        final StreamingCluster streamingCluster =
+                requestContext.application().getInstance().streamingCluster();
+        final String configString =
+                mapper.writeValueAsString(
+                        Pair.of(streamingCluster.type(), streamingCluster.configuration()));
+        // an application update could change the configuration of the streaming cluster
+        final Key key =
+                new Key(
+                        requestContext.tenant(),
+                        requestContext.applicationId(),
+                        topic,
+                        configString);
+        final Subscription subscription =
+                new Subscription(filters == null ? List.of() : filters, key);
+        while (true) {
+            final SharedTopicReader reader =
+                    readers.computeIfAbsent(
+                            key,
+                            k -> {
+                                final SharedTopicReader result =
+                                        new SharedTopicReader(
+                                                k, () -> createReader(streamingCluster, topic));
+                                result.start();
+                                return result;
+                            });
+            try {
+                reader.started.get(READER_START_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException ex) {
+                readers.remove(key, reader);
+                throw new RuntimeException(ex.getCause());
+            } catch (TimeoutException | InterruptedException ex) {
+                // don't leave a reader that never started for the next subscribers
+                readers.remove(key, reader);
+                reader.close();
+                if (ex instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                throw ex;
+            }
+            if (reader.register(subscription)) {
+                return subscription;
+            }
+            log.debug("Reader {} has been stopped, retry", key);
+            readers.remove(key, reader);
+        }
+    }
+
+    protected TopicReader createReader(StreamingCluster streamingCluster, String topic) {
+        final TopicConnectionsRuntime topicConnectionsRuntime =
+                topicConnectionsRuntimeRegistry
+                        .getTopicConnectionsRuntime(streamingCluster)
+                        .asTopicConnectionsRuntime();
+        topicConnectionsRuntime.init(streamingCluster);
+        return topicConnectionsRuntime.createReader(
+                streamingCluster, Map.of("topic", topic), TopicOffsetPosition.LATEST);
+    }
+
+    /** Number of open readers. */
+    public int readers() {
+        return readers.size();
+    }
+
+    /** Number of subscriptions, across all the readers. */
+    public int subscriptions() {
+        return readers.values().stream().mapToInt(SharedTopicReader::subscriptions).sum();
+    }
+
+    /** Total number of messages dropped because the consumer was too slow. */
+    public long droppedMessages() {
+        return droppedMessages.get();
+    }
+
+    /** Total number of sessions disconnected because the consumer was too slow. */
+    public long disconnectedConsumers() {
+        return disconnectedConsumers.get();
+    }
+
+    @Override
+    public void close() {
+        readers.values().forEach(SharedTopicReader::close);
+        readers.clear();
+        readersThreadPool.shutdown();
+    }
+
+    /** A WebSocket session subscribed to a shared reader. */
+    public final class Subscription {
+        private final List<Function<Record, Boolean>> filters;
+        private final ConsumeGateway.HeaderFilter indexFilter;
+        private final Key key;
+        private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(maxQueuedMessages);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile SharedTopicReader reader;
+        private volatile Executor executor;
+        private volatile Supplier<Boolean> stop;
+        private volatile Consumer<String> onMessage;
+        private volatile Consumer<Throwable> onError;
+        private volatile Throwable failure;
+        private volatile boolean closed;
+
+        Subscription(List<Function<Record, Boolean>> filters, Key key) {
+            this.filters = filters;
+            this.key = key;
+            ConsumeGateway.HeaderFilter first = null;
+            for (Function<Record, Boolean> filter : filters) {
+                if (filter instanceof ConsumeGateway.HeaderFilter headerFilter
+                        && headerFilter.value() != null) {
+                    first = headerFilter;
+                    break;
+                }
+            }
+            this.indexFilter = first;
+        }
+
+        /**
+         * Start sending the messages to the session.
+         *
+         * @param executor the executor that sends the messages
+         * @param stop tells whether the session has been closed
+         * @param onMessage sends a message to the session
+         * @param onError called when the subscription is terminated because of an error
+         */
+        public void start(
+                Executor executor,
+                Supplier<Boolean> stop,
+                Consumer<String> onMessage,
+                Consumer<Throwable> onError) {
+            this.stop = stop;
+            this.onMessage = onMessage;
+            this.onError = onError;
+            this.executor = executor;
+            final Throwable currentFailure = failure;
+            if (currentFailure != null) {
+                // failed before the session was opened
+                onError.accept(currentFailure);
+                return;
+            }
+            scheduleDrain();
+        }
+
+        boolean matches(Record record) {
+            for (Function<Record, Boolean> filter : filters) {
+                if (!filter.apply(record)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** Called by the reader thread, it never blocks. */
+        void offer(String message) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(message)) {
+                switch (slowConsumerPolicy) {
+                    case DROP_NEWEST -> droppedMessages.incrementAndGet();
+                    case DROP_OLDEST -> {
+                        // the sender may have freed a slot in the meantime
+                        if (queue.poll() != null) {
+                            droppedMessages.incrementAndGet();
+                        }
+                        if (!queue.offer(message)) {
+                            droppedMessages.incrementAndGet();
+                        }
+                    }
+                    default -> {
+                        log.info("[{}] Disconnecting slow consumer", key);
+                        disconnectedConsumers.incrementAndGet();
+                        fail(new SlowConsumerException(maxQueuedMessages));
+                        return;
+                    }
+                }
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            final Executor currentExecutor = executor;
+            if (currentExecutor == null || closed) {
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                currentExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                String message;
+                while (!closed && (message = queue.poll()) != null) {
+                    if (stop.get()) {
+                        close();
+                        return;
+                    }
+                    onMessage.accept(message);
+                }
+            } catch (Throwable error) {
+                log.error("[{}] Error sending message", key, error);
+                fail(error);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // a message could have been queued after the last poll
+            if (!queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void fail(Throwable error) {
+            failure = error;
+            close();
+            final Consumer<Throwable> currentOnError = onError;
+            if (currentOnError != null) {
+                currentOnError.accept(error);
+            }
+        }
+
+        public void close() {
+            closed = true;
+            queue.clear();
+            final SharedTopicReader currentReader = reader;
+            if (currentReader != null) {
+                currentReader.unregister(this);
+            }
+        }
+    }
+
+    final class SharedTopicReader {
+        private final Key key;
+        private final Supplier<TopicReader> readerSupplier;
+        private final CompletableFuture<Void> started = new CompletableFuture<>();
+        // subscriptions without a header filter
+        private final Set<Subscription> unindexed = ConcurrentHashMap.newKeySet();
+        // header name -> header value -> subscriptions
+        private final Map<String, Map<String, Set<Subscription>>> indexed =
+                new ConcurrentHashMap<>();
+        private int subscriptions;
+        private boolean stopped;
+        private volatile boolean closed;
+
+        SharedTopicReader(Key key, Supplier<TopicReader> readerSupplier) {
+            this.key = key;
+            this.readerSupplier = readerSupplier;
+        }
+
+        synchronized int subscriptions() {
+            return subscriptions;
+        }
+
+        synchronized boolean register(Subscription subscription) {
+            if (stopped) {
+                return false;
+            }
+            final ConsumeGateway.HeaderFilter indexFilter = subscription.indexFilter;
+            if (indexFilter == null) {
+                unindexed.add(subscription);
+            } else {
+                indexed.computeIfAbsent(indexFilter.key(), k -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(indexFilter.value(), v -> ConcurrentHashMap.newKeySet())
+                        .add(subscription);
+            }
+            subscription.reader = this;
+            subscriptions++;
+            return true;
+        }
+
+        synchronized void unregister(Subscription subscription) {
+            final ConsumeGateway.HeaderFilter indexFilter = subscription.indexFilter;
+            final boolean removed;
+            if (indexFilter == null) {
+                removed = unindexed.remove(subscription);
+            } else {
+                final Map<String, Set<Subscription>> byValue = indexed.get(indexFilter.key());
+                final Set<Subscription> set =
+                        byValue == null ? null : byValue.get(indexFilter.value());
+                removed = set != null && set.remove(subscription);
+                if (set != null && set.isEmpty()) {
+                    byValue.remove(indexFilter.value());
+                    if (byValue.isEmpty()) {
+                        indexed.remove(indexFilter.key());
+                    }
+                }
+            }
+            if (removed) {
+                subscriptions--;
+            }
+            if (subscriptions == 0) {
+                // new subscriptions get a new reader
+                stopped = true;
+                readers.remove(key, this);
+            }
+        }
+
+        void close() {
+            closed = true;
+        }
+
+        private synchronized boolean shouldStop() {
+            if (closed) {
+                stopped = true;
+            }
+            return stopped;
+        }
+
+        void start() {
+            CompletableFuture.runAsync(
+                    () -> {
+                        TopicReader reader = null;
+                        try {
+                            // the reader must be started and closed by the thread that reads
+                            reader = readerSupplier.get();
+                            reader.start();
+                            started.complete(null);
+                            log.info("Started shared reader {}", key);
+                            read(reader);
+                        } catch (Throwable ex) {
+                            log.error("Error reading from shared reader {}", key, ex);
+                            started.completeExceptionally(ex);
+                        } finally {
+                            synchronized (this) {
+                                stopped = true;
+                            }
+                            readers.remove(key, this);
+                            failSubscriptions();
+                            closeReader(reader);
+                        }
+                    },
+                    readersThreadPool);
+        }
+
+        private void read(TopicReader reader) throws Exception {
+            final List<Subscription> candidates = new ArrayList<>();
+            while (!shouldStop()) {
+                final TopicReadResult readResult = reader.read();
+                final List<Record> records = readResult.records();
+                for (int i = 0; i < records.size(); i++) {
+                    final Record record = records.get(i);
+                    candidates.clear();
+                    candidates.addAll(unindexed);
+                    for (Map.Entry<String, Map<String, Set<Subscription>>> entry :
+                            indexed.entrySet()) {
+                        final Header header = record.getHeader(entry.getKey());
+                        final String value = header == null ? null : header.valueAsString();
+                        if (value != null) {
+                            final Set<Subscription> matching = entry.getValue().get(value);
+                            if (matching != null) {
+                                candidates.addAll(matching);
+                            }
+                        }
+                    }
+                    dispatch(record, readResult, i, candidates);
+                }
+            }
+        }
+
+        private void dispatch(
+                Record record,
+                TopicReadResult readResult,
+                int index,
+                List<Subscription> candidates) {
+            String jsonMessage = null;
+            for (Subscription subscription : candidates) {
+                if (!subscription.matches(record)) {
+                    continue;
+                }
+                if (jsonMessage == null) {
+                    try {
+                        jsonMessage =
+                                ConsumeGateway.toJsonMessage(
+                                        record, ConsumeGateway.computeOffset(readResult, index));
+                    } catch (Exception ex) {
+                        log.error("[{}] Cannot convert record {} to JSON", key, record, ex);
+                        return;
+                    }
+                }
+                subscription.offer(jsonMessage);
+            }
+        }
+
+        private void failSubscriptions() {
+            final IllegalStateException error =
+                    new IllegalStateException("The reader of the topic has been closed");
+            final List<Subscription> all = new ArrayList<>(unindexed);
+            indexed.values().forEach(byValue -> byValue.values().forEach(all::addAll));
+            for (Subscription subscription : all) {
+                subscription.fail(error);
+            }
+        }
+
+        private void closeReader(TopicReader reader) {
+            if (reader == null) {
+                return;
+            }
+            try {
+                reader.close();
+            } catch (Exception e) {
+                log.warn("error closing reader", e);
+            }
+        }
+    }
+}
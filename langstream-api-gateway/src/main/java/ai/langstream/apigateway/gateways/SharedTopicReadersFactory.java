@@ -0,0 +1,65 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.apigateway.gateways;
+
+import ai.langstream.apigateway.MetricsNames;
+import ai.langstream.apigateway.config.ConsumeGatewayProperties;
+import ai.langstream.apigateway.runner.TopicConnectionsRuntimeProviderBean;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SharedTopicReadersFactory {
+
+    @Bean(destroyMethod = "close")
+    public SharedTopicReaders sharedTopicReaders(
+            ConsumeGatewayProperties consumeGatewayProperties,
+            TopicConnectionsRuntimeProviderBean topicConnectionsRuntimeProvider) {
+        final SharedTopicReaders sharedTopicReaders =
+                new SharedTopicReaders(
+                        topicConnectionsRuntimeProvider.getTopicConnectionsRuntimeRegistry(),
+                        consumeGatewayProperties.getMaxQueuedMessages(),
+                        consumeGatewayProperties.getSlowConsumerPolicy());
+        Gauge.builder(
+                        MetricsNames.CONSUME_SHARED_READERS,
+                        sharedTopicReaders,
+                        SharedTopicReaders::readers)
+                .description("Number of topic readers shared by the WebSocket consumers")
+                .register(Metrics.globalRegistry);
+        Gauge.builder(
+                        MetricsNames.CONSUME_SHARED_READERS + "_subscriptions",
+                        sharedTopicReaders,
+                        SharedTopicReaders::subscriptions)
+                .description("Number of WebSocket consumers reading from a shared reader")
+                .register(Metrics.globalRegistry);
+        FunctionCounter.builder(
+                        MetricsNames.CONSUME_SHARED_READERS + "_dropped_messages",
+                        sharedTopicReaders,
+                        SharedTopicReaders::droppedMessages)
+                .description("Number of messages dropped because the consumer was too slow")
+                .register(Metrics.globalRegistry);
+        FunctionCounter.builder(
+                        MetricsNames.CONSUME_SHARED_READERS + "_disconnected_consumers",
+                        sharedTopicReaders,
+                        SharedTopicReaders::disconnectedConsumers)
+                .description("Number of consumers disconnected because they were too slow")
+                .register(Metrics.globalRegistry);
+        return sharedTopicReaders;
+    }
+}
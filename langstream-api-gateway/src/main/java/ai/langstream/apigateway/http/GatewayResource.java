@@ -25,6 +25,7 @@ import ai.langstream.apigateway.api.ProduceResponse;
 import ai.langstream.apigateway.gateways.ConsumeGateway;
 import ai.langstream.apigateway.gateways.GatewayRequestHandler;
 import ai.langstream.apigateway.gateways.ProduceGateway;
+import ai.langstream.apigateway.gateways.ServiceResponseDispatcher;
 import ai.langstream.apigateway.gateways.TopicProducerCache;
 import ai.langstream.apigateway.runner.TopicConnectionsRuntimeProviderBean;
 import ai.langstream.apigateway.websocket.AuthenticatedGatewayRequestContext;
@@ -43,9 +44,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
@@ -76,19 +78,18 @@ public class GatewayResource {
     protected static final String GATEWAY_SERVICE_PATH =
             "/service/{tenant}/{application}/{gateway}/**";
     protected static final ObjectMapper MAPPER = new ObjectMapper();
-    protected static final String SERVICE_REQUEST_ID_HEADER = "langstream-service-request-id";
+    protected static final String SERVICE_REQUEST_ID_HEADER =
+            ServiceResponseDispatcher.SERVICE_REQUEST_ID_HEADER;
     private final TopicConnectionsRuntimeProviderBean topicConnectionsRuntimeRegistryProvider;
     private final TopicProducerCache topicProducerCache;
     private final ApplicationStore applicationStore;
     private final GatewayRequestHandler gatewayRequestHandler;
+    private final ServiceResponseDispatcher serviceResponseDispatcher;
     private final ExecutorService httpClientThreadPool =
             Executors.newCachedThreadPool(
                     new BasicThreadFactory.Builder().namingPattern("http-client-%d").build());
     private final HttpClient httpClient =
             HttpClient.newBuilder().executor(httpClientThreadPool).build();
-    private final ExecutorService consumeThreadPool =
-            Executors.newCachedThreadPool(
-                    new BasicThreadFactory.Builder().namingPattern("http-consume-%d").build());
 
     @PostMapping(value = "/produce/{tenant}/{application}/{gateway}", consumes = "*/*")
     ProduceResponse produce(
@@ -254,25 +255,13 @@ public class GatewayResource {
 
         final String langstreamServiceRequestId = UUID.randomUUID().toString();
 
-        final CompletableFuture<ResponseEntity> completableFuture = new CompletableFuture<>();
+        CompletableFuture<String> response = null;
         try (final ProduceGateway produceGateway =
                 new ProduceGateway(
                         topicConnectionsRuntimeRegistryProvider
                                 .getTopicConnectionsRuntimeRegistry(),
                         topicProducerCache); ) {
 
-            final ConsumeGateway consumeGateway =
-                    new ConsumeGateway(
-                            topicConnectionsRuntimeRegistryProvider
-                                    .getTopicConnectionsRuntimeRegistry());
-            completableFuture.thenRunAsync(
-                    () -> {
-                        if (consumeGateway != null) {
-                            consumeGateway.close();
-                        }
-                    },
-                    consumeThreadPool);
-
             final Gateway.ServiceOptions serviceOptions = authContext.gateway().getServiceOptions();
             try {
                 final List<Function<Record, Boolean>> messageFilters =
@@ -280,23 +269,15 @@ public class GatewayResource {
                                 serviceOptions.getHeaders(),
                                 authContext.userParameters(),
                                 authContext.principalValues());
-                messageFilters.add(
-                        record -> {
-                            final Header header = record.getHeader(SERVICE_REQUEST_ID_HEADER);
-                            if (header == null) {
-                                return false;
-                            }
-                            return langstreamServiceRequestId.equals(header.valueAsString());
-                        });
-                consumeGateway.setup(serviceOptions.getOutputTopic(), messageFilters, authContext);
-                final AtomicBoolean stop = new AtomicBoolean(false);
-                consumeGateway.startReadingAsync(
-                        consumeThreadPool,
-                        () -> stop.get(),
-                        record -> {
-                            stop.set(true);
-                            completableFuture.complete(ResponseEntity.ok(record));
-                        });
+                // the response is read by the reader shared with the other requests
+                response =
+                        serviceResponseDispatcher.expectResponse(
+                                authContext,
+                                serviceOptions.getOutputTopic(),
+                                langstreamServiceRequestId,
+                                messageFilters);
+            } catch (ServiceResponseDispatcher.TooManyPendingRequestsException ex) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
             } catch (Exception ex) {
                 log.error("Error while setting up consume gateway", ex);
                 throw new RuntimeException(ex);
@@ -315,9 +296,28 @@ public class GatewayResource {
                             produceRequest.key(), produceRequest.value(), passedHeaders));
         } catch (Throwable t) {
             log.error("Error on service gateway", t);
-            completableFuture.completeExceptionally(t);
+            if (response != null) {
+                // release the pending request
+                response.completeExceptionally(t);
+            }
+            return CompletableFuture.failedFuture(t);
         }
-        return completableFuture;
+        return response.handle(
+                (message, error) -> {
+                    if (error instanceof TimeoutException) {
+                        throw new ResponseStatusException(
+                                HttpStatus.GATEWAY_TIMEOUT,
+                                "No response received from topic "
+                                        + authContext
+                                                .gateway()
+                                                .getServiceOptions()
+                                                .getOutputTopic());
+                    }
+                    if (error != null) {
+                        throw new CompletionException(error);
+                    }
+                    return ResponseEntity.ok(message);
+                });
     }
 
     private Map<String, String> computeQueryString(WebRequest request) {
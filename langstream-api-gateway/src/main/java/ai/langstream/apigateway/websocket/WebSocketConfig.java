@@ -17,7 +17,9 @@ package ai.langstream.apigateway.websocket;
 
 import ai.langstream.api.runner.topics.TopicConnectionsRuntimeRegistry;
 import ai.langstream.api.storage.ApplicationStore;
+import ai.langstream.apigateway.config.ConsumeGatewayProperties;
 import ai.langstream.apigateway.gateways.GatewayRequestHandler;
+import ai.langstream.apigateway.gateways.SharedTopicReaders;
 import ai.langstream.apigateway.gateways.TopicProducerCache;
 import ai.langstream.apigateway.runner.TopicConnectionsRuntimeProviderBean;
 import ai.langstream.apigateway.websocket.handlers.ChatHandler;
@@ -51,6 +53,8 @@ public class WebSocketConfig implements WebSocketConfigurer {
     private final TopicConnectionsRuntimeProviderBean topicConnectionsRuntimeRegistryProvider;
     private final GatewayRequestHandler gatewayRequestHandler;
     private final TopicProducerCache topicProducerCache;
+    private final SharedTopicReaders sharedTopicReaders;
+    private final ConsumeGatewayProperties consumeGatewayProperties;
     private final ExecutorService consumeThreadPool =
             Executors.newCachedThreadPool(
                     new BasicThreadFactory.Builder().namingPattern("ws-consume-%d").build());
@@ -59,12 +63,15 @@ public class WebSocketConfig implements WebSocketConfigurer {
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         TopicConnectionsRuntimeRegistry topicConnectionsRuntimeRegistry =
                 topicConnectionsRuntimeRegistryProvider.getTopicConnectionsRuntimeRegistry();
+        final SharedTopicReaders consumeSharedTopicReaders =
+                consumeGatewayProperties.isSharedReadersEnabled() ? sharedTopicReaders : null;
         registry.addHandler(
                         new ConsumeHandler(
                                 applicationStore,
                                 consumeThreadPool,
                                 topicConnectionsRuntimeRegistry,
-                                topicProducerCache),
+                                topicProducerCache,
+                                consumeSharedTopicReaders),
                         CONSUME_PATH)
                 .addHandler(
                         new ProduceHandler(
@@ -77,7 +84,8 @@ public class WebSocketConfig implements WebSocketConfigurer {
                                 applicationStore,
                                 consumeThreadPool,
                                 topicConnectionsRuntimeRegistry,
-                                topicProducerCache),
+                                topicProducerCache,
+                                consumeSharedTopicReaders),
                         CHAT_PATH)
                 .setAllowedOrigins("*")
                 .addInterceptors(
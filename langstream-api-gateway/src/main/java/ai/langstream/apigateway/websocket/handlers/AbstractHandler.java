@@ -31,6 +31,7 @@ import ai.langstream.apigateway.api.ProduceResponse;
 import ai.langstream.apigateway.gateways.ConsumeGateway;
 import ai.langstream.apigateway.gateways.GatewayRequestHandler;
 import ai.langstream.apigateway.gateways.ProduceGateway;
+import ai.langstream.apigateway.gateways.SharedTopicReaders;
 import ai.langstream.apigateway.gateways.TopicProducerCache;
 import ai.langstream.apigateway.websocket.AuthenticatedGatewayRequestContext;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -54,14 +55,24 @@ public abstract class AbstractHandler extends TextWebSocketHandler {
     protected final TopicConnectionsRuntimeRegistry topicConnectionsRuntimeRegistry;
     protected final ApplicationStore applicationStore;
     private final TopicProducerCache topicProducerCache;
+    private final SharedTopicReaders sharedTopicReaders;
 
     public AbstractHandler(
             ApplicationStore applicationStore,
             TopicConnectionsRuntimeRegistry topicConnectionsRuntimeRegistry,
             TopicProducerCache topicProducerCache) {
+        this(applicationStore, topicConnectionsRuntimeRegistry, topicProducerCache, null);
+    }
+
+    public AbstractHandler(
+            ApplicationStore applicationStore,
+            TopicConnectionsRuntimeRegistry topicConnectionsRuntimeRegistry,
+            TopicProducerCache topicProducerCache,
+            SharedTopicReaders sharedTopicReaders) {
         this.topicConnectionsRuntimeRegistry = topicConnectionsRuntimeRegistry;
         this.applicationStore = applicationStore;
         this.topicProducerCache = topicProducerCache;
+        this.sharedTopicReaders = sharedTopicReaders;
     }
 
     public abstract String path();
@@ -238,6 +249,18 @@ public abstract class AbstractHandler extends TextWebSocketHandler {
                     } catch (IOException ex) {
                         throw new RuntimeException(ex);
                     }
+                },
+                error -> {
+                    final CloseStatus status =
+                            error instanceof SharedTopicReaders.SlowConsumerException
+                                    ? CloseStatus.SESSION_NOT_RELIABLE.withReason(
+                                            error.getMessage())
+                                    : CloseStatus.SERVER_ERROR;
+                    try {
+                        webSocketSession.close(status);
+                    } catch (IOException ex) {
+                        log.debug("[{}] error closing websocket", webSocketSession.getId(), ex);
+                    }
                 });
     }
 
@@ -246,7 +269,8 @@ public abstract class AbstractHandler extends TextWebSocketHandler {
             List<Function<Record, Boolean>> filters,
             AuthenticatedGatewayRequestContext context)
             throws Exception {
-        final ConsumeGateway consumeGateway = new ConsumeGateway(topicConnectionsRuntimeRegistry);
+        final ConsumeGateway consumeGateway =
+                new ConsumeGateway(topicConnectionsRuntimeRegistry, sharedTopicReaders);
         try {
             consumeGateway.setup(topic, filters, context);
         } catch (Exception ex) {
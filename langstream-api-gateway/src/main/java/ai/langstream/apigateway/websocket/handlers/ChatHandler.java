@@ -25,6 +25,7 @@ import ai.langstream.api.storage.ApplicationStore;
 import ai.langstream.apigateway.gateways.ConsumeGateway;
 import ai.langstream.apigateway.gateways.GatewayRequestHandler;
 import ai.langstream.apigateway.gateways.ProduceGateway;
+import ai.langstream.apigateway.gateways.SharedTopicReaders;
 import ai.langstream.apigateway.gateways.TopicProducerCache;
 import ai.langstream.apigateway.websocket.AuthenticatedGatewayRequestContext;
 import java.util.ArrayList;
@@ -47,8 +48,13 @@ public class ChatHandler extends AbstractHandler {
             ApplicationStore applicationStore,
             ExecutorService executor,
             TopicConnectionsRuntimeRegistry topicConnectionsRuntimeRegistry,
-            TopicProducerCache topicProducerCache) {
-        super(applicationStore, topicConnectionsRuntimeRegistry, topicProducerCache);
+            TopicProducerCache topicProducerCache,
+            SharedTopicReaders sharedTopicReaders) {
+        super(
+                applicationStore,
+                topicConnectionsRuntimeRegistry,
+                topicProducerCache,
+                sharedTopicReaders);
         this.executor = executor;
     }
 
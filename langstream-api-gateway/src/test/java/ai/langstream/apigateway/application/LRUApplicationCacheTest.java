@@ -0,0 +1,139 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.apigateway.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import ai.langstream.api.model.Application;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+class LRUApplicationCacheTest {
+
+    @Test
+    void testGetOrLoad() {
+        final LRUApplicationCache cache =
+                new LRUApplicationCache(2, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        final AtomicInteger loadCounter = new AtomicInteger();
+        final Supplier<Application> loader =
+                () -> {
+                    loadCounter.incrementAndGet();
+                    return new Application();
+                };
+        final ApplicationCache.Key key = new ApplicationCache.Key("tenant", "app");
+        final Application first = cache.getOrLoad(key, loader);
+        assertSame(first, cache.getOrLoad(key, loader));
+        assertEquals(1, loadCounter.get());
+        assertEquals(1, cache.getCache().stats().hitCount());
+
+        cache.getOrLoad(new ApplicationCache.Key("tenant", "app2"), loader);
+        cache.getOrLoad(new ApplicationCache.Key("tenant2", "app"), loader);
+        assertEquals(3, loadCounter.get());
+        assertEquals(2, cache.getCache().size());
+    }
+
+    @Test
+    void testInvalidate() {
+        final LRUApplicationCache cache =
+                new LRUApplicationCache(10, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        final AtomicInteger loadCounter = new AtomicInteger();
+        final Supplier<Application> loader =
+                () -> {
+                    loadCounter.incrementAndGet();
+                    return new Application();
+                };
+        final ApplicationCache.Key key = new ApplicationCache.Key("tenant", "app");
+        final Application first = cache.getOrLoad(key, loader);
+        cache.invalidate(new ApplicationCache.Key("tenant", "other"));
+        assertSame(first, cache.getOrLoad(key, loader));
+
+        cache.invalidate(key);
+        final Application second = cache.getOrLoad(key, loader);
+        assertEquals(2, loadCounter.get());
+        assertSame(second, cache.getOrLoad(key, loader));
+    }
+
+    @Test
+    void testInvalidateWhileLoading() {
+        final LRUApplicationCache cache =
+                new LRUApplicationCache(10, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        final ApplicationCache.Key key = new ApplicationCache.Key("tenant", "app");
+        final AtomicInteger loadCounter = new AtomicInteger();
+        final Application outdated = new Application();
+        final Application updated = new Application();
+        final Application loaded =
+                cache.getOrLoad(
+                        key,
+                        () -> {
+                            if (loadCounter.incrementAndGet() == 1) {
+                                // the application changes while the first load is running
+                                cache.invalidate(key);
+                                return outdated;
+                            }
+                            return updated;
+                        });
+        assertSame(updated, loaded);
+        assertEquals(2, loadCounter.get());
+        assertSame(updated, cache.getOrLoad(key, () -> outdated));
+    }
+
+    @Test
+    void testChangingOnEveryLoad() {
+        final LRUApplicationCache cache =
+                new LRUApplicationCache(10, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        final ApplicationCache.Key key = new ApplicationCache.Key("tenant", "app");
+        final List<Application> loaded = new ArrayList<>();
+        final Application result =
+                cache.getOrLoad(
+                        key,
+                        () -> {
+                            cache.invalidate(key);
+                            final Application application = new Application();
+                            loaded.add(application);
+                            return application;
+                        });
+        // the last load is served without caching it
+        assertEquals(4, loaded.size());
+        assertSame(loaded.get(3), result);
+        assertEquals(0, cache.getCache().size());
+    }
+
+    @Test
+    void testLoadErrorsAreNotCached() {
+        final LRUApplicationCache cache =
+                new LRUApplicationCache(10, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        final ApplicationCache.Key key = new ApplicationCache.Key("tenant", "app");
+        final IllegalArgumentException error =
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () ->
+                                cache.getOrLoad(
+                                        key,
+                                        () -> {
+                                            throw new IllegalArgumentException(
+                                                    "application app not found");
+                                        }));
+        assertEquals("application app not found", error.getMessage());
+        assertEquals(0, cache.getCache().size());
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.apigateway.gateways;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ai.langstream.api.model.Application;
+import ai.langstream.api.model.Instance;
+import ai.langstream.api.model.StreamingCluster;
+import ai.langstream.api.runner.code.Record;
+import ai.langstream.api.runner.code.SimpleRecord;
+import ai.langstream.api.runner.topics.TopicReadResult;
+import ai.langstream.api.runner.topics.TopicReader;
+import ai.langstream.apigateway.websocket.AuthenticatedGatewayRequestContext;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ServiceResponseDispatcherTest {
+
+    private static class QueueTopicReader implements TopicReader {
+        private final BlockingQueue<Record> queue = new LinkedBlockingQueue<>();
+        private volatile boolean closed;
+
+        @Override
+        public TopicReadResult read() throws Exception {
+            final Record record = queue.poll(50, TimeUnit.MILLISECONDS);
+            final List<Record> records = record == null ? List.of() : List.of(record);
+            return new TopicReadResult() {
+                @Override
+                public List<Record> records() {
+                    return records;
+                }
+
+                @Override
+                public byte[] offset() {
+                    return null;
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private final AtomicInteger createdReaders = new AtomicInteger();
+    private volatile QueueTopicReader reader;
+    private ServiceResponseDispatcher dispatcher;
+
+    @AfterEach
+    void afterEach() {
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+    }
+
+    private ServiceResponseDispatcher newDispatcher(
+            int maxPendingRequests, Duration responseTimeout) {
+        return new ServiceResponseDispatcher(
+                null, 10, Duration.ofMinutes(10), maxPendingRequests, responseTimeout) {
+            @Override
+            protected TopicReader createReader(StreamingCluster streamingCluster, String topic) {
+                createdReaders.incrementAndGet();
+                reader = new QueueTopicReader();
+                return reader;
+            }
+        };
+    }
+
+    private static AuthenticatedGatewayRequestContext newContext() {
+        final Application application = new Application();
+        application.setInstance(
+                new Instance(new StreamingCluster("noop", Map.of()), null, Map.of()));
+        final AuthenticatedGatewayRequestContext context =
+                mock(AuthenticatedGatewayRequestContext.class);
+        when(context.tenant()).thenReturn("tenant");
+        when(context.applicationId()).thenReturn("application");
+        when(context.application()).thenReturn(application);
+        return context;
+    }
+
+    private static Record response(String requestId, String value) {
+        return SimpleRecord.builder()
+                .value(value)
+                .headers(
+                        List.of(
+                                SimpleRecord.SimpleHeader.of(
+                                        ServiceResponseDispatcher.SERVICE_REQUEST_ID_HEADER,
+                                        requestId)))
+                .build();
+    }
+
+    @Test
+    void testResponsesAreDispatchedByRequestId() throws Exception {
+        dispatcher = newDispatcher(100, Duration.ofMinutes(1));
+        final AuthenticatedGatewayRequestContext context = newContext();
+        final CompletableFuture<String> first =
+                dispatcher.expectResponse(context, "output", "req-1", List.of());
+        final CompletableFuture<String> second =
+                dispatcher.expectResponse(context, "output", "req-2", List.of());
+        assertEquals(1, createdReaders.get());
+        assertEquals(2, dispatcher.pendingRequests());
+
+        reader.queue.add(SimpleRecord.of(null, "no-header"));
+        reader.queue.add(response("other-replica", "other"));
+        reader.queue.add(response("req-2", "value-2"));
+        reader.queue.add(response("req-1", "value-1"));
+
+        assertTrue(second.get(10, TimeUnit.SECONDS).contains("value-2"));
+        assertTrue(first.get(10, TimeUnit.SECONDS).contains("value-1"));
+        assertEquals(0, dispatcher.pendingRequests());
+        assertEquals(1, createdReaders.get());
+    }
+
+    @Test
+    void testFilters() throws Exception {
+        dispatcher = newDispatcher(100, Duration.ofMinutes(1));
+        final CompletableFuture<String> response =
+                dispatcher.expectResponse(
+                        newContext(),
+                        "output",
+                        "req-1",
+                        List.of(record -> "accepted".equals(record.value())));
+        reader.queue.add(response("req-1", "skipped"));
+        reader.queue.add(response("req-1", "accepted"));
+        assertTrue(response.get(10, TimeUnit.SECONDS).contains("accepted"));
+    }
+
+    @Test
+    void testTimeout() throws Exception {
+        dispatcher = newDispatcher(100, Duration.ofMillis(200));
+        final CompletableFuture<String> response =
+                dispatcher.expectResponse(newContext(), "output", "req-1", List.of());
+        final ExecutionException error =
+                assertThrows(ExecutionException.class, () -> response.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, error.getCause());
+        assertEquals(0, dispatcher.pendingRequests());
+    }
+
+    @Test
+    void testMaxPendingRequests() throws Exception {
+        dispatcher = newDispatcher(1, Duration.ofMinutes(1));
+        final AuthenticatedGatewayRequestContext context = newContext();
+        dispatcher.expectResponse(context, "output", "req-1", List.of());
+        assertThrows(
+                ServiceResponseDispatcher.TooManyPendingRequestsException.class,
+                () -> dispatcher.expectResponse(context, "output", "req-2", List.of()));
+    }
+
+    @Test
+    void testEvictedReaderIsClosedWhenNoRequestsArePending() throws Exception {
+        dispatcher = newDispatcher(100, Duration.ofMinutes(1));
+        final AuthenticatedGatewayRequestContext context = newContext();
+        final CompletableFuture<String> response =
+                dispatcher.expectResponse(context, "output", "req-1", List.of());
+        final QueueTopicReader evicted = reader;
+        dispatcher.getReaders().invalidateAll();
+
+        // the pending request is still served
+        Thread.sleep(200);
+        assertFalse(evicted.closed);
+        evicted.queue.add(response("req-1", "value-1"));
+        assertTrue(response.get(10, TimeUnit.SECONDS).contains("value-1"));
+        Awaitility.await().untilAsserted(() -> assertTrue(evicted.closed));
+
+        // a new request gets a new reader
+        dispatcher.expectResponse(context, "output", "req-2", List.of());
+        assertEquals(2, createdReaders.get());
+    }
+}
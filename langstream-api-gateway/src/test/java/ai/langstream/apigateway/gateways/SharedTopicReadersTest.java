@@ -0,0 +1,246 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.apigateway.gateways;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ai.langstream.api.model.Application;
+import ai.langstream.api.model.Instance;
+import ai.langstream.api.model.StreamingCluster;
+import ai.langstream.api.runner.code.Record;
+import ai.langstream.api.runner.code.SimpleRecord;
+import ai.langstream.api.runner.topics.TopicReadResult;
+import ai.langstream.api.runner.topics.TopicReader;
+import ai.langstream.apigateway.websocket.AuthenticatedGatewayRequestContext;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SharedTopicReadersTest {
+
+    private static class QueueTopicReader implements TopicReader {
+        private final BlockingQueue<Record> queue = new LinkedBlockingQueue<>();
+        private volatile boolean closed;
+
+        @Override
+        public TopicReadResult read() throws Exception {
+            final Record record = queue.poll(50, TimeUnit.MILLISECONDS);
+            final List<Record> records = record == null ? List.of() : List.of(record);
+            return new TopicReadResult() {
+                @Override
+                public List<Record> records() {
+                    return records;
+                }
+
+                @Override
+                public byte[] offset() {
+                    return null;
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private final AtomicInteger createdReaders = new AtomicInteger();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private volatile QueueTopicReader reader;
+    private SharedTopicReaders sharedTopicReaders;
+
+    @AfterEach
+    void afterEach() {
+        if (sharedTopicReaders != null) {
+            sharedTopicReaders.close();
+        }
+        executor.shutdownNow();
+    }
+
+    private SharedTopicReaders newSharedTopicReaders(
+            int maxQueuedMessages, SharedTopicReaders.SlowConsumerPolicy policy) {
+        return new SharedTopicReaders(null, maxQueuedMessages, policy) {
+            @Override
+            protected TopicReader createReader(StreamingCluster streamingCluster, String topic) {
+                createdReaders.incrementAndGet();
+                reader = new QueueTopicReader();
+                return reader;
+            }
+        };
+    }
+
+    private static AuthenticatedGatewayRequestContext newContext() {
+        final Application application = new Application();
+        application.setInstance(
+                new Instance(new StreamingCluster("noop", Map.of()), null, Map.of()));
+        final AuthenticatedGatewayRequestContext context =
+                mock(AuthenticatedGatewayRequestContext.class);
+        when(context.tenant()).thenReturn("tenant");
+        when(context.applicationId()).thenReturn("application");
+        when(context.application()).thenReturn(application);
+        return context;
+    }
+
+    private static Record answer(String sessionId, String value) {
+        return SimpleRecord.builder()
+                .value(value)
+                .headers(List.of(SimpleRecord.SimpleHeader.of("session-id", sessionId)))
+                .build();
+    }
+
+    private List<String> start(SharedTopicReaders.Subscription subscription) {
+        final List<String> messages = new CopyOnWriteArrayList<>();
+        subscription.start(executor, () -> false, messages::add, error -> {});
+        return messages;
+    }
+
+    @Test
+    void testRecordsAreDispatchedByHeader() throws Exception {
+        sharedTopicReaders =
+                newSharedTopicReaders(100, SharedTopicReaders.SlowConsumerPolicy.DISCONNECT);
+        final AuthenticatedGatewayRequestContext context = newContext();
+        final List<String> session1 =
+                start(
+                        sharedTopicReaders.subscribe(
+                                context,
+                                "answers",
+                                List.of(new ConsumeGateway.HeaderFilter("session-id", "s1"))));
+        final List<String> session2 =
+                start(
+                        sharedTopicReaders.subscribe(
+                                context,
+                                "answers",
+                                List.of(new ConsumeGateway.HeaderFilter("session-id", "s2"))));
+        final List<String> all = start(sharedTopicReaders.subscribe(context, "answers", null));
+        assertEquals(1, createdReaders.get());
+        assertEquals(3, sharedTopicReaders.subscriptions());
+
+        reader.queue.add(answer("s1", "answer-1"));
+        reader.queue.add(answer("s2", "answer-2"));
+        reader.queue.add(answer("s3", "answer-3"));
+        reader.queue.add(SimpleRecord.of(null, "no-header"));
+
+        Awaitility.await().untilAsserted(() -> assertEquals(4, all.size()));
+        assertEquals(1, session1.size());
+        assertTrue(session1.get(0).contains("answer-1"));
+        assertEquals(1, session2.size());
+        assertTrue(session2.get(0).contains("answer-2"));
+    }
+
+    @Test
+    void testReaderIsClosedWithTheLastSubscription() throws Exception {
+        sharedTopicReaders =
+                newSharedTopicReaders(100, SharedTopicReaders.SlowConsumerPolicy.DISCONNECT);
+        final AuthenticatedGatewayRequestContext context = newContext();
+        final SharedTopicReaders.Subscription first =
+                sharedTopicReaders.subscribe(context, "answers", null);
+        final SharedTopicReaders.Subscription second =
+                sharedTopicReaders.subscribe(context, "answers", null);
+        final QueueTopicReader shared = reader;
+
+        first.close();
+        Thread.sleep(200);
+        assertFalse(shared.closed);
+        second.close();
+        Awaitility.await().untilAsserted(() -> assertTrue(shared.closed));
+        assertEquals(0, sharedTopicReaders.readers());
+
+        sharedTopicReaders.subscribe(context, "answers", null);
+        assertEquals(2, createdReaders.get());
+    }
+
+    @Test
+    void testReaderIsStoppedWhenTheSubscriberStopsWaiting() throws Exception {
+        final CountDownLatch canStart = new CountDownLatch(1);
+        final QueueTopicReader slowReader =
+                new QueueTopicReader() {
+                    @Override
+                    public void start() throws Exception {
+                        canStart.await();
+                    }
+                };
+        sharedTopicReaders =
+                new SharedTopicReaders(
+                        null, 100, SharedTopicReaders.SlowConsumerPolicy.DISCONNECT) {
+                    @Override
+                    protected TopicReader createReader(
+                            StreamingCluster streamingCluster, String topic) {
+                        return slowReader;
+                    }
+                };
+        Thread.currentThread().interrupt();
+        assertThrows(
+                InterruptedException.class,
+                () -> sharedTopicReaders.subscribe(newContext(), "answers", null));
+        assertTrue(Thread.interrupted());
+        assertEquals(0, sharedTopicReaders.readers());
+
+        canStart.countDown();
+        Awaitility.await().untilAsserted(() -> assertTrue(slowReader.closed));
+    }
+
+    @Test
+    void testSlowConsumerIsDisconnected() throws Exception {
+        sharedTopicReaders =
+                newSharedTopicReaders(2, SharedTopicReaders.SlowConsumerPolicy.DISCONNECT);
+        // the messages are queued until the session is opened
+        final SharedTopicReaders.Subscription subscription =
+                sharedTopicReaders.subscribe(newContext(), "answers", null);
+        for (int i = 0; i < 3; i++) {
+            reader.queue.add(SimpleRecord.of(null, "value-" + i));
+        }
+        Awaitility.await()
+                .untilAsserted(() -> assertEquals(1, sharedTopicReaders.disconnectedConsumers()));
+
+        final CompletableFuture<Throwable> error = new CompletableFuture<>();
+        subscription.start(executor, () -> false, message -> {}, error::complete);
+        assertInstanceOf(
+                SharedTopicReaders.SlowConsumerException.class, error.get(10, TimeUnit.SECONDS));
+        assertEquals(0, sharedTopicReaders.subscriptions());
+    }
+
+    @Test
+    void testDropOldest() throws Exception {
+        sharedTopicReaders =
+                newSharedTopicReaders(2, SharedTopicReaders.SlowConsumerPolicy.DROP_OLDEST);
+        final SharedTopicReaders.Subscription subscription =
+                sharedTopicReaders.subscribe(newContext(), "answers", null);
+        for (int i = 0; i < 3; i++) {
+            reader.queue.add(SimpleRecord.of(null, "value-" + i));
+        }
+        Awaitility.await()
+                .untilAsserted(() -> assertEquals(1, sharedTopicReaders.droppedMessages()));
+
+        final List<String> messages = start(subscription);
+        Awaitility.await().untilAsserted(() -> assertEquals(2, messages.size()));
+        assertTrue(messages.get(0).contains("value-1"));
+        assertTrue(messages.get(1).contains("value-2"));
+    }
+}
@@ -85,6 +85,7 @@ import org.springframework.boot.test.web.server.LocalServerPort;
         webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
         properties = {
             "spring.main.allow-bean-definition-overriding=true",
+            "application.applications-cache.enabled=false",
         })
 @WireMockTest
 @Slf4j
@@ -15,6 +15,7 @@
  */
 package ai.langstream.api.codestorage;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -26,10 +27,13 @@ import java.util.zip.ZipInputStream;
 /** This is an archive file that is a zip file. */
 public abstract class GenericZipFileArchiveFile implements DownloadedCodeArchive {
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     public static void extractTo(InputStream inputStream, Path directory) throws IOException {
         File destDirectory = directory.toFile();
-        byte[] buffer = new byte[1024];
-        ZipInputStream zis = new ZipInputStream(inputStream);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        // ZipInputStream reads the compressed data in small chunks
+        ZipInputStream zis = new ZipInputStream(new BufferedInputStream(inputStream, BUFFER_SIZE));
         ZipEntry zipEntry = zis.getNextEntry();
         while (zipEntry != null) {
             File newFile = newFile(destDirectory, zipEntry);
@@ -45,12 +49,12 @@ public abstract class GenericZipFileArchiveFile implements DownloadedCodeArchive
                 }
 
                 // write file content
-                FileOutputStream fos = new FileOutputStream(newFile);
-                int len;
-                while ((len = zis.read(buffer)) > 0) {
-                    fos.write(buffer, 0, len);
+                try (FileOutputStream fos = new FileOutputStream(newFile)) {
+                    int len;
+                    while ((len = zis.read(buffer)) > 0) {
+                        fos.write(buffer, 0, len);
+                    }
                 }
-                fos.close();
             }
             zipEntry = zis.getNextEntry();
         }
@@ -16,6 +16,8 @@
 package ai.langstream.api.database;
 
 import ai.langstream.api.runner.code.Record;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -35,5 +37,23 @@ public interface VectorDatabaseWriter {
      */
     CompletableFuture<?> upsert(Record record, Map<String, Object> context);
 
+    /**
+     * Update a batch of records, in order, as in {@link #upsert(Record, Map)}. Implementations
+     * should override this method in order to write the whole batch with a few requests to the
+     * database. The default implementation writes one record at a time.
+     *
+     * @param records the records
+     * @param context additional context
+     * @return the results, one for each record and in the same order
+     */
+    default List<CompletableFuture<?>> upsertBatch(
+            List<Record> records, Map<String, Object> context) {
+        List<CompletableFuture<?>> results = new ArrayList<>(records.size());
+        for (Record record : records) {
+            results.add(upsert(record, context));
+        }
+        return results;
+    }
+
     default void close() throws Exception {}
 }
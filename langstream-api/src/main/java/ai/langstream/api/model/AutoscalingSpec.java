@@ -0,0 +1,69 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.api.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Definition of the autoscaling of the agent: the number of replicas changes between {@code
+ * min-parallelism} and {@code max-parallelism} following the backlog of the input topic.
+ *
+ * @param minParallelism minimum number of replicas
+ * @param maxParallelism maximum number of replicas
+ * @param lagPerReplica number of records waiting to be processed that a single replica is expected
+ *     to handle, the desired number of replicas is the total backlog divided by this value
+ * @param scaleUpCooldown seconds to wait after a scaling operation before adding replicas
+ * @param scaleDownCooldown seconds to wait after a scaling operation before removing replicas
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AutoscalingSpec(
+        @JsonProperty("min-parallelism") Integer minParallelism,
+        @JsonProperty("max-parallelism") Integer maxParallelism,
+        @JsonProperty("lag-per-replica") Long lagPerReplica,
+        @JsonProperty("scale-up-cooldown") Integer scaleUpCooldown,
+        @JsonProperty("scale-down-cooldown") Integer scaleDownCooldown) {
+
+    public static final long DEFAULT_LAG_PER_REPLICA = 1000;
+    public static final int DEFAULT_SCALE_UP_COOLDOWN = 60;
+    public static final int DEFAULT_SCALE_DOWN_COOLDOWN = 300;
+
+    public AutoscalingSpec {
+        if (maxParallelism == null || maxParallelism < 1) {
+            throw new IllegalArgumentException("max-parallelism is required for autoscaling");
+        }
+        if (minParallelism == null) {
+            minParallelism = 1;
+        }
+        if (minParallelism < 1 || minParallelism > maxParallelism) {
+            throw new IllegalArgumentException(
+                    "min-parallelism must be between 1 and max-parallelism (%d), got %d"
+                            .formatted(maxParallelism, minParallelism));
+        }
+        if (lagPerReplica == null) {
+            lagPerReplica = DEFAULT_LAG_PER_REPLICA;
+        }
+        if (lagPerReplica < 1) {
+            throw new IllegalArgumentException("lag-per-replica must be greater than 0");
+        }
+        if (scaleUpCooldown == null) {
+            scaleUpCooldown = DEFAULT_SCALE_UP_COOLDOWN;
+        }
+        if (scaleDownCooldown == null) {
+            scaleDownCooldown = DEFAULT_SCALE_DOWN_COOLDOWN;
+        }
+    }
+}
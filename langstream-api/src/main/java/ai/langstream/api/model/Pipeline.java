@@ -30,6 +30,8 @@ public class Pipeline {
     private ResourcesSpec resources;
     // defaults for all the agents in the pipeline
     private ErrorsSpec errors;
+    // the agents merged in a composite agent process the records in batches
+    private boolean batchProcessing;
 
     public Pipeline(String id, String module) {
         this.id = id;
@@ -19,10 +19,26 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 /** Definition of the resources required by the agent. */
-public record ResourcesSpec(Integer parallelism, Integer size, DiskSpec disk) {
+public record ResourcesSpec(
+        Integer parallelism, Integer size, DiskSpec disk, AutoscalingSpec autoscaling) {
 
     public static ResourcesSpec DEFAULT = new ResourcesSpec(1, 1, null);
 
+    public ResourcesSpec(Integer parallelism, Integer size, DiskSpec disk) {
+        this(parallelism, size, disk, null);
+    }
+
+    /**
+     * The maximum number of replicas of the agent, that is the max parallelism when the autoscaling
+     * is enabled.
+     */
+    public int maxReplicas() {
+        if (autoscaling != null) {
+            return autoscaling.maxParallelism();
+        }
+        return parallelism == null ? 1 : parallelism;
+    }
+
     public ResourcesSpec withDefaultsFrom(ResourcesSpec higherLevel) {
         if (higherLevel == null) {
             return this;
@@ -31,6 +47,8 @@ public record ResourcesSpec(Integer parallelism, Integer size, DiskSpec disk) {
         Integer newUnits = size == null ? higherLevel.size() : size;
         DiskSpec newDisk =
                 disk == null ? higherLevel.disk() : disk.withDefaultsFrom(higherLevel.disk);
-        return new ResourcesSpec(newParallelism, newUnits, newDisk);
+        AutoscalingSpec newAutoscaling =
+                autoscaling == null ? higherLevel.autoscaling() : autoscaling;
+        return new ResourcesSpec(newParallelism, newUnits, newDisk, newAutoscaling);
     }
 }
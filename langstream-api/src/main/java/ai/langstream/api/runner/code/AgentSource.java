@@ -35,6 +35,21 @@ public interface AgentSource extends AgentCode {
      */
     void commit(List<Record> records) throws Exception;
 
+    /**
+     * Called by the framework when too many records are waiting to be committed. The source must
+     * stop fetching new records, the framework keeps calling {@link #read()} in order to keep the
+     * connection alive and the source returns no records until {@link #resume()} is called.
+     *
+     * @return false if the source does not support pausing, in this case the framework does not
+     *     call {@link #read()} until some records are committed
+     */
+    default boolean pause() throws Exception {
+        return false;
+    }
+
+    /** Called by the framework to start fetching records again after {@link #pause()}. */
+    default void resume() throws Exception {}
+
     @Override
     default ComponentType componentType() {
         return ComponentType.SOURCE;
@@ -23,16 +23,66 @@ public interface MetricsReporter {
                 }
             };
 
+    /** Default buckets for latencies, in seconds. */
+    double[] LATENCY_BUCKETS = {
+        0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60
+    };
+
+    /** Default buckets for the number of records in a batch. */
+    double[] BATCH_SIZE_BUCKETS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 5000};
+
     default MetricsReporter withAgentName(String prefix) {
         return this;
     }
 
     Counter counter(String name, String help);
 
+    /**
+     * A histogram with the default latency buckets, the values are expressed in seconds.
+     *
+     * @param name the name of the metric
+     * @param help the description of the metric
+     * @return the histogram
+     */
+    default Histogram histogram(String name, String help) {
+        return histogram(name, help, LATENCY_BUCKETS);
+    }
+
+    default Histogram histogram(String name, String help, double... buckets) {
+        return Histogram.NOOP;
+    }
+
+    default Gauge gauge(String name, String help) {
+        return Gauge.NOOP;
+    }
+
     interface Counter {
 
         Counter NOOP = (value) -> {};
 
         void count(int value);
     }
+
+    interface Histogram {
+
+        Histogram NOOP = (value) -> {};
+
+        void observe(double value);
+
+        /**
+         * Observe the time elapsed since the given instant, in seconds.
+         *
+         * @param startNanos the start time, as returned by {@link System#nanoTime()}
+         */
+        default void observeSince(long startNanos) {
+            observe((System.nanoTime() - startNanos) / 1_000_000_000.0);
+        }
+    }
+
+    interface Gauge {
+
+        Gauge NOOP = (value) -> {};
+
+        void set(double value);
+    }
 }
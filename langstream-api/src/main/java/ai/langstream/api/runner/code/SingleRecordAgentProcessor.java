@@ -15,37 +15,155 @@
  */
 package ai.langstream.api.runner.code;
 
+import ai.langstream.api.util.ConfigurationUtils;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Base class for the processors that handle one record at the time.
+ *
+ * <p>By default the records of a batch are processed sequentially on the caller thread. Agents
+ * whose {@link #processRecord(Record)} is thread safe can call {@link #configureWorkers(Map)} from
+ * {@link #init(Map)} in order to let the users process the records on a pool of {@value
+ * #WORKERS_CONFIG} threads. The results are emitted as soon as they are ready: with the "key"
+ * ordering (the default) the records with the same key are processed one after the other, in the
+ * order they were received, with the "none" ordering there are no guarantees.
+ */
 @Slf4j
 public abstract class SingleRecordAgentProcessor extends AbstractAgentCode
         implements AgentProcessor {
 
+    public static final String WORKERS_CONFIG = "workers";
+    public static final String WORKERS_ORDERING_CONFIG = "workers-ordering";
+
     private final AtomicLong errors = new AtomicLong();
+    private ExecutorService workersExecutor;
+    private boolean keyOrdered = true;
+    // the last task for every key being processed, the next record with the same key runs after it
+    private final Map<Object, CompletableFuture<?>> lastTaskByKey = new HashMap<>();
 
     public abstract List<Record> processRecord(Record record) throws Exception;
 
+    /**
+     * Read the "workers" and "workers-ordering" settings from the configuration of the agent.
+     *
+     * @param configuration the configuration of the agent
+     */
+    protected final void configureWorkers(Map<String, Object> configuration) {
+        int workers = ConfigurationUtils.getInt(WORKERS_CONFIG, 1, configuration);
+        String ordering =
+                ConfigurationUtils.getString(WORKERS_ORDERING_CONFIG, "key", configuration);
+        keyOrdered =
+                switch (ordering) {
+                    case "key" -> true;
+                    case "none" -> false;
+                    default -> throw new IllegalArgumentException(
+                            "Invalid "
+                                    + WORKERS_ORDERING_CONFIG
+                                    + " "
+                                    + ordering
+                                    + ", only 'key' and 'none' are supported");
+                };
+        shutdownWorkers();
+        if (workers > 1) {
+            String threadNamePrefix = getClass().getSimpleName() + "-worker-";
+            AtomicInteger threadCount = new AtomicInteger();
+            workersExecutor =
+                    Executors.newFixedThreadPool(
+                            workers,
+                            runnable -> {
+                                Thread thread =
+                                        new Thread(
+                                                runnable,
+                                                threadNamePrefix + threadCount.incrementAndGet());
+                                thread.setDaemon(true);
+                                return thread;
+                            });
+            log.info("Processing the records with {} workers, ordering {}", workers, ordering);
+        }
+    }
+
     @Override
     public final void process(List<Record> records, RecordSink recordSink) {
         if (records == null || records.isEmpty()) {
             throw new IllegalStateException("Records cannot be null or empty");
         }
+        if (workersExecutor == null) {
+            for (Record record : records) {
+                processAndEmit(record, recordSink);
+            }
+            return;
+        }
         for (Record record : records) {
-            try {
-                List<Record> process = processRecord(record);
-                processed(1, process.size());
-                recordSink.emit(new SourceRecordAndResult(record, process, null));
-            } catch (Throwable error) {
-                log.error("Error processing record: {}", record, error);
-                errors.incrementAndGet();
-                recordSink.emit(new SourceRecordAndResult(record, null, error));
+            Runnable task = () -> processAndEmit(record, recordSink);
+            Object key = keyOrdered ? orderingKey(record) : null;
+            if (key == null) {
+                workersExecutor.execute(task);
+                continue;
+            }
+            synchronized (lastTaskByKey) {
+                CompletableFuture<?> previous = lastTaskByKey.get(key);
+                CompletableFuture<?> next =
+                        previous == null
+                                ? CompletableFuture.runAsync(task, workersExecutor)
+                                : previous.handleAsync(
+                                        (result, error) -> {
+                                            task.run();
+                                            return null;
+                                        },
+                                        workersExecutor);
+                lastTaskByKey.put(key, next);
+                next.whenComplete(
+                        (result, error) -> {
+                            synchronized (lastTaskByKey) {
+                                lastTaskByKey.remove(key, next);
+                            }
+                        });
             }
         }
     }
 
+    private void processAndEmit(Record record, RecordSink recordSink) {
+        try {
+            List<Record> process = processRecord(record);
+            processed(1, process.size());
+            recordSink.emit(new SourceRecordAndResult(record, process, null));
+        } catch (Throwable error) {
+            log.error("Error processing record: {}", record, error);
+            errors.incrementAndGet();
+            recordSink.emit(new SourceRecordAndResult(record, null, error));
+        }
+    }
+
+    private static Object orderingKey(Record record) {
+        Object key = record.key();
+        // arrays do not implement equals
+        if (key instanceof byte[] bytes) {
+            return ByteBuffer.wrap(bytes);
+        }
+        return key;
+    }
+
+    private void shutdownWorkers() {
+        if (workersExecutor != null) {
+            workersExecutor.shutdown();
+            workersExecutor = null;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        shutdownWorkers();
+    }
+
     @Override
     protected Map<String, Object> buildAdditionalInfo() {
         return Map.of("errors", errors.get());
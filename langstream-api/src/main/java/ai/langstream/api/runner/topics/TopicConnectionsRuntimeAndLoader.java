@@ -134,6 +134,16 @@ public record TopicConnectionsRuntimeAndLoader(
                         executeWithContextClassloader(ignore -> topicConsumerImpl.commit(records));
                     }
 
+                    @Override
+                    public boolean pause() throws Exception {
+                        return callWithContextClassloader(ignore -> topicConsumerImpl.pause());
+                    }
+
+                    @Override
+                    public void resume() throws Exception {
+                        executeWithContextClassloader(ignore -> topicConsumerImpl.resume());
+                    }
+
                     @Override
                     public Map<String, Object> getInfo() {
                         return callNoExceptionWithContextClassloader(
@@ -42,6 +42,20 @@ public interface TopicConsumer extends AutoCloseable {
 
     default void commit(List<Record> records) throws Exception {}
 
+    /**
+     * Stop fetching new records, while keeping the connection and the subscription alive. After
+     * this call {@link #read()} still needs to be called periodically, it returns no records until
+     * {@link #resume()} is called.
+     *
+     * @return false if the consumer does not support pausing
+     */
+    default boolean pause() throws Exception {
+        return false;
+    }
+
+    /** Start fetching records again after {@link #pause()}. */
+    default void resume() throws Exception {}
+
     default Map<String, Object> getInfo() {
         return Map.of();
     }
@@ -23,4 +23,13 @@ public interface TopicReadResult {
     List<Record> records();
 
     byte[] offset();
+
+    /**
+     * The offset to resume reading right after the record at the given index of {@link #records()}.
+     * Readers that return more than one record at the time override it, by default it is the offset
+     * of the whole result.
+     */
+    default byte[] offset(int index) {
+        return offset();
+    }
 }
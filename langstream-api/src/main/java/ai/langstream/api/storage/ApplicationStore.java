@@ -57,6 +57,24 @@ public interface ApplicationStore extends GenericStore {
 
     String getExecutorServiceURI(String tenant, String applicationId, String executorId);
 
+    /** Receives the notifications about changes of the applications. */
+    interface ApplicationChangesListener {
+
+        /** The specs or the secrets of the application have been created, modified or deleted. */
+        void onApplicationChanged(String tenant, String applicationId);
+    }
+
+    /**
+     * Start watching the changes of the applications, in order to keep caches up to date without
+     * polling the store.
+     *
+     * @param listener the listener to notify
+     * @return true if the store is able to notify the changes, false otherwise
+     */
+    default boolean watchApplicationChanges(ApplicationChangesListener listener) {
+        return false;
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -0,0 +1,156 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.api.util;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable vector of embeddings backed by a primitive float array.
+ *
+ * <p>It is a {@code List<Double>} in order to be compatible with the code that handles the
+ * embeddings as a list of numbers (JSTL expressions, Avro arrays, JSON), but it takes 4 bytes per
+ * dimension instead of a boxed Double. Code that is aware of this class should use {@link
+ * #toFloatArray(Object)} to access the values without copies.
+ */
+public final class FloatVector extends AbstractList<Double> implements RandomAccess {
+
+    private final float[] values;
+
+    private FloatVector(float[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Wrap an array, without copying it. The array must not be modified after this call.
+     *
+     * @param values the values
+     * @return the vector
+     */
+    public static FloatVector of(float[] values) {
+        return new FloatVector(values);
+    }
+
+    /**
+     * Convert a list of numbers to a vector. If the list is already a vector it is returned as is.
+     *
+     * @param values the values
+     * @return the vector
+     */
+    public static FloatVector from(Collection<?> values) {
+        if (values instanceof FloatVector vector) {
+            return vector;
+        }
+        return new FloatVector(toFloatArray(values));
+    }
+
+    /**
+     * Access the values of a vector as a primitive array. The array of a {@link FloatVector} is
+     * returned without copying it and it must not be modified.
+     *
+     * @param vector a FloatVector, a float[] or a collection of numbers
+     * @return the values
+     */
+    public static float[] toFloatArray(Object vector) {
+        if (vector instanceof FloatVector floatVector) {
+            return floatVector.values;
+        }
+        if (vector instanceof float[] array) {
+            return array;
+        }
+        if (vector instanceof Collection<?> collection) {
+            float[] result = new float[collection.size()];
+            int i = 0;
+            for (Object o : collection) {
+                if (o instanceof Number n) {
+                    result[i++] = n.floatValue();
+                } else if (o instanceof String s) {
+                    result[i++] = Float.parseFloat(s);
+                } else {
+                    throw new IllegalArgumentException(
+                            "Cannot convert "
+                                    + o
+                                    + " to float, only vectors of numbers are supported");
+                }
+            }
+            return result;
+        }
+        throw new IllegalArgumentException("Cannot convert " + vector + " to a vector of floats");
+    }
+
+    /**
+     * The values of the vector, this is also how the vector is serialized to JSON.
+     *
+     * @return the backing array, it must not be modified
+     */
+    @JsonValue
+    public float[] values() {
+        return values;
+    }
+
+    public float getFloat(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns the float value widened to a Double, use {@link #getFloat(int)} for the raw value.
+     */
+    @Override
+    public Double get(int index) {
+        return (double) values[index];
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * A view of this vector as a list of floats, without copying the values.
+     *
+     * @return the view
+     */
+    public List<Float> asListOfFloat() {
+        return new FloatListView(values);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+
+    private static final class FloatListView extends AbstractList<Float> implements RandomAccess {
+        private final float[] values;
+
+        FloatListView(float[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Float get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+}
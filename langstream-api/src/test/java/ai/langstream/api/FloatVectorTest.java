@@ -0,0 +1,58 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.api;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import ai.langstream.api.util.FloatVector;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class FloatVectorTest {
+
+    @Test
+    void testListOfDoubleView() {
+        FloatVector vector = FloatVector.of(new float[] {1f, 5.4f, -0.0023064255f});
+        assertEquals(3, vector.size());
+        // the values are the floats widened to doubles
+        List<Double> expected = List.of(1d, (double) 5.4f, (double) -0.0023064255f);
+        assertEquals(expected, vector);
+        assertEquals(expected, new ArrayList<>(vector));
+        assertEquals((double) 5.4f, vector.get(1));
+        assertEquals(5.4f, vector.getFloat(1));
+        assertEquals(List.of(1f, 5.4f, -0.0023064255f), vector.asListOfFloat());
+        assertEquals("[1.0, 5.4, -0.0023064255]", vector.toString());
+    }
+
+    @Test
+    void testConversions() {
+        float[] values = new float[] {1f, 2f};
+        FloatVector vector = FloatVector.of(values);
+        // no copies
+        assertSame(values, FloatVector.toFloatArray(vector));
+        assertSame(values, FloatVector.toFloatArray(values));
+        assertSame(vector, FloatVector.from(vector));
+
+        assertArrayEquals(
+                new float[] {1f, 2.5f, 3f}, FloatVector.toFloatArray(List.of(1, 2.5d, "3")));
+        assertEquals(List.of(1d, 2.5d), FloatVector.from(List.of(1d, 2.5d)));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> FloatVector.toFloatArray(List.of(List.of(1d))));
+        assertThrows(IllegalArgumentException.class, () -> FloatVector.toFloatArray("1,2"));
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ai.langstream.api.runner.code.AgentProcessor;
+import ai.langstream.api.runner.code.Record;
+import ai.langstream.api.runner.code.RecordSink;
+import ai.langstream.api.runner.code.SimpleRecord;
+import ai.langstream.api.runner.code.SingleRecordAgentProcessor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class SingleRecordAgentProcessorTest {
+
+    private static class UpperCaseProcessor extends SingleRecordAgentProcessor {
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+        // the records with this value wait for the latch
+        final CountDownLatch unblock = new CountDownLatch(1);
+
+        @Override
+        public void init(Map<String, Object> configuration) {
+            configureWorkers(configuration);
+        }
+
+        @Override
+        public List<Record> processRecord(Record record) throws Exception {
+            threads.add(Thread.currentThread().getName());
+            String value = (String) record.value();
+            if (value.startsWith("block")) {
+                assertTrue(unblock.await(10, TimeUnit.SECONDS));
+            }
+            if (value.startsWith("fail")) {
+                throw new IllegalArgumentException(value);
+            }
+            // give the other workers the time to pick up records
+            Thread.sleep(5);
+            return List.of(SimpleRecord.copyFrom(record).value(value.toUpperCase()).build());
+        }
+    }
+
+    private static class CollectingSink implements RecordSink {
+        final List<AgentProcessor.SourceRecordAndResult> results =
+                Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch done;
+
+        CollectingSink(int expected) {
+            done = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void emit(AgentProcessor.SourceRecordAndResult recordAndResult) {
+            results.add(recordAndResult);
+            done.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testSequentialByDefault() throws Exception {
+        UpperCaseProcessor processor = new UpperCaseProcessor();
+        processor.init(Map.of());
+        CollectingSink sink = new CollectingSink(3);
+        processor.process(
+                List.of(SimpleRecord.of("k", "a"), SimpleRecord.of("k", "fail"), record("b")),
+                sink);
+        // the results are emitted before process returns
+        assertEquals(3, sink.results.size());
+        assertEquals(Set.of(Thread.currentThread().getName()), processor.threads);
+        assertEquals("A", sink.results.get(0).resultRecords().get(0).value());
+        assertNotNull(sink.results.get(1).error());
+        assertEquals("B", sink.results.get(2).resultRecords().get(0).value());
+        processor.close();
+    }
+
+    @Test
+    void testKeyOrdering() throws Exception {
+        UpperCaseProcessor processor = new UpperCaseProcessor();
+        processor.init(Map.of("workers", 4));
+        List<Record> records = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            // the first record of key-0 blocks, the other keys must not wait for it
+            String value = i == 0 ? "block" : "value-" + i;
+            records.add(SimpleRecord.of("key-" + (i % 5), value));
+        }
+        CollectingSink sink = new CollectingSink(records.size());
+        processor.process(records, sink);
+
+        // wait for all the records of the other keys
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (sink.results.size() < 80) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+        assertEquals(0, countResults(sink, "key-0"));
+        processor.unblock.countDown();
+        sink.await();
+
+        assertTrue(processor.threads.size() > 1);
+        // the records with the same key are emitted in the order they were received
+        Map<Object, List<Object>> emittedByKey = new HashMap<>();
+        for (AgentProcessor.SourceRecordAndResult result : sink.results) {
+            assertNull(result.error());
+            emittedByKey
+                    .computeIfAbsent(result.sourceRecord().key(), k -> new ArrayList<>())
+                    .add(result.sourceRecord().value());
+        }
+        for (int k = 0; k < 5; k++) {
+            List<Object> expected = new ArrayList<>();
+            for (Record record : records) {
+                if (record.key().equals("key-" + k)) {
+                    expected.add(record.value());
+                }
+            }
+            assertEquals(expected, emittedByKey.get("key-" + k));
+        }
+        processor.close();
+    }
+
+    @Test
+    void testUnordered() throws Exception {
+        UpperCaseProcessor processor = new UpperCaseProcessor();
+        processor.init(Map.of("workers", 4, "workers-ordering", "none"));
+        List<Record> records = new ArrayList<>();
+        records.add(SimpleRecord.of("same-key", "block"));
+        for (int i = 0; i < 20; i++) {
+            records.add(SimpleRecord.of("same-key", "value-" + i));
+        }
+        CollectingSink sink = new CollectingSink(records.size());
+        processor.process(records, sink);
+        // the records with the same key do not wait for the blocked one
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (sink.results.size() < 20) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+        processor.unblock.countDown();
+        sink.await();
+        assertEquals("BLOCK", sink.results.get(20).resultRecords().get(0).value());
+        processor.close();
+    }
+
+    @Test
+    void testInvalidOrdering() {
+        UpperCaseProcessor processor = new UpperCaseProcessor();
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> processor.init(Map.of("workers", 2, "workers-ordering", "partition")));
+    }
+
+    private static long countResults(CollectingSink sink, String key) {
+        synchronized (sink.results) {
+            return sink.results.stream().filter(r -> key.equals(r.sourceRecord().key())).count();
+        }
+    }
+
+    private static Record record(String value) {
+        return SimpleRecord.of(null, value);
+    }
+}
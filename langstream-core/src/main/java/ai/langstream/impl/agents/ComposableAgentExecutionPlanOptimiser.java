@@ -15,6 +15,7 @@
  */
 package ai.langstream.impl.agents;
 
+import ai.langstream.api.model.AutoscalingSpec;
 import ai.langstream.api.model.Module;
 import ai.langstream.api.model.Pipeline;
 import ai.langstream.api.model.ResourcesSpec;
@@ -69,7 +70,11 @@ public final class ComposableAgentExecutionPlanOptimiser implements ExecutionPla
         Integer parallismB = b != null ? b.parallelism() : null;
         Integer sizeA = a != null ? a.size() : null;
         Integer sizeB = b != null ? b.size() : null;
-        return Objects.equals(parallismA, parallismB) && Objects.equals(sizeA, sizeB);
+        AutoscalingSpec autoscalingA = a != null ? a.autoscaling() : null;
+        AutoscalingSpec autoscalingB = b != null ? b.autoscaling() : null;
+        return Objects.equals(parallismA, parallismB)
+                && Objects.equals(sizeA, sizeB)
+                && Objects.equals(autoscalingA, autoscalingB);
     }
 
     @Override
@@ -159,6 +164,9 @@ public final class ComposableAgentExecutionPlanOptimiser implements ExecutionPla
                 result.put("processors", processors);
                 result.put("source", source);
                 result.put("sink", sink);
+                if (pipeline != null && pipeline.isBatchProcessing()) {
+                    result.put("batch-processing", true);
+                }
 
                 if (agent1.getOutputConnectionImplementation() != null) {
                     log.info("Discarding topic {}", agent1.getOutputConnectionImplementation());
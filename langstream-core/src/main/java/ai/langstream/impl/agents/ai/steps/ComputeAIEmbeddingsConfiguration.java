@@ -122,6 +122,36 @@ public class ComputeAIEmbeddingsConfiguration extends BaseGenAIStepConfiguration
     @JsonProperty("flush-interval")
     private int flushInterval;
 
+    @ConfigProperty(
+            description =
+                    """
+                            Maximum size in bytes of the in-memory cache of the embeddings, keyed by AI service, model and text.
+                            Only the texts not found in the cache are sent to the AI Service. The cache is disabled by default.
+                            """,
+            defaultValue = "0")
+    @JsonProperty("cache-max-bytes")
+    private long cacheMaxBytes;
+
+    @ConfigProperty(
+            description =
+                    """
+                            Store the cached embeddings on the persistent disk of the agent, in order to reuse them after a restart.
+                            This requires a persistent disk to be configured for the agent. The least recently used entries are deleted
+                            when the files exceed cache-on-disk-max-bytes.
+                            """,
+            defaultValue = "false")
+    @JsonProperty("cache-on-disk")
+    private boolean cacheOnDisk;
+
+    @ConfigProperty(
+            description =
+                    """
+                            Maximum size in bytes of the embeddings stored on disk, the least recently used entries are deleted above this size.
+                            """,
+            defaultValue = "1073741824")
+    @JsonProperty("cache-on-disk-max-bytes")
+    private long cacheOnDiskMaxBytes;
+
     @ConfigProperty(
             description =
                     """
@@ -89,6 +89,16 @@ public class QueryConfiguration extends BaseGenAIStepConfiguration {
     @JsonProperty("loop-over")
     private String loopOver;
 
+    @ConfigProperty(
+            description =
+                    """
+                   Maximum number of queries executed concurrently when loop-over is used.
+                   The results are stored in the same order of the items.
+                   """,
+            defaultValue = "10")
+    @JsonProperty("loop-over-concurrency")
+    private int loopOverConcurrency = 10;
+
     @ConfigProperty(
             description =
                     """
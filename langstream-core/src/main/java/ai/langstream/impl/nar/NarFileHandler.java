@@ -21,16 +21,23 @@ import ai.langstream.api.runner.assets.AssetManagerRegistry;
 import ai.langstream.api.runner.code.AgentCodeRegistry;
 import ai.langstream.api.runner.topics.TopicConnectionsRuntimeRegistry;
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -50,12 +57,24 @@ public class NarFileHandler
     private static final boolean CLOSE_CLASSLOADERS =
             Boolean.parseBoolean(System.getProperty("langstream.nar.closeClassloaders", "true"));
 
+    /**
+     * Directory where the NAR files are extracted, in order to reuse the extracted files across
+     * restarts. When the directory is populated while building the image (see {@link
+     * #extractAll()}) the classloaders are created directly on the extracted files.
+     */
+    private static final String EXTRACTION_DIRECTORY =
+            System.getProperty(
+                    "langstream.nar.extractionDirectory",
+                    System.getenv("LANGSTREAM_NAR_EXTRACTION_DIRECTORY"));
+
     static {
         log.info("langstream.nar.closeClassloaders = {}", CLOSE_CLASSLOADERS);
+        log.info("langstream.nar.extractionDirectory = {}", EXTRACTION_DIRECTORY);
     }
 
     private final Path packagesDirectory;
     private final Path temporaryDirectory;
+    private final Path extractionDirectory;
 
     private final List<URL> customLibClasspath;
     private final ClassLoader parentClassloader;
@@ -66,8 +85,26 @@ public class NarFileHandler
     public NarFileHandler(
             Path packagesDirectory, List<URL> customLibClasspath, ClassLoader parentClassloader)
             throws Exception {
+        this(
+                packagesDirectory,
+                customLibClasspath,
+                parentClassloader,
+                EXTRACTION_DIRECTORY != null ? Path.of(EXTRACTION_DIRECTORY) : null);
+    }
+
+    /**
+     * @param extractionDirectory directory where the NAR files are extracted and kept, keyed by
+     *     their checksum, null to extract them to a temporary directory deleted on close
+     */
+    public NarFileHandler(
+            Path packagesDirectory,
+            List<URL> customLibClasspath,
+            ClassLoader parentClassloader,
+            Path extractionDirectory)
+            throws Exception {
         this.packagesDirectory = packagesDirectory;
         this.temporaryDirectory = Files.createTempDirectory("nar");
+        this.extractionDirectory = extractionDirectory;
         this.customLibClasspath = customLibClasspath;
         this.parentClassloader = parentClassloader;
     }
@@ -155,6 +192,7 @@ public class NarFileHandler
         private final Set<String> agentTypes;
         private final Set<String> assetTypes;
         private final Set<String> streamingClusterTypes;
+        private final String checksum;
         private Path directory;
         private URLClassLoader classLoader;
 
@@ -163,24 +201,94 @@ public class NarFileHandler
                 String name,
                 Set<String> agentTypes,
                 Set<String> assetTypes,
-                Set<String> streamingClusterTypes) {
+                Set<String> streamingClusterTypes,
+                String checksum) {
             this.nar = nar;
             this.name = name;
             this.agentTypes = agentTypes;
             this.assetTypes = assetTypes;
             this.streamingClusterTypes = streamingClusterTypes;
+            this.checksum = checksum;
         }
 
         public synchronized void unpack() throws Exception {
             if (directory != null) {
                 return;
             }
+            if (extractionDirectory != null && checksum != null) {
+                directory = unpackToExtractionDirectory();
+                if (directory != null) {
+                    return;
+                }
+            }
             Path dest = temporaryDirectory.resolve(nar.getFileName().toString() + ".dir");
             log.info("Unpacking NAR file {} to {}", nar, dest);
             GenericZipFileArchiveFile file = new LocalZipFileArchiveFile(nar);
             file.extractTo(dest);
             directory = dest;
         }
+
+        private Path unpackToExtractionDirectory() throws Exception {
+            Path dest = extractionDirectory.resolve(name + "-" + checksum);
+            if (Files.isDirectory(dest)) {
+                log.info("Using NAR file {} already extracted to {}", nar, dest);
+                return dest;
+            }
+            Path temporary;
+            try {
+                Files.createDirectories(extractionDirectory);
+                temporary = Files.createTempDirectory(extractionDirectory, name + ".tmp");
+            } catch (IOException e) {
+                log.warn("Cannot extract NAR files to {}: {}", extractionDirectory, e.toString());
+                return null;
+            }
+            log.info("Unpacking NAR file {} to {}", nar, dest);
+            new LocalZipFileArchiveFile(nar).extractTo(temporary);
+            try {
+                // other processes never see a partially extracted directory
+                Files.move(temporary, dest, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileSystemException e) {
+                if (!Files.isDirectory(dest)) {
+                    throw e;
+                }
+                log.info("NAR file {} has been extracted by another process", nar);
+                deleteDirectory(temporary);
+            }
+            return dest;
+        }
+    }
+
+    /**
+     * Computes a checksum of the content of a NAR file from the central directory of the archive,
+     * that contains the names, the sizes and the CRC-32 of the entries. It does not need to read
+     * the whole file.
+     */
+    static String computeChecksum(ZipFile zipFile) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES);
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            digest.update(entry.getName().getBytes(StandardCharsets.UTF_8));
+            buffer.clear();
+            buffer.putLong(entry.getCrc()).putLong(entry.getSize());
+            digest.update(buffer.array());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Extracts all the packages to the extraction directory. This is meant to be executed while
+     * building the image, so that the agents do not extract the packages on startup.
+     */
+    public synchronized void extractAll() throws Exception {
+        if (extractionDirectory == null) {
+            throw new IllegalStateException("The extraction directory is not configured");
+        }
+        scan();
+        for (PackageMetadata metadata : packages.values()) {
+            metadata.unpack();
+        }
     }
 
     public synchronized void scan() throws Exception {
@@ -197,8 +305,10 @@ public class NarFileHandler
     public void handleNarFile(Path narFile) throws Exception {
         String filename = narFile.getFileName().toString();
 
+        final String checksum;
         // first of all we look for an index file
         try (ZipFile zipFile = new ZipFile(narFile.toFile())) {
+            checksum = extractionDirectory != null ? computeChecksum(zipFile) : null;
 
             List<String> agents = List.of();
             List<String> assetTypes = List.of();
@@ -253,7 +363,8 @@ public class NarFileHandler
                                 filename,
                                 Set.copyOf(agents),
                                 Set.copyOf(assetTypes),
-                                Set.copyOf(streamingClusterTypes));
+                                Set.copyOf(streamingClusterTypes),
+                                checksum);
                 packages.put(filename, metadata);
                 return;
             }
@@ -278,7 +389,8 @@ public class NarFileHandler
         }
 
         log.debug("The file {} does not contain any indexes, still adding the file", narFile);
-        PackageMetadata metadata = new PackageMetadata(narFile, filename, null, null, null);
+        PackageMetadata metadata =
+                new PackageMetadata(narFile, filename, null, null, null, checksum);
         packages.put(filename, metadata);
     }
 
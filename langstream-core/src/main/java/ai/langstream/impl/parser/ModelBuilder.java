@@ -683,6 +683,7 @@ public class ModelBuilder {
                             ? pipelineConfiguration.getErrors().withDefaultsFrom(ErrorsSpec.DEFAULT)
                             : ErrorsSpec.DEFAULT);
             validateErrorsSpec(pipeline.getErrors());
+            pipeline.setBatchProcessing(pipelineConfiguration.isBatchProcessing());
             AgentConfiguration last = null;
 
             if (pipelineConfiguration.getTopics() != null) {
@@ -886,6 +887,9 @@ public class ModelBuilder {
 
         private ResourcesSpec resources;
         private ErrorsSpec errors;
+
+        @JsonProperty("batch-processing")
+        private boolean batchProcessing;
     }
 
     @Data
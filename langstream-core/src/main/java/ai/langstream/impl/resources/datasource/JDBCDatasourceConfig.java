@@ -20,6 +20,7 @@ import ai.langstream.api.doc.ResourceConfig;
 import ai.langstream.api.model.Resource;
 import ai.langstream.impl.resources.BaseDataSourceResourceProvider;
 import ai.langstream.impl.uti.ClassConfigValidator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
 @Data
@@ -58,4 +59,13 @@ public class JDBCDatasourceConfig extends BaseDatasourceConfig {
                             """,
             required = true)
     private String url;
+
+    @ConfigProperty(
+            description =
+                    """
+                            Maximum number of connections used to run the queries concurrently.
+                            """,
+            defaultValue = "4")
+    @JsonProperty("pool-size")
+    private int poolSize = 4;
 }
@@ -96,4 +96,13 @@ public class MilvusDatasourceConfig extends BaseDatasourceConfig {
                             Token parameter for connecting to Zillis service.
                                     """)
     private String token;
+
+    @ConfigProperty(
+            description =
+                    """
+                            Maximum number of queries executed concurrently.
+                                    """,
+            defaultValue = "4")
+    @JsonProperty("pool-size")
+    private int poolSize = 4;
 }
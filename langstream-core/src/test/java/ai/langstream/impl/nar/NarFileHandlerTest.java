@@ -0,0 +1,96 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.impl.nar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class NarFileHandlerTest {
+
+    private static void writeNar(Path nar, String content) throws Exception {
+        try (OutputStream out = Files.newOutputStream(nar);
+                ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("META-INF/ai.langstream.agents.index"));
+            zip.write("my-agent\n".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("META-INF/bundled-dependencies/file.txt"));
+            zip.write(content.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+    }
+
+    private static NarFileHandler.PackageMetadata unpack(Path packages, Path extraction)
+            throws Exception {
+        try (NarFileHandler handler =
+                new NarFileHandler(
+                        packages,
+                        List.of(),
+                        NarFileHandlerTest.class.getClassLoader(),
+                        extraction)) {
+            handler.scan();
+            NarFileHandler.PackageMetadata metadata = handler.getPackageForAgentType("my-agent");
+            metadata.unpack();
+            return metadata;
+        }
+    }
+
+    @Test
+    void testExtractionDirectory(@TempDir Path packages, @TempDir Path extraction)
+            throws Exception {
+        writeNar(packages.resolve("test.nar"), "v1");
+        try (NarFileHandler handler =
+                new NarFileHandler(
+                        packages,
+                        List.of(),
+                        NarFileHandlerTest.class.getClassLoader(),
+                        extraction)) {
+            handler.extractAll();
+        }
+        NarFileHandler.PackageMetadata first = unpack(packages, extraction);
+        Path directory = first.getDirectory();
+        assertEquals(extraction.resolve("test.nar-" + first.getChecksum()), directory);
+        assertEquals(
+                "v1",
+                Files.readString(directory.resolve("META-INF/bundled-dependencies/file.txt")));
+
+        // the extracted files are reused, and kept after the handler is closed
+        assertEquals(directory, unpack(packages, extraction).getDirectory());
+        assertTrue(Files.isDirectory(directory));
+        try (var files = Files.list(extraction)) {
+            assertEquals(1, files.count());
+        }
+
+        // a new version of the package is extracted to a different directory
+        writeNar(packages.resolve("test.nar"), "v2");
+        NarFileHandler.PackageMetadata second = unpack(packages, extraction);
+        assertNotEquals(first.getChecksum(), second.getChecksum());
+        assertEquals(
+                "v2",
+                Files.readString(
+                        second.getDirectory().resolve("META-INF/bundled-dependencies/file.txt")));
+    }
+}
@@ -19,10 +19,12 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import ai.langstream.api.model.AgentConfiguration;
 import ai.langstream.api.model.Application;
+import ai.langstream.api.model.AutoscalingSpec;
 import ai.langstream.api.model.Module;
 import ai.langstream.api.model.Pipeline;
 import ai.langstream.impl.parser.ModelBuilder;
@@ -134,6 +136,63 @@ public class ResourcesSpecsTest {
         }
     }
 
+    @Test
+    public void testConfigureAutoscaling() throws Exception {
+        Application applicationInstance =
+                ModelBuilder.buildApplicationInstance(
+                                Map.of(
+                                        "module.yaml",
+                                        """
+                                module: "module-1"
+                                id: "pipeline-1"
+                                resources:
+                                   autoscaling:
+                                      max-parallelism: 4
+                                topics:
+                                  - name: "input-topic"
+                                    creation-mode: create-if-not-exists
+                                pipeline:
+                                  - name: "step1"
+                                    type: "noop"
+                                    input: "input-topic"
+                                  - name: "step2"
+                                    type: "noop"
+                                    resources:
+                                       autoscaling:
+                                          min-parallelism: 2
+                                          max-parallelism: 10
+                                          lag-per-replica: 500
+                                          scale-up-cooldown: 30
+                                          scale-down-cooldown: 600
+                                """),
+                                buildInstanceYaml(),
+                                null)
+                        .getApplication();
+
+        Pipeline pipeline =
+                applicationInstance.getModule("module-1").getPipelines().get("pipeline-1");
+
+        AgentConfiguration agent1 = pipeline.getAgents().get(0);
+        AutoscalingSpec autoscaling1 = agent1.getResources().autoscaling();
+        assertEquals(1, autoscaling1.minParallelism());
+        assertEquals(4, autoscaling1.maxParallelism());
+        assertEquals(AutoscalingSpec.DEFAULT_LAG_PER_REPLICA, autoscaling1.lagPerReplica());
+        assertEquals(AutoscalingSpec.DEFAULT_SCALE_UP_COOLDOWN, autoscaling1.scaleUpCooldown());
+        assertEquals(AutoscalingSpec.DEFAULT_SCALE_DOWN_COOLDOWN, autoscaling1.scaleDownCooldown());
+        assertEquals(4, agent1.getResources().maxReplicas());
+
+        AgentConfiguration agent2 = pipeline.getAgents().get(1);
+        assertEquals(
+                new AutoscalingSpec(2, 10, 500L, 30, 600), agent2.getResources().autoscaling());
+        assertEquals(10, agent2.getResources().maxReplicas());
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new AutoscalingSpec(1, null, null, null, null));
+        assertThrows(
+                IllegalArgumentException.class, () -> new AutoscalingSpec(5, 2, null, null, null));
+    }
+
     private static String buildInstanceYaml() {
         return """
                 instance:
@@ -32,7 +32,22 @@ import lombok.ToString;
 @NoArgsConstructor
 public class AgentSpec extends NamespacedSpec {
 
-    public record Resources(int parallelism, int size) {}
+    public record Resources(int parallelism, int size, Autoscaling autoscaling) {
+        public Resources(int parallelism, int size) {
+            this(parallelism, size, null);
+        }
+    }
+
+    /**
+     * The replicas change between minParallelism and maxParallelism following the backlog of the
+     * input topic, the cooldowns are in seconds.
+     */
+    public record Autoscaling(
+            int minParallelism,
+            int maxParallelism,
+            long lagPerReplica,
+            int scaleUpCooldown,
+            int scaleDownCooldown) {}
 
     public record Disk(String agentId, long size, String type) {}
 
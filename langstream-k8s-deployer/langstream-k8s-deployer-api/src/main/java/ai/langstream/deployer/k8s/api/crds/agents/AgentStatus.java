@@ -23,4 +23,8 @@ import lombok.Data;
 public class AgentStatus extends BaseStatus {
     private AgentLifecycleStatus status;
     private String lastConfigApplied;
+    // replicas decided by the autoscaler, null if the autoscaling is not enabled
+    private Integer autoscaledParallelism;
+    // epoch millis of the last scaling operation
+    private Long lastScaledAt;
 }
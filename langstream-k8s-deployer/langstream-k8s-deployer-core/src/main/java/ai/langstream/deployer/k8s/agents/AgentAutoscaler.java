@@ -0,0 +1,225 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.deployer.k8s.agents;
+
+import ai.langstream.api.runner.code.AgentStatusResponse;
+import ai.langstream.deployer.k8s.api.crds.agents.AgentCustomResource;
+import ai.langstream.deployer.k8s.api.crds.agents.AgentSpec;
+import ai.langstream.deployer.k8s.api.crds.agents.AgentStatus;
+import ai.langstream.deployer.k8s.util.KubeUtil;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import java.net.http.HttpClient;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Decides the number of replicas of the agents with autoscaling enabled.
+ *
+ * <p>The backlog of an agent is the lag of the consumers of its input topic plus the records that
+ * have been received and not yet committed. The desired number of replicas is the backlog divided
+ * by the lag per replica, bounded by the min and max parallelism and by the number of partitions of
+ * the topic, since the replicas beyond the partitions would not receive any record. After a scaling
+ * operation the replicas do not change until the cooldown has elapsed, in order to let the
+ * consumers rebalance and the metrics settle. If some replicas did not report their metrics, the
+ * observed backlog is only a lower bound: it can scale the agent up but never down.
+ */
+@Slf4j
+public class AgentAutoscaler {
+
+    /** The backlog reported by a single replica of the agent. */
+    public record WorkerMetrics(
+            long lag, long pendingRecords, int assignedPartitions, int topicPartitions) {}
+
+    /** Source of the metrics of the replicas of an agent. */
+    public interface MetricsSource {
+        /**
+         * @return the metrics of the replicas that could be queried, empty if none is available
+         */
+        List<WorkerMetrics> collect(AgentCustomResource agent) throws Exception;
+    }
+
+    public record Decision(int replicas, String reason) {
+        public boolean changed(int currentReplicas) {
+            return replicas != currentReplicas;
+        }
+    }
+
+    private final MetricsSource metricsSource;
+    private final Clock clock;
+
+    public AgentAutoscaler(MetricsSource metricsSource, Clock clock) {
+        this.metricsSource = metricsSource;
+        this.clock = clock;
+    }
+
+    /**
+     * Evaluate the number of replicas of an agent with autoscaling enabled. If the decision changes
+     * the replicas, the status of the agent is updated with the new replicas and the time of the
+     * operation.
+     */
+    public Decision evaluate(AgentCustomResource agent, int currentReplicas) {
+        final AgentSpec.Autoscaling autoscaling = agent.getSpec().getResources().autoscaling();
+        List<WorkerMetrics> metrics;
+        try {
+            metrics = metricsSource.collect(agent);
+        } catch (Exception e) {
+            log.warn(
+                    "Cannot collect the metrics of agent {}: {}",
+                    agent.getMetadata().getName(),
+                    e + "");
+            metrics = List.of();
+        }
+        final AgentStatus status = agent.getStatus();
+        final Decision decision =
+                computeReplicas(
+                        autoscaling,
+                        currentReplicas,
+                        metrics,
+                        status.getLastScaledAt(),
+                        clock.millis());
+        if (decision.changed(currentReplicas)) {
+            log.info(
+                    "Scaling agent {} from {} to {} replicas: {}",
+                    agent.getMetadata().getName(),
+                    currentReplicas,
+                    decision.replicas(),
+                    decision.reason());
+            status.setAutoscaledParallelism(decision.replicas());
+            status.setLastScaledAt(clock.millis());
+        } else if (status.getAutoscaledParallelism() == null) {
+            status.setAutoscaledParallelism(currentReplicas);
+        }
+        return decision;
+    }
+
+    static Decision computeReplicas(
+            AgentSpec.Autoscaling autoscaling,
+            int currentReplicas,
+            List<WorkerMetrics> metrics,
+            Long lastScaledAt,
+            long now) {
+        final int min = autoscaling.minParallelism();
+        final int max = autoscaling.maxParallelism();
+        if (currentReplicas < min) {
+            return new Decision(min, "below min parallelism");
+        }
+        if (currentReplicas > max) {
+            return new Decision(max, "above max parallelism");
+        }
+        if (metrics.isEmpty()) {
+            return new Decision(currentReplicas, "no metrics available");
+        }
+
+        long backlog = 0;
+        int topicPartitions = 0;
+        for (WorkerMetrics worker : metrics) {
+            backlog += Math.max(0, worker.lag()) + Math.max(0, worker.pendingRecords());
+            topicPartitions = Math.max(topicPartitions, worker.topicPartitions());
+        }
+        long desired = (backlog + autoscaling.lagPerReplica() - 1) / autoscaling.lagPerReplica();
+        desired = Math.min(Math.max(desired, min), max);
+        if (topicPartitions > 0 && desired > topicPartitions) {
+            desired = Math.max(topicPartitions, min);
+        }
+        final int desiredReplicas = (int) desired;
+        if (desiredReplicas == currentReplicas) {
+            return new Decision(currentReplicas, "backlog %d".formatted(backlog));
+        }
+        if (desiredReplicas < currentReplicas && metrics.size() < currentReplicas) {
+            return new Decision(
+                    currentReplicas,
+                    "metrics from %d of %d replicas".formatted(metrics.size(), currentReplicas));
+        }
+
+        final long elapsedSeconds =
+                lastScaledAt == null ? Long.MAX_VALUE : (now - lastScaledAt) / 1000;
+        if (desiredReplicas > currentReplicas) {
+            if (elapsedSeconds < autoscaling.scaleUpCooldown()) {
+                return new Decision(currentReplicas, "scale up cooldown");
+            }
+            return new Decision(desiredReplicas, "backlog %d".formatted(backlog));
+        }
+        if (elapsedSeconds < autoscaling.scaleDownCooldown()) {
+            return new Decision(currentReplicas, "scale down cooldown");
+        }
+        return new Decision(desiredReplicas, "backlog %d".formatted(backlog));
+    }
+
+    /** Reads the metrics from the "/info" endpoint of the pods of the agent. */
+    public static class PodsInfoMetricsSource implements MetricsSource {
+        private final KubernetesClient client;
+        private final HttpClient httpClient = HttpClient.newHttpClient();
+
+        public PodsInfoMetricsSource(KubernetesClient client) {
+            this.client = client;
+        }
+
+        @Override
+        public List<WorkerMetrics> collect(AgentCustomResource agent) {
+            final AgentSpec spec = agent.getSpec();
+            final List<Pod> pods =
+                    client.resources(Pod.class)
+                            .inNamespace(agent.getMetadata().getNamespace())
+                            .withLabels(
+                                    AgentResourcesFactory.getAgentLabels(
+                                            spec.getAgentId(), spec.getApplicationId()))
+                            .list()
+                            .getItems();
+            final List<WorkerMetrics> result = new ArrayList<>();
+            for (Map.Entry<String, KubeUtil.PodStatus> entry :
+                    KubeUtil.getPodsStatuses(pods).entrySet()) {
+                final KubeUtil.PodStatus podStatus = entry.getValue();
+                if (podStatus.getState() != KubeUtil.PodStatus.State.RUNNING) {
+                    continue;
+                }
+                final List<AgentStatusResponse> statuses =
+                        AgentResourcesFactory.queryAgentStatus(podStatus.getUrl(), httpClient);
+                final WorkerMetrics workerMetrics = toWorkerMetrics(statuses);
+                if (workerMetrics != null) {
+                    result.add(workerMetrics);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Extract the metrics of the consumer of the input topic from the info of the agents running in
+     * a pod.
+     */
+    static WorkerMetrics toWorkerMetrics(List<AgentStatusResponse> statuses) {
+        for (AgentStatusResponse status : statuses) {
+            if (status.getInfo() != null
+                    && status.getInfo().get("consumer") instanceof Map<?, ?> consumer
+                    && consumer.get("lag") instanceof Number lag) {
+                return new WorkerMetrics(
+                        lag.longValue(),
+                        getLong(consumer, "pendingRecords"),
+                        (int) getLong(consumer, "assignedPartitions"),
+                        (int) getLong(consumer, "topicPartitions"));
+            }
+        }
+        return null;
+    }
+
+    private static long getLong(Map<?, ?> map, String key) {
+        return map.get(key) instanceof Number number ? number.longValue() : 0;
+    }
+}
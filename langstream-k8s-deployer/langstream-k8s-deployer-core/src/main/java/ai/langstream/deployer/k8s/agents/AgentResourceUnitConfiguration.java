@@ -48,4 +48,10 @@ public class AgentResourceUnitConfiguration {
     private Map<String, String> storageClassesMapping = new HashMap<>();
     private String defaultStorageClass = "default";
     private String defaultStorageDiskSize = "128M";
+
+    // directory on the nodes where the code downloader caches the application code archives, it
+    // is shared by all the agents running on the node, null to disable the cache
+    private String codeCacheHostPath;
+    // MB
+    private long codeCacheMaxSize = 10 * 1024;
 }
@@ -23,6 +23,7 @@ import ai.langstream.deployer.k8s.CRDConstants;
 import ai.langstream.deployer.k8s.PodTemplate;
 import ai.langstream.deployer.k8s.api.crds.agents.AgentCustomResource;
 import ai.langstream.deployer.k8s.api.crds.agents.AgentSpec;
+import ai.langstream.deployer.k8s.api.crds.agents.AgentStatus;
 import ai.langstream.deployer.k8s.util.KubeUtil;
 import ai.langstream.deployer.k8s.util.SerializationUtil;
 import ai.langstream.runtime.api.agent.AgentCodeDownloaderConstants;
@@ -151,12 +152,21 @@ public class AgentResourcesFactory {
         final String downloadCodeVolume = "code-download";
         final String downloadCodePath = "/app-code-download";
 
+        final String codeCacheVolume = "code-cache";
+        final String codeCachePath = "/app-code-cache";
+        final String codeCacheHostPath = agentResourceUnitConfiguration.getCodeCacheHostPath();
+        final boolean codeCacheEnabled = codeCacheHostPath != null && !codeCacheHostPath.isBlank();
+
         final DownloadAgentCodeConfiguration downloadAgentCodeConfiguration =
                 new DownloadAgentCodeConfiguration(
                         downloadCodePath,
                         spec.getTenant(),
                         spec.getApplicationId(),
-                        spec.getCodeArchiveId());
+                        spec.getCodeArchiveId(),
+                        codeCacheEnabled ? codeCachePath : null,
+                        codeCacheEnabled
+                                ? agentResourceUnitConfiguration.getCodeCacheMaxSize() * 1024 * 1024
+                                : 0);
 
         final Container injectConfigForDownloadCodeInitContainer =
                 new ContainerBuilder()
@@ -191,6 +201,31 @@ public class AgentResourcesFactory {
         final AgentSpec.Resources resources = spec.getResources();
         final List<AgentSpec.Disk> disks = spec.getDisks();
 
+        final List<VolumeMount> downloadCodeMounts = new ArrayList<>();
+        downloadCodeMounts.add(
+                new VolumeMountBuilder()
+                        .withName(clusterConfigVolume)
+                        .withMountPath("/cluster-config")
+                        .build());
+        downloadCodeMounts.add(
+                new VolumeMountBuilder()
+                        .withName(downloadConfigVolume)
+                        .withMountPath("/download-config")
+                        .build());
+        downloadCodeMounts.add(
+                new VolumeMountBuilder()
+                        .withName(downloadCodeVolume)
+                        .withMountPath(downloadCodePath)
+                        .build());
+        if (codeCacheEnabled) {
+            // the cache is mounted only in the downloader, the agent code cannot access it
+            downloadCodeMounts.add(
+                    new VolumeMountBuilder()
+                            .withName(codeCacheVolume)
+                            .withMountPath(codeCachePath)
+                            .build());
+        }
+
         final Container downloadCodeInitContainer =
                 new ContainerBuilder()
                         .withName("code-download")
@@ -211,20 +246,7 @@ public class AgentResourcesFactory {
                                         .withValue(
                                                 "/var/run/secrets/kubernetes.io/serviceaccount/token")
                                         .build())
-                        .withVolumeMounts(
-                                List.of(
-                                        new VolumeMountBuilder()
-                                                .withName(clusterConfigVolume)
-                                                .withMountPath("/cluster-config")
-                                                .build(),
-                                        new VolumeMountBuilder()
-                                                .withName(downloadConfigVolume)
-                                                .withMountPath("/download-config")
-                                                .build(),
-                                        new VolumeMountBuilder()
-                                                .withName(downloadCodeVolume)
-                                                .withMountPath(downloadCodePath)
-                                                .build()))
+                        .withVolumeMounts(downloadCodeMounts)
                         .withTerminationMessagePolicy("FallbackToLogsOnError")
                         .build();
 
@@ -290,7 +312,11 @@ public class AgentResourcesFactory {
                 .endMetadata()
                 .withNewSpec()
                 .withServiceName(name)
-                .withReplicas(computeReplicas(agentResourceUnitConfiguration, resources))
+                .withReplicas(
+                        computeReplicas(
+                                agentResourceUnitConfiguration,
+                                resources,
+                                agentCustomResource.getStatus()))
                 .withNewSelector()
                 .withMatchLabels(labels)
                 .endSelector()
@@ -344,6 +370,17 @@ public class AgentResourcesFactory {
                                 .withNewEmptyDir()
                                 .endEmptyDir()
                                 .build())
+                .addAllToVolumes(
+                        codeCacheEnabled
+                                ? List.of(
+                                        new VolumeBuilder()
+                                                .withName(codeCacheVolume)
+                                                .withNewHostPath()
+                                                .withPath(codeCacheHostPath)
+                                                .withType("DirectoryOrCreate")
+                                                .endHostPath()
+                                                .build())
+                                : List.of())
                 .withServiceAccountName(
                         CRDConstants.computeRuntimeServiceAccountForTenant(spec.getTenant()))
                 .endSpec()
@@ -516,7 +553,27 @@ public class AgentResourcesFactory {
 
     private static int computeReplicas(
             AgentResourceUnitConfiguration agentResourceUnitConfiguration,
-            AgentSpec.Resources resources) {
+            AgentSpec.Resources resources,
+            AgentStatus status) {
+        final AgentSpec.Autoscaling autoscaling =
+                resources == null ? null : resources.autoscaling();
+        if (autoscaling != null) {
+            if (autoscaling.maxParallelism()
+                    > agentResourceUnitConfiguration.getMaxInstanceUnits()) {
+                throw new IllegalArgumentException(
+                        "Requested max %d instances, max is %d"
+                                .formatted(
+                                        autoscaling.maxParallelism(),
+                                        agentResourceUnitConfiguration.getMaxInstanceUnits()));
+            }
+            // start from the parallelism and then keep the replicas decided by the autoscaler
+            int replicas =
+                    status != null && status.getAutoscaledParallelism() != null
+                            ? status.getAutoscaledParallelism()
+                            : resources.parallelism();
+            return Math.min(
+                    Math.max(replicas, autoscaling.minParallelism()), autoscaling.maxParallelism());
+        }
         Integer requestedParallelism = resources == null ? null : resources.parallelism();
         if (requestedParallelism == null) {
             requestedParallelism = agentResourceUnitConfiguration.getDefaultInstanceUnits();
@@ -539,7 +596,12 @@ public class AgentResourcesFactory {
             memCpuUnits = agentResourceUnitConfiguration.getDefaultCpuMemUnits();
         }
 
-        Integer instances = resources == null ? null : resources.parallelism();
+        Integer instances =
+                resources == null
+                        ? null
+                        : resources.autoscaling() != null
+                                ? resources.autoscaling().maxParallelism()
+                                : resources.parallelism();
         if (instances == null) {
             instances = agentResourceUnitConfiguration.getDefaultInstanceUnits();
         }
@@ -763,7 +825,7 @@ public class AgentResourcesFactory {
         }
     }
 
-    private static List<AgentStatusResponse> queryAgentStatus(String url, HttpClient httpClient) {
+    static List<AgentStatusResponse> queryAgentStatus(String url, HttpClient httpClient) {
         try {
             String body =
                     httpClient
@@ -175,7 +175,7 @@ public class ApplicationResourceLimitsChecker {
                         agent.getResources());
                 return -1;
             }
-            totalUnits += agent.getResources().parallelism() * agent.getResources().size();
+            totalUnits += agent.getResources().maxReplicas() * agent.getResources().size();
         }
         return totalUnits;
     }
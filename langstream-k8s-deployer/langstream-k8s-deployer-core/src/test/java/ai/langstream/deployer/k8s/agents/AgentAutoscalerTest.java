@@ -0,0 +1,201 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.deployer.k8s.agents;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import ai.langstream.api.runner.code.AgentStatusResponse;
+import ai.langstream.deployer.k8s.api.crds.agents.AgentCustomResource;
+import ai.langstream.deployer.k8s.util.SerializationUtil;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class AgentAutoscalerTest {
+
+    private static final long NOW = 1_000_000_000L;
+
+    private static class FakeMetricsSource implements AgentAutoscaler.MetricsSource {
+        List<AgentAutoscaler.WorkerMetrics> metrics = new ArrayList<>();
+
+        @Override
+        public List<AgentAutoscaler.WorkerMetrics> collect(AgentCustomResource agent) {
+            return metrics;
+        }
+
+        void set(int workers, long lagPerWorker, int topicPartitions) {
+            metrics = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                metrics.add(
+                        new AgentAutoscaler.WorkerMetrics(
+                                lagPerWorker, 0, topicPartitions / workers, topicPartitions));
+            }
+        }
+    }
+
+    @Test
+    void testScaleUpAndDown() {
+        final FakeMetricsSource metricsSource = new FakeMetricsSource();
+        final AgentCustomResource agent = getCr(1, 8, 60, 300);
+        // no scaling operation yet, no cooldown
+        metricsSource.set(1, 3500, 16);
+        AgentAutoscaler.Decision decision = autoscaler(metricsSource, NOW).evaluate(agent, 1);
+        assertEquals(4, decision.replicas());
+        assertEquals(4, agent.getStatus().getAutoscaledParallelism());
+        assertEquals(NOW, agent.getStatus().getLastScaledAt());
+
+        // within the scale up cooldown
+        metricsSource.set(4, 2000, 16);
+        decision = autoscaler(metricsSource, NOW + 30_000).evaluate(agent, 4);
+        assertEquals(4, decision.replicas());
+        assertEquals("scale up cooldown", decision.reason());
+
+        decision = autoscaler(metricsSource, NOW + 60_000).evaluate(agent, 4);
+        assertEquals(8, decision.replicas());
+        assertEquals(NOW + 60_000, agent.getStatus().getLastScaledAt());
+
+        // the backlog is gone but the scale down cooldown is longer
+        metricsSource.set(8, 0, 16);
+        decision = autoscaler(metricsSource, NOW + 200_000).evaluate(agent, 8);
+        assertEquals(8, decision.replicas());
+        assertEquals("scale down cooldown", decision.reason());
+
+        decision = autoscaler(metricsSource, NOW + 360_000).evaluate(agent, 8);
+        assertEquals(1, decision.replicas());
+        assertEquals(1, agent.getStatus().getAutoscaledParallelism());
+    }
+
+    @Test
+    void testBounds() {
+        final FakeMetricsSource metricsSource = new FakeMetricsSource();
+        final AgentCustomResource agent = getCr(2, 6, 0, 0);
+
+        metricsSource.set(2, 1_000_000, 100);
+        assertEquals(6, autoscaler(metricsSource, NOW).evaluate(agent, 2).replicas());
+
+        metricsSource.set(6, 0, 100);
+        assertEquals(2, autoscaler(metricsSource, NOW).evaluate(agent, 6).replicas());
+
+        // the current replicas are out of range, e.g. after the spec has been changed
+        assertEquals(2, autoscaler(metricsSource, NOW).evaluate(agent, 1).replicas());
+        assertEquals(6, autoscaler(metricsSource, NOW).evaluate(agent, 9).replicas());
+    }
+
+    @Test
+    void testPartitionsCap() {
+        final FakeMetricsSource metricsSource = new FakeMetricsSource();
+        // more replicas than partitions would stay idle
+        metricsSource.set(1, 100_000, 3);
+        assertEquals(3, autoscaler(metricsSource, NOW).evaluate(getCr(1, 10, 0, 0), 1).replicas());
+
+        // but the min parallelism is always honored
+        assertEquals(4, autoscaler(metricsSource, NOW).evaluate(getCr(4, 10, 0, 0), 4).replicas());
+    }
+
+    @Test
+    void testMissingMetrics() {
+        final FakeMetricsSource metricsSource = new FakeMetricsSource();
+        final AgentCustomResource agent = getCr(1, 10, 0, 0);
+
+        // the replicas that did not report may have a backlog
+        metricsSource.set(2, 0, 16);
+        AgentAutoscaler.Decision decision = autoscaler(metricsSource, NOW).evaluate(agent, 4);
+        assertEquals(4, decision.replicas());
+        assertEquals("metrics from 2 of 4 replicas", decision.reason());
+
+        // the observed backlog is enough to scale up
+        metricsSource.set(2, 3000, 16);
+        decision = autoscaler(metricsSource, NOW).evaluate(agent, 4);
+        assertEquals(6, decision.replicas());
+    }
+
+    @Test
+    void testNoMetrics() {
+        final AgentCustomResource agent = getCr(1, 10, 0, 0);
+        final AgentAutoscaler.MetricsSource failing =
+                a -> {
+                    throw new IllegalStateException("pods not reachable");
+                };
+        final AgentAutoscaler.Decision decision =
+                new AgentAutoscaler(failing, Clock.systemUTC()).evaluate(agent, 3);
+        assertEquals(3, decision.replicas());
+        assertEquals("no metrics available", decision.reason());
+        assertEquals(3, agent.getStatus().getAutoscaledParallelism());
+        assertNull(agent.getStatus().getLastScaledAt());
+    }
+
+    @Test
+    void testWorkerMetricsFromInfo() {
+        final AgentStatusResponse source =
+                new AgentStatusResponse(
+                        "source",
+                        "topic-source",
+                        "SOURCE",
+                        Map.of(
+                                "consumer",
+                                Map.of(
+                                        "lag",
+                                        120,
+                                        "pendingRecords",
+                                        5,
+                                        "assignedPartitions",
+                                        2,
+                                        "topicPartitions",
+                                        4)),
+                        null);
+        final AgentStatusResponse processor =
+                new AgentStatusResponse("step1", "compute", "PROCESSOR", Map.of(), null);
+        assertEquals(
+                new AgentAutoscaler.WorkerMetrics(120, 5, 2, 4),
+                AgentAutoscaler.toWorkerMetrics(List.of(processor, source)));
+        assertNull(AgentAutoscaler.toWorkerMetrics(List.of(processor)));
+    }
+
+    private static AgentAutoscaler autoscaler(AgentAutoscaler.MetricsSource source, long now) {
+        return new AgentAutoscaler(source, Clock.fixed(Instant.ofEpochMilli(now), ZoneOffset.UTC));
+    }
+
+    private static AgentCustomResource getCr(
+            int min, int max, int scaleUpCooldown, int scaleDownCooldown) {
+        return SerializationUtil.readYaml(
+                """
+                apiVersion: langstream.ai/v1alpha1
+                kind: Agent
+                metadata:
+                  name: test-agent1
+                  namespace: default
+                spec:
+                    tenant: my-tenant
+                    applicationId: the-app
+                    agentId: my-agent
+                    resources:
+                        parallelism: %d
+                        size: 1
+                        autoscaling:
+                            minParallelism: %d
+                            maxParallelism: %d
+                            lagPerReplica: 1000
+                            scaleUpCooldown: %d
+                            scaleDownCooldown: %d
+                """
+                        .formatted(min, min, max, scaleUpCooldown, scaleDownCooldown),
+                AgentCustomResource.class);
+    }
+}
@@ -269,6 +269,49 @@ class AgentResourcesFactoryTest {
         assertEquals(Quantity.parse("2048M"), container.getResources().getRequests().get("memory"));
     }
 
+    @Test
+    void testAutoscalingReplicas() {
+        final AgentCustomResource resource =
+                getCr(
+                        """
+                apiVersion: langstream.ai/v1alpha1
+                kind: Agent
+                metadata:
+                  name: test-agent1
+                  namespace: default
+                spec:
+                    image: busybox
+                    imagePullPolicy: Never
+                    agentConfigSecretRef: agent-config
+                    agentConfigSecretRefChecksum: xx
+                    tenant: my-tenant
+                    applicationId: the-app
+                    agentId: my-agent
+                    resources:
+                        parallelism: 1
+                        size: 1
+                        autoscaling:
+                            minParallelism: 2
+                            maxParallelism: 5
+                            lagPerReplica: 1000
+                            scaleUpCooldown: 60
+                            scaleDownCooldown: 300
+                """);
+        final AgentResourcesFactory.GenerateStatefulsetParams params =
+                AgentResourcesFactory.GenerateStatefulsetParams.builder()
+                        .agentCustomResource(resource)
+                        .build();
+        // the parallelism is below the min
+        assertEquals(2, AgentResourcesFactory.generateStatefulSet(params).getSpec().getReplicas());
+
+        // the replicas decided by the autoscaler are kept when the statefulset is regenerated
+        resource.getStatus().setAutoscaledParallelism(4);
+        assertEquals(4, AgentResourcesFactory.generateStatefulSet(params).getSpec().getReplicas());
+
+        resource.getStatus().setAutoscaledParallelism(10);
+        assertEquals(5, AgentResourcesFactory.generateStatefulSet(params).getSpec().getReplicas());
+    }
+
     @Test
     void testPodTemplate() {
         final AgentCustomResource resource =
@@ -457,6 +500,66 @@ class AgentResourcesFactoryTest {
                 Quantity.parse("1G"), pvc.getSpec().getResources().getRequests().get("storage"));
     }
 
+    @Test
+    void testCodeCache() {
+        final AgentCustomResource resource =
+                getCr(
+                        """
+                apiVersion: langstream.ai/v1alpha1
+                kind: Agent
+                metadata:
+                  name: test-agent1
+                  namespace: default
+                spec:
+                    image: busybox
+                    imagePullPolicy: Never
+                    agentConfigSecretRef: agent-config
+                    agentConfigSecretRefChecksum: xx
+                    tenant: my-tenant
+                    applicationId: the-app
+                    agentId: my-agent
+                    codeArchiveId: the-archive
+                """);
+
+        final AgentResourceUnitConfiguration config = new AgentResourceUnitConfiguration();
+        config.setCodeCacheHostPath("/var/cache/langstream");
+        config.setCodeCacheMaxSize(100);
+        final StatefulSet statefulSet =
+                AgentResourcesFactory.generateStatefulSet(
+                        AgentResourcesFactory.GenerateStatefulsetParams.builder()
+                                .agentCustomResource(resource)
+                                .agentResourceUnitConfiguration(config)
+                                .build());
+        final var podSpec = statefulSet.getSpec().getTemplate().getSpec();
+        final var volume =
+                podSpec.getVolumes().stream()
+                        .filter(v -> v.getName().equals("code-cache"))
+                        .findFirst()
+                        .orElseThrow();
+        assertEquals("/var/cache/langstream", volume.getHostPath().getPath());
+        assertEquals("DirectoryOrCreate", volume.getHostPath().getType());
+
+        assertTrue(
+                podSpec.getInitContainers()
+                        .get(0)
+                        .getArgs()
+                        .get(0)
+                        .contains(
+                                "\"codeCachePath\":\"/app-code-cache\",\"codeCacheMaxSize\":104857600"));
+        final List<VolumeMount> downloaderMounts =
+                podSpec.getInitContainers().get(1).getVolumeMounts();
+        assertTrue(
+                downloaderMounts.stream()
+                        .anyMatch(
+                                m ->
+                                        m.getName().equals("code-cache")
+                                                && m.getMountPath().equals("/app-code-cache")));
+        // the agent code cannot access the cache
+        assertTrue(
+                podSpec.getContainers().get(0).getVolumeMounts().stream()
+                        .noneMatch(m -> m.getName().equals("code-cache")));
+    }
+
     @Test
     void testProbes() {
         final AgentCustomResource resource =
@@ -18,6 +18,7 @@ package ai.langstream.deployer.k8s.controllers.agents;
 import ai.langstream.api.model.AgentLifecycleStatus;
 import ai.langstream.deployer.k8s.PodTemplate;
 import ai.langstream.deployer.k8s.ResolvedDeployerConfiguration;
+import ai.langstream.deployer.k8s.agents.AgentAutoscaler;
 import ai.langstream.deployer.k8s.agents.AgentResourceUnitConfiguration;
 import ai.langstream.deployer.k8s.agents.AgentResourcesFactory;
 import ai.langstream.deployer.k8s.api.crds.agents.AgentCustomResource;
@@ -40,6 +41,7 @@ import io.javaoperatorsdk.operator.api.reconciler.UpdateControl;
 import io.javaoperatorsdk.operator.api.reconciler.dependent.Dependent;
 import io.javaoperatorsdk.operator.processing.dependent.kubernetes.CRUDKubernetesDependentResource;
 import jakarta.inject.Inject;
+import java.time.Clock;
 import java.util.concurrent.TimeUnit;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -58,6 +60,10 @@ import lombok.extern.jbosslog.JBossLog;
 public class AgentController extends BaseController<AgentCustomResource>
         implements ErrorStatusHandler<AgentCustomResource> {
 
+    private static final long AUTOSCALING_INTERVAL_SECONDS = 30;
+
+    private AgentAutoscaler autoscaler;
+
     @Override
     public ErrorStatusUpdateControl<AgentCustomResource> updateErrorStatus(
             AgentCustomResource agentCustomResource,
@@ -82,6 +88,13 @@ public class AgentController extends BaseController<AgentCustomResource>
         setLastAppliedConfig(agent);
         if (KubeUtil.isStatefulSetReady(current)) {
             agent.getStatus().setStatus(AgentLifecycleStatus.DEPLOYED);
+            if (agent.getSpec().getResources() != null
+                    && agent.getSpec().getResources().autoscaling() != null) {
+                autoscale(agent, current);
+                return PatchResult.patch(
+                        UpdateControl.updateStatus(agent)
+                                .rescheduleAfter(AUTOSCALING_INTERVAL_SECONDS, TimeUnit.SECONDS));
+            }
             return PatchResult.patch(UpdateControl.updateStatus(agent));
         } else {
             agent.getStatus().setStatus(AgentLifecycleStatus.DEPLOYING);
@@ -90,6 +103,23 @@ public class AgentController extends BaseController<AgentCustomResource>
         }
     }
 
+    private void autoscale(AgentCustomResource agent, StatefulSet current) {
+        if (autoscaler == null) {
+            autoscaler =
+                    new AgentAutoscaler(
+                            new AgentAutoscaler.PodsInfoMetricsSource(client), Clock.systemUTC());
+        }
+        final int currentReplicas = current.getSpec().getReplicas();
+        final AgentAutoscaler.Decision decision = autoscaler.evaluate(agent, currentReplicas);
+        if (decision.changed(currentReplicas)) {
+            client.apps()
+                    .statefulSets()
+                    .inNamespace(current.getMetadata().getNamespace())
+                    .withName(current.getMetadata().getName())
+                    .scale(decision.replicas());
+        }
+    }
+
     private void setLastAppliedConfig(AgentCustomResource agent) {
         if (agent.getStatus().getLastConfigApplied() != null) {
             return;
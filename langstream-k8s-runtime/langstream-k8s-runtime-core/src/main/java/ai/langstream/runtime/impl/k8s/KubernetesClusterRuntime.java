@@ -15,6 +15,7 @@
  */
 package ai.langstream.runtime.impl.k8s;
 
+import ai.langstream.api.model.AutoscalingSpec;
 import ai.langstream.api.model.DiskSpec;
 import ai.langstream.api.model.ErrorsSpec;
 import ai.langstream.api.model.ResourcesSpec;
@@ -338,8 +339,19 @@ public class KubernetesClusterRuntime extends BasicClusterRuntime {
             disks = List.of();
         }
 
+        AutoscalingSpec autoscalingSpec = resourcesSpec.autoscaling();
         agentSpec.setResources(
-                new AgentSpec.Resources(resourcesSpec.parallelism(), resourcesSpec.size()));
+                new AgentSpec.Resources(
+                        resourcesSpec.parallelism(),
+                        resourcesSpec.size(),
+                        autoscalingSpec == null
+                                ? null
+                                : new AgentSpec.Autoscaling(
+                                        autoscalingSpec.minParallelism(),
+                                        autoscalingSpec.maxParallelism(),
+                                        autoscalingSpec.lagPerReplica(),
+                                        autoscalingSpec.scaleUpCooldown(),
+                                        autoscalingSpec.scaleDownCooldown())));
         agentSpec.serializeAndSetOptions(new AgentSpec.Options(disks));
         agentSpec.setAgentConfigSecretRef(secretName);
         agentSpec.setCodeArchiveId(codeStorageArchiveId);
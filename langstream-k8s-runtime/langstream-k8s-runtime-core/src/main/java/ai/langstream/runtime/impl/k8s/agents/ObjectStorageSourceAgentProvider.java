@@ -126,6 +126,49 @@ public class ObjectStorageSourceAgentProvider extends AbstractComposableAgentPro
                                 """)
         @JsonProperty("file-extensions")
         private String fileExtensions = DEFAULT_FILE_EXTENSIONS;
+
+        @ConfigProperty(
+                description =
+                        """
+                        Only read the files with names starting with this prefix.
+                        """)
+        private String prefix;
+
+        @ConfigProperty(
+                defaultValue = "1",
+                description =
+                        """
+                        Maximum number of records returned by a single read. The records after the first one are returned only if they are already downloaded.
+                        """)
+        @JsonProperty("max-records-per-read")
+        private int maxRecordsPerRead;
+
+        @ConfigProperty(
+                defaultValue = "10",
+                description =
+                        """
+                        Maximum number of files downloaded ahead of time.
+                        """)
+        @JsonProperty("prefetch-objects")
+        private int prefetchObjects;
+
+        @ConfigProperty(
+                defaultValue = "4",
+                description =
+                        """
+                        Number of files downloaded in parallel.
+                        """)
+        @JsonProperty("prefetch-threads")
+        private int prefetchThreads;
+
+        @ConfigProperty(
+                defaultValue = "10485760",
+                description =
+                        """
+                        Files bigger than this number of bytes are downloaded to a temporary file instead of being kept in memory while they wait to be read. The content is still loaded in memory when the record is read, and it is kept until the record is committed.
+                        """)
+        @JsonProperty("max-in-memory-object-size")
+        private long maxInMemoryObjectSize;
     }
 
     @AgentConfig(
@@ -205,5 +248,48 @@ public class ObjectStorageSourceAgentProvider extends AbstractComposableAgentPro
                                 """)
         @JsonProperty("file-extensions")
         private String fileExtensions;
+
+        @ConfigProperty(
+                description =
+                        """
+                        Only read the blobs with names starting with this prefix.
+                        """)
+        private String prefix;
+
+        @ConfigProperty(
+                defaultValue = "1",
+                description =
+                        """
+                        Maximum number of records returned by a single read. The records after the first one are returned only if they are already downloaded.
+                        """)
+        @JsonProperty("max-records-per-read")
+        private int maxRecordsPerRead;
+
+        @ConfigProperty(
+                defaultValue = "10",
+                description =
+                        """
+                        Maximum number of blobs downloaded ahead of time.
+                        """)
+        @JsonProperty("prefetch-objects")
+        private int prefetchObjects;
+
+        @ConfigProperty(
+                defaultValue = "4",
+                description =
+                        """
+                        Number of blobs downloaded in parallel.
+                        """)
+        @JsonProperty("prefetch-threads")
+        private int prefetchThreads;
+
+        @ConfigProperty(
+                defaultValue = "10485760",
+                description =
+                        """
+                        Blobs bigger than this number of bytes are downloaded to a temporary file instead of being kept in memory while they wait to be read. The content is still loaded in memory when the record is read, and it is kept until the record is committed.
+                        """)
+        @JsonProperty("max-in-memory-object-size")
+        private long maxInMemoryObjectSize;
     }
 }
@@ -27,6 +27,7 @@ import ai.langstream.api.runtime.ExecutionPlan;
 import ai.langstream.api.runtime.PluginsRegistry;
 import ai.langstream.impl.agents.AbstractComposableAgentProvider;
 import ai.langstream.runtime.impl.k8s.KubernetesClusterRuntime;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -149,7 +150,17 @@ public class PythonCodeAgentProvider extends AbstractComposableAgentProvider {
                     Run a your own Python sink.
                     All the configuration properties are available in the class init method.
                     """)
-    public static class PythonSinkConfig extends PythonConfig {}
+    public static class PythonSinkConfig extends PythonConfig {
+        @ConfigProperty(
+                description =
+                        """
+                        Maximum number of records sent to the Python sink in a single request.
+                        The records written while a request is in flight are sent together in the next one.
+                        """,
+                defaultValue = "100")
+        @JsonProperty("grpc-batch-size")
+        private int grpcBatchSize;
+    }
 
     @AgentConfig(
             name = "Python custom processor",
@@ -168,5 +179,15 @@ public class PythonCodeAgentProvider extends AbstractComposableAgentProvider {
                                         """,
                 required = true)
         private String className;
+
+        @ConfigProperty(
+                description =
+                        """
+                        Transport between the runtime and the Python process: "uds" for a Unix domain socket,
+                        "tcp" for a local TCP port or "auto" to use a Unix domain socket when available.
+                        """,
+                defaultValue = "auto")
+        @JsonProperty("grpc-transport")
+        private String grpcTransport;
     }
 }
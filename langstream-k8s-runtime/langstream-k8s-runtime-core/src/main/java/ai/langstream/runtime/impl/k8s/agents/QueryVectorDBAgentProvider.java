@@ -37,6 +37,7 @@ import ai.langstream.runtime.impl.k8s.agents.vectors.MilvusVectorDatabaseWriterC
 import ai.langstream.runtime.impl.k8s.agents.vectors.OpenSearchVectorDatabaseWriterConfig;
 import ai.langstream.runtime.impl.k8s.agents.vectors.PineconeVectorDatabaseWriterConfig;
 import ai.langstream.runtime.impl.k8s.agents.vectors.SolrVectorDatabaseWriterConfig;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -64,6 +65,17 @@ public class QueryVectorDBAgentProvider extends AbstractComposableAgentProvider
                 required = true)
         String datasource;
 
+        @ConfigProperty(
+                description =
+                        "Number of records written together. Hitting the batch size will trigger a flush.",
+                defaultValue = "10")
+        @JsonProperty("batch-size")
+        int batchSize;
+
+        @ConfigProperty(description = "Flush interval in milliseconds", defaultValue = "1000")
+        @JsonProperty("flush-interval")
+        int flushInterval;
+
         public abstract Class getAgentConfigModelClass();
 
         public abstract boolean isAgentConfigModelAllowUnknownProperties();
@@ -65,6 +65,25 @@ public class TextProcessingAgentsProvider extends AbstractComposableAgentProvide
         };
     }
 
+    public static class WorkersConfig {
+        @ConfigProperty(
+                description =
+                        """
+                        Number of threads that process the records in parallel. With 1 the records are processed one at the time.
+                                """,
+                defaultValue = "1")
+        private int workers = 1;
+
+        @ConfigProperty(
+                description =
+                        """
+                        Order of the results when there are more workers: 'key' processes the records with the same key in the order they were received, 'none' emits the results as soon as they are ready.
+                                """,
+                defaultValue = "key")
+        @JsonProperty("workers-ordering")
+        private String workersOrdering = "key";
+    }
+
     @AgentConfig(
             name = "Text extractor",
             description =
@@ -72,7 +91,25 @@ public class TextProcessingAgentsProvider extends AbstractComposableAgentProvide
             Extracts text content from different document formats like PDF, JSON, XML, ODF, HTML and many others.
             """)
     @Data
-    public static class TextExtractorConfig {}
+    public static class TextExtractorConfig extends WorkersConfig {
+        @ConfigProperty(
+                description =
+                        """
+                        Maximum number of characters of an output record. When set, the text is split while it is extracted and a record is emitted for each segment, the segments are cut preferably at the end of a page. 0 to emit the whole text as a single record.
+                                """,
+                defaultValue = "0")
+        @JsonProperty("max-segment-size")
+        private int maxSegmentSize;
+
+        @ConfigProperty(
+                description =
+                        """
+                        Maximum number of characters extracted from a document, the rest of the text is discarded. 0 for no limit.
+                                """,
+                defaultValue = "0")
+        @JsonProperty("max-characters")
+        private long maxCharacters;
+    }
 
     @AgentConfig(
             name = "Language detector",
@@ -81,7 +118,7 @@ public class TextProcessingAgentsProvider extends AbstractComposableAgentProvide
             Detect the language of a message’s data and limit further processing based on language codes.
             """)
     @Data
-    public static class LanguageDetectorConfig {
+    public static class LanguageDetectorConfig extends WorkersConfig {
         @ConfigProperty(
                 description =
                         """
@@ -104,7 +141,7 @@ public class TextProcessingAgentsProvider extends AbstractComposableAgentProvide
             Split message content in chunks.
             """)
     @Data
-    public static class TextSplitterConfig {
+    public static class TextSplitterConfig extends WorkersConfig {
         @ConfigProperty(
                 description =
                         """
@@ -165,7 +202,7 @@ public class TextProcessingAgentsProvider extends AbstractComposableAgentProvide
             Apply normalisation to the text.
             """)
     @Data
-    public static class TextNormaliserConfig {
+    public static class TextNormaliserConfig extends WorkersConfig {
         @ConfigProperty(
                 description =
                         """
@@ -192,7 +229,7 @@ public class TextProcessingAgentsProvider extends AbstractComposableAgentProvide
             Convert raw text document to JSON. The result will be a JSON object with the text content in the specified field.
             """)
     @Data
-    public static class DocumentToJsonConfig {
+    public static class DocumentToJsonConfig extends WorkersConfig {
         @ConfigProperty(
                 description =
                         """
@@ -119,15 +119,4 @@ public class OpenSearchVectorDatabaseWriterConfig
     @ConfigProperty(description = "OpenSearch bulk URL parameters.")
     @JsonProperty("bulk-parameters")
     BulkParameters bulkParameters;
-
-    @ConfigProperty(description = "Flush interval in milliseconds", defaultValue = "1000")
-    @JsonProperty("flush-interval")
-    int flushInterval;
-
-    @ConfigProperty(
-            description =
-                    "Batch size for bulk operations. Hitting the batch size will trigger a flush.",
-            defaultValue = "10")
-    @JsonProperty("batch-size")
-    int batchSize;
 }
@@ -115,6 +115,7 @@ class CompositeAgentTest {
             List<Map<String, Object>> agents =
                     (List<Map<String, Object>>) configuration.get("processors");
             assertEquals(2, agents.size());
+            assertNull(configuration.get("batch-processing"));
             assertEquals("text-extractor", agents.get(0).get("agentType"));
             assertEquals("language-detector", agents.get(1).get("agentType"));
             assertEquals(
@@ -128,6 +129,59 @@ class CompositeAgentTest {
         }
     }
 
+    @Test
+    public void testBatchProcessingIsCarriedToTheCompositeAgent() throws Exception {
+        Application applicationInstance =
+                ModelBuilder.buildApplicationInstance(
+                                Map.of(
+                                        "module.yaml",
+                                        """
+                                module: "module-1"
+                                id: "pipeline-1"
+                                batch-processing: true
+                                topics:
+                                  - name: "input-topic"
+                                    creation-mode: create-if-not-exists
+                                  - name: "output-topic"
+                                    creation-mode: create-if-not-exists
+                                pipeline:
+                                  - name: "text-extractor"
+                                    id: "step1"
+                                    type: "text-extractor"
+                                    input: "input-topic"
+                                  - name: "language-detector"
+                                    id: "step2"
+                                    type: "language-detector"
+                                  - name: "language-detector-2"
+                                    id: "step3"
+                                    type: "language-detector"
+                                    output: "output-topic"
+                                """),
+                                buildInstanceYaml(),
+                                null)
+                        .getApplication();
+
+        try (ApplicationDeployer deployer =
+                ApplicationDeployer.builder()
+                        .registry(new ClusterRuntimeRegistry())
+                        .pluginsRegistry(new PluginsRegistry())
+                        .build()) {
+
+            ExecutionPlan implementation =
+                    deployer.createImplementation("app", applicationInstance);
+
+            Module module = applicationInstance.getModule("module-1");
+            assertEquals(1, implementation.getAgents().size());
+            DefaultAgentNode agentImplementation =
+                    (DefaultAgentNode) implementation.getAgentImplementation(module, "step1");
+            assertEquals(
+                    AbstractCompositeAgentProvider.AGENT_TYPE, agentImplementation.getAgentType());
+            Map<String, Object> configuration = agentImplementation.getConfiguration();
+            assertEquals(3, ((List<?>) configuration.get("processors")).size());
+            assertEquals(true, configuration.get("batch-processing"));
+        }
+    }
+
     @Test
     public void testMerge3TextProcessorAgents() throws Exception {
         Application applicationInstance =
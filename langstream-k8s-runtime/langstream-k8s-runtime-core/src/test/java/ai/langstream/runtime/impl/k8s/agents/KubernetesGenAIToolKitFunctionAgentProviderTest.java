@@ -489,6 +489,24 @@ class KubernetesGenAIToolKitFunctionAgentProviderTest {
                                   "type" : "integer",
                                   "defaultValue" : "10"
                                 },
+                                "cache-max-bytes" : {
+                                  "description" : "Maximum size in bytes of the in-memory cache of the embeddings, keyed by AI service, model and text.\\nOnly the texts not found in the cache are sent to the AI Service. The cache is disabled by default.",
+                                  "required" : false,
+                                  "type" : "integer",
+                                  "defaultValue" : "0"
+                                },
+                                "cache-on-disk" : {
+                                  "description" : "Store the cached embeddings on the persistent disk of the agent, in order to reuse them after a restart.\\nThis requires a persistent disk to be configured for the agent. The least recently used entries are deleted\\nwhen the files exceed cache-on-disk-max-bytes.",
+                                  "required" : false,
+                                  "type" : "boolean",
+                                  "defaultValue" : "false"
+                                },
+                                "cache-on-disk-max-bytes" : {
+                                  "description" : "Maximum size in bytes of the embeddings stored on disk, the least recently used entries are deleted above this size.",
+                                  "required" : false,
+                                  "type" : "integer",
+                                  "defaultValue" : "1073741824"
+                                },
                                 "composable" : {
                                   "description" : "Whether this step can be composed with other steps.",
                                   "required" : false,
@@ -682,6 +700,12 @@ class KubernetesGenAIToolKitFunctionAgentProviderTest {
                                   "type" : "string",
                                   "extendedValidationType" : "EL_EXPRESSION"
                                 },
+                                "loop-over-concurrency" : {
+                                  "description" : "Maximum number of queries executed concurrently when loop-over is used.\\nThe results are stored in the same order of the items.",
+                                  "required" : false,
+                                  "type" : "integer",
+                                  "defaultValue" : "10"
+                                },
                                 "mode" : {
                                   "description" : "Execution mode: query or execute. In query mode, the query is executed and the results are returned. In execute mode, the query is executed and the result is the number of rows affected (depending on the database).",
                                   "required" : false,
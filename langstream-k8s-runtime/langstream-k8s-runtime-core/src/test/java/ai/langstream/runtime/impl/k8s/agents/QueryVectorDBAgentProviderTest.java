@@ -165,6 +165,12 @@ class QueryVectorDBAgentProviderTest {
                                 "type" : "string",
                                 "extendedValidationType" : "EL_EXPRESSION"
                               },
+                              "loop-over-concurrency" : {
+                                "description" : "Maximum number of queries executed concurrently when loop-over is used.\\nThe results are stored in the same order of the items.",
+                                "required" : false,
+                                "type" : "integer",
+                                "defaultValue" : "10"
+                              },
                               "mode" : {
                                 "description" : "Execution mode: query or execute. In query mode, the query is executed and the results are returned. In execute mode, the query is executed and the result is the number of rows affected (depending on the database).",
                                 "required" : false,
@@ -199,11 +205,23 @@ class QueryVectorDBAgentProviderTest {
                             "name" : "Astra",
                             "description" : "Writes data to DataStax Astra service.\\nAll the options from DataStax Kafka Sink are supported: https://docs.datastax.com/en/kafka/doc/kafka/kafkaConfigTasksTOC.html",
                             "properties" : {
+                              "batch-size" : {
+                                "description" : "Number of records written together. Hitting the batch size will trigger a flush.",
+                                "required" : false,
+                                "type" : "integer",
+                                "defaultValue" : "10"
+                              },
                               "datasource" : {
                                 "description" : "Resource id. The target resource must be type: 'datasource' or 'vector-database' and service: 'astra'.",
                                 "required" : true,
                                 "type" : "string"
                               },
+                              "flush-interval" : {
+                                "description" : "Flush interval in milliseconds",
+                                "required" : false,
+                                "type" : "integer",
+                                "defaultValue" : "1000"
+                              },
                               "keyspace" : {
                                 "description" : "The keyspace of the table to write to.",
                                 "required" : false,
@@ -226,11 +244,23 @@ class QueryVectorDBAgentProviderTest {
                             "name" : "Cassandra",
                             "description" : "Writes data to Apache Cassandra.\\nAll the options from DataStax Kafka Sink are supported: https://docs.datastax.com/en/kafka/doc/kafka/kafkaConfigTasksTOC.html",
                             "properties" : {
+                              "batch-size" : {
+                                "description" : "Number of records written together. Hitting the batch size will trigger a flush.",
+                                "required" : false,
+                                "type" : "integer",
+                                "defaultValue" : "10"
+                              },
                               "datasource" : {
                                 "description" : "Resource id. The target resource must be type: 'datasource' or 'vector-database' and service: 'cassandra'.",
                                 "required" : true,
                                 "type" : "string"
                               },
+                              "flush-interval" : {
+                                "description" : "Flush interval in milliseconds",
+                                "required" : false,
+                                "type" : "integer",
+                                "defaultValue" : "1000"
+                              },
                               "keyspace" : {
                                 "description" : "The keyspace of the table to write to.",
                                 "required" : false,
@@ -253,6 +283,12 @@ class QueryVectorDBAgentProviderTest {
                             "name" : "JDBC",
                             "description" : "Writes data to any JDBC compatible database.",
                             "properties" : {
+                              "batch-size" : {
+                                "description" : "Number of records written together. Hitting the batch size will trigger a flush.",
+                                "required" : false,
+                                "type" : "integer",
+                                "defaultValue" : "10"
+                              },
                               "datasource" : {
                                 "description" : "Resource id. The target resource must be type: 'datasource' or 'vector-database' and service: 'jdbc'.",
                                 "required" : true,
@@ -286,6 +322,12 @@ class QueryVectorDBAgentProviderTest {
                                   }
                                 }
                               },
+                              "flush-interval" : {
+                                "description" : "Flush interval in milliseconds",
+                                "required" : false,
+                                "type" : "integer",
+                                "defaultValue" : "1000"
+                              },
                               "table-name" : {
                                 "description" : "The name of the table to write to. The table must already exist.",
                                 "required" : true,
@@ -298,6 +340,12 @@ class QueryVectorDBAgentProviderTest {
                             "name" : "Milvus",
                             "description" : "Writes data to Milvus/Zillis service.",
                             "properties" : {
+                              "batch-size" : {
+                                "description" : "Number of records written together. Hitting the batch size will trigger a flush.",
+                                "required" : false,
+                                "type" : "integer",
+                                "defaultValue" : "10"
+                              },
                               "collection-name" : {
                                 "description" : "Collection name",
                                 "required" : false,
@@ -334,6 +382,12 @@ class QueryVectorDBAgentProviderTest {
                                     }
                                   }
                                 }
+                              },
+                              "flush-interval" : {
+                                "description" : "Flush interval in milliseconds",
+                                "required" : false,
+                                "type" : "integer",
+                                "defaultValue" : "1000"
                               }
                             }
                           },
@@ -343,7 +397,7 @@ class QueryVectorDBAgentProviderTest {
                             "description" : "Writes data to OpenSearch or AWS OpenSearch serverless.",
                             "properties" : {
                               "batch-size" : {
-                                "description" : "Batch size for bulk operations. Hitting the batch size will trigger a flush.",
+                                "description" : "Number of records written together. Hitting the batch size will trigger a flush.",
                                 "required" : false,
                                 "type" : "integer",
                                 "defaultValue" : "10"
@@ -430,11 +484,23 @@ class QueryVectorDBAgentProviderTest {
                             "name" : "Pinecone",
                             "description" : "Writes data to Pinecone service.",
                             "properties" : {
+                              "batch-size" : {
+                                "description" : "Number of records written together. Hitting the batch size will trigger a flush.",
+                                "required" : false,
+                                "type" : "integer",
+                                "defaultValue" : "10"
+                              },
                               "datasource" : {
                                 "description" : "Resource id. The target resource must be type: 'datasource' or 'vector-database' and service: 'pinecone'.",
                                 "required" : true,
                                 "type" : "string"
                               },
+                              "flush-interval" : {
+                                "description" : "Flush interval in milliseconds",
+                                "required" : false,
+                                "type" : "integer",
+                                "defaultValue" : "1000"
+                              },
                               "vector.id" : {
                                 "description" : "JSTL Expression to compute the id.",
                                 "required" : false,
@@ -462,6 +528,12 @@ class QueryVectorDBAgentProviderTest {
                             "name" : "Apache Solr",
                             "description" : "Writes data to Apache Solr service.\\n    The collection-name is configured at datasource level.",
                             "properties" : {
+                              "batch-size" : {
+                                "description" : "Number of records written together. Hitting the batch size will trigger a flush.",
+                                "required" : false,
+                                "type" : "integer",
+                                "defaultValue" : "10"
+                              },
                               "commit-within" : {
                                 "description" : "Commit within option",
                                 "required" : false,
@@ -494,6 +566,12 @@ class QueryVectorDBAgentProviderTest {
                                     }
                                   }
                                 }
+                              },
+                              "flush-interval" : {
+                                "description" : "Flush interval in milliseconds",
+                                "required" : false,
+                                "type" : "integer",
+                                "defaultValue" : "1000"
                               }
                             }
                           }
@@ -131,6 +131,35 @@ class S3SourceAgentProviderTest {
                                 "type" : "integer",
                                 "defaultValue" : "5"
                               },
+                              "max-in-memory-object-size" : {
+                                "description" : "Blobs bigger than this number of bytes are downloaded to a temporary file instead of being kept in memory while they wait to be read. The content is still loaded in memory when the record is read, and it is kept until the record is committed.",
+                                "required" : false,
+                                "type" : "integer",
+                                "defaultValue" : "10485760"
+                              },
+                              "max-records-per-read" : {
+                                "description" : "Maximum number of records returned by a single read. The records after the first one are returned only if they are already downloaded.",
+                                "required" : false,
+                                "type" : "integer",
+                                "defaultValue" : "1"
+                              },
+                              "prefetch-objects" : {
+                                "description" : "Maximum number of blobs downloaded ahead of time.",
+                                "required" : false,
+                                "type" : "integer",
+                                "defaultValue" : "10"
+                              },
+                              "prefetch-threads" : {
+                                "description" : "Number of blobs downloaded in parallel.",
+                                "required" : false,
+                                "type" : "integer",
+                                "defaultValue" : "4"
+                              },
+                              "prefix" : {
+                                "description" : "Only read the blobs with names starting with this prefix.",
+                                "required" : false,
+                                "type" : "string"
+                              },
                               "sas-token" : {
                                 "description" : "Azure SAS token. If not provided, storage account name and key must be provided.",
                                 "required" : false,
@@ -187,6 +216,35 @@ class S3SourceAgentProviderTest {
                                 "type" : "integer",
                                 "defaultValue" : "5"
                               },
+                              "max-in-memory-object-size" : {
+                                "description" : "Files bigger than this number of bytes are downloaded to a temporary file instead of being kept in memory while they wait to be read. The content is still loaded in memory when the record is read, and it is kept until the record is committed.",
+                                "required" : false,
+                                "type" : "integer",
+                                "defaultValue" : "10485760"
+                              },
+                              "max-records-per-read" : {
+                                "description" : "Maximum number of records returned by a single read. The records after the first one are returned only if they are already downloaded.",
+                                "required" : false,
+                                "type" : "integer",
+                                "defaultValue" : "1"
+                              },
+                              "prefetch-objects" : {
+                                "description" : "Maximum number of files downloaded ahead of time.",
+                                "required" : false,
+                                "type" : "integer",
+                                "defaultValue" : "10"
+                              },
+                              "prefetch-threads" : {
+                                "description" : "Number of files downloaded in parallel.",
+                                "required" : false,
+                                "type" : "integer",
+                                "defaultValue" : "4"
+                              },
+                              "prefix" : {
+                                "description" : "Only read the files with names starting with this prefix.",
+                                "required" : false,
+                                "type" : "string"
+                              },
                               "region" : {
                                 "description" : "Region for the S3 server.",
                                 "required" : false,
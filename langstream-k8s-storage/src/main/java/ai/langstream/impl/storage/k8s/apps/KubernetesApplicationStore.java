@@ -23,6 +23,7 @@ import ai.langstream.api.model.StoredApplication;
 import ai.langstream.api.runtime.ComponentType;
 import ai.langstream.api.runtime.ExecutionPlan;
 import ai.langstream.api.storage.ApplicationStore;
+import ai.langstream.deployer.k8s.CRDConstants;
 import ai.langstream.deployer.k8s.agents.AgentResourcesFactory;
 import ai.langstream.deployer.k8s.api.crds.apps.ApplicationCustomResource;
 import ai.langstream.deployer.k8s.api.crds.apps.ApplicationSpec;
@@ -33,6 +34,7 @@ import ai.langstream.deployer.k8s.util.KubeUtil;
 import ai.langstream.impl.k8s.KubernetesClientFactory;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.Namespace;
 import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
 import io.fabric8.kubernetes.api.model.Pod;
@@ -41,6 +43,8 @@ import io.fabric8.kubernetes.api.model.SecretBuilder;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.dsl.LogWatch;
 import io.fabric8.kubernetes.client.dsl.PodResource;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
@@ -54,7 +58,10 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -83,6 +90,10 @@ public class KubernetesApplicationStore implements ApplicationStore {
             Pattern.compile("(\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}\\.\\d{9}Z) (.*)");
     private KubernetesClient client;
     private KubernetesApplicationStoreProperties properties;
+    private volatile ApplicationChangesListener changesListener;
+    // informers of the tenant namespaces, started the first time the namespace is used
+    private final Map<String, List<SharedIndexInformer<?>>> namespaceInformers =
+            new ConcurrentHashMap<>();
 
     @Override
     public String storeType() {
@@ -119,6 +130,7 @@ public class KubernetesApplicationStore implements ApplicationStore {
     public void onTenantCreated(String tenant) {
         final String namespace = tenantToNamespace(tenant);
         new TenantResources(properties, client, tenant, namespace).ensureTenantResources();
+        watchNamespace(namespace);
     }
 
     @Override
@@ -127,6 +139,10 @@ public class KubernetesApplicationStore implements ApplicationStore {
     @Override
     public void onTenantDeleted(String tenant) {
         final String namespace = tenantToNamespace(tenant);
+        final List<SharedIndexInformer<?>> informers = namespaceInformers.get(namespace);
+        if (informers != null) {
+            closeNamespaceInformers(namespace, informers);
+        }
         if (client.namespaces().withName(namespace).get() != null) {
             client.namespaces().withName(namespace).delete();
         }
@@ -176,6 +192,7 @@ public class KubernetesApplicationStore implements ApplicationStore {
                         .withNewMetadata()
                         .withName(applicationId)
                         .withNamespace(namespace)
+                        .withLabels(Map.of(CRDConstants.APP_LABEL_APPLICATION, applicationId))
                         .withOwnerReferences(KubeUtil.getOwnerReferenceForResource(crd))
                         .endMetadata()
                         .withData(
@@ -218,11 +235,9 @@ public class KubernetesApplicationStore implements ApplicationStore {
     @Override
     @SneakyThrows
     public Secrets getSecrets(String tenant, String applicationId) {
-        final Secret secret =
-                client.secrets()
-                        .inNamespace(tenantToNamespace(tenant))
-                        .withName(applicationId)
-                        .get();
+        final String namespace = tenantToNamespace(tenant);
+        watchNamespace(namespace);
+        final Secret secret = client.secrets().inNamespace(namespace).withName(applicationId).get();
         if (secret == null) {
             return null;
         }
@@ -236,9 +251,132 @@ public class KubernetesApplicationStore implements ApplicationStore {
         return null;
     }
 
+    /**
+     * The changes are watched with informers on the Application custom resources and on the secrets
+     * labelled as application secrets. The informers are namespaced, they are started the first
+     * time a tenant namespace is used, so they only need permissions on the tenant namespaces and
+     * they only cache the resources of the applications. They are closed when the last application
+     * of the namespace is deleted, including when the tenant is deleted, and started again by the
+     * next read.
+     */
+    @Override
+    public boolean watchApplicationChanges(ApplicationChangesListener listener) {
+        changesListener = listener;
+        log.info(
+                "Watching applications changes in namespaces {}*", properties.getNamespaceprefix());
+        return true;
+    }
+
+    private void watchNamespace(String namespace) {
+        final ApplicationChangesListener listener = changesListener;
+        if (listener == null || namespaceInformers.containsKey(namespace)) {
+            return;
+        }
+        namespaceInformers.computeIfAbsent(namespace, ns -> startNamespaceInformers(ns, listener));
+    }
+
+    private List<SharedIndexInformer<?>> startNamespaceInformers(
+            String namespace, ApplicationChangesListener listener) {
+        final List<SharedIndexInformer<?>> informers = new ArrayList<>();
+        try {
+            informers.add(
+                    client.resources(ApplicationCustomResource.class)
+                            .inNamespace(namespace)
+                            .inform(new ApplicationChangesHandler<>(listener, true), 0));
+            // the secret has the same name of the application
+            informers.add(
+                    client.secrets()
+                            .inNamespace(namespace)
+                            .withLabel(CRDConstants.APP_LABEL_APPLICATION)
+                            .inform(new ApplicationChangesHandler<>(listener, false), 0));
+            log.info("Watching applications changes in namespace {}", namespace);
+            return informers;
+        } catch (Exception e) {
+            log.warn(
+                    "Cannot watch applications changes in namespace {}, the cached applications"
+                            + " will be refreshed only when they expire",
+                    namespace,
+                    e);
+            informers.forEach(SharedIndexInformer::close);
+            return List.of();
+        }
+    }
+
+    private void closeNamespaceInformers(String namespace, List<SharedIndexInformer<?>> informers) {
+        if (namespaceInformers.remove(namespace, informers)) {
+            log.info("Stop watching applications changes in namespace {}", namespace);
+            informers.forEach(SharedIndexInformer::close);
+        }
+    }
+
+    private class ApplicationChangesHandler<T extends HasMetadata>
+            implements ResourceEventHandler<T> {
+        private final ApplicationChangesListener listener;
+        private final boolean applications;
+
+        ApplicationChangesHandler(ApplicationChangesListener listener, boolean applications) {
+            this.listener = listener;
+            this.applications = applications;
+        }
+
+        @Override
+        public void onAdd(T obj) {
+            notifyChange(obj);
+        }
+
+        @Override
+        public void onUpdate(T oldObj, T newObj) {
+            if (!Objects.equals(
+                    oldObj.getMetadata().getResourceVersion(),
+                    newObj.getMetadata().getResourceVersion())) {
+                notifyChange(newObj);
+            }
+        }
+
+        @Override
+        public void onDelete(T obj, boolean deletedFinalStateUnknown) {
+            notifyChange(obj);
+            if (applications) {
+                closeInformersIfEmpty(obj.getMetadata().getNamespace());
+            }
+        }
+
+        private void closeInformersIfEmpty(String namespace) {
+            final List<SharedIndexInformer<?>> informers = namespaceInformers.get(namespace);
+            // the first informer is the one of the applications
+            if (informers == null
+                    || informers.isEmpty()
+                    || !informers.get(0).getStore().list().isEmpty()) {
+                return;
+            }
+            // not from the event handler thread of the informer being closed
+            CompletableFuture.runAsync(() -> closeNamespaceInformers(namespace, informers));
+        }
+
+        private void notifyChange(T obj) {
+            final String namespace = obj.getMetadata().getNamespace();
+            final String prefix = properties.getNamespaceprefix();
+            if (namespace == null || !namespace.startsWith(prefix)) {
+                return;
+            }
+            final String tenant = namespace.substring(prefix.length());
+            final String applicationId = obj.getMetadata().getName();
+            try {
+                listener.onApplicationChanged(tenant, applicationId);
+            } catch (Throwable e) {
+                log.error(
+                        "Error while notifying change of application {} (tenant {})",
+                        applicationId,
+                        tenant,
+                        e);
+            }
+        }
+    }
+
     private ApplicationCustomResource getApplicationCustomResource(
             String tenant, String applicationId) {
         final String namespace = tenantToNamespace(tenant);
+        watchNamespace(namespace);
         return client.resources(ApplicationCustomResource.class)
                 .inNamespace(namespace)
                 .withName(applicationId)
@@ -25,6 +25,8 @@ import io.fabric8.kubernetes.api.model.OwnerReference;
 import io.fabric8.kubernetes.api.model.Secret;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
@@ -81,6 +83,8 @@ class KubernetesApplicationStoreTest {
         assertEquals(
                 "eyJzZWNyZXRzIjp7Im15c2VjcmV0Ijp7ImlkIjoibXlzZWNyZXQiLCJuYW1lIjoiTXkgc2VjcmV0IiwiZGF0YSI6eyJ0b2tlbiI6Inh4eCJ9fX19",
                 createdSecret.getData().get("secrets"));
+        assertEquals(
+                "myapp", createdSecret.getMetadata().getLabels().get("langstream-application"));
 
         assertEquals(1, store.list(tenant).size());
 
@@ -164,4 +168,26 @@ class KubernetesApplicationStoreTest {
                             }
                         });
     }
+
+    @Test
+    void testWatchApplicationChanges() {
+        final KubernetesApplicationStore store = new KubernetesApplicationStore();
+        store.initialize(getInitMap());
+
+        final String tenant = getTenant();
+        store.onTenantCreated(tenant);
+
+        final Set<String> changes = ConcurrentHashMap.newKeySet();
+        assertTrue(
+                store.watchApplicationChanges(
+                        (changedTenant, applicationId) ->
+                                changes.add(changedTenant + "/" + applicationId)));
+
+        store.put(tenant, "myapp", new Application(), "code-1", null);
+        Awaitility.await().untilAsserted(() -> assertTrue(changes.contains(tenant + "/myapp")));
+
+        changes.clear();
+        store.delete(tenant, "myapp");
+        Awaitility.await().untilAsserted(() -> assertTrue(changes.contains(tenant + "/myapp")));
+    }
 }
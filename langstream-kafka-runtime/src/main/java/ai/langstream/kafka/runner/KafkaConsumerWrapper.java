@@ -15,8 +15,12 @@
  */
 package ai.langstream.kafka.runner;
 
+import static org.apache.kafka.clients.consumer.ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG;
+import static org.apache.kafka.clients.consumer.ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG;
+
 import ai.langstream.api.runner.code.Record;
 import ai.langstream.api.runner.topics.TopicConsumer;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -36,14 +40,21 @@ import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.utils.Utils;
 
 @Slf4j
 public class KafkaConsumerWrapper implements TopicConsumer, ConsumerRebalanceListener {
     private final Map<String, Object> configuration;
     private final String topicName;
     private final AtomicInteger totalOut = new AtomicInteger();
-    KafkaConsumer consumer;
+    KafkaConsumer<byte[], byte[]> consumer;
+    private KafkaRecord.RawDeserializer keyDeserializer;
+    private KafkaRecord.RawDeserializer valueDeserializer;
     private boolean commitEverCalled;
+    private boolean paused;
 
     final AtomicInteger pendingCommits = new AtomicInteger(0);
     final AtomicReference<Throwable> commitFailure = new AtomicReference();
@@ -53,6 +64,9 @@ public class KafkaConsumerWrapper implements TopicConsumer, ConsumerRebalanceLis
 
     private final Map<TopicPartition, OffsetAndMetadata> committed = new ConcurrentHashMap<>();
 
+    private final Set<TopicPartition> assignedPartitions = ConcurrentHashMap.newKeySet();
+    private volatile int topicPartitions = -1;
+
     public KafkaConsumerWrapper(Map<String, Object> configuration, String topicName) {
         this.configuration = configuration;
         this.topicName = topicName;
@@ -68,16 +82,61 @@ public class KafkaConsumerWrapper implements TopicConsumer, ConsumerRebalanceLis
 
     @Override
     public synchronized void start() {
-        consumer = new KafkaConsumer(configuration);
+        // the records are read as bytes and deserialized only when the agents access them
+        keyDeserializer = createDeserializer(KEY_DESERIALIZER_CLASS_CONFIG, true);
+        valueDeserializer = createDeserializer(VALUE_DESERIALIZER_CLASS_CONFIG, false);
+        consumer =
+                new KafkaConsumer<>(
+                        configuration, new ByteArrayDeserializer(), new ByteArrayDeserializer());
         if (topicName != null) {
             log.info("Subscribing consumer to {}", topicName);
             consumer.subscribe(List.of(topicName), this);
         }
     }
 
+    private KafkaRecord.RawDeserializer createDeserializer(String configKey, boolean isKey) {
+        Object configured = configuration.get(configKey);
+        Deserializer<?> deserializer;
+        try {
+            if (configured instanceof Class<?> deserializerClass) {
+                deserializer = (Deserializer<?>) Utils.newInstance(deserializerClass);
+            } else if (configured != null) {
+                deserializer = Utils.newInstance(configured.toString(), Deserializer.class);
+            } else {
+                deserializer = new ByteArrayDeserializer();
+            }
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Cannot load " + configKey + " " + configured, e);
+        }
+        deserializer.configure(configuration, isKey);
+        return new KafkaRecord.RawDeserializer(
+                deserializer, isPassThrough(deserializer, configuration, isKey));
+    }
+
+    /**
+     * The producers serialize byte[] as they are and Strings as UTF-8, so the bytes of a record
+     * read with these deserializers can be written to another topic without serializing them again.
+     */
+    static boolean isPassThrough(
+            Deserializer<?> deserializer, Map<String, Object> configuration, boolean isKey) {
+        if (deserializer instanceof ByteArrayDeserializer) {
+            return true;
+        }
+        if (deserializer.getClass() == StringDeserializer.class) {
+            Object encoding =
+                    configuration.getOrDefault(
+                            isKey ? "key.deserializer.encoding" : "value.deserializer.encoding",
+                            configuration.get("deserializer.encoding"));
+            return encoding == null
+                    || StandardCharsets.UTF_8.name().equalsIgnoreCase(encoding.toString());
+        }
+        return false;
+    }
+
     @Override
     public synchronized void onPartitionsRevoked(Collection<TopicPartition> partitions) {
         log.info("Partitions revoked: {}", partitions);
+        assignedPartitions.removeAll(partitions);
         for (TopicPartition topicPartition : partitions) {
             OffsetAndMetadata offsetAndMetadata = committed.remove(topicPartition);
             if (offsetAndMetadata != null) {
@@ -99,6 +158,11 @@ public class KafkaConsumerWrapper implements TopicConsumer, ConsumerRebalanceLis
     @Override
     public synchronized void onPartitionsAssigned(Collection<TopicPartition> partitions) {
         log.info("Partitions assigned: {}", partitions);
+        assignedPartitions.addAll(partitions);
+        if (topicName != null) {
+            // the rebalance listener runs in the thread that polls, the consumer can be used here
+            topicPartitions = consumer.partitionsFor(topicName).size();
+        }
         for (TopicPartition topicPartition : partitions) {
             OffsetAndMetadata offsetAndMetadata = consumer.committed(topicPartition);
             if (offsetAndMetadata != null) {
@@ -118,14 +182,14 @@ public class KafkaConsumerWrapper implements TopicConsumer, ConsumerRebalanceLis
         return totalOut.get();
     }
 
-    private synchronized KafkaConsumer getConsumer() {
+    private synchronized KafkaConsumer<byte[], byte[]> getConsumer() {
         return consumer;
     }
 
     @Override
-    public Map<String, Object> getInfo() {
+    public synchronized Map<String, Object> getInfo() {
         Map<String, Object> result = new HashMap<>();
-        KafkaConsumer consumer = getConsumer();
+        KafkaConsumer<byte[], byte[]> consumer = getConsumer();
         if (consumer != null) {
             Map<String, Object> committedOffsetsInfo = new HashMap<>();
             committed.forEach(
@@ -149,6 +213,14 @@ public class KafkaConsumerWrapper implements TopicConsumer, ConsumerRebalanceLis
             result.put(
                     "kafkaConsumerMetrics",
                     KafkaMetricsUtils.metricsToMap(this.consumer.metrics()));
+
+            // summary used by the autoscaler of the agents
+            result.put("lag", KafkaMetricsUtils.totalRecordsLag(this.consumer.metrics()));
+            result.put(
+                    "pendingRecords",
+                    uncommittedOffsets.values().stream().mapToInt(Set::size).sum());
+            result.put("assignedPartitions", assignedPartitions.size());
+            result.put("topicPartitions", topicPartitions);
         }
         return result;
     }
@@ -168,6 +240,8 @@ public class KafkaConsumerWrapper implements TopicConsumer, ConsumerRebalanceLis
                     sum,
                     uncommittedOffsets);
             consumer.close();
+            keyDeserializer.deserializer().close();
+            valueDeserializer.deserializer().close();
         }
     }
 
@@ -176,11 +250,17 @@ public class KafkaConsumerWrapper implements TopicConsumer, ConsumerRebalanceLis
         if (commitFailure.get() != null) {
             throw new RuntimeException("latest commit failed", commitFailure.get());
         }
-        KafkaConsumer consumer = getConsumer();
-        ConsumerRecords<?, ?> poll = consumer.poll(Duration.ofSeconds(1));
+        KafkaConsumer<byte[], byte[]> consumer = getConsumer();
+        if (paused) {
+            // the partitions assigned after a rebalance are not paused
+            consumer.pause(consumer.assignment());
+        }
+        ConsumerRecords<byte[], byte[]> poll = consumer.poll(Duration.ofSeconds(1));
         List<Record> result = new ArrayList<>(poll.count());
-        for (ConsumerRecord<?, ?> record : poll) {
-            result.add(KafkaRecord.fromKafkaConsumerRecord(record));
+        for (ConsumerRecord<byte[], byte[]> record : poll) {
+            result.add(
+                    KafkaRecord.fromKafkaConsumerRecord(
+                            record, keyDeserializer, valueDeserializer));
         }
         if (log.isDebugEnabled() && !result.isEmpty()) {
             log.debug("Received {} records from Kafka topics", result.size());
@@ -189,6 +269,25 @@ public class KafkaConsumerWrapper implements TopicConsumer, ConsumerRebalanceLis
         return result;
     }
 
+    @Override
+    public synchronized boolean pause() {
+        if (!paused) {
+            log.info("Pausing consumer on {}", topicName);
+            paused = true;
+            consumer.pause(consumer.assignment());
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void resume() {
+        if (paused) {
+            log.info("Resuming consumer on {}", topicName);
+            paused = false;
+            consumer.resume(consumer.paused());
+        }
+    }
+
     /**
      * Commit the offsets of the records. This method may be called from different threads. Per each
      * partition we must keep track of the offsets that have been committed. But we can commit only
@@ -56,4 +56,40 @@ public class KafkaMetricsUtils {
         }
         return groupsMetrics;
     }
+
+    /**
+     * Sum of the "records-lag" of the partitions assigned to a consumer, that is the number of
+     * records in the partitions after the current position of the consumer.
+     */
+    public static long totalRecordsLag(Map<MetricName, ? extends Metric> metrics) {
+        long lag = 0;
+        for (Map.Entry<MetricName, ? extends Metric> entry : metrics.entrySet()) {
+            MetricName name = entry.getKey();
+            if (name.name().equals("records-lag")
+                    && name.group().equals("consumer-fetch-manager-metrics")
+                    && name.tags().containsKey("partition")
+                    && entry.getValue().metricValue() instanceof Number value
+                    && !Double.isNaN(value.doubleValue())) {
+                lag += value.longValue();
+            }
+        }
+        return lag;
+    }
+
+    /**
+     * The metrics of a producer or of a consumer about a single topic, like "record-send-total" or
+     * "byte-total" of the group "producer-topic-metrics".
+     */
+    public static Map<String, Object> topicMetrics(
+            Map<MetricName, ? extends Metric> metrics, String topic) {
+        Map<String, Object> result = new HashMap<>();
+        metrics.forEach(
+                (metric, value) -> {
+                    if (topic.equals(metric.tags().get("topic"))
+                            && !metric.tags().containsKey("partition")) {
+                        result.put(metric.name(), value.metricValue());
+                    }
+                });
+        return result;
+    }
 }
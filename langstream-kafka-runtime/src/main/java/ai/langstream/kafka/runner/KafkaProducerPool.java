@@ -0,0 +1,109 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.kafka.runner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+
+/**
+ * Shares the Kafka producers between the {@link KafkaProducerWrapper}s with the same configuration.
+ *
+ * <p>A KafkaProducer is thread safe and it can write to any topic, with its own buffers, sender
+ * thread and connections to the brokers. The wrappers for the different topics of an agent (the
+ * output topic, the dead letter topic, the destinations of a dispatch agent...) usually have the
+ * same configuration, that is the cluster and the serializers, so they can use the same client. The
+ * producer is closed when the last wrapper that uses it is closed.
+ */
+@Slf4j
+class KafkaProducerPool implements AutoCloseable {
+
+    static final class SharedProducer {
+        private final Map<String, Object> configuration;
+        private final Producer<Object, Object> producer;
+        private int references;
+
+        private SharedProducer(
+                Map<String, Object> configuration, Producer<Object, Object> producer) {
+            this.configuration = configuration;
+            this.producer = producer;
+        }
+
+        Producer<Object, Object> producer() {
+            return producer;
+        }
+    }
+
+    private final Map<Map<String, Object>, SharedProducer> producers = new HashMap<>();
+    private final Function<Map<String, Object>, Producer<Object, Object>> producerFactory;
+
+    KafkaProducerPool() {
+        this(KafkaProducer::new);
+    }
+
+    KafkaProducerPool(Function<Map<String, Object>, Producer<Object, Object>> producerFactory) {
+        this.producerFactory = producerFactory;
+    }
+
+    synchronized SharedProducer acquire(Map<String, Object> configuration) {
+        SharedProducer shared = producers.get(configuration);
+        if (shared == null) {
+            Map<String, Object> copy = Collections.unmodifiableMap(new HashMap<>(configuration));
+            shared = new SharedProducer(copy, producerFactory.apply(copy));
+            producers.put(copy, shared);
+            log.info("Created a new Kafka producer, {} producers in the pool", producers.size());
+        }
+        shared.references++;
+        return shared;
+    }
+
+    void release(SharedProducer shared) {
+        synchronized (this) {
+            if (--shared.references > 0) {
+                return;
+            }
+            producers.remove(shared.configuration, shared);
+        }
+        // closing the producer waits for the pending records to be sent, do not hold the lock
+        shared.producer.close();
+    }
+
+    synchronized int references(SharedProducer shared) {
+        return shared.references;
+    }
+
+    synchronized int size() {
+        return producers.size();
+    }
+
+    @Override
+    public void close() {
+        List<SharedProducer> toClose;
+        synchronized (this) {
+            toClose = new ArrayList<>(producers.values());
+            producers.clear();
+        }
+        for (SharedProducer shared : toClose) {
+            shared.producer.close();
+        }
+    }
+}
@@ -33,11 +33,11 @@ import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.avro.generic.GenericRecord;
-import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.header.internals.RecordHeader;
 import org.apache.kafka.common.serialization.BooleanSerializer;
@@ -74,26 +74,24 @@ class KafkaProducerWrapper implements TopicProducer {
 
     private final Map<String, Object> copy;
     private final String topicName;
-    private final AtomicInteger totalIn = new AtomicInteger();
-    KafkaProducer<Object, Object> producer;
-    Serializer keySerializer;
-    Class cacheKeyForKeySerializer;
-    Serializer valueSerializer;
+    private final KafkaProducerPool producerPool;
+    private final LongAdder totalIn = new LongAdder();
+    private final LongAdder totalErrors = new LongAdder();
+    private KafkaProducerPool.SharedProducer sharedProducer;
+    Producer<Object, Object> producer;
 
-    Class cacheKeyForValueSerializer;
-    Serializer headerSerializer;
-
-    Class cacheKeyForHeaderSerializer;
-
-    boolean forcedKeySerializer;
-    boolean forcedValueSerializer;
+    final boolean forcedKeySerializer;
+    final boolean forcedValueSerializer;
 
     public KafkaProducerWrapper(Map<String, Object> copy, String topicName) {
+        this(new KafkaProducerPool(), copy, topicName);
+    }
+
+    public KafkaProducerWrapper(
+            KafkaProducerPool producerPool, Map<String, Object> copy, String topicName) {
+        this.producerPool = producerPool;
         this.copy = copy;
         this.topicName = topicName;
-        keySerializer = null;
-        valueSerializer = null;
-        headerSerializer = null;
         forcedKeySerializer =
                 !Objects.equals(
                         org.apache.kafka.common.serialization.ByteArraySerializer.class.getName(),
@@ -126,13 +124,15 @@ class KafkaProducerWrapper implements TopicProducer {
 
     @Override
     public void start() {
-        producer = new KafkaProducer<>(copy);
+        sharedProducer = producerPool.acquire(copy);
+        producer = sharedProducer.producer();
     }
 
     @Override
     public void close() {
-        if (producer != null) {
-            producer.close();
+        if (sharedProducer != null) {
+            producerPool.release(sharedProducer);
+            sharedProducer = null;
         }
     }
 
@@ -143,63 +143,75 @@ class KafkaProducerWrapper implements TopicProducer {
 
     @Override
     public long getTotalIn() {
-        return totalIn.get();
+        return totalIn.sum();
     }
 
     @Override
     public Map<String, Object> getInfo() {
         Map<String, Object> result = new HashMap<>();
+        result.put("topic", topicName);
+        result.put("totalIn", totalIn.sum());
+        result.put("totalErrors", totalErrors.sum());
         if (producer != null) {
+            // the producer may be shared with the wrappers for other topics
             result.put("kafkaProducerMetrics", KafkaMetricsUtils.metricsToMap(producer.metrics()));
+            result.put(
+                    "topicMetrics", KafkaMetricsUtils.topicMetrics(producer.metrics(), topicName));
+        }
+        if (sharedProducer != null) {
+            result.put("sharedProducerReferences", producerPool.references(sharedProducer));
         }
         return result;
     }
 
     @Override
-    public synchronized CompletableFuture<?> write(Record r) {
+    public CompletableFuture<?> write(Record r) {
         CompletableFuture<?> handle = new CompletableFuture<>();
         try {
             List<org.apache.kafka.common.header.Header> headers = new ArrayList<>();
+            // a record read from Kafka is written as it is, without deserializing and serializing
+            // again the parts that are handled with the default serializers
+            KafkaRecord.KafkaSerializedRecord serializedRecord =
+                    r instanceof KafkaRecord.KafkaSerializedRecord s ? s : null;
             Object key = null;
-            if (r.key() != null) {
+            if (serializedRecord != null
+                    && serializedRecord.isKeyPassThrough()
+                    && !forcedKeySerializer) {
+                key = serializedRecord.serializedKey();
+            } else if (r.key() != null) {
                 if (forcedKeySerializer) {
                     key = r.key();
                 } else {
-                    Class<?> keyClass = r.key().getClass();
-                    if (keySerializer == null
-                            || !(Objects.equals(keyClass, cacheKeyForKeySerializer))) {
-                        keySerializer = getSerializer(keyClass, keySerializers, true);
-                        cacheKeyForKeySerializer = keyClass;
-                    }
+                    Serializer keySerializer =
+                            getSerializer(r.key().getClass(), keySerializers, true);
                     key = keySerializer.serialize(topicName, r.key());
                 }
             }
             Object value = null;
-            if (r.value() != null) {
+            if (serializedRecord != null
+                    && serializedRecord.isValuePassThrough()
+                    && !forcedValueSerializer) {
+                value = serializedRecord.serializedValue();
+            } else if (r.value() != null) {
                 if (forcedValueSerializer) {
                     value = r.value();
                 } else {
-                    Class<?> valueClass = r.value().getClass();
-                    if (valueSerializer == null
-                            || !(Objects.equals(valueClass, cacheKeyForValueSerializer))) {
-                        valueSerializer = getSerializer(valueClass, valueSerializers, false);
-                        cacheKeyForValueSerializer = valueClass;
-                    }
+                    Serializer valueSerializer =
+                            getSerializer(r.value().getClass(), valueSerializers, false);
                     value = valueSerializer.serialize(topicName, r.value());
                 }
             }
-            if (r.headers() != null) {
+            if (serializedRecord != null) {
+                // the headers of Kafka are always bytes
+                serializedRecord.serializedHeaders().forEach(headers::add);
+            } else if (r.headers() != null) {
                 for (Header header : r.headers()) {
                     Object headerValue = header.value();
                     byte[] serializedHeader = null;
 
                     if (headerValue != null) {
-                        Class<?> headerClass = headerValue.getClass();
-                        if (headerSerializer == null
-                                || !(Objects.equals(headerClass, cacheKeyForHeaderSerializer))) {
-                            headerSerializer = getSerializer(headerClass, headerSerializers, null);
-                            cacheKeyForHeaderSerializer = headerClass;
-                        }
+                        Serializer headerSerializer =
+                                getSerializer(headerValue.getClass(), headerSerializers, null);
                         serializedHeader = headerSerializer.serialize(topicName, headerValue);
                     }
                     headers.add(new RecordHeader(header.key(), serializedHeader));
@@ -216,13 +228,15 @@ class KafkaProducerWrapper implements TopicProducer {
                     record,
                     (metadata, exception) -> {
                         if (exception != null) {
+                            totalErrors.increment();
                             handle.completeExceptionally(exception);
                         } else {
-                            totalIn.addAndGet(1);
+                            totalIn.increment();
                             handle.complete(null);
                         }
                     });
         } catch (Exception e) {
+            totalErrors.increment();
             handle.completeExceptionally(e);
         }
         return handle;
@@ -230,6 +244,10 @@ class KafkaProducerWrapper implements TopicProducer {
 
     private Serializer<?> getSerializer(
             Class<?> r, Map<Class<?>, Serializer<?>> serializerMap, Boolean isKey) {
+        Serializer<?> serializer = serializerMap.get(r);
+        if (serializer != null) {
+            return serializer;
+        }
         return serializerMap.computeIfAbsent(
                 r,
                 k -> {
@@ -237,7 +255,6 @@ class KafkaProducerWrapper implements TopicProducer {
                             && isKey != null) { // no AVRO in headers
                         KafkaAvroSerializer kafkaAvroSerializer = new KafkaAvroSerializer();
                         kafkaAvroSerializer.configure(copy, isKey);
-                        serializerMap.put(r, kafkaAvroSerializer);
                         return kafkaAvroSerializer;
                     }
                     if (Map.class.isAssignableFrom(k)) {
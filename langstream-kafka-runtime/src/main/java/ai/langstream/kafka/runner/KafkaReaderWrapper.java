@@ -28,10 +28,10 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
@@ -44,7 +44,10 @@ class KafkaReaderWrapper implements TopicReader {
     private final Map<String, Object> configuration;
     private final String topicName;
     private final TopicOffsetPosition initialPosition;
-    KafkaConsumer<?, ?> consumer;
+    // the offset of the next record to read for every partition, it is updated from the records
+    // returned by the consumer, without querying the broker
+    private final Map<String, String> positions = new TreeMap<>();
+    Consumer<?, ?> consumer;
 
     public KafkaReaderWrapper(
             Map<String, Object> configuration,
@@ -57,10 +60,7 @@ class KafkaReaderWrapper implements TopicReader {
 
     @Override
     public void start() throws IOException {
-        try (var context =
-                ClassloaderUtils.withContextClassloader(this.getClass().getClassLoader())) {
-            consumer = new KafkaConsumer<>(configuration);
-        }
+        consumer = createConsumer(configuration);
         final List<TopicPartition> partitions =
                 consumer.partitionsFor(topicName).stream()
                         .map(
@@ -97,6 +97,14 @@ class KafkaReaderWrapper implements TopicReader {
         for (TopicPartition topicPartition : partitions) {
             long position = consumer.position(topicPartition);
             log.info("Current position for partition {} is {}", topicPartition, position);
+            positions.put(topicPartition.partition() + "", position + "");
+        }
+    }
+
+    Consumer<?, ?> createConsumer(Map<String, Object> configuration) {
+        try (var context =
+                ClassloaderUtils.withContextClassloader(this.getClass().getClassLoader())) {
+            return new KafkaConsumer<>(configuration);
         }
     }
 
@@ -115,22 +123,27 @@ class KafkaReaderWrapper implements TopicReader {
     public TopicReadResult read() throws JsonProcessingException {
         ConsumerRecords<?, ?> poll = consumer.poll(Duration.ofSeconds(5));
         List<Record> records = new ArrayList<>(poll.count());
+        List<byte[]> recordOffsets = new ArrayList<>(poll.count());
         for (ConsumerRecord<?, ?> record : poll) {
             records.add(KafkaRecord.fromKafkaConsumerRecord(record));
+            positions.put(record.partition() + "", record.offset() + 1 + "");
+            recordOffsets.add(mapper.writeValueAsBytes(new OffsetPerPartition(positions)));
         }
-        final Set<TopicPartition> assignment = consumer.assignment();
-        if (!records.isEmpty() && log.isDebugEnabled()) {
-            log.debug("Received {} records from Kafka topics {}", records.size(), assignment);
-        }
-        Map<TopicPartition, Long> offsets = consumer.endOffsets(assignment);
-
-        Map<String, String> partitions = new ConcurrentHashMap<>();
-        for (Map.Entry<TopicPartition, Long> topicPartitionLongEntry : offsets.entrySet()) {
-            final TopicPartition key = topicPartitionLongEntry.getKey();
-            partitions.put(key.partition() + "", topicPartitionLongEntry.getValue() + "");
+        final byte[] offset;
+        if (records.isEmpty()) {
+            // the position can move forward without records, for instance skipping the
+            // transaction markers, it is known by the consumer and it does not require a request
+            for (TopicPartition topicPartition : consumer.assignment()) {
+                positions.put(
+                        topicPartition.partition() + "", consumer.position(topicPartition) + "");
+            }
+            offset = mapper.writeValueAsBytes(new OffsetPerPartition(positions));
+        } else {
+            if (log.isDebugEnabled()) {
+                log.debug("Received {} records from Kafka topic {}", records.size(), topicName);
+            }
+            offset = recordOffsets.get(recordOffsets.size() - 1);
         }
-        final OffsetPerPartition offsetPerPartition = new OffsetPerPartition(partitions);
-        byte[] offset = mapper.writeValueAsBytes(offsetPerPartition);
         return new TopicReadResult() {
             @Override
             public List<Record> records() {
@@ -141,6 +154,11 @@ class KafkaReaderWrapper implements TopicReader {
             public byte[] offset() {
                 return offset;
             }
+
+            @Override
+            public byte[] offset(int index) {
+                return recordOffsets.get(index);
+            }
         };
     }
 }
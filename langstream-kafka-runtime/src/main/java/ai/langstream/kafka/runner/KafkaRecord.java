@@ -26,13 +26,30 @@ import lombok.ToString;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.source.SourceRecord;
 
 public abstract class KafkaRecord implements Record {
 
     public static KafkaRecord fromKafkaConsumerRecord(ConsumerRecord<?, ?> record) {
-        return new KafkaConsumerRecord(record);
+        return new KafkaConsumerRecord(record, null, null);
+    }
+
+    /**
+     * Wraps a record read with the ByteArrayDeserializer. The key, the value and the headers are
+     * deserialized only when they are accessed.
+     *
+     * @param record the record with the raw bytes
+     * @param keyDeserializer the deserializer for the key
+     * @param valueDeserializer the deserializer for the value
+     * @return the record
+     */
+    public static KafkaRecord fromKafkaConsumerRecord(
+            ConsumerRecord<byte[], byte[]> record,
+            RawDeserializer keyDeserializer,
+            RawDeserializer valueDeserializer) {
+        return new KafkaConsumerRecord(record, keyDeserializer, valueDeserializer);
     }
 
     public static KafkaRecord fromKafkaSourceRecord(SourceRecord record) {
@@ -79,6 +96,44 @@ public abstract class KafkaRecord implements Record {
         Map<String, ?> sourceOffset();
     }
 
+    /**
+     * A deserializer configured on the consumer.
+     *
+     * @param deserializer the deserializer
+     * @param passThrough true if serializing the deserialized object gives back the same bytes, in
+     *     this case the bytes can be written to another topic as they are
+     */
+    public record RawDeserializer(Deserializer<?> deserializer, boolean passThrough) {}
+
+    /** A record that still holds the bytes read from Kafka. */
+    public interface KafkaSerializedRecord {
+
+        /**
+         * @return true if the key can be written to another topic as it is
+         */
+        boolean isKeyPassThrough();
+
+        /**
+         * @return the bytes of the key, as they were read from Kafka
+         */
+        byte[] serializedKey();
+
+        /**
+         * @return true if the value can be written to another topic as it is
+         */
+        boolean isValuePassThrough();
+
+        /**
+         * @return the bytes of the value, as they were read from Kafka
+         */
+        byte[] serializedValue();
+
+        /**
+         * @return the headers, as they were read from Kafka
+         */
+        org.apache.kafka.common.header.Headers serializedHeaders();
+    }
+
     public interface KafkaConsumerOffsetProvider {
         long offset();
 
@@ -87,27 +142,92 @@ public abstract class KafkaRecord implements Record {
         TopicPartition getTopicPartition();
     }
 
-    @EqualsAndHashCode
-    @ToString
+    @EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper = false)
     private static class KafkaConsumerRecord extends KafkaRecord
-            implements KafkaConsumerOffsetProvider {
-        private final ConsumerRecord<?, ?> record;
-
-        public KafkaConsumerRecord(ConsumerRecord<?, ?> record) {
-            super(
-                    KafkaHeader.fromKafkaHeaders(record.headers()),
-                    new TopicPartition(record.topic(), record.partition()));
+            implements KafkaConsumerOffsetProvider, KafkaSerializedRecord {
+        @EqualsAndHashCode.Include private final ConsumerRecord<?, ?> record;
+        // null if the record has been read with the configured deserializers
+        private final RawDeserializer keyDeserializer;
+        private final RawDeserializer valueDeserializer;
+        private Object key;
+        private boolean keyDeserialized;
+        private Object value;
+        private boolean valueDeserialized;
+        private List<Header> deserializedHeaders;
+
+        public KafkaConsumerRecord(
+                ConsumerRecord<?, ?> record,
+                RawDeserializer keyDeserializer,
+                RawDeserializer valueDeserializer) {
+            super(null, new TopicPartition(record.topic(), record.partition()));
             this.record = record;
+            this.keyDeserializer = keyDeserializer;
+            this.valueDeserializer = valueDeserializer;
         }
 
         @Override
-        public Object key() {
-            return record.key();
+        public synchronized Object key() {
+            if (keyDeserializer == null) {
+                return record.key();
+            }
+            if (!keyDeserialized) {
+                key =
+                        keyDeserializer
+                                .deserializer()
+                                .deserialize(
+                                        record.topic(), record.headers(), (byte[]) record.key());
+                keyDeserialized = true;
+            }
+            return key;
         }
 
         @Override
-        public Object value() {
-            return record.value();
+        public synchronized Object value() {
+            if (valueDeserializer == null) {
+                return record.value();
+            }
+            if (!valueDeserialized) {
+                value =
+                        valueDeserializer
+                                .deserializer()
+                                .deserialize(
+                                        record.topic(), record.headers(), (byte[]) record.value());
+                valueDeserialized = true;
+            }
+            return value;
+        }
+
+        @Override
+        public synchronized List<Header> headers() {
+            if (deserializedHeaders == null) {
+                deserializedHeaders = KafkaHeader.fromKafkaHeaders(record.headers());
+            }
+            return deserializedHeaders;
+        }
+
+        @Override
+        public boolean isKeyPassThrough() {
+            return keyDeserializer != null && keyDeserializer.passThrough();
+        }
+
+        @Override
+        public byte[] serializedKey() {
+            return (byte[]) record.key();
+        }
+
+        @Override
+        public boolean isValuePassThrough() {
+            return valueDeserializer != null && valueDeserializer.passThrough();
+        }
+
+        @Override
+        public byte[] serializedValue() {
+            return (byte[]) record.value();
+        }
+
+        @Override
+        public org.apache.kafka.common.header.Headers serializedHeaders() {
+            return record.headers();
         }
 
         @Override
@@ -139,6 +259,23 @@ public abstract class KafkaRecord implements Record {
         public TimestampType timestampType() {
             return record.timestampType();
         }
+
+        @Override
+        public String toString() {
+            return "KafkaConsumerRecord(topic="
+                    + record.topic()
+                    + ", partition="
+                    + record.partition()
+                    + ", offset="
+                    + record.offset()
+                    + ", key="
+                    + key()
+                    + ", value="
+                    + value()
+                    + ", headers="
+                    + headers()
+                    + ")";
+        }
     }
 
     @EqualsAndHashCode
@@ -52,6 +52,15 @@ import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
 @Slf4j
 public class KafkaTopicConnectionsRuntime implements TopicConnectionsRuntime {
 
+    /**
+     * Set it to true in the configuration of a producer in order to not share the KafkaProducer
+     * with the other producers, for instance because the native producer is handed to code that
+     * closes it.
+     */
+    public static final String DEDICATED_PRODUCER_CONFIG = "langstream.dedicated-producer";
+
+    private final KafkaProducerPool producerPool = new KafkaProducerPool();
+
     @Override
     public TopicReader createReader(
             StreamingCluster streamingCluster,
@@ -64,8 +73,7 @@ public class KafkaTopicConnectionsRuntime implements TopicConnectionsRuntime {
         // do not use group id for reader. "group.id" default value is null, which is not accepted
         // by KafkaConsumer.
         copy.put("group.id", "");
-        // only read one record at the time to have consistent offsets.
-        copy.put("max.poll.records", 1);
+        // the records are read in batches, the reader computes the offset of every record
         String topicName = (String) copy.remove("topic");
         return new KafkaReaderWrapper(copy, topicName, initialPosition);
     }
@@ -115,8 +123,17 @@ public class KafkaTopicConnectionsRuntime implements TopicConnectionsRuntime {
         applyDefaultConfiguration(streamingCluster, copy);
         applyProducerConfiguration(copy);
         String topicName = (String) copy.remove("topic");
+        boolean dedicated = Boolean.parseBoolean(copy.remove(DEDICATED_PRODUCER_CONFIG) + "");
+
+        if (dedicated) {
+            return new KafkaProducerWrapper(copy, topicName);
+        }
+        return new KafkaProducerWrapper(producerPool, copy, topicName);
+    }
 
-        return new KafkaProducerWrapper(copy, topicName);
+    @Override
+    public void close() {
+        producerPool.close();
     }
 
     @Override
@@ -33,6 +33,7 @@ import ai.langstream.api.runner.topics.TopicConnectionProvider;
 import ai.langstream.api.runner.topics.TopicConsumer;
 import ai.langstream.api.runner.topics.TopicProducer;
 import ai.langstream.kafka.runner.KafkaRecord;
+import ai.langstream.kafka.runner.KafkaTopicConnectionsRuntime;
 import com.google.common.collect.Maps;
 import io.confluent.connect.avro.AvroConverter;
 import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
@@ -304,7 +305,10 @@ public class KafkaConnectSourceAgent extends AbstractAgentCode implements AgentS
                                 "key.serializer",
                                 "org.apache.kafka.common.serialization.ByteArraySerializer",
                                 "value.serializer",
-                                "org.apache.kafka.common.serialization.ByteArraySerializer"));
+                                "org.apache.kafka.common.serialization.ByteArraySerializer",
+                                // the offset store takes the ownership of the native producer
+                                KafkaTopicConnectionsRuntime.DEDICATED_PRODUCER_CONFIG,
+                                "true"));
         topicProducerToOffsetStore.start();
         producer = (Producer<byte[], byte[]>) topicProducerToOffsetStore.getNativeProducer();
 
@@ -0,0 +1,122 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.kafka.runner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ai.langstream.api.runner.code.SimpleRecord;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.Test;
+
+class KafkaProducerPoolTest {
+
+    private static final Map<String, Object> CONFIGURATION =
+            Map.of(
+                    "bootstrap.servers", "localhost:9092",
+                    "key.serializer", ByteArraySerializer.class.getName(),
+                    "value.serializer", ByteArraySerializer.class.getName());
+
+    private final List<MockProducer<Object, Object>> created = new ArrayList<>();
+
+    private Producer<Object, Object> createMockProducer(Map<String, Object> configuration) {
+        Serializer<Object> serializer = (Serializer) new ByteArraySerializer();
+        MockProducer<Object, Object> producer = new MockProducer<>(true, serializer, serializer);
+        created.add(producer);
+        return producer;
+    }
+
+    @Test
+    void testShareProducer() throws Exception {
+        KafkaProducerPool pool = new KafkaProducerPool(this::createMockProducer);
+        KafkaProducerWrapper output = new KafkaProducerWrapper(pool, CONFIGURATION, "output");
+        KafkaProducerWrapper deadLetter =
+                new KafkaProducerWrapper(pool, CONFIGURATION, "output-deadletter");
+        output.start();
+        deadLetter.start();
+        assertEquals(1, created.size());
+        assertSame(output.getNativeProducer(), deadLetter.getNativeProducer());
+
+        output.write(SimpleRecord.of("key", "value")).get();
+        output.write(SimpleRecord.of("key", "value")).get();
+        deadLetter.write(SimpleRecord.of("key", "value")).get();
+        assertEquals(
+                List.of("output", "output", "output-deadletter"),
+                created.get(0).history().stream().map(ProducerRecord::topic).toList());
+        assertEquals(2, output.getTotalIn());
+        assertEquals(1, deadLetter.getTotalIn());
+        assertEquals(2, output.getInfo().get("sharedProducerReferences"));
+
+        // a different configuration needs another client
+        Map<String, Object> otherCluster = new HashMap<>(CONFIGURATION);
+        otherCluster.put("bootstrap.servers", "other:9092");
+        KafkaProducerWrapper other = new KafkaProducerWrapper(pool, otherCluster, "output");
+        other.start();
+        assertEquals(2, created.size());
+        assertNotSame(output.getNativeProducer(), other.getNativeProducer());
+
+        // the producer is closed with the last wrapper
+        output.close();
+        assertFalse(created.get(0).closed());
+        deadLetter.close();
+        assertTrue(created.get(0).closed());
+        assertEquals(1, pool.size());
+
+        pool.close();
+        assertTrue(created.get(1).closed());
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    void testConcurrentWrites() throws Exception {
+        KafkaProducerPool pool = new KafkaProducerPool(this::createMockProducer);
+        KafkaProducerWrapper producer = new KafkaProducerWrapper(pool, CONFIGURATION, "output");
+        producer.start();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<CompletableFuture<?>> writes = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                // alternate the types in order to exercise the lookup of the serializers
+                String key = i + "";
+                Object value = i % 2 == 0 ? "value" + i : Map.of("i", i);
+                writes.add(
+                        CompletableFuture.supplyAsync(
+                                        () -> producer.write(SimpleRecord.of(key, value)), executor)
+                                .thenCompose(f -> f));
+            }
+            CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).get();
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1000, producer.getTotalIn());
+        assertEquals(1000, created.get(0).history().size());
+        producer.close();
+    }
+}
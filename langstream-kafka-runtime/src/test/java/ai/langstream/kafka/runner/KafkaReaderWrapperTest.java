@@ -0,0 +1,149 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.kafka.runner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import ai.langstream.api.runner.code.Record;
+import ai.langstream.api.runner.topics.OffsetPerPartition;
+import ai.langstream.api.runner.topics.TopicOffsetPosition;
+import ai.langstream.api.runner.topics.TopicReadResult;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+class KafkaReaderWrapperTest {
+
+    private static final String TOPIC = "input";
+
+    private static class MockReader extends KafkaReaderWrapper {
+        final MockConsumer<String, String> mockConsumer =
+                new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        // the records on the topic, they are added to the consumer after the seek
+        final List<ConsumerRecord<String, String>> topic = new ArrayList<>();
+
+        MockReader(TopicOffsetPosition initialPosition) {
+            super(Map.of(), TOPIC, initialPosition);
+            mockConsumer.updatePartitions(
+                    TOPIC,
+                    List.of(
+                            new PartitionInfo(TOPIC, 0, null, null, null),
+                            new PartitionInfo(TOPIC, 1, null, null, null)));
+            Map<TopicPartition, Long> offsets = new HashMap<>();
+            offsets.put(new TopicPartition(TOPIC, 0), 0L);
+            offsets.put(new TopicPartition(TOPIC, 1), 0L);
+            mockConsumer.updateBeginningOffsets(offsets);
+            for (int i = 0; i < 3; i++) {
+                topic.add(new ConsumerRecord<>(TOPIC, 0, i, "key", "p0-" + i));
+            }
+            for (int i = 0; i < 2; i++) {
+                topic.add(new ConsumerRecord<>(TOPIC, 1, i, "key", "p1-" + i));
+            }
+            offsets.put(new TopicPartition(TOPIC, 0), 3L);
+            offsets.put(new TopicPartition(TOPIC, 1), 2L);
+            mockConsumer.updateEndOffsets(offsets);
+        }
+
+        @Override
+        Consumer<?, ?> createConsumer(Map<String, Object> configuration) {
+            return mockConsumer;
+        }
+
+        @Override
+        public void start() throws IOException {
+            super.start();
+            for (ConsumerRecord<String, String> record : topic) {
+                if (record.offset()
+                        >= mockConsumer.position(new TopicPartition(TOPIC, record.partition()))) {
+                    mockConsumer.addRecord(record);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testOffsetOfEveryRecord() throws Exception {
+        MockReader reader = new MockReader(TopicOffsetPosition.EARLIEST);
+        reader.start();
+        TopicReadResult result = reader.read();
+        List<Record> records = result.records();
+        // all the available records are returned by a single read
+        assertEquals(5, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            KafkaRecord record = (KafkaRecord) records.get(i);
+            Map<String, String> offsets = parse(result.offset(i));
+            assertEquals(
+                    ((KafkaRecord.KafkaConsumerOffsetProvider) record).offset() + 1 + "",
+                    offsets.get(record.partition() + ""));
+        }
+        assertEquals(Map.of("0", "3", "1", "2"), parse(result.offset()));
+
+        // nothing to read, the offset is the current position
+        TopicReadResult empty = reader.read();
+        assertEquals(0, empty.records().size());
+        assertEquals(Map.of("0", "3", "1", "2"), parse(empty.offset()));
+        reader.close();
+    }
+
+    @Test
+    void testResumeAfterRecord() throws Exception {
+        MockReader reader = new MockReader(TopicOffsetPosition.EARLIEST);
+        reader.start();
+        TopicReadResult result = reader.read();
+        // resume right after the second record of partition 0
+        int index = -1;
+        for (int i = 0; i < result.records().size(); i++) {
+            if ("p0-1".equals(result.records().get(i).value())) {
+                index = i;
+            }
+        }
+        byte[] offset = result.offset(index);
+        reader.close();
+
+        MockReader resumed = new MockReader(TopicOffsetPosition.absolute(offset));
+        resumed.start();
+        List<Object> values = new ArrayList<>();
+        for (Record record : resumed.read().records()) {
+            values.add(record.value());
+        }
+        Map<String, String> expectedOffsets = parse(offset);
+        List<Object> expected = new ArrayList<>();
+        expected.add("p0-2");
+        if (expectedOffsets.get("1").equals("0")) {
+            expected.add("p1-0");
+            expected.add("p1-1");
+        } else if (expectedOffsets.get("1").equals("1")) {
+            expected.add("p1-1");
+        }
+        assertEquals(expected.size(), values.size());
+        assertEquals(new HashSet<>(expected), new HashSet<>(values));
+        resumed.close();
+    }
+
+    private static Map<String, String> parse(byte[] offset) throws Exception {
+        return KafkaReaderWrapper.mapper.readValue(offset, OffsetPerPartition.class).offsets();
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.kafka.runner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ai.langstream.api.runner.code.Record;
+import ai.langstream.api.runner.code.SimpleRecord;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.LongDeserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+
+class KafkaRecordTest {
+
+    private static class CountingDeserializer extends StringDeserializer {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String deserialize(String topic, Headers headers, byte[] data) {
+            calls.incrementAndGet();
+            return super.deserialize(topic, headers, data);
+        }
+    }
+
+    private static ConsumerRecord<byte[], byte[]> consumerRecord() {
+        ConsumerRecord<byte[], byte[]> record =
+                new ConsumerRecord<>(
+                        "input",
+                        0,
+                        10,
+                        "key".getBytes(StandardCharsets.UTF_8),
+                        "value".getBytes(StandardCharsets.UTF_8));
+        record.headers().add("header", "header-value".getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    @Test
+    void testLazyDeserialization() {
+        CountingDeserializer keyDeserializer = new CountingDeserializer();
+        CountingDeserializer valueDeserializer = new CountingDeserializer();
+        KafkaRecord record =
+                KafkaRecord.fromKafkaConsumerRecord(
+                        consumerRecord(),
+                        new KafkaRecord.RawDeserializer(keyDeserializer, true),
+                        new KafkaRecord.RawDeserializer(valueDeserializer, true));
+
+        assertEquals("header-value", record.getHeader("header").valueAsString());
+        assertEquals(0, keyDeserializer.calls.get());
+        assertEquals(0, valueDeserializer.calls.get());
+
+        assertEquals("value", record.value());
+        assertEquals("value", record.value());
+        assertEquals(0, keyDeserializer.calls.get());
+        assertEquals(1, valueDeserializer.calls.get());
+        assertEquals("key", record.key());
+        assertEquals(1, keyDeserializer.calls.get());
+    }
+
+    @Test
+    void testPassThrough() throws Exception {
+        Map<String, Object> configuration =
+                Map.of(
+                        "key.serializer", ByteArraySerializer.class.getName(),
+                        "value.serializer", ByteArraySerializer.class.getName());
+        KafkaProducerWrapper producer = new KafkaProducerWrapper(configuration, "output");
+        Serializer<Object> serializer = (Serializer) new ByteArraySerializer();
+        MockProducer<Object, Object> mockProducer =
+                new MockProducer<>(true, serializer, serializer);
+        producer.producer = mockProducer;
+
+        CountingDeserializer keyDeserializer = new CountingDeserializer();
+        CountingDeserializer valueDeserializer = new CountingDeserializer();
+        ConsumerRecord<byte[], byte[]> consumerRecord = consumerRecord();
+        KafkaRecord record =
+                KafkaRecord.fromKafkaConsumerRecord(
+                        consumerRecord,
+                        new KafkaRecord.RawDeserializer(keyDeserializer, true),
+                        new KafkaRecord.RawDeserializer(valueDeserializer, true));
+        producer.write(record).get();
+
+        // the bytes are written as they are
+        ProducerRecord<Object, Object> written = mockProducer.history().get(0);
+        assertSame(consumerRecord.key(), written.key());
+        assertSame(consumerRecord.value(), written.value());
+        assertEquals(
+                "header-value",
+                new String(written.headers().lastHeader("header").value(), StandardCharsets.UTF_8));
+        assertEquals(0, keyDeserializer.calls.get());
+        assertEquals(0, valueDeserializer.calls.get());
+
+        // the other records are serialized as usual
+        producer.write(
+                        SimpleRecord.builder()
+                                .key("key")
+                                .value(Map.of("a", 1))
+                                .headers(List.of(SimpleRecord.SimpleHeader.of("h", "v")))
+                                .build())
+                .get();
+        written = mockProducer.history().get(1);
+        assertEquals("key", new String((byte[]) written.key(), StandardCharsets.UTF_8));
+        assertEquals("{\"a\":1}", new String((byte[]) written.value(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testNoPassThroughWithoutDefaultSerializers() throws Exception {
+        KafkaProducerWrapper producer =
+                new KafkaProducerWrapper(
+                        Map.of(
+                                "key.serializer",
+                                ByteArraySerializer.class.getName(),
+                                "value.serializer",
+                                "org.apache.kafka.common.serialization.StringSerializer"),
+                        "output");
+        Serializer<Object> serializer = (Serializer) new ByteArraySerializer();
+        MockProducer<Object, Object> mockProducer =
+                new MockProducer<>(true, serializer, (Serializer) new StringSerializer());
+        producer.producer = mockProducer;
+        Record record =
+                KafkaRecord.fromKafkaConsumerRecord(
+                        consumerRecord(),
+                        new KafkaRecord.RawDeserializer(new StringDeserializer(), true),
+                        new KafkaRecord.RawDeserializer(new StringDeserializer(), true));
+        producer.write(record).get();
+        assertEquals("value", mockProducer.history().get(0).value());
+    }
+
+    @Test
+    void testIsPassThrough() {
+        assertTrue(
+                KafkaConsumerWrapper.isPassThrough(new ByteArrayDeserializer(), Map.of(), false));
+        assertTrue(KafkaConsumerWrapper.isPassThrough(new StringDeserializer(), Map.of(), true));
+        assertTrue(
+                KafkaConsumerWrapper.isPassThrough(
+                        new StringDeserializer(),
+                        Map.of("value.deserializer.encoding", "UTF-8"),
+                        false));
+        assertFalse(
+                KafkaConsumerWrapper.isPassThrough(
+                        new StringDeserializer(),
+                        Map.of("value.deserializer.encoding", "UTF-16"),
+                        false));
+        assertFalse(
+                KafkaConsumerWrapper.isPassThrough(
+                        new StringDeserializer(), Map.of("deserializer.encoding", "UTF-16"), true));
+        assertFalse(KafkaConsumerWrapper.isPassThrough(new LongDeserializer(), Map.of(), false));
+    }
+}
@@ -22,6 +22,7 @@ import ai.langstream.api.util.ConfigurationUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.pravega.client.ClientConfig;
 import io.pravega.client.EventStreamClientFactory;
+import io.pravega.client.SynchronizerClientFactory;
 import io.pravega.client.admin.ReaderGroupManager;
 import io.pravega.client.admin.StreamManager;
 import java.net.URI;
@@ -78,6 +79,21 @@ public class PravegaClientUtils {
         return EventStreamClientFactory.withScope(scope, clientConfig1);
     }
 
+    public static SynchronizerClientFactory buildSynchronizerClientFactory(
+            StreamingCluster streamingCluster) throws Exception {
+        final PravegaClusterRuntimeConfiguration pravegaClusterRuntimeConfiguration =
+                getPravegaClusterRuntimeConfiguration(streamingCluster);
+        Map<String, Object> clientConfig = pravegaClusterRuntimeConfiguration.client();
+        String controllerUri =
+                ConfigurationUtils.getString(
+                        "controller-uri", "tcp://localhost:9090", clientConfig);
+        String scope = ConfigurationUtils.getString("scope", "langstream", clientConfig);
+        ClientConfig clientConfig1 =
+                ClientConfig.builder().controllerURI(new URI(controllerUri)).build();
+
+        return SynchronizerClientFactory.withScope(scope, clientConfig1);
+    }
+
     public static String getScope(PravegaClusterRuntimeConfiguration configuration) {
         return ConfigurationUtils.getString("scope", "langstream", configuration.client());
     }
@@ -0,0 +1,354 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.pravega;
+
+import ai.langstream.pravega.PravegaTopicConnectionsRuntimeProvider.RecordWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.pravega.client.stream.Serializer;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.SneakyThrows;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+
+/**
+ * Serializes the records written to the Pravega streams.
+ *
+ * <p>With the {@link RecordFormat#JSON} format the {@link RecordWrapper} is written as a JSON
+ * document. With the {@link RecordFormat#BINARY} format it is written as a compact envelope:
+ *
+ * <pre>
+ * magic (0) | version (1) | timestamp | key | value | number of headers | headers
+ * </pre>
+ *
+ * <p>Each value starts with a type tag and the variable length values are prefixed by their length,
+ * so binary payloads are not encoded as text. Avro records are written with the fingerprint of the
+ * schema and the binary encoding of the record, the schema is registered once in a {@link
+ * SchemaRegistry} shared by the writers and the readers. Without a registry the schema is written
+ * in each event, after the fingerprint, and the readers parse each schema only once.
+ *
+ * <p>The JSON events always start with '{', the reader detects the format of each event, so the
+ * streams written with the JSON format can still be read after switching to the binary format.
+ */
+public class PravegaRecordSerializer implements Serializer<RecordWrapper> {
+
+    public enum RecordFormat {
+        JSON,
+        BINARY;
+
+        public static RecordFormat of(String value) {
+            if (value == null || value.isBlank()) {
+                return JSON;
+            }
+            return switch (value) {
+                case "json" -> JSON;
+                case "binary" -> BINARY;
+                default -> throw new IllegalArgumentException(
+                        "Unsupported record-format "
+                                + value
+                                + ", only json and binary are allowed");
+            };
+        }
+    }
+
+    static final byte MAGIC = 0;
+    static final byte VERSION = 1;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_BYTES = 2;
+    private static final byte TYPE_BOOLEAN = 3;
+    private static final byte TYPE_INT = 4;
+    private static final byte TYPE_LONG = 5;
+    private static final byte TYPE_FLOAT = 6;
+    private static final byte TYPE_DOUBLE = 7;
+    private static final byte TYPE_JSON = 8;
+    private static final byte TYPE_AVRO = 9;
+    private static final byte TYPE_AVRO_REGISTERED = 10;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private record WriterSchema(long fingerprint, byte[] schema) {}
+
+    private static final Map<Schema, WriterSchema> WRITER_SCHEMAS = new ConcurrentHashMap<>();
+    private static final Map<Long, Schema> READER_SCHEMAS = new ConcurrentHashMap<>();
+
+    /** Stores the Avro schemas referenced by the events, by their fingerprint. */
+    public interface SchemaRegistry {
+        /**
+         * Registers the schema, if it was not registered yet.
+         *
+         * @param schema the schema
+         * @return the fingerprint that identifies the schema
+         */
+        long register(Schema schema);
+
+        /**
+         * @param fingerprint the fingerprint of the schema
+         * @return the schema
+         * @throws IllegalStateException if the schema is not registered
+         */
+        Schema lookup(long fingerprint);
+    }
+
+    private final RecordFormat format;
+    private final SchemaRegistry schemaRegistry;
+
+    public PravegaRecordSerializer(RecordFormat format) {
+        this(format, null);
+    }
+
+    /**
+     * @param format the format of the events written
+     * @param schemaRegistry the registry of the Avro schemas, null to write the schema in each
+     *     event
+     */
+    public PravegaRecordSerializer(RecordFormat format, SchemaRegistry schemaRegistry) {
+        this.format = format;
+        this.schemaRegistry = schemaRegistry;
+    }
+
+    @Override
+    @SneakyThrows
+    public ByteBuffer serialize(RecordWrapper record) {
+        if (format == RecordFormat.JSON) {
+            return ByteBuffer.wrap(MAPPER.writeValueAsBytes(record));
+        }
+        EnvelopeOutputStream out = new EnvelopeOutputStream();
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        writeValue(out, record.timestamp());
+        writeValue(out, record.key());
+        writeValue(out, record.value());
+        Map<String, Object> headers = record.headers();
+        out.writeInt(headers == null ? 0 : headers.size());
+        if (headers != null) {
+            for (Map.Entry<String, Object> header : headers.entrySet()) {
+                writeValue(out, header.getKey());
+                writeValue(out, header.getValue());
+            }
+        }
+        return out.toByteBuffer();
+    }
+
+    @Override
+    @SneakyThrows
+    public RecordWrapper deserialize(ByteBuffer serializedValue) {
+        ByteBuffer in = serializedValue.slice();
+        if (!in.hasRemaining() || in.get(0) != MAGIC) {
+            return MAPPER.readValue(toArray(in), RecordWrapper.class);
+        }
+        in.get();
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported record envelope version " + version);
+        }
+        Long timestamp = (Long) readValue(in);
+        Object key = readValue(in);
+        Object value = readValue(in);
+        int numHeaders = in.getInt();
+        Map<String, Object> headers = new HashMap<>();
+        for (int i = 0; i < numHeaders; i++) {
+            headers.put((String) readValue(in), readValue(in));
+        }
+        return new RecordWrapper(key, value, headers, timestamp);
+    }
+
+    private void writeValue(EnvelopeOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof String s) {
+            out.writeByte(TYPE_STRING);
+            writeBytes(out, s.getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof byte[] bytes) {
+            out.writeByte(TYPE_BYTES);
+            writeBytes(out, bytes);
+        } else if (value instanceof ByteBuffer byteBuffer) {
+            out.writeByte(TYPE_BYTES);
+            writeBytes(out, toArray(byteBuffer.slice()));
+        } else if (value instanceof Boolean b) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean(b);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(TYPE_INT);
+            out.writeInt(((Number) value).intValue());
+        } else if (value instanceof Long l) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong(l);
+        } else if (value instanceof Float f) {
+            out.writeByte(TYPE_FLOAT);
+            out.writeFloat(f);
+        } else if (value instanceof Double d) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble(d);
+        } else if (value instanceof GenericRecord genericRecord) {
+            writeAvro(out, genericRecord);
+        } else {
+            out.writeByte(TYPE_JSON);
+            out.writeJson(value);
+        }
+    }
+
+    private void writeAvro(EnvelopeOutputStream out, GenericRecord record) throws IOException {
+        Schema schema = record.getSchema();
+        if (schemaRegistry != null) {
+            out.writeByte(TYPE_AVRO_REGISTERED);
+            out.writeLong(schemaRegistry.register(schema));
+        } else {
+            WriterSchema writerSchema =
+                    WRITER_SCHEMAS.computeIfAbsent(
+                            schema,
+                            s ->
+                                    new WriterSchema(
+                                            SchemaNormalization.parsingFingerprint64(s),
+                                            s.toString().getBytes(StandardCharsets.UTF_8)));
+            out.writeByte(TYPE_AVRO);
+            out.writeLong(writerSchema.fingerprint());
+            writeBytes(out, writerSchema.schema());
+        }
+        ByteArrayOutputStream datum = new ByteArrayOutputStream();
+        BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(datum, null);
+        new GenericDatumWriter<GenericRecord>(schema).write(record, encoder);
+        encoder.flush();
+        writeBytes(out, datum.toByteArray());
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private Object readValue(ByteBuffer in) throws IOException {
+        byte type = in.get();
+        return switch (type) {
+            case TYPE_NULL -> null;
+            case TYPE_STRING -> new String(readBytes(in), StandardCharsets.UTF_8);
+            case TYPE_BYTES -> readBytes(in);
+            case TYPE_BOOLEAN -> in.get() != 0;
+            case TYPE_INT -> in.getInt();
+            case TYPE_LONG -> in.getLong();
+            case TYPE_FLOAT -> in.getFloat();
+            case TYPE_DOUBLE -> in.getDouble();
+            case TYPE_JSON -> readJson(in);
+            case TYPE_AVRO -> readAvro(in);
+            case TYPE_AVRO_REGISTERED -> readRegisteredAvro(in);
+            default -> throw new IllegalStateException("Unknown type tag " + type);
+        };
+    }
+
+    private static GenericRecord readAvro(ByteBuffer in) throws IOException {
+        long fingerprint = in.getLong();
+        Schema schema = READER_SCHEMAS.get(fingerprint);
+        if (schema == null) {
+            schema = new Schema.Parser().parse(new String(readBytes(in), StandardCharsets.UTF_8));
+            READER_SCHEMAS.put(fingerprint, schema);
+        } else {
+            // skip the schema, it has already been parsed
+            int length = in.getInt();
+            in.position(in.position() + length);
+        }
+        return readDatum(in, schema);
+    }
+
+    private GenericRecord readRegisteredAvro(ByteBuffer in) throws IOException {
+        long fingerprint = in.getLong();
+        if (schemaRegistry == null) {
+            throw new IllegalStateException(
+                    "The event references the registered schema "
+                            + fingerprint
+                            + " but no schema registry is configured");
+        }
+        return readDatum(in, schemaRegistry.lookup(fingerprint));
+    }
+
+    private static GenericRecord readDatum(ByteBuffer in, Schema schema) throws IOException {
+        byte[] datum = readBytes(in);
+        return new GenericDatumReader<GenericRecord>(schema)
+                .read(null, DecoderFactory.get().binaryDecoder(datum, null));
+    }
+
+    private static Object readJson(ByteBuffer in) throws IOException {
+        if (!in.hasArray()) {
+            return MAPPER.readValue(readBytes(in), Object.class);
+        }
+        int length = in.getInt();
+        int offset = in.arrayOffset() + in.position();
+        in.position(in.position() + length);
+        return MAPPER.readValue(in.array(), offset, length, Object.class);
+    }
+
+    private static byte[] readBytes(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return bytes;
+    }
+
+    /** Writes the envelope to a buffer that is returned without copying it. */
+    private static final class EnvelopeOutputStream extends DataOutputStream {
+        private final Buffer buffer;
+
+        EnvelopeOutputStream() {
+            this(new Buffer());
+        }
+
+        private EnvelopeOutputStream(Buffer buffer) {
+            super(buffer);
+            this.buffer = buffer;
+        }
+
+        /** Writes the JSON directly to the envelope and then fills in the length. */
+        void writeJson(Object value) throws IOException {
+            writeInt(0);
+            int start = buffer.size();
+            MAPPER.writeValue((OutputStream) buffer, value);
+            ByteBuffer.wrap(buffer.array(), start - Integer.BYTES, Integer.BYTES)
+                    .putInt(buffer.size() - start);
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(buffer.array(), 0, buffer.size());
+        }
+
+        private static final class Buffer extends ByteArrayOutputStream {
+            Buffer() {
+                super(1024);
+            }
+
+            byte[] array() {
+                return buf;
+            }
+        }
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
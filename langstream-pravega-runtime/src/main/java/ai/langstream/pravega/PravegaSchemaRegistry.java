@@ -0,0 +1,133 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.pravega;
+
+import io.pravega.client.SynchronizerClientFactory;
+import io.pravega.client.admin.StreamManager;
+import io.pravega.client.state.Revision;
+import io.pravega.client.state.RevisionedStreamClient;
+import io.pravega.client.state.SynchronizerConfig;
+import io.pravega.client.stream.ScalingPolicy;
+import io.pravega.client.stream.StreamConfiguration;
+import io.pravega.client.stream.impl.UTF8StringSerializer;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+
+/**
+ * A {@link PravegaRecordSerializer.SchemaRegistry} backed by a Pravega stream of the scope.
+ *
+ * <p>Each schema is appended once to the stream, the writers append it before writing the first
+ * event that references it. The readers read the stream again only when they find a fingerprint
+ * they don't know, the schemas already seen are kept in memory.
+ */
+@Slf4j
+class PravegaSchemaRegistry implements PravegaRecordSerializer.SchemaRegistry, AutoCloseable {
+
+    static final String SCHEMAS_STREAM = "langstream-schemas";
+
+    private final StreamManager streamManager;
+    private final SynchronizerClientFactory clientFactory;
+    private final String scope;
+    private final Map<Long, Schema> schemas = new ConcurrentHashMap<>();
+
+    // guarded by this
+    private RevisionedStreamClient<String> client;
+    private Revision readUpTo;
+
+    PravegaSchemaRegistry(
+            StreamManager streamManager, SynchronizerClientFactory clientFactory, String scope) {
+        this.streamManager = streamManager;
+        this.clientFactory = clientFactory;
+        this.scope = scope;
+    }
+
+    @Override
+    public long register(Schema schema) {
+        long fingerprint = SchemaNormalization.parsingFingerprint64(schema);
+        if (schemas.containsKey(fingerprint)) {
+            return fingerprint;
+        }
+        synchronized (this) {
+            // another writer may have registered it already
+            readNewSchemas();
+            if (!schemas.containsKey(fingerprint)) {
+                log.info("Registering schema {} in stream {}", fingerprint, SCHEMAS_STREAM);
+                client().writeUnconditionally(schema.toString());
+                schemas.put(fingerprint, schema);
+            }
+        }
+        return fingerprint;
+    }
+
+    @Override
+    public Schema lookup(long fingerprint) {
+        Schema schema = schemas.get(fingerprint);
+        if (schema != null) {
+            return schema;
+        }
+        synchronized (this) {
+            readNewSchemas();
+        }
+        schema = schemas.get(fingerprint);
+        if (schema == null) {
+            throw new IllegalStateException(
+                    "Schema " + fingerprint + " not found in stream " + SCHEMAS_STREAM);
+        }
+        return schema;
+    }
+
+    private void readNewSchemas() {
+        RevisionedStreamClient<String> client = client();
+        Iterator<Map.Entry<Revision, String>> iterator =
+                client.readFrom(readUpTo != null ? readUpTo : client.fetchOldestRevision());
+        while (iterator.hasNext()) {
+            Map.Entry<Revision, String> entry = iterator.next();
+            Schema schema = new Schema.Parser().parse(entry.getValue());
+            schemas.putIfAbsent(SchemaNormalization.parsingFingerprint64(schema), schema);
+            readUpTo = entry.getKey();
+        }
+    }
+
+    private RevisionedStreamClient<String> client() {
+        if (client == null) {
+            if (streamManager.createStream(
+                    scope,
+                    SCHEMAS_STREAM,
+                    StreamConfiguration.builder().scalingPolicy(ScalingPolicy.fixed(1)).build())) {
+                log.info("Created stream {} in scope {}", SCHEMAS_STREAM, scope);
+            }
+            client =
+                    clientFactory.createRevisionedStreamClient(
+                            SCHEMAS_STREAM,
+                            new UTF8StringSerializer(),
+                            SynchronizerConfig.builder().build());
+        }
+        return client;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (client != null) {
+            client.close();
+        }
+        clientFactory.close();
+        streamManager.close();
+    }
+}
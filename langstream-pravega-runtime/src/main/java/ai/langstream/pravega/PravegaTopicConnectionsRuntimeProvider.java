@@ -33,7 +33,6 @@ import ai.langstream.api.runner.topics.TopicReadResult;
 import ai.langstream.api.runner.topics.TopicReader;
 import ai.langstream.api.runtime.ExecutionPlan;
 import ai.langstream.api.runtime.Topic;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.pravega.client.EventStreamClientFactory;
 import io.pravega.client.admin.ReaderGroupManager;
@@ -47,7 +46,6 @@ import io.pravega.client.stream.ReaderGroupConfig;
 import io.pravega.client.stream.ScalingPolicy;
 import io.pravega.client.stream.Stream;
 import io.pravega.client.stream.StreamConfiguration;
-import io.pravega.client.stream.impl.UTF8StringSerializer;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -82,6 +80,10 @@ public class PravegaTopicConnectionsRuntimeProvider implements TopicConnectionsR
 
         private String scope;
 
+        private PravegaSchemaRegistry schemaRegistry;
+
+        private PravegaRecordSerializer serializer;
+
         @Override
         @SneakyThrows
         public void init(StreamingCluster streamingCluster) {
@@ -89,6 +91,18 @@ public class PravegaTopicConnectionsRuntimeProvider implements TopicConnectionsR
             PravegaClusterRuntimeConfiguration pravegaClusterRuntimeConfiguration =
                     PravegaClientUtils.getPravegarClusterRuntimeConfiguration(streamingCluster);
             scope = PravegaClientUtils.getScope(pravegaClusterRuntimeConfiguration);
+            PravegaRecordSerializer.RecordFormat recordFormat =
+                    PravegaRecordSerializer.RecordFormat.of(
+                            pravegaClusterRuntimeConfiguration.recordFormat());
+            // the readers may find registered schemas in the events whatever the format of the
+            // writers, the stream of the schemas is created only when it is used
+            schemaRegistry =
+                    new PravegaSchemaRegistry(
+                            PravegaClientUtils.buildStreamManager(
+                                    pravegaClusterRuntimeConfiguration),
+                            PravegaClientUtils.buildSynchronizerClientFactory(streamingCluster),
+                            scope);
+            serializer = new PravegaRecordSerializer(recordFormat, schemaRegistry);
             readerGroupManager = PravegaClientUtils.buildReaderGroupManager(streamingCluster);
         }
 
@@ -101,6 +115,9 @@ public class PravegaTopicConnectionsRuntimeProvider implements TopicConnectionsR
             if (readerGroupManager != null) {
                 readerGroupManager.close();
             }
+            if (schemaRegistry != null) {
+                schemaRegistry.close();
+            }
         }
 
         @Override
@@ -117,7 +134,7 @@ public class PravegaTopicConnectionsRuntimeProvider implements TopicConnectionsR
 
             return new TopicReader() {
 
-                EventStreamReader<String> reader;
+                EventStreamReader<RecordWrapper> reader;
 
                 AtomicLong totalOut = new AtomicLong();
 
@@ -132,7 +149,7 @@ public class PravegaTopicConnectionsRuntimeProvider implements TopicConnectionsR
                             client.createReader(
                                     readerId,
                                     readerGroup,
-                                    new UTF8StringSerializer(),
+                                    serializer,
                                     ReaderConfig.builder().build());
                 }
 
@@ -151,15 +168,17 @@ public class PravegaTopicConnectionsRuntimeProvider implements TopicConnectionsR
 
                 @Override
                 public TopicReadResult read() throws Exception {
-                    EventRead<String> stringEventRead = reader.readNextEvent(1000);
-                    log.info("Read event {}", stringEventRead);
+                    EventRead<RecordWrapper> eventRead = reader.readNextEvent(1000);
+                    if (log.isDebugEnabled()) {
+                        log.debug("Read event {}", eventRead);
+                    }
 
-                    if (stringEventRead != null
-                            && stringEventRead.getEvent() != null
-                            && !stringEventRead.isCheckpoint()) {
+                    if (eventRead != null
+                            && eventRead.getEvent() != null
+                            && !eventRead.isCheckpoint()) {
                         totalOut.incrementAndGet();
 
-                        SimpleRecord build = convertToRecord(stringEventRead, topic);
+                        SimpleRecord build = convertToRecord(eventRead.getEvent(), topic);
                         return new TopicReadResult() {
                             @Override
                             public List<Record> records() {
@@ -168,7 +187,7 @@ public class PravegaTopicConnectionsRuntimeProvider implements TopicConnectionsR
 
                             @Override
                             public byte[] offset() {
-                                ByteBuffer position = stringEventRead.getPosition().toBytes();
+                                ByteBuffer position = eventRead.getPosition().toBytes();
                                 byte[] array = new byte[position.remaining()];
                                 position.get(array);
                                 return array;
@@ -202,7 +221,7 @@ public class PravegaTopicConnectionsRuntimeProvider implements TopicConnectionsR
             String topic = (String) configuration.get("topic");
             return new TopicConsumer() {
 
-                EventStreamReader<String> reader;
+                EventStreamReader<RecordWrapper> reader;
 
                 AtomicLong totalOut = new AtomicLong();
 
@@ -222,7 +241,7 @@ public class PravegaTopicConnectionsRuntimeProvider implements TopicConnectionsR
                             client.createReader(
                                     readerId,
                                     readerGroup,
-                                    new UTF8StringSerializer(),
+                                    serializer,
                                     ReaderConfig.builder().build());
                 }
 
@@ -235,15 +254,17 @@ public class PravegaTopicConnectionsRuntimeProvider implements TopicConnectionsR
 
                 @Override
                 public List<Record> read() throws Exception {
-                    EventRead<String> stringEventRead = reader.readNextEvent(1000);
-                    log.info("Read event {}", stringEventRead);
+                    EventRead<RecordWrapper> eventRead = reader.readNextEvent(1000);
+                    if (log.isDebugEnabled()) {
+                        log.debug("Read event {}", eventRead);
+                    }
 
-                    if (stringEventRead != null
-                            && stringEventRead.getEvent() != null
-                            && !stringEventRead.isCheckpoint()) {
+                    if (eventRead != null
+                            && eventRead.getEvent() != null
+                            && !eventRead.isCheckpoint()) {
                         totalOut.incrementAndGet();
 
-                        SimpleRecord build = convertToRecord(stringEventRead, topic);
+                        SimpleRecord build = convertToRecord(eventRead.getEvent(), topic);
                         return List.of(build);
                     }
 
@@ -283,7 +304,7 @@ public class PravegaTopicConnectionsRuntimeProvider implements TopicConnectionsR
 
             return new TopicProducer() {
 
-                EventStreamWriter<String> eventStreamWriter;
+                EventStreamWriter<RecordWrapper> eventStreamWriter;
 
                 final AtomicLong totalIn = new AtomicLong();
 
@@ -294,7 +315,7 @@ public class PravegaTopicConnectionsRuntimeProvider implements TopicConnectionsR
                             client.createEventWriter(
                                     producerId,
                                     topic,
-                                    new UTF8StringSerializer(),
+                                    serializer,
                                     EventWriterConfig.builder().build());
                 }
 
@@ -307,18 +328,19 @@ public class PravegaTopicConnectionsRuntimeProvider implements TopicConnectionsR
 
                 @Override
                 public CompletableFuture<?> write(Record record) {
-                    log.info("Writing to {} record {}", topic, record);
+                    if (log.isDebugEnabled()) {
+                        log.debug("Writing to {} record {}", topic, record);
+                    }
                     totalIn.incrementAndGet();
                     try {
                         String key = serialiseKey(record.key());
-                        String value = serialiseValue(record);
-                        log.info("Writing key {} value {}", key, value);
+                        RecordWrapper value = toRecordWrapper(record);
                         if (key != null) {
                             return eventStreamWriter.writeEvent(key, value);
                         } else {
                             return eventStreamWriter.writeEvent(value);
                         }
-                    } catch (IOException err) {
+                    } catch (Exception err) {
                         return CompletableFuture.failedFuture(err);
                     }
                 }
@@ -460,11 +482,8 @@ public class PravegaTopicConnectionsRuntimeProvider implements TopicConnectionsR
         }
     }
 
-    public static SimpleRecord convertToRecord(EventRead<String> stringEventRead, String topic)
-            throws JsonProcessingException {
+    public static SimpleRecord convertToRecord(RecordWrapper wrapper, String topic) {
         Collection<Header> headers = new ArrayList<>();
-        log.info("decoding event {}", stringEventRead.getEvent());
-        RecordWrapper wrapper = mapper.readValue(stringEventRead.getEvent(), RecordWrapper.class);
         if (wrapper.headers != null) {
             wrapper.headers.forEach(
                     (key, value) -> headers.add(new SimpleRecord.SimpleHeader(key, value)));
@@ -492,14 +511,12 @@ public class PravegaTopicConnectionsRuntimeProvider implements TopicConnectionsR
         return mapper.writeValueAsString(o);
     }
 
-    private static String serialiseValue(Record record) throws IOException {
+    private static RecordWrapper toRecordWrapper(Record record) {
         Map<String, Object> headers = new HashMap<>();
         if (record.headers() != null) {
             record.headers().forEach(header -> headers.put(header.key(), header.value()));
         }
-        RecordWrapper wrapper =
-                new RecordWrapper(record.key(), record.value(), headers, record.timestamp());
-        return mapper.writeValueAsString(wrapper);
+        return new RecordWrapper(record.key(), record.value(), headers, record.timestamp());
     }
 
     public record RecordWrapper(
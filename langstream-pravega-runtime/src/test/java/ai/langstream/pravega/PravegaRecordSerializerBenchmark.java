@@ -0,0 +1,108 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.pravega;
+
+import ai.langstream.pravega.PravegaRecordSerializer.RecordFormat;
+import ai.langstream.pravega.PravegaTopicConnectionsRuntimeProvider.RecordWrapper;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the records per second that can be serialized and deserialized with the JSON and the
+ * binary envelopes, for a text document and for a binary payload.
+ *
+ * <p>Run it with: {@code java -cp <test classpath>
+ * ai.langstream.pravega.PravegaRecordSerializerBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PravegaRecordSerializerBenchmark {
+
+    @Param({"JSON", "BINARY"})
+    RecordFormat format;
+
+    @Param({"document", "bytes"})
+    String payload;
+
+    private PravegaRecordSerializer serializer;
+    private RecordWrapper record;
+
+    @Setup
+    public void setup() {
+        serializer = new PravegaRecordSerializer(format);
+        Object value;
+        if (payload.equals("bytes")) {
+            byte[] bytes = new byte[4096];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) i;
+            }
+            value = bytes;
+        } else {
+            List<Double> embeddings = new ArrayList<>();
+            for (int i = 0; i < 256; i++) {
+                embeddings.add(i / 256d);
+            }
+            value =
+                    Map.of(
+                            "text",
+                            "LangStream is a framework for building streaming AI applications. "
+                                    .repeat(20),
+                            "embeddings",
+                            embeddings);
+        }
+        record =
+                new RecordWrapper(
+                        "key",
+                        value,
+                        Map.of("source", "s3".getBytes(StandardCharsets.UTF_8), "lang", "en"),
+                        System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public RecordWrapper roundTrip() {
+        ByteBuffer serialized = serializer.serialize(record);
+        return serializer.deserialize(serialized);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(
+                        new OptionsBuilder()
+                                .include(PravegaRecordSerializerBenchmark.class.getSimpleName())
+                                .build())
+                .run();
+    }
+}
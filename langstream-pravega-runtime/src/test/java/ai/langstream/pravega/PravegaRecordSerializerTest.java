@@ -0,0 +1,199 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.pravega;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import ai.langstream.pravega.PravegaRecordSerializer.RecordFormat;
+import ai.langstream.pravega.PravegaTopicConnectionsRuntimeProvider.RecordWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.jupiter.api.Test;
+
+class PravegaRecordSerializerTest {
+
+    private static final PravegaRecordSerializer BINARY =
+            new PravegaRecordSerializer(RecordFormat.BINARY);
+    private static final PravegaRecordSerializer JSON =
+            new PravegaRecordSerializer(RecordFormat.JSON);
+
+    @Test
+    void testBinaryRoundTrip() {
+        Map<String, Object> headers =
+                Map.of(
+                        "string",
+                        "value",
+                        "bytes",
+                        "bytes".getBytes(StandardCharsets.UTF_8),
+                        "int",
+                        1,
+                        "long",
+                        2L,
+                        "boolean",
+                        true,
+                        "double",
+                        1.5d,
+                        "float",
+                        2.5f);
+        RecordWrapper record =
+                new RecordWrapper(
+                        "key", Map.of("question", "what?", "tags", List.of("a")), headers, 42L);
+        RecordWrapper result = BINARY.deserialize(BINARY.serialize(record));
+
+        assertEquals("key", result.key());
+        assertEquals(record.value(), result.value());
+        assertEquals(42L, result.timestamp());
+        assertEquals(headers.size(), result.headers().size());
+        assertArrayEquals(
+                "bytes".getBytes(StandardCharsets.UTF_8), (byte[]) result.headers().get("bytes"));
+        assertEquals("value", result.headers().get("string"));
+        assertEquals(1, result.headers().get("int"));
+        assertEquals(2L, result.headers().get("long"));
+        assertEquals(true, result.headers().get("boolean"));
+        assertEquals(1.5d, result.headers().get("double"));
+        assertEquals(2.5f, result.headers().get("float"));
+    }
+
+    @Test
+    void testBinaryPayload() {
+        byte[] payload = new byte[] {0, 1, 2, (byte) 255};
+        RecordWrapper result =
+                BINARY.deserialize(
+                        BINARY.serialize(new RecordWrapper(null, payload, Map.of(), null)));
+        // the payload is not encoded as text
+        assertArrayEquals(payload, (byte[]) result.value());
+        assertEquals(null, result.key());
+        assertEquals(null, result.timestamp());
+    }
+
+    @Test
+    void testAvro() {
+        Schema schema =
+                SchemaBuilder.record("Document")
+                        .fields()
+                        .requiredString("text")
+                        .requiredLong("id")
+                        .endRecord();
+        GenericRecord document = new GenericData.Record(schema);
+        document.put("text", "hello");
+        document.put("id", 7L);
+        RecordWrapper record = new RecordWrapper("key", document, Map.of(), null);
+
+        for (int i = 0; i < 2; i++) {
+            // the second time the schema is taken from the cache
+            GenericRecord result =
+                    (GenericRecord) BINARY.deserialize(BINARY.serialize(record)).value();
+            assertEquals(schema, result.getSchema());
+            assertEquals("hello", result.get("text").toString());
+            assertEquals(7L, result.get("id"));
+        }
+    }
+
+    @Test
+    void testAvroWithSchemaRegistry() {
+        InMemorySchemaRegistry registry = new InMemorySchemaRegistry();
+        PravegaRecordSerializer writer = new PravegaRecordSerializer(RecordFormat.BINARY, registry);
+        PravegaRecordSerializer reader = new PravegaRecordSerializer(RecordFormat.JSON, registry);
+        Schema schema =
+                SchemaBuilder.record("Document")
+                        .fields()
+                        .requiredString("text")
+                        .requiredLong("id")
+                        .endRecord();
+        GenericRecord document = new GenericData.Record(schema);
+        document.put("text", "hello");
+        document.put("id", 7L);
+        RecordWrapper record = new RecordWrapper("key", document, Map.of(), null);
+
+        ByteBuffer withRegistry = writer.serialize(record);
+        ByteBuffer withoutRegistry = BINARY.serialize(record);
+        // the event holds only the fingerprint of the schema
+        assertEquals(
+                schema.toString().getBytes(StandardCharsets.UTF_8).length + Integer.BYTES,
+                withoutRegistry.remaining() - withRegistry.remaining());
+        assertEquals(1, registry.schemas.size());
+        writer.serialize(record);
+        assertEquals(1, registry.registrations);
+
+        GenericRecord result = (GenericRecord) reader.deserialize(withRegistry).value();
+        assertEquals(schema, result.getSchema());
+        assertEquals("hello", result.get("text").toString());
+        // the events written with the schema can still be read
+        assertEquals(
+                "hello",
+                ((GenericRecord) reader.deserialize(withoutRegistry).value())
+                        .get("text")
+                        .toString());
+        // a reader without the registry cannot resolve the schema
+        assertThrows(IllegalStateException.class, () -> BINARY.deserialize(withRegistry));
+    }
+
+    private static class InMemorySchemaRegistry implements PravegaRecordSerializer.SchemaRegistry {
+        final Map<Long, Schema> schemas = new ConcurrentHashMap<>();
+        int registrations;
+
+        @Override
+        public long register(Schema schema) {
+            long fingerprint = SchemaNormalization.parsingFingerprint64(schema);
+            if (schemas.putIfAbsent(fingerprint, schema) == null) {
+                registrations++;
+            }
+            return fingerprint;
+        }
+
+        @Override
+        public Schema lookup(long fingerprint) {
+            Schema schema = schemas.get(fingerprint);
+            if (schema == null) {
+                throw new IllegalStateException("Unknown schema " + fingerprint);
+            }
+            return schema;
+        }
+    }
+
+    @Test
+    void testReadEventsWrittenWithJson() throws Exception {
+        RecordWrapper record = new RecordWrapper("key", "value", Map.of("h", "v"), 1L);
+        // the events written by the previous versions
+        ByteBuffer legacy =
+                StandardCharsets.UTF_8.encode(new ObjectMapper().writeValueAsString(record));
+        assertEquals(record, BINARY.deserialize(legacy));
+
+        ByteBuffer json = JSON.serialize(record);
+        assertEquals('{', json.get(0));
+        assertEquals(record, BINARY.deserialize(json));
+        assertEquals(record, JSON.deserialize(BINARY.serialize(record)));
+    }
+
+    @Test
+    void testRecordFormat() {
+        assertEquals(RecordFormat.JSON, RecordFormat.of(null));
+        assertEquals(RecordFormat.JSON, RecordFormat.of("json"));
+        assertEquals(RecordFormat.BINARY, RecordFormat.of("binary"));
+        assertThrows(IllegalArgumentException.class, () -> RecordFormat.of("avro"));
+    }
+}
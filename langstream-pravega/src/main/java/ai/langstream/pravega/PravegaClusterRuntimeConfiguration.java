@@ -15,9 +15,15 @@
  */
 package ai.langstream.pravega;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.Map;
 
-public record PravegaClusterRuntimeConfiguration(Map<String, Object> client) {
+/**
+ * @param client the configuration of the Pravega client
+ * @param recordFormat how the records are written to the streams, "json" (default) or "binary"
+ */
+public record PravegaClusterRuntimeConfiguration(
+        Map<String, Object> client, @JsonProperty("record-format") String recordFormat) {
 
     public PravegaClusterRuntimeConfiguration {
         if (client == null) {
@@ -0,0 +1,78 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.pulsar.runner;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.pulsar.client.api.MessageId;
+
+/**
+ * Keeps track of the messages received by a consumer, in order to acknowledge them cumulatively.
+ *
+ * <p>The records are not committed in the same order they are received, a cumulative acknowledgment
+ * of a message would acknowledge also the messages received before it and not processed yet. For
+ * each topic (or partition) the messages are kept in the order they are received and only the
+ * longest prefix of processed messages can be acknowledged.
+ */
+class CumulativeAcknowledgments {
+
+    // for each topic the messages in order of reception, the value tells if it is processed
+    private final Map<String, LinkedHashMap<MessageId, Boolean>> pending = new HashMap<>();
+
+    synchronized void received(String topic, MessageId messageId) {
+        pending.computeIfAbsent(topic, t -> new LinkedHashMap<>()).putIfAbsent(messageId, false);
+    }
+
+    synchronized void processed(String topic, MessageId messageId) {
+        LinkedHashMap<MessageId, Boolean> messages = pending.get(topic);
+        if (messages != null) {
+            messages.replace(messageId, true);
+        }
+    }
+
+    /**
+     * Removes the messages that can be acknowledged.
+     *
+     * @return for each topic the message to acknowledge cumulatively, the topics without new
+     *     messages to acknowledge are not returned
+     */
+    synchronized Map<String, MessageId> drain() {
+        Map<String, MessageId> result = new HashMap<>();
+        for (Map.Entry<String, LinkedHashMap<MessageId, Boolean>> entry : pending.entrySet()) {
+            MessageId last = null;
+            Iterator<Map.Entry<MessageId, Boolean>> messages =
+                    entry.getValue().entrySet().iterator();
+            while (messages.hasNext()) {
+                Map.Entry<MessageId, Boolean> message = messages.next();
+                if (!message.getValue()) {
+                    break;
+                }
+                last = message.getKey();
+                messages.remove();
+            }
+            if (last != null) {
+                result.put(entry.getKey(), last);
+            }
+        }
+        return result;
+    }
+
+    synchronized int size() {
+        return pending.values().stream().mapToInt(Map::size).sum();
+    }
+}
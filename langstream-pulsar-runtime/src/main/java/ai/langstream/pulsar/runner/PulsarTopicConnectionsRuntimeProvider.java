@@ -35,6 +35,7 @@ import ai.langstream.api.runner.topics.TopicReadResult;
 import ai.langstream.api.runner.topics.TopicReader;
 import ai.langstream.api.runtime.ExecutionPlan;
 import ai.langstream.api.runtime.Topic;
+import ai.langstream.api.util.ConfigurationUtils;
 import ai.langstream.pulsar.PulsarClientUtils;
 import ai.langstream.pulsar.PulsarClusterRuntimeConfiguration;
 import ai.langstream.pulsar.PulsarTopic;
@@ -48,6 +49,7 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
@@ -62,6 +64,7 @@ import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.pulsar.client.admin.PulsarAdmin;
 import org.apache.pulsar.client.admin.PulsarAdminException;
+import org.apache.pulsar.client.api.BatchReceivePolicy;
 import org.apache.pulsar.client.api.Consumer;
 import org.apache.pulsar.client.api.Message;
 import org.apache.pulsar.client.api.MessageId;
@@ -86,6 +89,22 @@ import org.apache.pulsar.common.schema.SchemaType;
 public class PulsarTopicConnectionsRuntimeProvider implements TopicConnectionsRuntimeProvider {
     private static final ObjectMapper mapper = new ObjectMapper();
 
+    /** Maximum number of messages returned by a read, it can be set with the consumer.* options. */
+    public static final String BATCH_RECEIVE_MAX_MESSAGES = "batch-receive-max-messages";
+
+    /** Maximum size of the messages returned by a read. */
+    public static final String BATCH_RECEIVE_MAX_BYTES = "batch-receive-max-bytes";
+
+    /**
+     * Maximum time a read waits for a batch to be complete, once the first message has been
+     * received.
+     */
+    public static final String BATCH_RECEIVE_TIMEOUT_MS = "batch-receive-timeout-ms";
+
+    static final int DEFAULT_BATCH_RECEIVE_MAX_MESSAGES = 100;
+    static final int DEFAULT_BATCH_RECEIVE_MAX_BYTES = 10 * 1024 * 1024;
+    static final int DEFAULT_BATCH_RECEIVE_TIMEOUT_MS = 10;
+
     @Override
     public boolean supports(String streamingClusterType) {
         return "pulsar".equals(streamingClusterType);
@@ -373,6 +392,16 @@ public class PulsarTopicConnectionsRuntimeProvider implements TopicConnectionsRu
                 this.receive = receive;
             }
 
+            static PulsarConsumerRecord of(Message<GenericRecord> receive) {
+                Object key = receive.getKey();
+                Object value = receive.getValue().getNativeObject();
+                if (value instanceof KeyValue<?, ?> kv) {
+                    key = kv.getKey();
+                    value = kv.getValue();
+                }
+                return new PulsarConsumerRecord(key, value, receive);
+            }
+
             @Override
             public Object key() {
                 return finalKey;
@@ -421,6 +450,7 @@ public class PulsarTopicConnectionsRuntimeProvider implements TopicConnectionsRu
         private class PulsarTopicReader implements TopicReader {
             private final Map<String, Object> configuration;
             private final MessageId startMessageId;
+            private final int maxMessages;
 
             private Map<String, byte[]> topicMessageIds = new HashMap<>();
 
@@ -429,6 +459,12 @@ public class PulsarTopicConnectionsRuntimeProvider implements TopicConnectionsRu
             private PulsarTopicReader(
                     Map<String, Object> configuration, TopicOffsetPosition initialPosition) {
                 this.configuration = configuration;
+                this.maxMessages =
+                        ConfigurationUtils.getInt(
+                                BATCH_RECEIVE_MAX_MESSAGES,
+                                DEFAULT_BATCH_RECEIVE_MAX_MESSAGES,
+                                configuration);
+                configuration.remove(BATCH_RECEIVE_MAX_MESSAGES);
                 this.startMessageId =
                         switch (initialPosition.position()) {
                             case Earliest -> MessageId.earliest;
@@ -477,26 +513,27 @@ public class PulsarTopicConnectionsRuntimeProvider implements TopicConnectionsRu
 
             @Override
             public TopicReadResult read() throws Exception {
+                // the Reader does not support batchReceive, wait for the first message and then
+                // take the messages already fetched by the client without waiting
                 Message<GenericRecord> receive = reader.readNext(1, TimeUnit.SECONDS);
-                List<Record> records;
-                byte[] offset;
+                final List<Record> records;
+                final List<byte[]> recordOffsets;
+                final byte[] offset;
                 if (receive != null) {
-                    Object key = receive.getKey();
-                    Object value = receive.getValue().getNativeObject();
-                    if (value instanceof KeyValue<?, ?> kv) {
-                        key = kv.getKey();
-                        value = kv.getValue();
-                    }
-
-                    final Object finalKey = key;
-                    final Object finalValue = value;
-                    log.info("Received message: {}", receive);
-                    records = List.of(new PulsarConsumerRecord(finalKey, finalValue, receive));
-                    topicMessageIds.put(
-                            receive.getTopicName(), receive.getMessageId().toByteArray());
-                    offset = mapper.writeValueAsBytes(topicMessageIds);
+                    records = new ArrayList<>();
+                    recordOffsets = new ArrayList<>();
+                    do {
+                        records.add(PulsarConsumerRecord.of(receive));
+                        topicMessageIds.put(
+                                receive.getTopicName(), receive.getMessageId().toByteArray());
+                        recordOffsets.add(mapper.writeValueAsBytes(topicMessageIds));
+                    } while (records.size() < maxMessages
+                            && (receive = reader.readNext(0, TimeUnit.MILLISECONDS)) != null);
+                    log.debug("Received {} messages", records.size());
+                    offset = recordOffsets.get(recordOffsets.size() - 1);
                 } else {
                     records = List.of();
+                    recordOffsets = List.of();
                     offset = null;
                 }
                 return new TopicReadResult() {
@@ -509,6 +546,11 @@ public class PulsarTopicConnectionsRuntimeProvider implements TopicConnectionsRu
                     public byte[] offset() {
                         return offset;
                     }
+
+                    @Override
+                    public byte[] offset(int index) {
+                        return recordOffsets.get(index);
+                    }
                 };
             }
         }
@@ -520,6 +562,11 @@ public class PulsarTopicConnectionsRuntimeProvider implements TopicConnectionsRu
 
             private final AtomicLong totalOut = new AtomicLong();
 
+            // null if the subscription type does not support cumulative acknowledgments
+            private CumulativeAcknowledgments pendingAcknowledgments;
+
+            private boolean drainMessages;
+
             public PulsarTopicConsumer(Map<String, Object> configuration) {
                 this.configuration = configuration;
             }
@@ -532,11 +579,48 @@ public class PulsarTopicConnectionsRuntimeProvider implements TopicConnectionsRu
             @Override
             public void start() throws Exception {
                 String topic = (String) configuration.remove("topic");
+                int maxMessages =
+                        ConfigurationUtils.getInt(
+                                BATCH_RECEIVE_MAX_MESSAGES,
+                                DEFAULT_BATCH_RECEIVE_MAX_MESSAGES,
+                                configuration);
+                drainMessages = maxMessages > 1;
+                // the first message of a batch is received on its own
+                BatchReceivePolicy batchReceivePolicy =
+                        BatchReceivePolicy.builder()
+                                .maxNumMessages(Math.max(maxMessages - 1, 1))
+                                .maxNumBytes(
+                                        ConfigurationUtils.getInt(
+                                                BATCH_RECEIVE_MAX_BYTES,
+                                                DEFAULT_BATCH_RECEIVE_MAX_BYTES,
+                                                configuration))
+                                .timeout(
+                                        ConfigurationUtils.getInt(
+                                                BATCH_RECEIVE_TIMEOUT_MS,
+                                                DEFAULT_BATCH_RECEIVE_TIMEOUT_MS,
+                                                configuration),
+                                        TimeUnit.MILLISECONDS)
+                                .build();
+                configuration.remove(BATCH_RECEIVE_MAX_MESSAGES);
+                configuration.remove(BATCH_RECEIVE_MAX_BYTES);
+                configuration.remove(BATCH_RECEIVE_TIMEOUT_MS);
+                SubscriptionType subscriptionType =
+                        SubscriptionType.valueOf(
+                                configuration
+                                        .getOrDefault("subscriptionType", SubscriptionType.Failover)
+                                        .toString());
+                // with the Shared and Key_Shared subscriptions the messages must be acknowledged
+                // individually
+                if (subscriptionType == SubscriptionType.Exclusive
+                        || subscriptionType == SubscriptionType.Failover) {
+                    pendingAcknowledgments = new CumulativeAcknowledgments();
+                }
                 consumer =
                         client.newConsumer(Schema.AUTO_CONSUME())
                                 .subscriptionInitialPosition(SubscriptionInitialPosition.Earliest)
                                 .subscriptionType(SubscriptionType.Failover)
                                 .loadConf(configuration)
+                                .batchReceivePolicy(batchReceivePolicy)
                                 .topic(topic)
                                 .subscribe();
             }
@@ -555,29 +639,55 @@ public class PulsarTopicConnectionsRuntimeProvider implements TopicConnectionsRu
 
             @Override
             public List<Record> read() throws Exception {
-                Message<GenericRecord> receive = consumer.receive(1, TimeUnit.SECONDS);
-                if (receive == null) {
+                // block until the first message arrives, batchReceive returns as soon as its
+                // timeout expires and it would poll the broker continuously when the topic is idle
+                Message<GenericRecord> first = consumer.receive(1, TimeUnit.SECONDS);
+                if (first == null) {
                     return List.of();
                 }
-                Object key = receive.getKey();
-                Object value = receive.getValue().getNativeObject();
-                if (value instanceof KeyValue<?, ?> kv) {
-                    key = kv.getKey();
-                    value = kv.getValue();
+                List<Record> records = new ArrayList<>();
+                received(first, records);
+                if (drainMessages) {
+                    // then take the messages already fetched, waiting at most the batch timeout
+                    for (Message<GenericRecord> message : consumer.batchReceive()) {
+                        received(message, records);
+                    }
                 }
+                log.debug("Received {} messages", records.size());
+                totalOut.addAndGet(records.size());
+                return records;
+            }
 
-                final Object finalKey = key;
-                final Object finalValue = value;
-                log.info("Received message: {}", receive);
-                totalOut.incrementAndGet();
-                return List.of(new PulsarConsumerRecord(finalKey, finalValue, receive));
+            private void received(Message<GenericRecord> message, List<Record> records) {
+                records.add(PulsarConsumerRecord.of(message));
+                if (pendingAcknowledgments != null) {
+                    pendingAcknowledgments.received(message.getTopicName(), message.getMessageId());
+                }
             }
 
+            /**
+             * With the Exclusive and Failover subscriptions the records are acknowledged
+             * cumulatively, up to the last record such that all the records received before it on
+             * the same topic partition have been committed. The other records are acknowledged
+             * later, in case of failure they are redelivered.
+             */
             @Override
             public void commit(List<Record> records) throws Exception {
+                if (pendingAcknowledgments == null) {
+                    List<MessageId> messageIds = new ArrayList<>(records.size());
+                    for (Record record : records) {
+                        messageIds.add(((PulsarConsumerRecord) record).receive.getMessageId());
+                    }
+                    consumer.acknowledge(messageIds);
+                    return;
+                }
                 for (Record record : records) {
-                    PulsarConsumerRecord pulsarConsumerRecord = (PulsarConsumerRecord) record;
-                    consumer.acknowledge(pulsarConsumerRecord.receive.getMessageId());
+                    Message<GenericRecord> message = ((PulsarConsumerRecord) record).receive;
+                    pendingAcknowledgments.processed(
+                            message.getTopicName(), message.getMessageId());
+                }
+                for (MessageId messageId : pendingAcknowledgments.drain().values()) {
+                    consumer.acknowledgeCumulative(messageId);
                 }
             }
         }
@@ -702,7 +812,7 @@ public class PulsarTopicConnectionsRuntimeProvider implements TopicConnectionsRu
                     }
                 }
 
-                log.info("Writing message {}", r);
+                log.debug("Writing message {}", r);
 
                 TypedMessageBuilder<K> message =
                         producer.newMessage()
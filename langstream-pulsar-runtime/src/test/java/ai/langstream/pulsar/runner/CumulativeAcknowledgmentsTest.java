@@ -0,0 +1,71 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.pulsar.runner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.impl.MessageIdImpl;
+import org.junit.jupiter.api.Test;
+
+class CumulativeAcknowledgmentsTest {
+
+    private static MessageId id(long entryId) {
+        return new MessageIdImpl(1, entryId, -1);
+    }
+
+    @Test
+    void testAcknowledgeOnlyTheProcessedPrefix() {
+        CumulativeAcknowledgments acknowledgments = new CumulativeAcknowledgments();
+        for (int i = 0; i < 4; i++) {
+            acknowledgments.received("topic", id(i));
+        }
+        acknowledgments.processed("topic", id(1));
+        acknowledgments.processed("topic", id(2));
+        // the first message is still in progress
+        assertEquals(Map.of(), acknowledgments.drain());
+        assertEquals(4, acknowledgments.size());
+
+        acknowledgments.processed("topic", id(0));
+        assertEquals(Map.of("topic", id(2)), acknowledgments.drain());
+        assertEquals(1, acknowledgments.size());
+        assertEquals(Map.of(), acknowledgments.drain());
+
+        acknowledgments.processed("topic", id(3));
+        assertEquals(Map.of("topic", id(3)), acknowledgments.drain());
+        assertEquals(0, acknowledgments.size());
+    }
+
+    @Test
+    void testPartitionsAreIndependent() {
+        CumulativeAcknowledgments acknowledgments = new CumulativeAcknowledgments();
+        acknowledgments.received("topic-partition-0", id(0));
+        acknowledgments.received("topic-partition-1", id(0));
+        acknowledgments.received("topic-partition-0", id(1));
+        acknowledgments.received("topic-partition-1", id(1));
+
+        acknowledgments.processed("topic-partition-1", id(0));
+        acknowledgments.processed("topic-partition-0", id(1));
+        assertEquals(Map.of("topic-partition-1", id(0)), acknowledgments.drain());
+
+        // redelivered messages keep their position
+        acknowledgments.received("topic-partition-0", id(0));
+        acknowledgments.processed("topic-partition-0", id(0));
+        assertEquals(Map.of("topic-partition-0", id(1)), acknowledgments.drain());
+        assertEquals(1, acknowledgments.size());
+    }
+}
@@ -15,5 +15,20 @@
  */
 package ai.langstream.runtime.api.agent;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Configuration of the code downloader. The cache settings are omitted from the JSON when not set,
+ * so that the pods are not restarted when the deployer is upgraded.
+ *
+ * @param codeCachePath directory shared by the pods of the same node where the code archives are
+ *     cached, null to always download the code
+ * @param codeCacheMaxSize maximum size of the cached archives in bytes, 0 for no limit
+ */
 public record DownloadAgentCodeConfiguration(
-        String codeDownloadPath, String tenant, String applicationId, String codeArchiveId) {}
+        String codeDownloadPath,
+        String tenant,
+        String applicationId,
+        String codeArchiveId,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String codeCachePath,
+        @JsonInclude(JsonInclude.Include.NON_DEFAULT) long codeCacheMaxSize) {}
@@ -16,6 +16,7 @@
 package ai.langstream.runtime;
 
 import ai.langstream.runtime.agent.AgentCodeDownloaderStarter;
+import ai.langstream.runtime.agent.AgentPackagesExtractorStarter;
 import ai.langstream.runtime.agent.AgentRunnerStarter;
 import ai.langstream.runtime.application.ApplicationSetupRunnerStarter;
 import ai.langstream.runtime.deployer.RuntimeDeployerStarter;
@@ -28,7 +29,8 @@ public class Main {
                     "agent-runtime",
                     "agent-code-download",
                     "deployer-runtime",
-                    "application-setup");
+                    "application-setup",
+                    "extract-packages");
 
     public static void main(String[] args) {
         if (args.length < 1) {
@@ -43,6 +45,7 @@ public class Main {
             case "agent-code-download" -> AgentCodeDownloaderStarter.main(newArgs);
             case "deployer-runtime" -> RuntimeDeployerStarter.main(newArgs);
             case "application-setup" -> ApplicationSetupRunnerStarter.main(newArgs);
+            case "extract-packages" -> AgentPackagesExtractorStarter.main(newArgs);
             default -> {
                 System.err.println("Unknown command. Only " + COMMANDS + " are supported.");
                 System.exit(1);
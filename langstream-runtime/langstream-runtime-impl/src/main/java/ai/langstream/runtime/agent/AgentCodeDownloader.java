@@ -50,14 +50,36 @@ public class AgentCodeDownloader {
         }
 
         try (AdminClient adminClient = createAdminClient(clusterConfiguration, token, tenant)) {
-            final HttpResponse<InputStream> download =
-                    adminClient
-                            .applications()
-                            .download(
-                                    applicationId,
-                                    codeArchiveId,
-                                    HttpResponse.BodyHandlers.ofInputStream());
-            LocalZipFileArchiveFile.extractTo(download.body(), destinationPath);
+            if (configuration.codeCachePath() == null) {
+                final HttpResponse<InputStream> download =
+                        adminClient
+                                .applications()
+                                .download(
+                                        applicationId,
+                                        codeArchiveId,
+                                        HttpResponse.BodyHandlers.ofInputStream());
+                LocalZipFileArchiveFile.extractTo(download.body(), destinationPath);
+            } else {
+                final CodeArchiveCache cache =
+                        new CodeArchiveCache(
+                                Paths.get(configuration.codeCachePath()),
+                                configuration.codeCacheMaxSize());
+                try (InputStream archive =
+                        cache.open(
+                                tenant,
+                                codeArchiveId,
+                                offset ->
+                                        adminClient
+                                                .applications()
+                                                .download(
+                                                        applicationId,
+                                                        codeArchiveId,
+                                                        offset,
+                                                        HttpResponse.BodyHandlers
+                                                                .ofInputStream()))) {
+                    LocalZipFileArchiveFile.extractTo(archive, destinationPath);
+                }
+            }
             log.info("Downloaded code to {}", codeDownloadPath);
         }
     }
@@ -0,0 +1,66 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.runtime.agent;
+
+import ai.langstream.impl.nar.NarFileHandler;
+import ai.langstream.runtime.RuntimeStarter;
+import java.nio.file.Path;
+import java.util.List;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Extracts the agents packages (NAR files) to a directory. This is executed while building the
+ * image, so that the agent pods load the classes from the extracted files instead of unpacking the
+ * packages on every startup.
+ */
+@Slf4j
+public class AgentPackagesExtractorStarter extends RuntimeStarter {
+
+    @SneakyThrows
+    public static void main(String... args) {
+        try {
+            new AgentPackagesExtractorStarter().start(args);
+        } catch (Throwable error) {
+            log.error("Unexpected error", error);
+            System.exit(-1);
+        }
+    }
+
+    @Override
+    public void start(String... args) throws Exception {
+        if (args.length != 2) {
+            throw new IllegalArgumentException(
+                    "Usage: extract-packages <packages directory> <extraction directory>");
+        }
+        final Path packagesDirectory = Path.of(args[0]);
+        final Path extractionDirectory = Path.of(args[1]);
+        final long start = System.currentTimeMillis();
+        try (NarFileHandler narFileHandler =
+                new NarFileHandler(
+                        packagesDirectory,
+                        List.of(),
+                        AgentPackagesExtractorStarter.class.getClassLoader(),
+                        extractionDirectory)) {
+            narFileHandler.extractAll();
+        }
+        log.info(
+                "Extracted the packages of {} to {} in {} ms",
+                packagesDirectory,
+                extractionDirectory,
+                System.currentTimeMillis() - start);
+    }
+}
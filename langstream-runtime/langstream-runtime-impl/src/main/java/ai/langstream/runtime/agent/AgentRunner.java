@@ -40,6 +40,7 @@ import ai.langstream.api.runner.topics.TopicConnectionsRuntimeRegistry;
 import ai.langstream.api.runner.topics.TopicConsumer;
 import ai.langstream.api.runner.topics.TopicProducer;
 import ai.langstream.api.runtime.ComponentType;
+import ai.langstream.api.util.ConfigurationUtils;
 import ai.langstream.impl.nar.NarFileHandler;
 import ai.langstream.runtime.agent.api.AgentAPIController;
 import ai.langstream.runtime.agent.api.AgentInfoServlet;
@@ -84,6 +85,23 @@ import org.eclipse.jetty.servlet.ServletHolder;
 /** This is the main entry point for the pods that run the LangStream runtime and Java code. */
 @Slf4j
 public class AgentRunner {
+
+    /**
+     * Maximum number of records read from the input topic and not committed yet, 0 for no limit. It
+     * is set in the configuration of the consumer and it is not passed to the consumer.
+     */
+    public static final String MAX_PENDING_RECORDS = "max-pending-records";
+
+    /**
+     * Maximum estimated size of the records read from the input topic and not committed yet, 0 for
+     * no limit. It is set in the configuration of the consumer and it is not passed to the
+     * consumer.
+     */
+    public static final String MAX_PENDING_BYTES = "max-pending-bytes";
+
+    // while the source is paused it is still read, in order to keep the consumer alive
+    private static final long PAUSED_READ_INTERVAL_MS = 1000;
+
     private static MainErrorHandler mainErrorHandler =
             error -> {
                 log.error("Unexpected error", error);
@@ -160,6 +178,7 @@ public class AgentRunner {
         log.info("Code directory {}", codeDirectory);
         log.info("Base persistent state directory {}", basePersistentStateDirectory);
 
+        StartupTimings startupTimings = new StartupTimings();
         List<URL> customLibClasspath = buildCustomLibClasspath(codeDirectory);
         NarFileHandler narFileHandler =
                 sharedNarFileHandler != null
@@ -170,6 +189,7 @@ public class AgentRunner {
                                 Thread.currentThread().getContextClassLoader());
         try {
             narFileHandler.scan();
+            startupTimings.phaseCompleted("scan_packages");
 
             TopicConnectionsRuntimeRegistry topicConnectionsRuntimeRegistry =
                     new TopicConnectionsRuntimeRegistry();
@@ -184,7 +204,9 @@ public class AgentRunner {
             try {
                 TopicConnectionsRuntime topicConnectionsRuntime =
                         topicConnectionsRuntimeWithClassloader.asTopicConnectionsRuntime();
+                startupTimings.phaseCompleted("load_streaming_runtime");
                 AgentCodeAndLoader agentCode = initAgent(configuration, agentCodeRegistry);
+                startupTimings.phaseCompleted("init_agent");
                 Server server = null;
                 try {
                     server = startHttpServer ? bootstrapHttpServer(agentAPIController) : null;
@@ -197,7 +219,8 @@ public class AgentRunner {
                             agentAPIController,
                             beforeStopSource,
                             codeDirectory,
-                            basePersistentStateDirectory);
+                            basePersistentStateDirectory,
+                            startupTimings);
                 } finally {
                     if (server != null) {
                         server.stop();
@@ -252,7 +275,8 @@ public class AgentRunner {
             AgentAPIController agentAPIController,
             Runnable beforeStopSource,
             Path codeDirectory,
-            Path basePersistentStateDirectory)
+            Path basePersistentStateDirectory,
+            StartupTimings startupTimings)
             throws Exception {
 
         Set<String> agentsWithPersistentState = configuration.agent().agentsWithDisk();
@@ -270,13 +294,22 @@ public class AgentRunner {
             // this is closed by the TopicSource
             final TopicConsumer consumer;
             TopicProducer deadLetterProducer = null;
+            int maxPendingRecords = 0;
+            long maxPendingBytes = 0;
             if (configuration.input() != null && !configuration.input().isEmpty()) {
+                Map<String, Object> inputConfiguration = new HashMap<>(configuration.input());
+                maxPendingRecords =
+                        ConfigurationUtils.getInt(MAX_PENDING_RECORDS, 0, inputConfiguration);
+                maxPendingBytes =
+                        ConfigurationUtils.getLong(MAX_PENDING_BYTES, 0L, inputConfiguration);
+                inputConfiguration.remove(MAX_PENDING_RECORDS);
+                inputConfiguration.remove(MAX_PENDING_BYTES);
                 consumer =
                         topicConnectionsRuntime.createConsumer(
-                                agentId, configuration.streamingCluster(), configuration.input());
+                                agentId, configuration.streamingCluster(), inputConfiguration);
                 deadLetterProducer =
                         topicConnectionsRuntime.createDeadletterTopicProducer(
-                                agentId, configuration.streamingCluster(), configuration.input());
+                                agentId, configuration.streamingCluster(), inputConfiguration);
             } else {
                 consumer = new NoopTopicConsumer();
             }
@@ -406,6 +439,8 @@ public class AgentRunner {
                     log.info("Processor: {}", mainProcessor);
                     log.info("Sink: {}", sink);
                     log.info("Service: {}", mainService);
+                    startupTimings.phaseCompleted("connect_topics");
+                    startupTimings.report(agentId, metricsReporter);
 
                     if (mainService != null) {
                         mainService.setContext(agentContext);
@@ -420,13 +455,20 @@ public class AgentRunner {
                         statsScheduler.scheduleAtFixedRate(
                                 pendingRecordsCounterSource::dumpStats, 30, 30, TimeUnit.SECONDS);
 
+                        // when the sink handles the commits the source is never notified
+                        InFlightRecordsWindow window =
+                                sink.handlesCommit()
+                                        ? InFlightRecordsWindow.unbounded()
+                                        : new InFlightRecordsWindow(
+                                                maxPendingRecords, maxPendingBytes);
                         runMainLoop(
                                 pendingRecordsCounterSource,
                                 mainProcessor,
                                 sink,
                                 agentContext,
                                 errorsHandler,
-                                continueLoop);
+                                continueLoop,
+                                window);
 
                         pendingRecordsCounterSource.waitForNoPendingRecords();
                     }
@@ -538,6 +580,16 @@ public class AgentRunner {
             wrapped.commit(records);
         }
 
+        @Override
+        public boolean pause() throws Exception {
+            return wrapped.pause();
+        }
+
+        @Override
+        public void resume() throws Exception {
+            wrapped.resume();
+        }
+
         @Override
         public ComponentType componentType() {
             return wrapped.componentType();
@@ -650,6 +702,30 @@ public class AgentRunner {
             ErrorsHandler errorsHandler,
             Supplier<Boolean> continueLoop)
             throws Exception {
+        runMainLoop(
+                source,
+                processor,
+                sink,
+                agentContext,
+                errorsHandler,
+                continueLoop,
+                InFlightRecordsWindow.unbounded());
+    }
+
+    /**
+     * Reads from the source, processes the records and writes the results to the sink. The loop
+     * does not wait for the records to be processed before reading again, the window bounds the
+     * records read and not committed yet: when it is full the source is paused.
+     */
+    static void runMainLoop(
+            AgentSource source,
+            AgentProcessor processor,
+            AgentSink sink,
+            AgentContext agentContext,
+            ErrorsHandler errorsHandler,
+            Supplier<Boolean> continueLoop,
+            InFlightRecordsWindow window)
+            throws Exception {
         source.setContext(agentContext);
         sink.setContext(agentContext);
         processor.setContext(agentContext);
@@ -657,12 +733,49 @@ public class AgentRunner {
         sink.start();
         processor.start();
 
-        SourceRecordTracker sourceRecordTracker = new SourceRecordTracker(source);
+        SourceRecordTracker sourceRecordTracker = new SourceRecordTracker(source, window::remove);
         AtomicReference<Exception> fatalError = new AtomicReference<>();
-
+        MetricsReporter metricsReporter = agentContext.getMetricsReporter();
+        MainLoopMetrics metrics =
+                MainLoopMetrics.create(
+                        metricsReporter != null
+                                ? metricsReporter.withAgentName(agentContext.getGlobalAgentId())
+                                : MetricsReporter.DISABLED);
+
+        boolean paused = false;
         while (continueLoop.get()) {
+            if (window.isFull()) {
+                if (!paused) {
+                    paused = source.pause();
+                    log.info(
+                            "Too many records waiting to be committed ({} records, {} bytes), {}",
+                            window.records(),
+                            window.bytes(),
+                            paused ? "pausing the source" : "waiting");
+                }
+                if (!window.awaitNotFull(paused ? PAUSED_READ_INTERVAL_MS : 100) && !paused) {
+                    // the source cannot be paused, we cannot read until some records are
+                    // committed
+                    checkFatalError(fatalError);
+                    metrics.update(window, sourceRecordTracker);
+                    continue;
+                }
+                // when paused we still have to read, in order to keep the consumer alive
+            }
+            if (paused && !window.isFull()) {
+                log.info("Resuming the source");
+                source.resume();
+                paused = false;
+            }
+
+            long readStart = System.nanoTime();
             List<Record> records = source.read();
             if (records != null && !records.isEmpty()) {
+                window.add(records);
+                // empty reads are not observed, they only measure the poll timeout of the source
+                metrics.readLatency().observeSince(readStart);
+                metrics.readBatchSize().observe(records.size());
+                long processStart = System.nanoTime();
                 // in case of permanent FAIL this method will throw an exception
                 runProcessorAgent(
                         processor,
@@ -670,6 +783,7 @@ public class AgentRunner {
                         errorsHandler,
                         source,
                         (AgentProcessor.SourceRecordAndResult sourceRecordAndResult) -> {
+                            metrics.processLatency().observeSince(processStart);
                             if (sourceRecordAndResult.error() != null) {
                                 log.error("Fatal error", sourceRecordAndResult.error());
                                 // handle error
@@ -686,7 +800,10 @@ public class AgentRunner {
                                 // no records, we have to commit the source record to the source
                                 // no need to call the Sink with an empty list
                                 try {
-                                    source.commit(List.of(sourceRecordAndResult.sourceRecord()));
+                                    List<Record> sourceRecord =
+                                            List.of(sourceRecordAndResult.sourceRecord());
+                                    source.commit(sourceRecord);
+                                    window.remove(sourceRecord);
                                 } catch (Throwable error) {
                                     log.error("Source could not commit the record", error);
                                     setFatalError(error, fatalError);
@@ -704,7 +821,9 @@ public class AgentRunner {
                                         errorsHandler,
                                         sourceRecordTracker,
                                         source,
-                                        fatalError);
+                                        fatalError,
+                                        metrics,
+                                        processStart);
                             } catch (Throwable e) {
                                 log.error("Error while processing records", e);
                                 setFatalError(e, fatalError);
@@ -712,6 +831,7 @@ public class AgentRunner {
                         });
             }
             checkFatalError(fatalError);
+            metrics.update(window, sourceRecordTracker);
 
             // commit (Kafka Connect Sink)
             if (sink.handlesCommit()) {
@@ -747,7 +867,9 @@ public class AgentRunner {
             ErrorsHandler errorsHandler,
             SourceRecordTracker sourceRecordTracker,
             AgentSource source,
-            AtomicReference<Exception> fatalError) {
+            AtomicReference<Exception> fatalError,
+            MainLoopMetrics metrics,
+            long receivedNanos) {
         Record sourceRecord = sourceRecordAndResult.sourceRecord();
         List<Record> toWrite = new ArrayList<>(sourceRecordAndResult.resultRecords());
         for (Record record : toWrite) {
@@ -757,6 +879,8 @@ public class AgentRunner {
                     sourceRecordTracker,
                     source,
                     fatalError,
+                    metrics,
+                    receivedNanos,
                     sourceRecord,
                     record);
         }
@@ -768,9 +892,26 @@ public class AgentRunner {
             SourceRecordTracker sourceRecordTracker,
             AgentSource source,
             AtomicReference<Exception> fatalError,
+            MainLoopMetrics metrics,
+            long receivedNanos,
             Record sourceRecord,
             Record record) {
-        CompletableFuture<?> writeResult = sink.write(record);
+        long writeStart = System.nanoTime();
+        CompletableFuture<?> writeResult;
+        try {
+            writeResult = sink.write(record);
+        } catch (Exception error) {
+            // for instance a record that is serialized only when it is written and cannot be
+            // serialized, it goes through the errors policy like a failed write
+            writeResult = CompletableFuture.failedFuture(error);
+        }
+        writeResult.whenComplete(
+                (___, error) -> {
+                    metrics.sinkWriteLatency().observeSince(writeStart);
+                    if (error == null) {
+                        metrics.recordLatency().observeSince(receivedNanos);
+                    }
+                });
 
         if (sink.handlesCommit()) {
             // it is the sink that handles the commit
@@ -813,6 +954,8 @@ public class AgentRunner {
                                         sourceRecordTracker,
                                         source,
                                         fatalError,
+                                        metrics,
+                                        receivedNanos,
                                         sourceRecord,
                                         record);
                             }
@@ -826,7 +969,10 @@ public class AgentRunner {
                                     source.permanentFailure(
                                             sourceRecord, permanentFailureException);
                                 } catch (Exception err) {
-                                    err.addSuppressed(permanentFailureException);
+                                    // the default implementation rethrows the same exception
+                                    if (err != permanentFailureException) {
+                                        err.addSuppressed(permanentFailureException);
+                                    }
                                     log.error("Cannot send permanent failure to the source", err);
                                     setFatalError(err, fatalError);
                                 }
@@ -936,6 +1082,59 @@ public class AgentRunner {
                 });
     }
 
+    private record MainLoopMetrics(
+            MetricsReporter.Histogram readLatency,
+            MetricsReporter.Histogram readBatchSize,
+            MetricsReporter.Histogram processLatency,
+            MetricsReporter.Histogram sinkWriteLatency,
+            MetricsReporter.Histogram recordLatency,
+            MetricsReporter.Gauge pendingCommits,
+            MetricsReporter.Gauge inFlightRecords,
+            MetricsReporter.Gauge inFlightBytes,
+            MetricsReporter.Gauge inFlightOccupancy) {
+
+        void update(InFlightRecordsWindow window, SourceRecordTracker sourceRecordTracker) {
+            pendingCommits.set(sourceRecordTracker.pendingSourceRecords());
+            if (window.isBounded()) {
+                inFlightRecords.set(window.records());
+                inFlightBytes.set(window.bytes());
+                inFlightOccupancy.set(window.occupancy());
+            }
+        }
+
+        static MainLoopMetrics create(MetricsReporter reporter) {
+            return new MainLoopMetrics(
+                    reporter.histogram(
+                            "agent_source_read_latency_seconds",
+                            "Time spent reading a batch of records from the source"),
+                    reporter.histogram(
+                            "agent_source_read_batch_size",
+                            "Number of records returned by a read from the source",
+                            MetricsReporter.BATCH_SIZE_BUCKETS),
+                    reporter.histogram(
+                            "agent_process_latency_seconds",
+                            "Time spent by the processor on a record"),
+                    reporter.histogram(
+                            "agent_sink_write_latency_seconds",
+                            "Time spent writing a record to the sink"),
+                    reporter.histogram(
+                            "agent_record_latency_seconds",
+                            "Time from the read of a record from the source to the write to the sink"),
+                    reporter.gauge(
+                            "agent_pending_commits",
+                            "Number of source records waiting to be committed"),
+                    reporter.gauge(
+                            "agent_in_flight_records",
+                            "Number of records read from the source and not committed yet"),
+                    reporter.gauge(
+                            "agent_in_flight_bytes",
+                            "Estimated size of the records read from the source and not committed yet"),
+                    reporter.gauge(
+                            "agent_in_flight_window_occupancy",
+                            "Fraction of the window of in-flight records in use, 1 means that the source is paused"));
+        }
+    }
+
     public static final class PermanentFailureException extends Exception {
         public PermanentFailureException(Throwable cause) {
             super(cause);
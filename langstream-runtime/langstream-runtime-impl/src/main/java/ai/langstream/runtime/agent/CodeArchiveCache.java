@@ -0,0 +1,238 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.runtime.agent;
+
+import ai.langstream.admin.client.HttpRequestFailedException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.http.HttpResponse;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Caches the code archives in a directory shared by the pods running on the same node.
+ *
+ * <p>A code archive is never modified after the upload, so the entries are keyed by a digest of the
+ * tenant and of the code archive id. A file lock serializes the downloads of the same archive: only
+ * one pod downloads it and the others find it in the cache. The archive is downloaded to a partial
+ * file that is renamed when complete, after a failure the download is resumed from the partial
+ * file, also by another pod. When the cache exceeds its maximum size the least recently used
+ * archives are deleted.
+ */
+@Slf4j
+class CodeArchiveCache {
+
+    static final int MAX_ATTEMPTS = 5;
+
+    interface Downloader {
+        /**
+         * Download the archive starting from the given byte.
+         *
+         * @param offset the first byte to download
+         * @return a response with status 206 if only the range has been returned, otherwise the
+         *     whole archive
+         */
+        HttpResponse<InputStream> download(long offset) throws Exception;
+    }
+
+    private final Path directory;
+    private final long maxSize;
+    private final long retryDelayMillis;
+
+    CodeArchiveCache(Path directory, long maxSize) {
+        this(directory, maxSize, 1000);
+    }
+
+    CodeArchiveCache(Path directory, long maxSize, long retryDelayMillis) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+        this.retryDelayMillis = retryDelayMillis;
+    }
+
+    /**
+     * Open a code archive, downloading it if it is not in the cache.
+     *
+     * @return the content of the archive
+     */
+    InputStream open(String tenant, String codeArchiveId, Downloader downloader) throws Exception {
+        Files.createDirectories(directory);
+        final String key = computeKey(tenant, codeArchiveId);
+        final Path archive = directory.resolve(key + ".zip");
+        InputStream cached = openIfPresent(archive);
+        if (cached != null) {
+            log.info("Found code archive {} in the cache {}", codeArchiveId, archive);
+            return cached;
+        }
+        try (FileChannel lockChannel =
+                        FileChannel.open(
+                                directory.resolve(key + ".lock"),
+                                StandardOpenOption.CREATE,
+                                StandardOpenOption.WRITE);
+                FileLock ignored = lockChannel.lock()) {
+            // another pod may have downloaded the archive while we were waiting for the lock
+            cached = openIfPresent(archive);
+            if (cached != null) {
+                log.info("Code archive {} has been downloaded by another pod", codeArchiveId);
+                return cached;
+            }
+            final Path partial = directory.resolve(key + ".part");
+            download(codeArchiveId, downloader, partial);
+            Files.move(partial, archive, StandardCopyOption.ATOMIC_MOVE);
+            log.info(
+                    "Downloaded code archive {} to the cache {} ({} bytes)",
+                    codeArchiveId,
+                    archive,
+                    Files.size(archive));
+            // open before evicting, the archive stays readable even if it is deleted
+            final InputStream result = Files.newInputStream(archive);
+            evict(archive);
+            return result;
+        }
+    }
+
+    static String computeKey(String tenant, String codeArchiveId) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(tenant.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(codeArchiveId.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static InputStream openIfPresent(Path archive) {
+        final InputStream inputStream;
+        try {
+            inputStream = Files.newInputStream(archive);
+        } catch (NoSuchFileException notFound) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Cannot read cached code archive {}", archive, e);
+            return null;
+        }
+        try {
+            // the eviction deletes the least recently used archives first
+            Files.setLastModifiedTime(archive, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            log.debug("Cannot update the last modified time of {}", archive, e);
+        }
+        return inputStream;
+    }
+
+    private void download(String codeArchiveId, Downloader downloader, Path partial)
+            throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            final long offset = Files.exists(partial) ? Files.size(partial) : 0;
+            try {
+                final HttpResponse<InputStream> response = downloader.download(offset);
+                final boolean append = offset > 0 && response.statusCode() == 206;
+                if (append) {
+                    log.info("Resuming download of code archive {} from {}", codeArchiveId, offset);
+                } else if (offset > 0) {
+                    log.info(
+                            "Cannot resume download of code archive {}, restarting", codeArchiveId);
+                }
+                try (InputStream body = response.body();
+                        OutputStream out =
+                                Files.newOutputStream(
+                                        partial,
+                                        StandardOpenOption.CREATE,
+                                        StandardOpenOption.WRITE,
+                                        append
+                                                ? StandardOpenOption.APPEND
+                                                : StandardOpenOption.TRUNCATE_EXISTING)) {
+                    body.transferTo(out);
+                }
+                return;
+            } catch (HttpRequestFailedException | IOException e) {
+                if (e instanceof HttpRequestFailedException) {
+                    if (offset == 0) {
+                        throw e;
+                    }
+                    // the range is not valid for this archive (e.g. 416, range not satisfiable),
+                    // start from scratch
+                    Files.deleteIfExists(partial);
+                }
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn(
+                        "Error downloading code archive {} (attempt {}/{}), retrying",
+                        codeArchiveId,
+                        attempt,
+                        MAX_ATTEMPTS,
+                        e);
+                Thread.sleep(retryDelayMillis * attempt);
+            }
+        }
+    }
+
+    private void evict(Path keep) throws IOException {
+        if (maxSize <= 0) {
+            return;
+        }
+        final List<Path> archives;
+        try (Stream<Path> files = Files.list(directory)) {
+            archives =
+                    files.filter(p -> p.getFileName().toString().endsWith(".zip"))
+                            .filter(p -> !p.equals(keep))
+                            .sorted(Comparator.comparing(CodeArchiveCache::lastModifiedTime))
+                            .toList();
+        }
+        long size = Files.size(keep);
+        for (Path archive : archives) {
+            size += sizeOf(archive);
+        }
+        for (Path archive : archives) {
+            if (size <= maxSize) {
+                break;
+            }
+            final long archiveSize = sizeOf(archive);
+            log.info("Removing code archive {} from the cache ({} bytes)", archive, archiveSize);
+            Files.deleteIfExists(archive);
+            size -= archiveSize;
+        }
+    }
+
+    private static FileTime lastModifiedTime(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -25,13 +25,23 @@ import ai.langstream.api.runner.code.AgentStatusResponse;
 import ai.langstream.api.runner.code.Record;
 import ai.langstream.api.runner.code.RecordSink;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import lombok.extern.slf4j.Slf4j;
 
-/** This is a special processor that executes a pipeline of Agents in memory. */
+/**
+ * This is a special processor that executes a pipeline of Agents in memory.
+ *
+ * <p>The records emitted by an agent are passed as they are to the next agent, so agents that keep
+ * the record in parsed form (like the GenAI toolkit agents) hand it over without serializing it,
+ * the serialization happens only when the sink reads the records.
+ */
 @Slf4j
 public class CompositeAgentProcessor extends AbstractAgentCode implements AgentProcessor {
 
@@ -43,6 +53,14 @@ public class CompositeAgentProcessor extends AbstractAgentCode implements AgentP
 
     private AgentCodeRegistry agentCodeRegistry;
 
+    /**
+     * When enabled each processor of the chain receives the whole batch of records coming from the
+     * previous step, otherwise the records are pushed through the chain one source record at a
+     * time. It is disabled by default because a batch waits for its slowest record at every step.
+     * It is enabled with "batch-processing: true" in the pipeline file.
+     */
+    private boolean batchProcessing = false;
+
     public void configureAgentCodeRegistry(AgentCodeRegistry agentCodeRegistry) {
         this.agentCodeRegistry = agentCodeRegistry;
     }
@@ -56,6 +74,8 @@ public class CompositeAgentProcessor extends AbstractAgentCode implements AgentP
         if (processorsDefinition == null) {
             processorsDefinition = List.of();
         }
+        batchProcessing =
+                Boolean.parseBoolean(configuration.getOrDefault("batch-processing", "false") + "");
         Map<String, Object> sourceDefinition = (Map<String, Object>) configuration.get("source");
         if (sourceDefinition == null) {
             sourceDefinition = Map.of();
@@ -124,6 +144,14 @@ public class CompositeAgentProcessor extends AbstractAgentCode implements AgentP
         return sink;
     }
 
+    public boolean isBatchProcessing() {
+        return batchProcessing;
+    }
+
+    public void setBatchProcessing(boolean batchProcessing) {
+        this.batchProcessing = batchProcessing;
+    }
+
     @Override
     public void setContext(AgentContext context) throws Exception {
         for (AgentProcessor agent : processors) {
@@ -221,8 +249,202 @@ public class CompositeAgentProcessor extends AbstractAgentCode implements AgentP
             }
             return;
         }
-        for (Record record : records) {
-            invokeProcessor(0, List.of(record), record, sink);
+        if (batchProcessing) {
+            Map<Record, Record> sourceRecords = new IdentityHashMap<>();
+            for (Record record : records) {
+                sourceRecords.put(record, record);
+            }
+            invokeProcessorOnBatch(0, records, sourceRecords, sink);
+        } else {
+            for (Record record : records) {
+                invokeProcessor(0, List.of(record), record, sink);
+            }
+        }
+    }
+
+    /**
+     * This method executes the pipeline on a whole batch of records. Every step receives all the
+     * records produced by the previous step for the source records that are still in flight, and
+     * the results are reassembled per source record.
+     *
+     * @param index the index of the processor to execute
+     * @param currentRecords the records to pass to the processor
+     * @param sourceRecords maps each record in currentRecords to the initial source record
+     * @param finalStep the sink that receives the results for each source record
+     */
+    private void invokeProcessorOnBatch(
+            int index,
+            List<Record> currentRecords,
+            Map<Record, Record> sourceRecords,
+            RecordSink finalStep) {
+        AgentProcessor processor = processors.get(index);
+        BatchStepExecution execution = new BatchStepExecution(currentRecords, sourceRecords);
+        try {
+            processor.process(
+                    currentRecords,
+                    (SourceRecordAndResult recordAndResult) -> {
+                        List<SourceRecordAndResult> toEmit = new ArrayList<>();
+                        List<Record> nextRecords = new ArrayList<>();
+                        Map<Record, Record> nextSourceRecords = new IdentityHashMap<>();
+                        boolean stepCompleted =
+                                execution.onResult(
+                                        recordAndResult,
+                                        index == processors.size() - 1,
+                                        toEmit,
+                                        nextRecords,
+                                        nextSourceRecords);
+                        for (SourceRecordAndResult result : toEmit) {
+                            if (result.error() == null) {
+                                processed(0, result.resultRecords().size());
+                            }
+                            finalStep.emit(result);
+                        }
+                        if (stepCompleted && !nextRecords.isEmpty()) {
+                            // next processor
+                            invokeProcessorOnBatch(
+                                    index + 1, nextRecords, nextSourceRecords, finalStep);
+                        }
+                    });
+        } catch (Throwable error) {
+            log.error("Internal Error processing {} records", currentRecords.size(), error);
+            for (Record sourceRecord : execution.failAll()) {
+                finalStep.emit(new SourceRecordAndResult(sourceRecord, null, error));
+            }
+        }
+    }
+
+    /**
+     * Collects the results of one step of the pipeline executed over a batch of records. The
+     * processor may emit the results from any thread and in any order, the results are reassembled
+     * following the order of the input records.
+     */
+    private static final class BatchStepExecution {
+        private final List<Record> currentRecords;
+        private final Map<Record, Record> sourceRecords;
+        private final Map<Record, ArrayDeque<Integer>> pendingPositions = new IdentityHashMap<>();
+        private final List<List<Record>> resultsByPosition;
+        private final Set<Record> failedSourceRecords =
+                Collections.newSetFromMap(new IdentityHashMap<>());
+        private int receivedResults;
+
+        BatchStepExecution(List<Record> currentRecords, Map<Record, Record> sourceRecords) {
+            this.currentRecords = currentRecords;
+            this.sourceRecords = sourceRecords;
+            this.resultsByPosition = new ArrayList<>(currentRecords.size());
+            for (int i = 0; i < currentRecords.size(); i++) {
+                pendingPositions
+                        .computeIfAbsent(currentRecords.get(i), k -> new ArrayDeque<>())
+                        .add(i);
+                resultsByPosition.add(null);
+            }
+        }
+
+        /**
+         * Handles a result emitted by the processor.
+         *
+         * @return true if this was the last expected result of the step
+         */
+        synchronized boolean onResult(
+                SourceRecordAndResult recordAndResult,
+                boolean lastStep,
+                List<SourceRecordAndResult> toEmit,
+                List<Record> nextRecords,
+                Map<Record, Record> nextSourceRecords) {
+            if (receivedResults >= currentRecords.size()) {
+                log.error(
+                        "Processor emitted more results than expected, ignoring {}",
+                        recordAndResult);
+                return false;
+            }
+            Integer position = findPosition(recordAndResult.sourceRecord());
+            if (position == null) {
+                log.error(
+                        "Cannot find the input record for {}, ignoring the result",
+                        recordAndResult.sourceRecord());
+                return false;
+            }
+            receivedResults++;
+            Record sourceRecord = sourceRecords.get(currentRecords.get(position));
+            if (recordAndResult.error() != null) {
+                if (failedSourceRecords.add(sourceRecord)) {
+                    // some error occurred, early exit for this source record
+                    toEmit.add(
+                            new SourceRecordAndResult(sourceRecord, null, recordAndResult.error()));
+                }
+                resultsByPosition.set(position, List.of());
+            } else {
+                resultsByPosition.set(position, recordAndResult.resultRecords());
+            }
+
+            if (receivedResults != currentRecords.size()) {
+                // we have to wait for each record to be processed
+                return false;
+            }
+
+            List<Record> orderedSourceRecords = new ArrayList<>();
+            Map<Record, List<Record>> resultsBySourceRecord = new IdentityHashMap<>();
+            for (int i = 0; i < currentRecords.size(); i++) {
+                Record source = sourceRecords.get(currentRecords.get(i));
+                List<Record> results =
+                        resultsBySourceRecord.computeIfAbsent(
+                                source,
+                                k -> {
+                                    orderedSourceRecords.add(k);
+                                    return new ArrayList<>();
+                                });
+                results.addAll(resultsByPosition.get(i));
+            }
+            for (Record source : orderedSourceRecords) {
+                if (failedSourceRecords.contains(source)) {
+                    continue;
+                }
+                List<Record> results = resultsBySourceRecord.get(source);
+                if (results.isEmpty() || lastStep) {
+                    toEmit.add(new SourceRecordAndResult(source, results, null));
+                } else {
+                    for (Record record : results) {
+                        nextRecords.add(record);
+                        nextSourceRecords.put(record, source);
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Marks all the source records that are still in flight as failed.
+         *
+         * @return the source records that have not been reported as failed yet
+         */
+        synchronized List<Record> failAll() {
+            if (receivedResults >= currentRecords.size()) {
+                // the results have already been passed to the next step
+                return List.of();
+            }
+            receivedResults = currentRecords.size();
+            List<Record> result = new ArrayList<>();
+            for (Record record : currentRecords) {
+                Record sourceRecord = sourceRecords.get(record);
+                if (failedSourceRecords.add(sourceRecord)) {
+                    result.add(sourceRecord);
+                }
+            }
+            return result;
+        }
+
+        private Integer findPosition(Record record) {
+            ArrayDeque<Integer> positions = pendingPositions.get(record);
+            if (positions != null && !positions.isEmpty()) {
+                return positions.poll();
+            }
+            // the processor may have emitted a copy of the record
+            for (int i = 0; i < currentRecords.size(); i++) {
+                if (resultsByPosition.get(i) == null && currentRecords.get(i).equals(record)) {
+                    pendingPositions.get(currentRecords.get(i)).remove(i);
+                    return i;
+                }
+            }
+            return null;
         }
     }
 
@@ -0,0 +1,224 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.runtime.agent;
+
+import ai.langstream.api.runner.code.Header;
+import ai.langstream.api.runner.code.Record;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounds the records read from the source and not committed yet, by number and by estimated size.
+ *
+ * <p>The main loop stops reading from the source while the window is full, the records leave the
+ * window when they are committed to the source. The limits are checked before reading, so a single
+ * read may exceed them.
+ *
+ * <p>The records are tracked by identity. A processor may report a copy of the source record, in
+ * that case the record that is committed is matched with {@link Object#equals(Object)}. A committed
+ * record that matches neither way does not release anything.
+ */
+final class InFlightRecordsWindow {
+
+    // estimated memory used by a record besides the key, the value and the headers
+    static final int RECORD_OVERHEAD_BYTES = 64;
+
+    private final int maxRecords;
+    private final long maxBytes;
+    private final Map<RecordKey, Entry> entries = new HashMap<>();
+    // the same records, by equality, for the copies of the source records
+    private final Map<ValueKey, Deque<RecordKey>> byValue = new HashMap<>();
+    private long bytes;
+
+    /**
+     * @param maxRecords maximum number of records, 0 for no limit
+     * @param maxBytes maximum estimated size of the records, 0 for no limit
+     */
+    InFlightRecordsWindow(int maxRecords, long maxBytes) {
+        this.maxRecords = Math.max(maxRecords, 0);
+        this.maxBytes = Math.max(maxBytes, 0);
+    }
+
+    static InFlightRecordsWindow unbounded() {
+        return new InFlightRecordsWindow(0, 0);
+    }
+
+    boolean isBounded() {
+        return maxRecords > 0 || maxBytes > 0;
+    }
+
+    synchronized void add(List<Record> records) {
+        if (!isBounded()) {
+            return;
+        }
+        for (Record record : records) {
+            RecordKey key = new RecordKey(record);
+            if (entries.containsKey(key)) {
+                continue;
+            }
+            Entry entry = new Entry(estimateSize(record), ValueKey.of(record));
+            entries.put(key, entry);
+            byValue.computeIfAbsent(entry.valueKey(), k -> new ArrayDeque<>(1)).add(key);
+            bytes += entry.size();
+        }
+    }
+
+    synchronized void remove(List<Record> records) {
+        if (!isBounded()) {
+            return;
+        }
+        for (Record record : records) {
+            Long size = removeRecord(record);
+            if (size != null) {
+                bytes -= size;
+            }
+        }
+        notifyAll();
+    }
+
+    private Long removeRecord(Record record) {
+        RecordKey key = new RecordKey(record);
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            removeFromValues(entry.valueKey(), key);
+            return entry.size();
+        }
+        // a copy of the record, release the oldest equal record
+        ValueKey valueKey = ValueKey.of(record);
+        Deque<RecordKey> equalRecords = byValue.get(valueKey);
+        if (equalRecords == null) {
+            return null;
+        }
+        RecordKey equalKey = equalRecords.peek();
+        entry = entries.remove(equalKey);
+        removeFromValues(entry.valueKey(), equalKey);
+        return entry.size();
+    }
+
+    private void removeFromValues(ValueKey valueKey, RecordKey key) {
+        Deque<RecordKey> equalRecords = byValue.get(valueKey);
+        if (equalRecords != null && equalRecords.remove(key) && equalRecords.isEmpty()) {
+            byValue.remove(valueKey);
+        }
+    }
+
+    private record Entry(long size, ValueKey valueKey) {}
+
+    /** Equality of a record, with the hash computed when the record entered the window. */
+    private record ValueKey(Record record, int hash) {
+        static ValueKey of(Record record) {
+            return new ValueKey(record, record.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ValueKey other && other.record.equals(record);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /** Identity of a record, records may override equals/hashCode. */
+    private record RecordKey(Record record) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RecordKey other && other.record == record;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(record);
+        }
+    }
+
+    synchronized boolean isFull() {
+        return (maxRecords > 0 && entries.size() >= maxRecords)
+                || (maxBytes > 0 && bytes >= maxBytes);
+    }
+
+    /**
+     * Wait for some records to leave the window.
+     *
+     * @param timeoutMillis the maximum time to wait
+     * @return true if the window is not full
+     */
+    synchronized boolean awaitNotFull(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (isFull()) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    synchronized int records() {
+        return entries.size();
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+
+    /** The fraction of the window in use, the highest of the two limits. */
+    synchronized double occupancy() {
+        double result = 0;
+        if (maxRecords > 0) {
+            result = (double) entries.size() / maxRecords;
+        }
+        if (maxBytes > 0) {
+            result = Math.max(result, (double) bytes / maxBytes);
+        }
+        return result;
+    }
+
+    static long estimateSize(Record record) {
+        long size =
+                RECORD_OVERHEAD_BYTES + estimateSize(record.key()) + estimateSize(record.value());
+        if (record.headers() != null) {
+            for (Header header : record.headers()) {
+                size += estimateSize(header.key()) + estimateSize(header.value());
+            }
+        }
+        return size;
+    }
+
+    private static long estimateSize(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof byte[] bytes) {
+            return bytes.length;
+        }
+        if (value instanceof CharSequence string) {
+            return string.length();
+        }
+        if (value instanceof ByteBuffer buffer) {
+            return buffer.remaining();
+        }
+        // structured values (Avro, JSON trees, maps) are not measured
+        return 0;
+    }
+}
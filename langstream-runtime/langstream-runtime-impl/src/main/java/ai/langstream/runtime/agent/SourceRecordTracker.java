@@ -25,93 +25,162 @@ import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Tracks the records emitted to the Sink and commits the source records, in order, as soon as all
+ * the records generated from them have been written.
+ *
+ * <p>Each source record is appended, in order, to a non-blocking queue with a counter of the sink
+ * records still to be written. Completing a sink record only decrements the counter, a single
+ * thread at a time advances the commit watermark over the completed source records and commits them
+ * to the source in one batch. No locks are taken, the processors may emit their results from any
+ * thread.
+ *
+ * <p>Sink records are identified by identity: {@link #commit(List)} must receive the same instances
+ * that were passed to {@link #track(List)}, an equal copy is not recognized.
+ */
 @Slf4j
 class SourceRecordTracker {
-    final Map<Record, Record> sinkToSourceMapping = new ConcurrentHashMap<>();
-    final Map<Record, AtomicInteger> remainingSinkRecordsForSourceRecord =
-            new ConcurrentHashMap<>();
 
-    final Queue<Record> orderedSourceRecordsToCommit = new ConcurrentLinkedQueue<>();
+    final Map<SinkRecordKey, TrackedSourceRecord> sinkToSourceMapping = new ConcurrentHashMap<>();
+
+    // source records not committed yet, in the order they were tracked
+    private final Queue<TrackedSourceRecord> pending = new ConcurrentLinkedQueue<>();
+    // number of source records tracked and committed, the difference is the number of pending
+    // source records
+    private final AtomicLong trackedCount = new AtomicLong();
+    private final AtomicLong committedCount = new AtomicLong();
+
+    // number of requests to advance the watermark, only one thread at a time drains the queue
+    private final AtomicInteger advanceRequests = new AtomicInteger();
+
     private final AgentSource source;
+    private final Consumer<List<Record>> committedListener;
 
     public SourceRecordTracker(AgentSource source) {
+        this(source, records -> {});
+    }
+
+    /**
+     * @param source the source
+     * @param committedListener notified after the source records have been committed
+     */
+    public SourceRecordTracker(AgentSource source, Consumer<List<Record>> committedListener) {
         this.source = source;
+        this.committedListener = committedListener;
     }
 
-    @SneakyThrows
-    public synchronized void commit(List<Record> sinkRecords) {
-        List<Record> sourceRecordsToCommit = new ArrayList<>();
+    /** Identity of a record emitted to the sink, records may override equals/hashCode. */
+    record SinkRecordKey(Record record) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SinkRecordKey other && other.record == record;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(record);
+        }
+    }
+
+    static final class TrackedSourceRecord {
+        private final Record sourceRecord;
+        private final AtomicInteger remaining;
+
+        TrackedSourceRecord(Record sourceRecord, int remaining) {
+            this.sourceRecord = sourceRecord;
+            this.remaining = new AtomicInteger(remaining);
+        }
+    }
+
+    public void commit(List<Record> sinkRecords) {
         for (Record record : sinkRecords) {
-            Record sourceRecord = sinkToSourceMapping.get(record);
-            if (sourceRecord != null) {
-                AtomicInteger remaining = remainingSinkRecordsForSourceRecord.get(sourceRecord);
-                remaining.decrementAndGet();
+            TrackedSourceRecord tracked = sinkToSourceMapping.remove(new SinkRecordKey(record));
+            if (tracked != null) {
+                tracked.remaining.decrementAndGet();
             }
         }
+        advanceWatermark();
+    }
 
-        // we can commit only in order,
-        // so here we find the longest sequence of records that can be committed
-        for (Record record : orderedSourceRecordsToCommit) {
-            AtomicInteger remaining = remainingSinkRecordsForSourceRecord.get(record);
-            if (log.isDebugEnabled()) {
-                log.debug("remaining {} for record {}", remaining, record);
-            }
-            if (remaining == null) {
-                throw new IllegalStateException(
-                        "No sink records for source record " + record + ". Something went wrong");
+    public void track(List<AgentProcessor.SourceRecordAndResult> sinkRecords) {
+        boolean completed = false;
+        for (AgentProcessor.SourceRecordAndResult sourceRecordAndResult : sinkRecords) {
+            List<Record> resultRecords = sourceRecordAndResult.resultRecords();
+            TrackedSourceRecord tracked =
+                    new TrackedSourceRecord(
+                            sourceRecordAndResult.sourceRecord(), resultRecords.size());
+            // map each sink record to the original source record
+            for (Record sinkRecord : resultRecords) {
+                sinkToSourceMapping.put(new SinkRecordKey(sinkRecord), tracked);
             }
-            if (remaining.get() == 0) {
-                sourceRecordsToCommit.add(record);
-            } else {
+            pending.add(tracked);
+            trackedCount.incrementAndGet();
+            // the sink records may have been committed before the source record was in the queue
+            completed |= tracked.remaining.get() == 0;
+        }
+        if (completed) {
+            advanceWatermark();
+        }
+    }
+
+    /** Number of source records that have not been committed yet. */
+    long pendingSourceRecords() {
+        return trackedCount.get() - committedCount.get();
+    }
+
+    @SneakyThrows
+    private void advanceWatermark() {
+        if (advanceRequests.getAndIncrement() != 0) {
+            // another thread is advancing the watermark, it will see our changes
+            return;
+        }
+        int missed = 1;
+        try {
+            do {
+                List<Record> sourceRecordsToCommit = collectCompletedSourceRecords();
+                if (!sourceRecordsToCommit.isEmpty()) {
+                    source.commit(sourceRecordsToCommit);
+                    committedListener.accept(sourceRecordsToCommit);
+                }
+                missed = advanceRequests.addAndGet(-missed);
+            } while (missed != 0);
+        } catch (Throwable error) {
+            advanceRequests.set(0);
+            throw error;
+        }
+    }
+
+    /**
+     * We can commit only in order, so here we find the longest sequence of completed source records
+     * starting from the head of the queue. Only the thread advancing the watermark removes records
+     * from the queue.
+     */
+    private List<Record> collectCompletedSourceRecords() {
+        List<Record> sourceRecordsToCommit = new ArrayList<>();
+        TrackedSourceRecord tracked;
+        while ((tracked = pending.peek()) != null) {
+            int remaining = tracked.remaining.get();
+            if (remaining > 0) {
                 if (log.isDebugEnabled()) {
                     log.debug(
                             "record {} still has {} sink records to commit",
-                            record,
-                            remaining.get());
+                            tracked.sourceRecord,
+                            remaining);
                 }
                 break;
             }
+            if (log.isDebugEnabled()) {
+                log.debug("Record {} is done", tracked.sourceRecord);
+            }
+            sourceRecordsToCommit.add(tracked.sourceRecord);
+            pending.poll();
         }
-
-        sourceRecordsToCommit.forEach(
-                r -> {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Record {} is done", r);
-                    }
-                    remainingSinkRecordsForSourceRecord.remove(r);
-                });
-
-        source.commit(sourceRecordsToCommit);
-
-        // forget about the committed records
-        for (Record committed : sourceRecordsToCommit) {
-            orderedSourceRecordsToCommit.remove(committed);
-            remainingSinkRecordsForSourceRecord.remove(committed);
-        }
-
-        // forget about this batch SinkRecords
-        sinkRecords.forEach(sinkToSourceMapping::remove);
-    }
-
-    public synchronized void track(List<AgentProcessor.SourceRecordAndResult> sinkRecords) {
-
-        // map each sink record to the original source record
-        sinkRecords.forEach(
-                (sourceRecordAndResult) -> {
-                    Record sourceRecord = sourceRecordAndResult.sourceRecord();
-                    orderedSourceRecordsToCommit.add(sourceRecord);
-
-                    List<Record> resultRecords = sourceRecordAndResult.resultRecords();
-                    remainingSinkRecordsForSourceRecord.put(
-                            sourceRecord, new AtomicInteger(resultRecords.size()));
-                    sourceRecordAndResult
-                            .resultRecords()
-                            .forEach(
-                                    sinkRecord ->
-                                            sinkToSourceMapping.put(sinkRecord, sourceRecord));
-                });
+        committedCount.addAndGet(sourceRecordsToCommit.size());
+        return sourceRecordsToCommit;
     }
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.runtime.agent;
+
+import ai.langstream.api.runner.code.MetricsReporter;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+
+/** Measures the duration of the phases of the startup of an agent. */
+@Slf4j
+class StartupTimings {
+
+    private final long start = System.nanoTime();
+    private long lastPhaseEnd = start;
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    /** Marks the end of a phase, that started at the end of the previous one. */
+    void phaseCompleted(String phase) {
+        long now = System.nanoTime();
+        phases.put(phase, now - lastPhaseEnd);
+        lastPhaseEnd = now;
+    }
+
+    Map<String, Long> phasesMillis() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        phases.forEach((phase, nanos) -> result.put(phase, nanos / 1_000_000));
+        return result;
+    }
+
+    long totalMillis() {
+        return (lastPhaseEnd - start) / 1_000_000;
+    }
+
+    /** Logs a summary and exports the durations as gauges, in seconds. */
+    void report(String agentId, MetricsReporter metricsReporter) {
+        log.info(
+                "Agent {} started in {} ms ({}), JVM uptime {} ms",
+                agentId,
+                totalMillis(),
+                phasesMillis().entrySet().stream()
+                        .map(e -> e.getKey() + " " + e.getValue() + " ms")
+                        .collect(Collectors.joining(", ")),
+                ManagementFactory.getRuntimeMXBean().getUptime());
+        MetricsReporter reporter = metricsReporter.withAgentName(agentId);
+        reporter.gauge("agent_startup_seconds", "Time spent to start the agent, in seconds")
+                .set((lastPhaseEnd - start) / 1_000_000_000.0);
+        phases.forEach(
+                (phase, nanos) ->
+                        reporter.gauge(
+                                        "agent_startup_" + phase + "_seconds",
+                                        "Time spent in the " + phase + " phase of the startup")
+                                .set(nanos / 1_000_000_000.0));
+    }
+}
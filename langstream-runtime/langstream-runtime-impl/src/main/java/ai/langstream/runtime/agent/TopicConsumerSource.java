@@ -47,6 +47,16 @@ public class TopicConsumerSource extends AbstractAgentCode implements AgentSourc
         consumer.commit(records);
     }
 
+    @Override
+    public boolean pause() throws Exception {
+        return consumer.pause();
+    }
+
+    @Override
+    public void resume() throws Exception {
+        consumer.resume();
+    }
+
     @Override
     public void permanentFailure(Record record, Exception error) {
         // DLQ
@@ -16,7 +16,6 @@
 package ai.langstream.runtime.agent.metrics;
 
 import ai.langstream.api.runner.code.MetricsReporter;
-import io.prometheus.client.Counter;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -24,6 +23,9 @@ public class PrometheusMetricsReporter implements MetricsReporter {
 
     private final String agentName;
     private static Map<String, io.prometheus.client.Counter> counters = new ConcurrentHashMap<>();
+    private static Map<String, io.prometheus.client.Histogram> histograms =
+            new ConcurrentHashMap<>();
+    private static Map<String, io.prometheus.client.Gauge> gauges = new ConcurrentHashMap<>();
 
     public PrometheusMetricsReporter(String agentName) {
         this.agentName = agentName;
@@ -60,6 +62,40 @@ public class PrometheusMetricsReporter implements MetricsReporter {
         };
     }
 
+    @Override
+    public Histogram histogram(String name, String help, double... buckets) {
+        // the buckets are set by the first agent that registers the metric
+        io.prometheus.client.Histogram histogram =
+                histograms.computeIfAbsent(
+                        name,
+                        k ->
+                                io.prometheus.client.Histogram.build()
+                                        .name(sanitizeMetricName(name))
+                                        .labelNames("agent_id")
+                                        .help(help)
+                                        .buckets(buckets)
+                                        .register());
+
+        io.prometheus.client.Histogram.Child histogramWithLabel = histogram.labels(agentName);
+        return histogramWithLabel::observe;
+    }
+
+    @Override
+    public Gauge gauge(String name, String help) {
+        io.prometheus.client.Gauge gauge =
+                gauges.computeIfAbsent(
+                        name,
+                        k ->
+                                io.prometheus.client.Gauge.build()
+                                        .name(sanitizeMetricName(name))
+                                        .labelNames("agent_id")
+                                        .help(help)
+                                        .register());
+
+        io.prometheus.client.Gauge.Child gaugeWithLabel = gauge.labels(agentName);
+        return gaugeWithLabel::set;
+    }
+
     private static String sanitizeMetricName(String metricName) {
         // Define a regular expression pattern to match forbidden characters
         String pattern = "[^a-zA-Z0-9_]+";
@@ -153,7 +153,9 @@ public class ApplicationSetupRunnerStarter extends RuntimeStarter {
                         downloadDirectory.toFile().getAbsolutePath(),
                         applicationSetupConfiguration.getTenant(),
                         applicationSetupConfiguration.getApplicationId(),
-                        applicationSetupConfiguration.getCodeArchiveId());
+                        applicationSetupConfiguration.getCodeArchiveId(),
+                        null,
+                        0);
 
         log.info(
                 "Downloading application code {} with cluster config {}",
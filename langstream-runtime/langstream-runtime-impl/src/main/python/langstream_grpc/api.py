@@ -26,6 +26,7 @@ __all__ = [
     "Source",
     "Service",
     "Sink",
+    "BatchSink",
     "Processor",
     "AgentContext",
 ]
@@ -183,6 +184,29 @@ class Sink(Agent):
         pass
 
 
+class BatchSink(Sink):
+    """A Sink agent that writes the records in batches
+
+    The runtime sends the records to the agent in batches, the size of the batches is
+    controlled by the grpc-batch-size configuration of the agent.
+    """
+
+    @abstractmethod
+    def write_batch(self, records: List[Record]) -> Optional[Future[None]]:
+        """The Sink agent receives a batch of records from the framework and typically
+        writes them to an external service.
+        For a synchronous result, return None/nothing if successful or otherwise raise
+        an Exception, all the records of the batch are failed.
+        For an asynchronous result, return a concurrent.futures.Future.
+
+        :returns: nothing if the write is successful or a concurrent.futures.Future
+        """
+        pass
+
+    def write(self, record: Record) -> Optional[Future[None]]:
+        return self.write_batch([record])
+
+
 class Service(Agent):
     """An agent is a standalone process that can be started and stopped."""
 
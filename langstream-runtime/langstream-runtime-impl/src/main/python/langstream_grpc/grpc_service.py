@@ -43,6 +43,7 @@ from langstream_grpc.proto.agent_pb2 import (
     SourceResponse,
     SinkRequest,
     SinkResponse,
+    SinkResult,
 )
 from langstream_grpc.proto.agent_pb2_grpc import AgentServiceServicer
 from .api import Source, Sink, Processor, Record, Agent, AgentContext
@@ -63,6 +64,28 @@ class RecordWithId(SimpleRecord):
         self.record_id = record_id
 
 
+class SinkBatchResults(object):
+    """Collects the results of the records of a batch and sends them in a single
+    response once all the records have been written."""
+
+    def __init__(self, size: int, write_results):
+        self.remaining = size
+        self.results = []
+        self.write_results = write_results
+        self.lock = threading.Lock()
+
+    def put(self, response: SinkResponse):
+        result = SinkResult(record_id=response.record_id)
+        if response.HasField("error"):
+            result.error = response.error
+        with self.lock:
+            self.results.append(result)
+            self.remaining -= 1
+            done = self.remaining == 0
+        if done:
+            self.write_results.put(SinkResponse(results=self.results))
+
+
 def wrap_in_record(record):
     if isinstance(record, tuple) or isinstance(record, list):
         return SimpleRecord(*record)
@@ -218,6 +241,54 @@ class AgentService(AgentServiceServicer):
                 SinkResponse(record_id=source_record.record_id, error=str(e))
             )
 
+    def write_batch(
+        self, source_records, get_written_fn, get_written_args, write_results
+    ):
+        try:
+            result = get_written_fn(*get_written_args)
+            if isinstance(result, Future):
+                result.add_done_callback(
+                    lambda f: self.write_batch(
+                        source_records, f.result, (), write_results
+                    )
+                )
+            else:
+                write_results.put(
+                    SinkResponse(
+                        results=[
+                            SinkResult(record_id=r.record_id) for r in source_records
+                        ]
+                    )
+                )
+        except Exception as e:
+            write_results.put(
+                SinkResponse(
+                    results=[
+                        SinkResult(record_id=r.record_id, error=str(e))
+                        for r in source_records
+                    ]
+                )
+            )
+
+    def write_records(self, source_records, write_results):
+        write_batch = getattr(self.agent, "write_batch", None)
+        if callable(write_batch):
+            self.write_batch(
+                source_records,
+                lambda rs: write_batch([self.from_grpc_record(r) for r in rs]),
+                (source_records,),
+                write_results,
+            )
+        else:
+            batch_results = SinkBatchResults(len(source_records), write_results)
+            for source_record in source_records:
+                self.write_record(
+                    source_record,
+                    lambda r: self.agent.write(self.from_grpc_record(r)),
+                    (source_record,),
+                    batch_results,
+                )
+
     def handle_write_requests(self, requests: Iterable[SinkRequest], write_results):
         for request in requests:
             if request.HasField("schema"):
@@ -230,6 +301,8 @@ class AgentService(AgentServiceServicer):
                     (request.record,),
                     write_results,
                 )
+            if len(request.records) > 0:
+                self.write_records(request.records, write_results)
         write_results.put(True)
 
     def from_grpc_record(self, record: GrpcRecord) -> SimpleRecord:
@@ -19,7 +19,7 @@ from io import BytesIO
 
 import fastavro
 
-from langstream_grpc.api import Record, Sink
+from langstream_grpc.api import Record, Sink, BatchSink
 from langstream_grpc.proto.agent_pb2 import (
     Record as GrpcRecord,
     SinkRequest,
@@ -117,6 +117,62 @@ def test_write_future():
         assert server_and_stub.server.agent.written_records[0].value() == "test"
 
 
+def test_write_records():
+    with ServerAndStub(
+        "langstream_grpc.tests.test_grpc_sink.MySink"
+    ) as server_and_stub:
+        responses: list[SinkResponse]
+        responses = list(
+            server_and_stub.stub.write(
+                iter(
+                    [
+                        SinkRequest(
+                            records=[
+                                GrpcRecord(record_id=42, value=Value(string_value="a")),
+                                GrpcRecord(record_id=43, value=Value(string_value="b")),
+                            ]
+                        )
+                    ]
+                )
+            )
+        )
+        assert len(responses) == 1
+        assert sorted(r.record_id for r in responses[0].results) == [42, 43]
+        assert not any(r.HasField("error") for r in responses[0].results)
+        assert len(server_and_stub.server.agent.written_records) == 2
+
+
+def test_write_batch():
+    with ServerAndStub(
+        "langstream_grpc.tests.test_grpc_sink.MyBatchSink"
+    ) as server_and_stub:
+        responses: list[SinkResponse]
+        responses = list(
+            server_and_stub.stub.write(
+                iter(
+                    [
+                        SinkRequest(
+                            records=[
+                                GrpcRecord(record_id=42, value=Value(string_value="a")),
+                                GrpcRecord(record_id=43, value=Value(string_value="b")),
+                            ]
+                        ),
+                        SinkRequest(
+                            record=GrpcRecord(
+                                record_id=44, value=Value(string_value="c")
+                            )
+                        ),
+                    ]
+                )
+            )
+        )
+        assert len(responses) == 2
+        assert [r.record_id for r in responses[0].results] == [42, 43]
+        assert responses[1].record_id == 44
+        batches = server_and_stub.server.agent.batches
+        assert [[r.value() for r in batch] for batch in batches] == [["a", "b"], ["c"]]
+
+
 class MySink(Sink):
     def __init__(self):
         self.written_records = []
@@ -137,3 +193,11 @@ class MyFutureSink(Sink):
 
     def write(self, record: Record) -> Future[None]:
         return self.executor.submit(lambda r: self.written_records.append(r), record)
+
+
+class MyBatchSink(BatchSink):
+    def __init__(self):
+        self.batches = []
+
+    def write_batch(self, records: list[Record]):
+        self.batches.append(records)
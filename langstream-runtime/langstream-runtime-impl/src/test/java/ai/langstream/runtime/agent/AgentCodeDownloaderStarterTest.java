@@ -44,7 +44,7 @@ class AgentCodeDownloaderStarterTest {
                 Files.createTempFile("langstream", ".json").toFile().getAbsolutePath();
         mapper.writeValue(
                 new File(downloaderConfigFile),
-                new DownloadAgentCodeConfiguration(null, null, null, null));
+                new DownloadAgentCodeConfiguration(null, null, null, null, null, 0));
         String tokenConfigFile =
                 Files.createTempFile("langstream", ".json").toFile().getAbsolutePath();
         mapper.writeValue(new File(tokenConfigFile), "mytoken");
@@ -26,6 +26,9 @@ import ai.langstream.api.runner.code.Record;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.Test;
 
 public class AgentRecordTrackerTest {
@@ -39,7 +42,7 @@ public class AgentRecordTrackerTest {
         List<Record> committed = new ArrayList<>();
 
         @Override
-        public void commit(List<Record> records) {
+        public synchronized void commit(List<Record> records) {
             committed.addAll(records);
         }
 
@@ -70,7 +73,7 @@ public class AgentRecordTrackerTest {
         agentSource.committed.clear();
 
         // ensure no leaks
-        assertTrue(tracker.remainingSinkRecordsForSourceRecord.isEmpty());
+        assertEquals(0, tracker.pendingSourceRecords());
         assertTrue(tracker.sinkToSourceMapping.isEmpty());
     }
 
@@ -98,7 +101,7 @@ public class AgentRecordTrackerTest {
         assertEquals(sourceRecord, agentSource.committed.get(0));
         agentSource.committed.clear();
         // ensure no leaks
-        assertTrue(tracker.remainingSinkRecordsForSourceRecord.isEmpty());
+        assertEquals(0, tracker.pendingSourceRecords());
         assertTrue(tracker.sinkToSourceMapping.isEmpty());
     }
 
@@ -120,7 +123,151 @@ public class AgentRecordTrackerTest {
         assertEquals(sourceRecord, agentSource.committed.get(0));
         agentSource.committed.clear();
         // ensure no leaks
-        assertTrue(tracker.remainingSinkRecordsForSourceRecord.isEmpty());
+        assertEquals(0, tracker.pendingSourceRecords());
+        assertTrue(tracker.sinkToSourceMapping.isEmpty());
+    }
+
+    @Test
+    public void testSinkRecordsAreTrackedByIdentity() {
+        MySource agentSource = new MySource();
+        SourceRecordTracker tracker = new SourceRecordTracker(agentSource);
+
+        Record sourceRecord1 = new MyRecord("key", "sourceValue1", "origin", 0L, null);
+        Record sourceRecord2 = new MyRecord("key", "sourceValue2", "origin", 0L, null);
+        // two source records produce equal sink records, they must not be confused
+        Record sinkRecord1 = new MyRecord("key", "sinkValue", "origin", 0L, null);
+        Record sinkRecord2 = new MyRecord("key", "sinkValue", "origin", 0L, null);
+        assertEquals(sinkRecord1, sinkRecord2);
+
+        tracker.track(
+                List.of(
+                        new AgentProcessor.SourceRecordAndResult(
+                                sourceRecord1, List.of(sinkRecord1), null),
+                        new AgentProcessor.SourceRecordAndResult(
+                                sourceRecord2, List.of(sinkRecord2), null)));
+        assertEquals(2, tracker.sinkToSourceMapping.size());
+
+        // a copy of the sink record is not recognized, the source record stays pending
+        Record copy = new MyRecord("key", "sinkValue", "origin", 0L, null);
+        tracker.commit(List.of(copy));
+        assertEquals(0, agentSource.committed.size());
+        assertEquals(2, tracker.pendingSourceRecords());
+
+        tracker.commit(List.of(sinkRecord2));
+        assertEquals(0, agentSource.committed.size());
+        tracker.commit(List.of(sinkRecord1));
+        assertEquals(List.of(sourceRecord1, sourceRecord2), agentSource.committed);
+
+        // ensure no leaks
+        assertEquals(0, tracker.pendingSourceRecords());
+        assertTrue(tracker.sinkToSourceMapping.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentTrackAndCommit() throws Exception {
+        MySource agentSource = new MySource();
+        SourceRecordTracker tracker = new SourceRecordTracker(agentSource);
+
+        int numRecords = 10000;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < numRecords; i++) {
+                Record sourceRecord = new MyRecord("key", "sourceValue" + i, "origin", 0L, null);
+                Record sinkRecord = new MyRecord("key", "sinkValue" + i, "origin", 0L, null);
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    tracker.track(
+                                            List.of(
+                                                    new AgentProcessor.SourceRecordAndResult(
+                                                            sourceRecord,
+                                                            List.of(sinkRecord),
+                                                            null)));
+                                    tracker.commit(List.of(sinkRecord));
+                                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(numRecords, agentSource.committed.size());
+        assertEquals(0, tracker.pendingSourceRecords());
+        assertTrue(tracker.sinkToSourceMapping.isEmpty());
+    }
+
+    @Test
+    public void testCommitInOrder() {
+        MySource agentSource = new MySource();
+        SourceRecordTracker tracker = new SourceRecordTracker(agentSource);
+
+        // more records than the initial capacity of the tracker
+        int numRecords = 5000;
+        List<Record> sourceRecords = new ArrayList<>();
+        List<Record> sinkRecords = new ArrayList<>();
+        for (int i = 0; i < numRecords; i++) {
+            Record sourceRecord = new MyRecord("key", "sourceValue" + i, "origin", 0L, null);
+            Record sinkRecord = new MyRecord("key", "sinkValue" + i, "origin", 0L, null);
+            sourceRecords.add(sourceRecord);
+            sinkRecords.add(sinkRecord);
+            tracker.track(
+                    List.of(
+                            new AgentProcessor.SourceRecordAndResult(
+                                    sourceRecord, List.of(sinkRecord), null)));
+        }
+
+        // complete all the records but the first one, in reverse order
+        for (int i = numRecords - 1; i > 0; i--) {
+            tracker.commit(List.of(sinkRecords.get(i)));
+        }
+        assertEquals(0, agentSource.committed.size());
+        assertEquals(numRecords, tracker.pendingSourceRecords());
+
+        tracker.commit(List.of(sinkRecords.get(0)));
+        assertEquals(sourceRecords, agentSource.committed);
+
+        // ensure no leaks
+        assertEquals(0, tracker.pendingSourceRecords());
+        assertTrue(tracker.sinkToSourceMapping.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentCommits() throws Exception {
+        MySource agentSource = new MySource();
+        SourceRecordTracker tracker = new SourceRecordTracker(agentSource);
+
+        int numRecords = 10000;
+        List<Record> sourceRecords = new ArrayList<>();
+        List<Record> sinkRecords = new ArrayList<>();
+        for (int i = 0; i < numRecords; i++) {
+            Record sourceRecord = new MyRecord("key", "sourceValue" + i, "origin", 0L, null);
+            Record sinkRecord = new MyRecord("key", "sinkValue" + i, "origin", 0L, null);
+            sourceRecords.add(sourceRecord);
+            sinkRecords.add(sinkRecord);
+            tracker.track(
+                    List.of(
+                            new AgentProcessor.SourceRecordAndResult(
+                                    sourceRecord, List.of(sinkRecord), null)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Record sinkRecord : sinkRecords) {
+                futures.add(executor.submit(() -> tracker.commit(List.of(sinkRecord))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(sourceRecords, agentSource.committed);
+        assertEquals(0, tracker.pendingSourceRecords());
         assertTrue(tracker.sinkToSourceMapping.isEmpty());
     }
 }
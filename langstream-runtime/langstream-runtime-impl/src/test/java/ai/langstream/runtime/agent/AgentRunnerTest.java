@@ -17,20 +17,32 @@ package ai.langstream.runtime.agent;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import ai.langstream.api.runner.code.AbstractAgentCode;
 import ai.langstream.api.runner.code.AgentContext;
+import ai.langstream.api.runner.code.AgentProcessor;
 import ai.langstream.api.runner.code.AgentSink;
 import ai.langstream.api.runner.code.AgentSource;
+import ai.langstream.api.runner.code.MetricsReporter;
 import ai.langstream.api.runner.code.Record;
+import ai.langstream.api.runner.code.RecordSink;
 import ai.langstream.api.runner.code.SimpleRecord;
 import ai.langstream.api.runner.code.SingleRecordAgentProcessor;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 
@@ -95,6 +107,40 @@ class AgentRunnerTest {
         source.expectUncommitted(1);
     }
 
+    @Test
+    void sinkWriteErrorsGoThroughTheErrorsPolicy() throws Exception {
+        SimpleSource source =
+                new SimpleSource(
+                        List.of(SimpleRecord.of("key", "fail-me"), SimpleRecord.of("key", "ok")));
+        AgentSink sink = new ThrowingSink(Set.of("fail-me"));
+        SimpleAgentProcessor processor = new SimpleAgentProcessor(Set.of());
+        StandardErrorsHandler errorHandler =
+                new StandardErrorsHandler(Map.of("retries", 0, "onFailure", "skip"));
+        AgentRunner.runMainLoop(
+                source,
+                processor,
+                sink,
+                mock(AgentContext.class),
+                errorHandler,
+                source::hasMoreRecords);
+        source.expectUncommitted(0);
+
+        SimpleSource failingSource = new SimpleSource(List.of(SimpleRecord.of("key", "fail-me")));
+        StandardErrorsHandler failHandler =
+                new StandardErrorsHandler(Map.of("retries", 0, "onFailure", "fail"));
+        assertThrows(
+                AgentRunner.PermanentFailureException.class,
+                () ->
+                        AgentRunner.runMainLoop(
+                                failingSource,
+                                processor,
+                                sink,
+                                mock(AgentContext.class),
+                                failHandler,
+                                failingSource::hasMoreRecords));
+        failingSource.expectUncommitted(1);
+    }
+
     @Test
     void someFailedSomeGoodWithSkip() throws Exception {
         SimpleSource source =
@@ -170,6 +216,125 @@ class AgentRunnerTest {
         source.expectUncommitted(0);
     }
 
+    @Test
+    void metrics() throws Exception {
+        SimpleSource source =
+                new SimpleSource(
+                        2,
+                        List.of(
+                                SimpleRecord.of("key", "a"),
+                                SimpleRecord.of("key", "b"),
+                                SimpleRecord.of("key", "c")));
+        AgentSink sink = new SimpleSink();
+        SimpleAgentProcessor processor = new SimpleAgentProcessor(Set.of());
+        StandardErrorsHandler errorHandler =
+                new StandardErrorsHandler(Map.of("retries", 0, "onFailure", "fail"));
+        RecordingMetricsReporter metrics = new RecordingMetricsReporter();
+        AgentContext context = createContext(metrics);
+        AgentRunner.runMainLoop(
+                source, processor, sink, context, errorHandler, source::hasMoreRecords);
+        source.expectUncommitted(0);
+
+        assertEquals(List.of(2d, 1d), metrics.histograms.get("agent_source_read_batch_size"));
+        assertEquals(2, metrics.histograms.get("agent_source_read_latency_seconds").size());
+        assertEquals(3, metrics.histograms.get("agent_process_latency_seconds").size());
+        assertEquals(3, metrics.histograms.get("agent_sink_write_latency_seconds").size());
+        assertEquals(3, metrics.histograms.get("agent_record_latency_seconds").size());
+        assertTrue(
+                metrics.histograms.get("agent_record_latency_seconds").stream()
+                        .allMatch(value -> value >= 0));
+        assertEquals(List.of(0d, 0d), metrics.gauges.get("agent_pending_commits"));
+    }
+
+    @Test
+    void boundedInFlightRecords() throws Exception {
+        List<Record> records = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            records.add(SimpleRecord.of("key", "value" + i));
+        }
+        SimpleSource source = new SimpleSource(records);
+        SlowSink sink = new SlowSink();
+        SimpleAgentProcessor processor = new SimpleAgentProcessor(Set.of());
+        StandardErrorsHandler errorHandler =
+                new StandardErrorsHandler(Map.of("retries", 0, "onFailure", "fail"));
+        RecordingMetricsReporter metrics = new RecordingMetricsReporter();
+        AgentContext context = createContext(metrics);
+        try {
+            AgentRunner.runMainLoop(
+                    source,
+                    processor,
+                    sink,
+                    context,
+                    errorHandler,
+                    source::hasMoreRecords,
+                    new InFlightRecordsWindow(3, 0));
+        } finally {
+            sink.executor.shutdown();
+        }
+        assertTrue(sink.executor.awaitTermination(10, TimeUnit.SECONDS));
+        processor.expectExecutions(20);
+        source.expectUncommitted(0);
+        assertTrue(source.maxUncommitted <= 3, "max uncommitted " + source.maxUncommitted);
+        assertTrue(
+                metrics.gauges.get("agent_in_flight_window_occupancy").stream()
+                        .allMatch(value -> value <= 1));
+    }
+
+    @Test
+    void boundedInFlightRecordsWithCopiedSourceRecords() throws Exception {
+        List<Record> records = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            records.add(SimpleRecord.of("key", "value" + i));
+        }
+        SimpleSource source = new SimpleSource(records);
+        SlowSink sink = new SlowSink();
+        CopyingAgentProcessor processor = new CopyingAgentProcessor();
+        StandardErrorsHandler errorHandler =
+                new StandardErrorsHandler(Map.of("retries", 0, "onFailure", "fail"));
+        InFlightRecordsWindow window = new InFlightRecordsWindow(3, 0);
+        try {
+            AgentRunner.runMainLoop(
+                    source,
+                    processor,
+                    sink,
+                    mock(AgentContext.class),
+                    errorHandler,
+                    source::hasMoreRecords,
+                    window);
+        } finally {
+            sink.executor.shutdown();
+        }
+        assertTrue(sink.executor.awaitTermination(10, TimeUnit.SECONDS));
+        source.expectUncommitted(0);
+        assertEquals(0, window.records());
+    }
+
+    private static AgentContext createContext(MetricsReporter metricsReporter) {
+        AgentContext context = mock(AgentContext.class);
+        when(context.getMetricsReporter()).thenReturn(metricsReporter);
+        return context;
+    }
+
+    private static class RecordingMetricsReporter implements MetricsReporter {
+        final Map<String, List<Double>> histograms = new ConcurrentHashMap<>();
+        final Map<String, List<Double>> gauges = new ConcurrentHashMap<>();
+
+        @Override
+        public Counter counter(String name, String help) {
+            return Counter.NOOP;
+        }
+
+        @Override
+        public Histogram histogram(String name, String help, double... buckets) {
+            return histograms.computeIfAbsent(name, n -> new CopyOnWriteArrayList<>())::add;
+        }
+
+        @Override
+        public Gauge gauge(String name, String help) {
+            return gauges.computeIfAbsent(name, n -> new CopyOnWriteArrayList<>())::add;
+        }
+    }
+
     private static class SimpleSink extends AbstractAgentCode implements AgentSink {
         @Override
         public CompletableFuture<?> write(Record record) {
@@ -177,10 +342,39 @@ class AgentRunnerTest {
         }
     }
 
+    /** Fails while reading the record, like a record that cannot be serialized. */
+    private static class ThrowingSink extends AbstractAgentCode implements AgentSink {
+        private final Set<String> failOnContent;
+
+        ThrowingSink(Set<String> failOnContent) {
+            this.failOnContent = failOnContent;
+        }
+
+        @Override
+        public CompletableFuture<?> write(Record record) {
+            if (failOnContent.contains((String) record.value())) {
+                throw new UncheckedIOException(new IOException("Cannot serialize " + record));
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private static class SlowSink extends AbstractAgentCode implements AgentSink {
+        final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+        @Override
+        public CompletableFuture<?> write(Record record) {
+            CompletableFuture<?> result = new CompletableFuture<>();
+            executor.schedule(() -> result.complete(null), 20, TimeUnit.MILLISECONDS);
+            return result;
+        }
+    }
+
     private static class SimpleSource extends AbstractAgentCode implements AgentSource {
 
         final List<Record> records;
         final List<Record> uncommitted = new ArrayList<>();
+        int maxUncommitted;
 
         final int batchSize;
 
@@ -207,6 +401,7 @@ class AgentRunnerTest {
                 Record remove = records.remove(0);
                 result.add(remove);
                 uncommitted.add(remove);
+                maxUncommitted = Math.max(maxUncommitted, uncommitted.size());
                 if (records.isEmpty()) {
                     break;
                 }
@@ -224,6 +419,17 @@ class AgentRunnerTest {
         }
     }
 
+    /** Reports a copy of the source record, like a processor that rebuilds the records. */
+    private static class CopyingAgentProcessor extends AbstractAgentCode implements AgentProcessor {
+        @Override
+        public void process(List<Record> records, RecordSink recordSink) {
+            for (Record record : records) {
+                Record copy = SimpleRecord.copyFrom(record).build();
+                recordSink.emit(new SourceRecordAndResult(copy, List.of(copy), null));
+            }
+        }
+    }
+
     private static class SimpleAgentProcessor extends SingleRecordAgentProcessor {
 
         private final Set<String> failOnContent;
@@ -0,0 +1,171 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.runtime.agent;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+class CodeArchiveCacheTest {
+
+    private static byte[] archive(int size) {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<InputStream> response(int status, InputStream body) {
+        HttpResponse<InputStream> response = Mockito.mock(HttpResponse.class);
+        Mockito.when(response.statusCode()).thenReturn(status);
+        Mockito.when(response.body()).thenReturn(body);
+        return response;
+    }
+
+    private static InputStream failingAfter(byte[] content, int length) {
+        ByteArrayInputStream in = new ByteArrayInputStream(content, 0, length);
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                int b = in.read();
+                if (b < 0) {
+                    throw new IOException("connection reset");
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int off, int len) throws IOException {
+                int read = in.read(buffer, off, len);
+                if (read < 0) {
+                    throw new IOException("connection reset");
+                }
+                return read;
+            }
+        };
+    }
+
+    /**
+     * A server that optionally supports ranges and fails the first download after the given bytes.
+     */
+    private static class FakeServer implements CodeArchiveCache.Downloader {
+        final byte[] content;
+        final int failAfter;
+        final boolean supportsRanges;
+        final List<Long> requests = new ArrayList<>();
+
+        FakeServer(byte[] content, int failAfter, boolean supportsRanges) {
+            this.content = content;
+            this.failAfter = failAfter;
+            this.supportsRanges = supportsRanges;
+        }
+
+        @Override
+        public HttpResponse<InputStream> download(long offset) {
+            requests.add(offset);
+            final int start = supportsRanges ? (int) offset : 0;
+            if (requests.size() == 1 && failAfter > 0) {
+                return response(200, failingAfter(content, failAfter));
+            }
+            return response(
+                    supportsRanges && offset > 0 ? 206 : 200,
+                    new ByteArrayInputStream(content, start, content.length - start));
+        }
+    }
+
+    @Test
+    void testDownloadOnce(@TempDir Path directory) throws Exception {
+        byte[] content = archive(1000);
+        FakeServer server = new FakeServer(content, 0, true);
+        CodeArchiveCache cache = new CodeArchiveCache(directory, 0, 0);
+        for (int i = 0; i < 3; i++) {
+            try (InputStream in = cache.open("tenant", "archive", server)) {
+                assertArrayEquals(content, in.readAllBytes());
+            }
+        }
+        assertEquals(List.of(0L), server.requests);
+
+        // the key depends on the tenant
+        try (InputStream in = cache.open("other-tenant", "archive", server)) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+        assertEquals(List.of(0L, 0L), server.requests);
+    }
+
+    @Test
+    void testResumeDownload(@TempDir Path directory) throws Exception {
+        byte[] content = archive(1000);
+        FakeServer server = new FakeServer(content, 300, true);
+        CodeArchiveCache cache = new CodeArchiveCache(directory, 0, 0);
+        try (InputStream in = cache.open("tenant", "archive", server)) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+        assertEquals(List.of(0L, 300L), server.requests);
+        try (var files = Files.list(directory)) {
+            assertFalse(files.anyMatch(p -> p.toString().endsWith(".part")));
+        }
+    }
+
+    @Test
+    void testServerWithoutRanges(@TempDir Path directory) throws Exception {
+        byte[] content = archive(1000);
+        FakeServer server = new FakeServer(content, 300, false);
+        CodeArchiveCache cache = new CodeArchiveCache(directory, 0, 0);
+        try (InputStream in = cache.open("tenant", "archive", server)) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+        assertEquals(List.of(0L, 300L), server.requests);
+    }
+
+    @Test
+    void testEvictLeastRecentlyUsed(@TempDir Path directory) throws Exception {
+        CodeArchiveCache cache = new CodeArchiveCache(directory, 2500, 0);
+        byte[] content = archive(1000);
+        for (String id : Arrays.asList("a", "b", "c")) {
+            cache.open("tenant", id, new FakeServer(content, 0, true)).close();
+            Thread.sleep(10);
+        }
+        Path a = directory.resolve(CodeArchiveCache.computeKey("tenant", "a") + ".zip");
+        Path b = directory.resolve(CodeArchiveCache.computeKey("tenant", "b") + ".zip");
+        Path c = directory.resolve(CodeArchiveCache.computeKey("tenant", "c") + ".zip");
+        assertFalse(Files.exists(a));
+        assertTrue(Files.exists(b));
+        assertTrue(Files.exists(c));
+
+        // b is used again, so c is evicted instead
+        Thread.sleep(10);
+        cache.open("tenant", "b", new FakeServer(content, 0, true)).close();
+        Thread.sleep(10);
+        cache.open("tenant", "d", new FakeServer(content, 0, true)).close();
+        assertTrue(Files.exists(b));
+        assertFalse(Files.exists(c));
+    }
+}
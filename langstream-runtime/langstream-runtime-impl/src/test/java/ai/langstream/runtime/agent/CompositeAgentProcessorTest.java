@@ -0,0 +1,160 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.runtime.agent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ai.langstream.api.runner.code.AbstractAgentCode;
+import ai.langstream.api.runner.code.AgentProcessor;
+import ai.langstream.api.runner.code.Record;
+import ai.langstream.api.runner.code.RecordSink;
+import ai.langstream.api.runner.code.SimpleRecord;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+
+class CompositeAgentProcessorTest {
+
+    @Test
+    void testBatchIsPassedThroughTheChain() throws Exception {
+        SplitProcessor splitter = new SplitProcessor();
+        RecordingProcessor second = new RecordingProcessor(Set.of());
+        CompositeAgentProcessor composite = buildComposite(true, splitter, second);
+
+        List<Record> source = List.of(SimpleRecord.of("k1", "a b"), SimpleRecord.of("k2", "c d e"));
+        List<AgentProcessor.SourceRecordAndResult> results = new CopyOnWriteArrayList<>();
+        composite.process(source, results::add);
+
+        // each step sees the whole batch
+        assertEquals(List.of(2), splitter.batchSizes);
+        assertEquals(List.of(5), second.batchSizes);
+
+        assertEquals(2, results.size());
+        AgentProcessor.SourceRecordAndResult first = findResult(results, source.get(0));
+        assertNull(first.error());
+        assertEquals(List.of("a", "b"), first.resultRecords().stream().map(Record::value).toList());
+        AgentProcessor.SourceRecordAndResult other = findResult(results, source.get(1));
+        assertNull(other.error());
+        assertEquals(
+                List.of("c", "d", "e"), other.resultRecords().stream().map(Record::value).toList());
+    }
+
+    @Test
+    void testErrorsAreReportedPerSourceRecord() throws Exception {
+        SplitProcessor splitter = new SplitProcessor();
+        RecordingProcessor second = new RecordingProcessor(Set.of("d"));
+        RecordingProcessor third = new RecordingProcessor(Set.of());
+        CompositeAgentProcessor composite = buildComposite(true, splitter, second, third);
+
+        List<Record> source =
+                List.of(
+                        SimpleRecord.of("k1", "a b"),
+                        SimpleRecord.of("k2", "c d e"),
+                        SimpleRecord.of("k3", ""));
+        List<AgentProcessor.SourceRecordAndResult> results = new CopyOnWriteArrayList<>();
+        composite.process(source, results::add);
+
+        assertEquals(3, results.size());
+        assertEquals(2, findResult(results, source.get(0)).resultRecords().size());
+        assertNotNull(findResult(results, source.get(1)).error());
+        assertTrue(findResult(results, source.get(2)).resultRecords().isEmpty());
+
+        // the records of the failed source record are not passed to the next step
+        assertEquals(List.of(2), third.batchSizes);
+    }
+
+    @Test
+    void testRecordByRecord() throws Exception {
+        SplitProcessor splitter = new SplitProcessor();
+        RecordingProcessor second = new RecordingProcessor(Set.of());
+        CompositeAgentProcessor composite = buildComposite(false, splitter, second);
+
+        List<Record> source = List.of(SimpleRecord.of("k1", "a b"), SimpleRecord.of("k2", "c d e"));
+        List<AgentProcessor.SourceRecordAndResult> results = new CopyOnWriteArrayList<>();
+        composite.process(source, results::add);
+
+        assertEquals(List.of(1, 1), splitter.batchSizes);
+        assertEquals(List.of(2, 3), second.batchSizes);
+        assertEquals(2, results.size());
+    }
+
+    private static AgentProcessor.SourceRecordAndResult findResult(
+            List<AgentProcessor.SourceRecordAndResult> results, Record sourceRecord) {
+        return results.stream()
+                .filter(r -> r.sourceRecord() == sourceRecord)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static CompositeAgentProcessor buildComposite(
+            boolean batchProcessing, AgentProcessor... processors) throws Exception {
+        CompositeAgentProcessor composite = new CompositeAgentProcessor();
+        composite.init(Map.of("batch-processing", batchProcessing));
+        composite.getProcessors().addAll(List.of(processors));
+        return composite;
+    }
+
+    /** Splits the value of each record on spaces. */
+    private static class SplitProcessor extends AbstractAgentCode implements AgentProcessor {
+        final List<Integer> batchSizes = new ArrayList<>();
+
+        @Override
+        public void process(List<Record> records, RecordSink recordSink) {
+            batchSizes.add(records.size());
+            for (Record record : records) {
+                String value = (String) record.value();
+                List<Record> result = new ArrayList<>();
+                if (!value.isEmpty()) {
+                    for (String part : value.split(" ")) {
+                        result.add(SimpleRecord.copyFrom(record).value(part).build());
+                    }
+                }
+                recordSink.emit(new SourceRecordAndResult(record, result, null));
+            }
+        }
+    }
+
+    private static class RecordingProcessor extends AbstractAgentCode implements AgentProcessor {
+        final List<Integer> batchSizes = new ArrayList<>();
+        final Set<String> failOnContent;
+
+        RecordingProcessor(Set<String> failOnContent) {
+            this.failOnContent = failOnContent;
+        }
+
+        @Override
+        public void process(List<Record> records, RecordSink recordSink) {
+            batchSizes.add(records.size());
+            // emit the results in reverse order, like an asynchronous processor could do
+            for (int i = records.size() - 1; i >= 0; i--) {
+                Record record = records.get(i);
+                if (failOnContent.contains((String) record.value())) {
+                    recordSink.emit(
+                            new SourceRecordAndResult(
+                                    record, null, new RuntimeException("Failed on " + record)));
+                } else {
+                    recordSink.emit(new SourceRecordAndResult(record, List.of(record), null));
+                }
+            }
+        }
+    }
+}
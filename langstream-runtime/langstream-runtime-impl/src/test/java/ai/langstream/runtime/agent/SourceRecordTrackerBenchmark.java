@@ -0,0 +1,135 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.langstream.runtime.agent;
+
+import ai.langstream.api.runner.code.AbstractAgentCode;
+import ai.langstream.api.runner.code.AgentProcessor;
+import ai.langstream.api.runner.code.AgentSource;
+import ai.langstream.api.runner.code.Record;
+import ai.langstream.api.runner.code.SimpleRecord;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of tracking and committing one source record with a given number of records in
+ * flight. The cost per operation is expected to be flat as the in-flight depth grows.
+ *
+ * <p>Run it with: {@code java -cp <test classpath>
+ * ai.langstream.runtime.agent.SourceRecordTrackerBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SourceRecordTrackerBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    int inFlight;
+
+    /** Number of sink records generated by each source record (text-splitter like fan-out). */
+    @Param({"1", "4"})
+    int fanOut;
+
+    private SourceRecordTracker tracker;
+    private final ArrayDeque<List<Record>> pending = new ArrayDeque<>();
+    private long sequence;
+
+    private static class NoopSource extends AbstractAgentCode implements AgentSource {
+        Blackhole blackhole;
+
+        @Override
+        public List<Record> read() {
+            return List.of();
+        }
+
+        @Override
+        public void commit(List<Record> records) {
+            blackhole.consume(records);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setup(Blackhole blackhole) {
+        NoopSource source = new NoopSource();
+        source.blackhole = blackhole;
+        tracker = new SourceRecordTracker(source);
+        pending.clear();
+        for (int i = 0; i < inFlight; i++) {
+            pending.add(trackNewRecord());
+        }
+    }
+
+    private List<Record> trackNewRecord() {
+        Record sourceRecord = SimpleRecord.of("key", "source-" + sequence++);
+        Record[] sinkRecords = new Record[fanOut];
+        for (int i = 0; i < fanOut; i++) {
+            sinkRecords[i] = SimpleRecord.copyFrom(sourceRecord).value("chunk-" + i).build();
+        }
+        List<Record> result = List.of(sinkRecords);
+        tracker.track(
+                List.of(new AgentProcessor.SourceRecordAndResult(sourceRecord, result, null)));
+        return result;
+    }
+
+    /** The sink completes the records in the same order they have been read from the source. */
+    @Benchmark
+    public void completeInOrder() {
+        pending.add(trackNewRecord());
+        tracker.commit(pending.poll());
+    }
+
+    /**
+     * The sink completes the newest record first, the oldest record is completed last so the
+     * watermark advances only once every {@code inFlight} operations.
+     */
+    @Benchmark
+    public void completeOutOfOrder() {
+        if (pending.size() <= 1) {
+            tracker.commit(pending.poll());
+            for (int i = 0; i < inFlight; i++) {
+                pending.add(trackNewRecord());
+            }
+        } else {
+            tracker.commit(pending.pollLast());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(
+                        new OptionsBuilder()
+                                .include(SourceRecordTrackerBenchmark.class.getSimpleName())
+                                .build())
+                .run();
+    }
+}
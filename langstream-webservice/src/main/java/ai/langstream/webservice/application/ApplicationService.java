@@ -123,7 +123,7 @@ public class ApplicationService {
 
         for (Map.Entry<String, AgentNode> agent : executionPlan.getAgents().entrySet()) {
             final ResourcesSpec resources = agent.getValue().getResources();
-            requestedUnits += resources.size() * resources.parallelism();
+            requestedUnits += resources.size() * resources.maxReplicas();
         }
         return requestedUnits;
     }